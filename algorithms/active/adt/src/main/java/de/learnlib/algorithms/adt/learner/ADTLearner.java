@@ -31,6 +31,7 @@ import de.learnlib.algorithms.adt.automaton.ADTTransition;
 import de.learnlib.algorithms.adt.config.ADTExtenders;
 import de.learnlib.algorithms.adt.config.LeafSplitters;
 import de.learnlib.algorithms.adt.config.SubtreeReplacers;
+import de.learnlib.algorithms.adt.learner.ParallelSifter.SiftResult;
 import de.learnlib.algorithms.adt.model.ExtensionResult;
 import de.learnlib.algorithms.adt.model.ObservationTree;
 import de.learnlib.algorithms.adt.model.ReplacementResult;
@@ -50,8 +51,10 @@ import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
 import net.automatalib.words.impl.Alphabets;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 /**
@@ -78,6 +81,7 @@ public class ADTLearner<I, O> implements LearningAlgorithm.MealyLearner<I, O>,
     private final Queue<DefaultQuery<I, Word<O>>> openCounterExamples;
     private final Set<DefaultQuery<I, Word<O>>> allCounterExamples;
     private final ObservationTree<ADTState<I, O>, I, O> observationTree;
+    private final ParallelSifter<I, O> sifter;
     private ADTHypothesis<I, O> hypothesis;
     private ADT<ADTState<I, O>, I, O> adt;
 
@@ -89,17 +93,62 @@ public class ADTLearner<I, O> implements LearningAlgorithm.MealyLearner<I, O>,
         this(alphabet, oracle,leafSplitter, adtExtender, subtreeReplacer, true);
     }
 
-    @GenerateBuilder(defaults = BuilderDefaults.class)
     public ADTLearner(final Alphabet<I> alphabet,
                       final SymbolQueryOracle<I, O> oracle,
                       final LeafSplitter leafSplitter,
                       final ADTExtender adtExtender,
                       final SubtreeReplacer subtreeReplacer,
                       final boolean useObservationTree) {
+        this(alphabet,
+             oracle,
+             leafSplitter,
+             adtExtender,
+             subtreeReplacer,
+             useObservationTree,
+             Collections.emptyList(),
+             null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param oracle
+     *         the symbol query oracle used for learning
+     * @param leafSplitter
+     *         the strategy for splitting leaves of the ADT
+     * @param adtExtender
+     *         the strategy for extending temporary ADSs
+     * @param subtreeReplacer
+     *         the strategy for replacing subtrees of the ADT
+     * @param useObservationTree
+     *         whether to answer queries from the observation tree where possible
+     * @param siftOracles
+     *         independent symbol query oracles (e.g. on forks of the system under learning) used for closing open
+     *         transitions concurrently. If empty, transitions are closed one after another using {@code oracle}. The
+     *         learned hypotheses are the same in both cases.
+     * @param siftExecutor
+     *         the executor in which all but one of the given {@code siftOracles} are used (the remaining one is used in
+     *         the calling thread). Required if more than one sift oracle is given. The executor is not shut down by the
+     *         learner, i.e. its life-cycle is managed by the caller.
+     */
+    @GenerateBuilder(defaults = BuilderDefaults.class)
+    public ADTLearner(final Alphabet<I> alphabet,
+                      final SymbolQueryOracle<I, O> oracle,
+                      final LeafSplitter leafSplitter,
+                      final ADTExtender adtExtender,
+                      final SubtreeReplacer subtreeReplacer,
+                      final boolean useObservationTree,
+                      final List<? extends SymbolQueryOracle<I, O>> siftOracles,
+                      final ExecutorService siftExecutor) {
 
         this.alphabet = alphabet;
         this.observationTree = new ObservationTree<>(this.alphabet);
         this.oracle = new SQOOTBridge<>(this.observationTree, oracle, useObservationTree);
+        this.sifter = siftOracles.isEmpty() ?
+                null :
+                new ParallelSifter<>(this.observationTree, siftOracles, siftExecutor, useObservationTree);
 
         this.leafSplitter = leafSplitter;
         this.adtExtender = adtExtender;
@@ -280,8 +329,42 @@ public class ADTLearner<I, O> implements LearningAlgorithm.MealyLearner<I, O>,
      * Close all pending open transitions.
      */
     private void closeTransitions() {
+        if (this.sifter == null) {
+            while (!this.openTransitions.isEmpty()) {
+                this.closeTransition(this.openTransitions.poll());
+            }
+        } else {
+            while (!this.openTransitions.isEmpty()) {
+                this.closeTransitionsInParallel();
+            }
+        }
+    }
+
+    /**
+     * Close all currently open transitions by means of sifting them concurrently through the ADT. Transitions of newly
+     * discovered states are queued for the next round. Since the sift results are merged in the order of the queue,
+     * states are discovered in the same order as when closing the transitions one after another.
+     */
+    private void closeTransitionsInParallel() {
+
+        final List<ADTTransition<I, O>> round = new ArrayList<>(this.openTransitions.size());
+        final Set<ADTTransition<I, O>> scheduled = new HashSet<>();
+
         while (!this.openTransitions.isEmpty()) {
-            this.closeTransition(this.openTransitions.poll());
+            final ADTTransition<I, O> transition = this.openTransitions.poll();
+            if (transition.needsSifting() && scheduled.add(transition)) {
+                round.add(transition);
+            }
+        }
+
+        final List<SiftResult<I, O>> results = this.sifter.sift(round);
+
+        for (int i = 0; i < round.size(); i++) {
+            final ADTTransition<I, O> transition = round.get(i);
+            final SiftResult<I, O> result = results.get(i);
+
+            transition.setOutput(result.getTransitionOutput());
+            this.closeTransition(transition, result.merge(this.observationTree));
         }
     }
 
@@ -311,8 +394,23 @@ public class ADTLearner<I, O> implements LearningAlgorithm.MealyLearner<I, O>,
         final ADTNode<ADTState<I, O>, I, O> finalNode =
                 this.adt.sift(this.oracle, longPrefix, transition.getSiftNode());
 
+        this.closeTransition(transition, finalNode);
+    }
+
+    /**
+     * Close the given transition by pointing it to the hypothesis state of the given leaf. If the leaf has no
+     * associated hypothesis state yet, a new state is discovered.
+     *
+     * @param transition
+     *         the transition to close
+     * @param finalNode
+     *         the leaf reached by sifting the long prefix of the transition
+     */
+    private void closeTransition(final ADTTransition<I, O> transition, final ADTNode<ADTState<I, O>, I, O> finalNode) {
+
         assert ADTUtil.isLeafNode(finalNode);
 
+        final Word<I> longPrefix = transition.getSource().getAccessSequence().append(transition.getInput());
         final ADTState<I, O> targetState;
 
         // new state discovered while sifting
@@ -825,5 +923,14 @@ public class ADTLearner<I, O> implements LearningAlgorithm.MealyLearner<I, O>,
         public static boolean useObservationTree() {
             return true;
         }
+
+        public static <I, O> List<SymbolQueryOracle<I, O>> siftOracles() {
+            return Collections.emptyList();
+        }
+
+        @Nullable
+        public static ExecutorService siftExecutor() {
+            return null;
+        }
     }
 }
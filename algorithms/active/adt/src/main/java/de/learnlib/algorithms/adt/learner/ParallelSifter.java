@@ -0,0 +1,310 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.adt.learner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import de.learnlib.algorithms.adt.adt.ADTLeafNode;
+import de.learnlib.algorithms.adt.adt.ADTNode;
+import de.learnlib.algorithms.adt.automaton.ADTState;
+import de.learnlib.algorithms.adt.automaton.ADTTransition;
+import de.learnlib.algorithms.adt.model.ObservationTree;
+import de.learnlib.algorithms.adt.util.ADTUtil;
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.oracle.parallelism.ParallelOracleInterruptedException;
+import net.automatalib.automata.transducers.impl.FastMealy;
+import net.automatalib.automata.transducers.impl.FastMealyState;
+import net.automatalib.commons.util.Pair;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Sifts batches of open transitions concurrently through the ADT, using a pool of independent symbol query oracles.
+ * <p>
+ * Sifting does not modify the ADT or the observation tree, so that the workers only need read access to shared data.
+ * Instead, each {@link SiftResult} records the queried traces and, if the sift ended in a missing child of a symbol
+ * node, the output leading into it. Results are merged by the learner (see {@link SiftResult#merge(ObservationTree)})
+ * in the order of the sifted transitions, which yields the same hypothesis as sifting them one after another. All
+ * but the first worker run in an executor that is provided (and shut down) by the caller.
+ *
+ * @param <I>
+ *         input alphabet type
+ * @param <O>
+ *         output alphabet type
+ */
+final class ParallelSifter<I, O> {
+
+    private final List<Worker<I, O>> workers;
+    @Nullable
+    private final ExecutorService executor;
+
+    ParallelSifter(final ObservationTree<?, I, O> observationTree,
+                   final List<? extends SymbolQueryOracle<I, O>> oracles,
+                   final @Nullable ExecutorService executor,
+                   final boolean enableCache) {
+
+        if (oracles.size() > 1 && executor == null) {
+            throw new IllegalArgumentException("An executor is required for sifting with multiple oracles");
+        }
+
+        this.workers = new ArrayList<>(oracles.size());
+        for (final SymbolQueryOracle<I, O> oracle : oracles) {
+            this.workers.add(new Worker<>(observationTree.getObservationTree(), oracle, enableCache));
+        }
+
+        // the first worker sifts in the calling thread
+        this.executor = executor;
+    }
+
+    /**
+     * Sifts the given transitions (starting at their respective sift nodes) and computes their outputs.
+     *
+     * @param transitions
+     *         the transitions to sift
+     *
+     * @return the sift results, in the order of the given transitions
+     */
+    List<SiftResult<I, O>> sift(final List<ADTTransition<I, O>> transitions) {
+
+        final int numWorkers = Math.min(this.workers.size(), transitions.size());
+        @SuppressWarnings("unchecked")
+        final SiftResult<I, O>[] results = new SiftResult[transitions.size()];
+        final List<Future<?>> futures = new ArrayList<>(numWorkers - 1);
+
+        // distribute transitions round-robin, as transitions of the same source state tend to be adjacent
+        for (int w = 1; w < numWorkers; w++) {
+            final Worker<I, O> worker = this.workers.get(w);
+            final int offset = w;
+            futures.add(this.executor.submit(() -> worker.sift(transitions, results, offset, numWorkers)));
+        }
+
+        this.workers.get(0).sift(transitions, results, 0, numWorkers);
+
+        try {
+            for (final Future<?> f : futures) {
+                f.get();
+            }
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AssertionError("Runnable must not throw checked exceptions", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ParallelOracleInterruptedException(ex);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * The outcome of sifting a single transition.
+     *
+     * @param <I>
+     *         input alphabet type
+     * @param <O>
+     *         output alphabet type
+     */
+    static final class SiftResult<I, O> {
+
+        private final O transitionOutput;
+        private final ADTNode<ADTState<I, O>, I, O> node;
+        private final O missingOutput;
+        private final List<Pair<Word<I>, Word<O>>> traces;
+
+        SiftResult(final O transitionOutput,
+                   final ADTNode<ADTState<I, O>, I, O> node,
+                   final O missingOutput,
+                   final List<Pair<Word<I>, Word<O>>> traces) {
+            this.transitionOutput = transitionOutput;
+            this.node = node;
+            this.missingOutput = missingOutput;
+            this.traces = traces;
+        }
+
+        O getTransitionOutput() {
+            return transitionOutput;
+        }
+
+        /**
+         * Stores the queried traces in the given observation tree and returns the leaf reached by the sift. If the sift
+         * ended in a missing child of a symbol node, the child is created (unless a previously merged result already
+         * did so) just like {@link ADTNode#sift(SymbolQueryOracle, Word)} would.
+         *
+         * @param observationTree
+         *         the observation tree to store the traces in
+         *
+         * @return the leaf reached by the sift
+         */
+        ADTNode<ADTState<I, O>, I, O> merge(final ObservationTree<ADTState<I, O>, I, O> observationTree) {
+
+            for (final Pair<Word<I>, Word<O>> trace : this.traces) {
+                observationTree.addTrace(trace.getFirst(), trace.getSecond());
+            }
+
+            if (ADTUtil.isLeafNode(this.node)) {
+                return this.node;
+            }
+
+            final ADTNode<ADTState<I, O>, I, O> successor = this.node.getChildren().get(this.missingOutput);
+
+            if (successor != null) {
+                return successor;
+            }
+
+            final ADTNode<ADTState<I, O>, I, O> result = new ADTLeafNode<>(this.node, null);
+            this.node.getChildren().put(this.missingOutput, result);
+            return result;
+        }
+    }
+
+    /**
+     * A symbol query oracle that answers queries from a (read-only) observation tree where possible and records the
+     * traces it had to delegate, so that they can be stored in the observation tree later on.
+     */
+    private static final class Worker<I, O> implements SymbolQueryOracle<I, O> {
+
+        private final FastMealy<I, O> observationTree;
+        private final SymbolQueryOracle<I, O> delegate;
+        private final boolean enableCache;
+
+        private final WordBuilder<I> inputs;
+        private final WordBuilder<O> outputs;
+        private List<Pair<Word<I>, Word<O>>> traces;
+        private FastMealyState<O> currentState;
+        private boolean delegated;
+
+        Worker(final FastMealy<I, O> observationTree,
+               final SymbolQueryOracle<I, O> delegate,
+               final boolean enableCache) {
+            this.observationTree = observationTree;
+            this.delegate = delegate;
+            this.enableCache = enableCache;
+            this.inputs = new WordBuilder<>();
+            this.outputs = new WordBuilder<>();
+        }
+
+        void sift(final List<ADTTransition<I, O>> transitions,
+                  final SiftResult<I, O>[] results,
+                  final int offset,
+                  final int stride) {
+            for (int i = offset; i < transitions.size(); i += stride) {
+                results[i] = this.sift(transitions.get(i));
+            }
+        }
+
+        private SiftResult<I, O> sift(final ADTTransition<I, O> transition) {
+
+            final Word<I> accessSequence = transition.getSource().getAccessSequence();
+            final I symbol = transition.getInput();
+
+            this.traces = this.enableCache ? new ArrayList<>() : Collections.emptyList();
+            this.reset();
+            for (final I i : accessSequence) {
+                this.query(i);
+            }
+
+            final O transitionOutput = this.query(symbol);
+            final Word<I> longPrefix = accessSequence.append(symbol);
+
+            ADTNode<ADTState<I, O>, I, O> current = transition.getSiftNode();
+            O missingOutput = null;
+
+            while (!ADTUtil.isLeafNode(current)) {
+                if (ADTUtil.isResetNode(current)) {
+                    current = current.sift(this, longPrefix);
+                } else {
+                    final O output = this.query(current.getSymbol());
+                    final ADTNode<ADTState<I, O>, I, O> successor = current.getChildren().get(output);
+
+                    if (successor == null) {
+                        missingOutput = output;
+                        break;
+                    }
+
+                    current = successor;
+                }
+            }
+
+            this.flush();
+
+            return new SiftResult<>(transitionOutput, current, missingOutput, this.traces);
+        }
+
+        @Override
+        public O query(I i) {
+
+            if (this.currentState != null) {
+                final FastMealyState<O> succ = this.observationTree.getSuccessor(this.currentState, i);
+
+                if (succ != null) {
+                    final O output = this.observationTree.getOutput(this.currentState, i);
+                    this.inputs.append(i);
+                    this.outputs.append(output);
+                    this.currentState = succ;
+                    return output;
+                }
+
+                this.currentState = null;
+                this.delegate.reset();
+
+                for (final I trace : this.inputs) {
+                    this.delegate.query(trace);
+                }
+            }
+
+            final O output = this.delegate.query(i);
+
+            if (this.enableCache) {
+                this.inputs.append(i);
+                this.outputs.append(output);
+                this.delegated = true;
+            }
+
+            return output;
+        }
+
+        @Override
+        public void reset() {
+            this.flush();
+
+            if (this.enableCache) {
+                this.inputs.clear();
+                this.outputs.clear();
+                this.currentState = this.observationTree.getInitialState();
+            } else {
+                this.delegate.reset();
+            }
+        }
+
+        private void flush() {
+            if (this.delegated) {
+                this.traces.add(Pair.of(this.inputs.toWord(), this.outputs.toWord()));
+                this.delegated = false;
+            }
+        }
+    }
+}
@@ -112,6 +112,18 @@ public class ObservationTree<S, I, O> {
         this.addTrace(this.nodeToObservationMap.get(state), input, output);
     }
 
+    /**
+     * Store input/output information about the system under learning, starting in its initial state.
+     *
+     * @param input
+     *         the input sequence applied when in the initial state
+     * @param output
+     *         the observed output sequence
+     */
+    public void addTrace(final Word<I> input, final Word<O> output) {
+        this.addTrace(this.observationTree.getInitialState(), input, output);
+    }
+
     private FastMealyState<O> addTrace(final FastMealyState<O> state, final Word<I> input, final Word<O> output) {
 
         assert input.length() == output.length() : "Traces differ in length";
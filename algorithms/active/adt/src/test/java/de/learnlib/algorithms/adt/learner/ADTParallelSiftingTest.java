@@ -0,0 +1,144 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.adt.learner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.learnlib.algorithms.adt.automaton.ADTHypothesis;
+import de.learnlib.algorithms.adt.automaton.ADTState;
+import de.learnlib.api.SUL;
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.oracle.membership.SULSymbolQueryOracle;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that closing transitions concurrently yields the same hypotheses as closing them sequentially.
+ */
+public class ADTParallelSiftingTest {
+
+    private static final int NUM_ORACLES = 4;
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(1, 5);
+    private final MealyMachine<?, Integer, ?, Character> target =
+            RandomAutomata.randomMealy(new Random(42), 50, alphabet, Alphabets.characters('a', 'c'));
+
+    @DataProvider
+    public static Object[][] useObservationTree() {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "useObservationTree")
+    public void testDeterministicMerge(final boolean useObservationTree) {
+
+        final MealySimulatorSUL<Integer, Character> sul = new MealySimulatorSUL<>(target);
+        final List<CountingOracle> siftOracles = new ArrayList<>(NUM_ORACLES);
+
+        for (int i = 0; i < NUM_ORACLES; i++) {
+            siftOracles.add(new CountingOracle(sul.fork()));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_ORACLES - 1);
+        final ADTLearner<Integer, Character> sequential = learn(Collections.emptyList(), null, useObservationTree);
+        final ADTLearner<Integer, Character> parallel;
+
+        try {
+            parallel = learn(siftOracles, executor, useObservationTree);
+        } finally {
+            executor.shutdown();
+        }
+
+        final ADTHypothesis<Integer, Character> sequentialHyp = sequential.suspend().getHypothesis();
+        final ADTHypothesis<Integer, Character> parallelHyp = parallel.suspend().getHypothesis();
+
+        Assert.assertEquals(parallelHyp.size(), sequentialHyp.size());
+        Assert.assertTrue(Automata.testEquivalence(target, parallelHyp, alphabet));
+
+        // states have been discovered in the same order via the same access sequences
+        final List<ADTState<Integer, Character>> sequentialStates = new ArrayList<>(sequentialHyp.getStates());
+        final List<ADTState<Integer, Character>> parallelStates = new ArrayList<>(parallelHyp.getStates());
+
+        for (int i = 0; i < sequentialStates.size(); i++) {
+            Assert.assertEquals(parallelStates.get(i).getId(), sequentialStates.get(i).getId());
+            Assert.assertEquals(parallelStates.get(i).getAccessSequence(),
+                                sequentialStates.get(i).getAccessSequence());
+        }
+
+        for (final CountingOracle oracle : siftOracles) {
+            Assert.assertTrue(oracle.queries > 0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMissingExecutor() {
+        final MealySimulatorSUL<Integer, Character> sul = new MealySimulatorSUL<>(target);
+        learn(Arrays.asList(new CountingOracle(sul.fork()), new CountingOracle(sul.fork())), null, true);
+    }
+
+    private ADTLearner<Integer, Character> learn(final List<? extends SymbolQueryOracle<Integer, Character>> oracles,
+                                                 final @Nullable ExecutorService executor,
+                                                 final boolean useObservationTree) {
+
+        final ADTLearnerBuilder<Integer, Character> builder = new ADTLearnerBuilder<>();
+        builder.setAlphabet(alphabet);
+        builder.setOracle(new SULSymbolQueryOracle<>(new MealySimulatorSUL<>(target)));
+        builder.setUseObservationTree(useObservationTree);
+        builder.setSiftOracles(oracles);
+        builder.setSiftExecutor(executor);
+
+        final ADTLearner<Integer, Character> learner = builder.create();
+
+        learner.startLearning();
+
+        Word<Integer> ce;
+        while ((ce = Automata.findSeparatingWord(target, learner.getHypothesisModel(), alphabet)) != null) {
+            learner.refineHypothesis(new DefaultQuery<>(ce, target.computeOutput(ce)));
+        }
+
+        return learner;
+    }
+
+    private static final class CountingOracle extends SULSymbolQueryOracle<Integer, Character> {
+
+        private int queries;
+
+        CountingOracle(final SUL<Integer, Character> sul) {
+            super(sul);
+        }
+
+        @Override
+        public Character query(Integer i) {
+            queries++;
+            return super.query(i);
+        }
+    }
+}
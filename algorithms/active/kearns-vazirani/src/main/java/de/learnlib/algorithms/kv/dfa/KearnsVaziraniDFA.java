@@ -17,6 +17,7 @@ package de.learnlib.algorithms.kv.dfa;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
@@ -420,6 +421,72 @@ public class KearnsVaziraniDFA<I>
             return true;
         }
 
+        /**
+         * Sifts the prefixes of all given indices through the discrimination tree simultaneously, posing one batch of
+         * queries per tree level.
+         */
+        @Override
+        protected List<Boolean> computeEffectsBatched(int[] indices) {
+            final int n = indices.length;
+            final List<Word<I>> prefixes = new ArrayList<>(n);
+            final List<Deque<Boolean>> expects = new ArrayList<>(n);
+            final List<AbstractWordBasedDTNode<I, Boolean, StateInfo<I, Boolean>>> currNodes = new ArrayList<>(n);
+            final Boolean[] results = new Boolean[n];
+
+            for (int index : indices) {
+                AbstractWordBasedDTNode<I, Boolean, StateInfo<I, Boolean>> node = states[index].dtNode;
+                Deque<Boolean> expect = new ArrayDeque<>();
+                while (!node.isRoot()) {
+                    expect.push(node.getParentOutcome());
+                    node = node.getParent();
+                }
+                prefixes.add(ceWord.prefix(index));
+                expects.add(expect);
+                currNodes.add(discriminationTree.getRoot());
+            }
+
+            final List<DefaultQuery<I, Boolean>> queries = new ArrayList<>(n);
+            final List<Integer> active = new ArrayList<>(n);
+
+            while (true) {
+                queries.clear();
+                active.clear();
+
+                for (int j = 0; j < n; j++) {
+                    if (results[j] == null) {
+                        if (expects.get(j).isEmpty()) {
+                            assert currNodes.get(j).isLeaf();
+                            results[j] = true;
+                        } else {
+                            queries.add(new DefaultQuery<>(prefixes.get(j), currNodes.get(j).getDiscriminator()));
+                            active.add(j);
+                        }
+                    }
+                }
+
+                if (queries.isEmpty()) {
+                    break;
+                }
+
+                oracle.processQueries(queries);
+
+                for (int q = 0; q < queries.size(); q++) {
+                    final int j = active.get(q);
+                    final Boolean out = queries.get(q).getOutput();
+                    final Boolean e = expects.get(j).pop();
+                    final AbstractWordBasedDTNode<I, Boolean, StateInfo<I, Boolean>> currNode = currNodes.get(j);
+                    if (!out.equals(e)) {
+                        lcas[indices[j]] = new LCAInfo<>(currNode, !out, out);
+                        results[j] = false;
+                    } else {
+                        currNodes.set(j, currNode.child(out));
+                    }
+                }
+            }
+
+            return Arrays.asList(results);
+        }
+
         @Override
         public boolean checkEffects(Boolean eff1, Boolean eff2) {
             return !eff1 || eff2;
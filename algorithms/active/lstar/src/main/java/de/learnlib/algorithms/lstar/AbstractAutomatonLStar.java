@@ -207,6 +207,8 @@ public abstract class AbstractAutomatonLStar<A, I, D, S, T, SP, TP, AI extends M
     public void resume(final AutomatonLStarState<I, D, AI, S> state) {
         this.table = state.getObservationTable();
         this.table.setInputAlphabet(alphabet);
+        // the pending cells of lazily filled tables are serialized as such
+        this.table.completeLazyRows(oracle);
         this.internalHyp = state.getHypothesis();
         this.stateInfos = state.getStateInfos();
     }
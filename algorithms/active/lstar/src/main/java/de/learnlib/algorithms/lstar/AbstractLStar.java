@@ -31,6 +31,8 @@ import de.learnlib.datastructure.observationtable.Inconsistency;
 import de.learnlib.datastructure.observationtable.OTLearner;
 import de.learnlib.datastructure.observationtable.ObservationTable;
 import de.learnlib.datastructure.observationtable.Row;
+import de.learnlib.setting.LearnLibProperty;
+import de.learnlib.setting.LearnLibSettings;
 import de.learnlib.util.MQUtil;
 import net.automatalib.SupportsGrowingAlphabet;
 import net.automatalib.automata.concepts.SuffixOutput;
@@ -57,6 +59,15 @@ import net.automatalib.words.impl.Alphabets;
 public abstract class AbstractLStar<A, I, D>
         implements OTLearner<A, I, D>, GlobalSuffixLearner<A, I, D>, SupportsGrowingAlphabet<I> {
 
+    private static final boolean COMPACT_TABLE;
+    private static final boolean LAZY_TABLE;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+        COMPACT_TABLE = settings.getBool(LearnLibProperty.OBSERVATION_TABLE_COMPACT, false);
+        LAZY_TABLE = settings.getBool(LearnLibProperty.OBSERVATION_TABLE_LAZY, false);
+    }
+
     protected final Alphabet<I> alphabet;
     protected final MembershipOracle<I, D> oracle;
     protected AbstractObservationTable<I, D> table;
@@ -72,7 +83,7 @@ public abstract class AbstractLStar<A, I, D>
     protected AbstractLStar(Alphabet<I> alphabet, MembershipOracle<I, D> oracle) {
         this.alphabet = alphabet;
         this.oracle = oracle;
-        this.table = new GenericObservationTable<>(alphabet);
+        this.table = new GenericObservationTable<>(alphabet, COMPACT_TABLE, LAZY_TABLE);
     }
 
     @Override
@@ -65,4 +65,34 @@ public interface ObservableSUL<S, I, O> extends SUL<I, O> {
     default boolean deepCopies() {
         return false;
     }
+
+    /**
+     * Returns whether this SUL can be {@link #restoreState(Object) restored} to previously observed states.
+     *
+     * @return {@code true} if this SUL can restore states, {@code false} otherwise
+     *
+     * @see #restoreState(Object)
+     */
+    default boolean canRestoreState() {
+        return false;
+    }
+
+    /**
+     * Restores a state that has previously been obtained via {@link #getState()} from this SUL or one of its {@link
+     * #fork() forks}, i.e. subsequent calls to {@link #step(Object)} behave as if the inputs that led to the given
+     * state had been executed. This method may only be called between calls to {@link #pre()} and {@link #post()}.
+     * <p>
+     * Implementation note: SULs that support restoring states must ensure that the states returned by {@link
+     * #getState()} remain restorable, regardless of any subsequent calls to {@link #step(Object)}, {@link #pre()}, or
+     * {@link #post()}.
+     *
+     * @param state
+     *         the state to restore
+     *
+     * @throws UnsupportedOperationException
+     *         if this SUL cannot restore states (see {@link #canRestoreState()})
+     */
+    default void restoreState(S state) {
+        throw new UnsupportedOperationException();
+    }
 }
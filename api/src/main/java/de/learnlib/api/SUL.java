@@ -16,6 +16,8 @@
 package de.learnlib.api;
 
 import de.learnlib.api.exception.SULException;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -54,6 +56,28 @@ public interface SUL<I, O> {
      */
     O step(I in);
 
+    /**
+     * Makes a sequence of steps on the SUL and returns the corresponding outputs. Semantically, this is equivalent to
+     * successively calling {@link #step(Object)} for each symbol of the given word (which is what the default
+     * implementation does). SULs for which each step is expensive (e.g., because it requires a network round trip) may
+     * override this method to execute the complete word at once.
+     *
+     * @param in
+     *         the input word
+     *
+     * @return the output word of the SUL
+     *
+     * @throws SULException
+     *         if any input symbol cannot be executed on the SUL
+     */
+    default Word<O> stepAll(Word<? extends I> in) {
+        final WordBuilder<O> wb = new WordBuilder<>(in.length());
+        for (I sym : in) {
+            wb.add(step(sym));
+        }
+        return wb.toWord();
+    }
+
     /**
      * Returns whether this SUL is capable of {@link #fork() forking}.
      *
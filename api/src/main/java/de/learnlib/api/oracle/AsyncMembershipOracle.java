@@ -0,0 +1,146 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.api.oracle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import de.learnlib.api.query.Query;
+
+/**
+ * A {@link MembershipOracle} that allows to process queries asynchronously. Instead of blocking until all queries are
+ * answered, {@link #processQueriesAsync(Collection)} returns a {@link CompletableFuture} that is completed once each of
+ * the given queries has been {@link Query#answer(Object) answered}. This allows to pipeline queries, i.e., to submit
+ * further queries while earlier ones are still being processed.
+ * <p>
+ * The synchronous {@link #processQueries(Collection)} method defaults to waiting for the completion of the
+ * asynchronous processing. Conversely, {@link #asAsync(MembershipOracle)} and {@link #asAsync(MembershipOracle,
+ * Executor)} adapt arbitrary (synchronous) membership oracles to this interface.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+@FunctionalInterface
+public interface AsyncMembershipOracle<I, D> extends MembershipOracle<I, D> {
+
+    /**
+     * Asynchronously processes the specified collection of queries. When the returned future completes normally, each
+     * of the contained queries {@link Query#answer(Object)} method has been called with an argument reflecting the SUL
+     * response to the respective query. If the processing of any query fails, the returned future completes
+     * exceptionally.
+     *
+     * @param queries
+     *         the queries to process
+     *
+     * @return a future that completes once all queries have been answered
+     */
+    CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries);
+
+    /**
+     * Asynchronously processes a single query.
+     *
+     * @param query
+     *         the query to process
+     *
+     * @return a future that completes once the query has been answered
+     *
+     * @see #processQueriesAsync(Collection)
+     */
+    default CompletableFuture<Void> processQueryAsync(Query<I, D> query) {
+        return processQueriesAsync(Collections.singleton(query));
+    }
+
+    /**
+     * Processes the given queries by waiting for the completion of {@link #processQueriesAsync(Collection)}. Runtime
+     * exceptions (and errors) of the asynchronous processing are re-thrown unwrapped.
+     *
+     * @param queries
+     *         the queries to process
+     */
+    @Override
+    default void processQueries(Collection<? extends Query<I, D>> queries) {
+        try {
+            processQueriesAsync(queries).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns an asynchronous view of the given oracle. If the given oracle already is an {@link
+     * AsyncMembershipOracle}, it is returned as-is. Otherwise, the returned oracle processes the queries synchronously
+     * in the calling thread and returns an already completed future.
+     *
+     * @param oracle
+     *         the oracle to adapt
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return an asynchronous view of the given oracle
+     */
+    @SuppressWarnings("unchecked")
+    static <I, D> AsyncMembershipOracle<I, D> asAsync(MembershipOracle<I, D> oracle) {
+        if (oracle instanceof AsyncMembershipOracle) {
+            return (AsyncMembershipOracle<I, D>) oracle;
+        }
+
+        return queries -> {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            try {
+                oracle.processQueries(queries);
+                result.complete(null);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Returns an asynchronous view of the given oracle, which processes the queries of each call to {@link
+     * #processQueriesAsync(Collection)} in the given executor.
+     * <p>
+     * Note that concurrent asynchronous calls result in concurrent (synchronous) calls to the given oracle, which
+     * therefore needs to be thread-safe, unless the given executor processes its tasks sequentially.
+     *
+     * @param oracle
+     *         the oracle to adapt
+     * @param executor
+     *         the executor in which the queries are processed
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return an asynchronous view of the given oracle
+     */
+    static <I, D> AsyncMembershipOracle<I, D> asAsync(MembershipOracle<I, D> oracle, Executor executor) {
+        return queries -> CompletableFuture.runAsync(() -> oracle.processQueries(queries), executor);
+    }
+}
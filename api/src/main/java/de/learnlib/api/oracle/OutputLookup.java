@@ -0,0 +1,42 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.api.oracle;
+
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Interface for components that can provide the output of (some) input words from previously collected information,
+ * e.g. caches, without posing queries to the system under learning.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public interface OutputLookup<I, D> {
+
+    /**
+     * Looks up the output of the given input word. No queries are posed to the system under learning.
+     *
+     * @param input
+     *         the input word
+     *
+     * @return the known output of the (complete) input word, or {@code null} if the output is not (fully) known
+     */
+    @Nullable
+    D lookup(Word<I> input);
+}
@@ -26,4 +26,20 @@ public interface AbstractCounterexample<E> {
     boolean checkEffects(E eff1, E eff2);
 
     E effect(int index);
+
+    /**
+     * Computes the effects of the given indices in bulk, so that subsequent {@link #effect(int)} calls for these indices
+     * do not cause any further (e.g. query) computations. Implementations may use this to batch the underlying
+     * membership queries, e.g. to exploit parallel oracles.
+     * <p>
+     * The default implementation simply computes the effects one after another.
+     *
+     * @param indices
+     *         the indices whose effects should be computed
+     */
+    default void computeEffects(int... indices) {
+        for (int idx : indices) {
+            effect(idx);
+        }
+    }
 }
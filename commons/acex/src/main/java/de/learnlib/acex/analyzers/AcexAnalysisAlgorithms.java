@@ -15,6 +15,8 @@
  */
 package de.learnlib.acex.analyzers;
 
+import java.util.Arrays;
+
 import de.learnlib.acex.AbstractCounterexample;
 
 public final class AcexAnalysisAlgorithms {
@@ -190,4 +192,320 @@ public final class AcexAnalysisAlgorithms {
 
         return lowIter;
     }
+
+    /**
+     * Scan linearly through the counterexample in ascending order, computing the effects of {@code batchSize}
+     * consecutive indices at once (see {@link AbstractCounterexample#computeEffects(int...)}).
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param batchSize
+     *         the number of indices whose effects are computed per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int linearSearchFwd(AbstractCounterexample<E> acex, int low, int high, int batchSize) {
+        checkPositive("Batch size", batchSize);
+        assert !acex.testEffects(low, high);
+
+        acex.computeEffects(range(low, Math.min(low + batchSize - 1, high)));
+
+        E effPrev = acex.effect(low);
+        for (int i = low + 1; i <= high; i++) {
+            if ((i - low) % batchSize == 0) {
+                acex.computeEffects(range(i, Math.min(i + batchSize - 1, high)));
+            }
+            E eff = acex.effect(i);
+            if (!acex.checkEffects(effPrev, eff)) {
+                return i - 1;
+            }
+            effPrev = eff;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Scan linearly through the counterexample in descending order, computing the effects of {@code batchSize}
+     * consecutive indices at once (see {@link AbstractCounterexample#computeEffects(int...)}).
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param batchSize
+     *         the number of indices whose effects are computed per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int linearSearchBwd(AbstractCounterexample<E> acex, int low, int high, int batchSize) {
+        checkPositive("Batch size", batchSize);
+        assert !acex.testEffects(low, high);
+
+        acex.computeEffects(range(Math.max(high - batchSize + 1, low), high));
+
+        E effPrev = acex.effect(high);
+        for (int i = high - 1; i >= low; i--) {
+            if ((high - i) % batchSize == 0) {
+                acex.computeEffects(range(Math.max(i - batchSize + 1, low), i));
+            }
+            E eff = acex.effect(i);
+            if (!acex.checkEffects(eff, effPrev)) {
+                return i;
+            }
+            effPrev = eff;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Search for a suffix index using an exponential search, computing the effects of the next {@code batchSize} probes
+     * at once (see {@link AbstractCounterexample#computeEffects(int...)}). The final search phase is performed via a
+     * {@link #kArySearchRight(AbstractCounterexample, int, int, int) k-ary search}.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param batchSize
+     *         the number of indices whose effects are computed per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int exponentialSearchBwd(AbstractCounterexample<E> acex, int low, int high, int batchSize) {
+        checkPositive("Batch size", batchSize);
+        acex.computeEffects(low, high);
+        assert !acex.testEffects(low, high);
+
+        int ofs = 1;
+        E effHigh = acex.effect(high);
+
+        int highIter = high;
+        int lowIter = low;
+        int probes = 0;
+
+        while (highIter - ofs > lowIter) {
+            if (probes++ % batchSize == 0) {
+                prefetchExponentialProbes(acex, highIter, ofs, -1, lowIter, batchSize);
+            }
+            int next = highIter - ofs;
+            E eff = acex.effect(next);
+            if (!acex.checkEffects(eff, effHigh)) {
+                lowIter = next;
+                break;
+            }
+            highIter = next;
+            ofs *= 2;
+        }
+
+        return kArySearchRight(acex, lowIter, highIter, batchSize);
+    }
+
+    /**
+     * Search for a suffix index using an exponential search, computing the effects of the next {@code batchSize} probes
+     * at once (see {@link AbstractCounterexample#computeEffects(int...)}). The final search phase is performed via a
+     * {@link #kArySearchLeft(AbstractCounterexample, int, int, int) k-ary search}.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param batchSize
+     *         the number of indices whose effects are computed per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int exponentialSearchFwd(AbstractCounterexample<E> acex, int low, int high, int batchSize) {
+        checkPositive("Batch size", batchSize);
+        acex.computeEffects(low, high);
+        assert !acex.testEffects(low, high);
+
+        int ofs = 1;
+        E effLow = acex.effect(low);
+
+        int lowIter = low;
+        int probes = 0;
+
+        while (lowIter + ofs < high) {
+            if (probes++ % batchSize == 0) {
+                prefetchExponentialProbes(acex, lowIter, ofs, 1, high, batchSize);
+            }
+            int next = lowIter + ofs;
+            E eff = acex.effect(next);
+            if (!acex.checkEffects(effLow, eff)) {
+                break;
+            }
+            lowIter = next;
+            ofs *= 2;
+        }
+
+        return kArySearchLeft(acex, lowIter, high, batchSize);
+    }
+
+    /**
+     * Search for a suffix index using a k-ary search, i.e. a generalization of the {@link
+     * #binarySearchRight(AbstractCounterexample, int, int) binary search} that splits the search range into {@code
+     * k + 1} parts per round. The effects of the {@code k} probes of each round are computed at once (see {@link
+     * AbstractCounterexample#computeEffects(int...)}), so that the number of (sequential) rounds is reduced to
+     * <code>log<sub>k+1</sub>(high - low)</code>.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param k
+     *         the number of probes per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int kArySearchRight(AbstractCounterexample<E> acex, int low, int high, int k) {
+        checkPositive("k", k);
+        acex.computeEffects(low, high);
+
+        E effLow = acex.effect(low);
+        E effHigh = acex.effect(high);
+
+        assert !acex.checkEffects(effLow, effHigh) :
+                "compatible effects at " + low + ", " + high + ": " + effLow + ", " + effHigh;
+
+        int highIter = high;
+        int lowIter = low;
+
+        while (highIter - lowIter > 1) {
+            final int[] probes = probes(lowIter, highIter, k);
+            acex.computeEffects(probes);
+
+            // equivalent to the binary search decisions, restricted to the probes of this round
+            int newLow = lowIter;
+            for (int i = probes.length - 1; i >= 0; i--) {
+                E effProbe = acex.effect(probes[i]);
+                if (!acex.checkEffects(effProbe, effHigh)) {
+                    newLow = probes[i];
+                    break;
+                }
+                highIter = probes[i];
+                effHigh = effProbe;
+            }
+            lowIter = newLow;
+        }
+
+        return lowIter;
+    }
+
+    /**
+     * Search for a suffix index using a k-ary search, i.e. a generalization of the {@link
+     * #binarySearchLeft(AbstractCounterexample, int, int) binary search} that splits the search range into {@code k +
+     * 1} parts per round. The effects of the {@code k} probes of each round are computed at once (see {@link
+     * AbstractCounterexample#computeEffects(int...)}), so that the number of (sequential) rounds is reduced to
+     * <code>log<sub>k+1</sub>(high - low)</code>.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param k
+     *         the number of probes per round (must be positive)
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int kArySearchLeft(AbstractCounterexample<E> acex, int low, int high, int k) {
+        checkPositive("k", k);
+        acex.computeEffects(low, high);
+
+        E effLow = acex.effect(low);
+        E effHigh = acex.effect(high);
+
+        assert !acex.checkEffects(effLow, effHigh) :
+                "compatible effects at " + low + ", " + high + ": " + effLow + ", " + effHigh;
+
+        int highIter = high;
+        int lowIter = low;
+
+        while (highIter - lowIter > 1) {
+            final int[] probes = probes(lowIter, highIter, k);
+            acex.computeEffects(probes);
+
+            // equivalent to the binary search decisions, restricted to the probes of this round
+            int newHigh = highIter;
+            for (int probe : probes) {
+                E effProbe = acex.effect(probe);
+                if (!acex.checkEffects(effLow, effProbe)) {
+                    newHigh = probe;
+                    break;
+                }
+                lowIter = probe;
+                effLow = effProbe;
+            }
+            highIter = newHigh;
+        }
+
+        return lowIter;
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    private static int[] range(int from, int to) {
+        final int[] result = new int[to - from + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = from + i;
+        }
+        return result;
+    }
+
+    /**
+     * Returns (at most) {@code k} distinct, evenly spaced indices strictly between {@code low} and {@code high} in
+     * ascending order.
+     */
+    private static int[] probes(int low, int high, int k) {
+        final int numProbes = Math.min(k, high - low - 1);
+        final int[] result = new int[numProbes];
+        final long range = high - low;
+
+        for (int i = 0; i < numProbes; i++) {
+            result[i] = low + (int) ((i + 1) * range / (numProbes + 1));
+        }
+
+        return result;
+    }
+
+    private static void prefetchExponentialProbes(AbstractCounterexample<?> acex,
+                                                  int start,
+                                                  int ofs,
+                                                  int direction,
+                                                  int bound,
+                                                  int batchSize) {
+        final int[] buffer = new int[batchSize];
+        int num = 0;
+        int iter = start;
+        long currOfs = ofs;
+
+        while (num < batchSize) {
+            final long next = iter + direction * currOfs;
+            if (direction > 0 ? next >= bound : next <= bound) {
+                break;
+            }
+            buffer[num++] = (int) next;
+            iter = (int) next;
+            currOfs *= 2;
+        }
+
+        acex.computeEffects(Arrays.copyOf(buffer, num));
+    }
 }
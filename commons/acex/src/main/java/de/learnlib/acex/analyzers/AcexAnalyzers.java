@@ -112,6 +112,132 @@ public final class AcexAnalyzers {
         return result;
     }
 
+    /**
+     * Returns an analyzer that linearly scans through the abstract counterexample in ascending order, computing the
+     * effects of {@code batchSize} consecutive indices per round.
+     *
+     * @param batchSize
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer batchedLinearFwd(int batchSize) {
+        checkBatchSize(batchSize);
+        return new AbstractNamedAcexAnalyzer("BatchedLinearFwd(" + batchSize + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.linearSearchFwd(acex, low, high, batchSize);
+            }
+        };
+    }
+
+    /**
+     * Returns an analyzer that linearly scans through the abstract counterexample in descending order, computing the
+     * effects of {@code batchSize} consecutive indices per round.
+     *
+     * @param batchSize
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer batchedLinearBwd(int batchSize) {
+        checkBatchSize(batchSize);
+        return new AbstractNamedAcexAnalyzer("BatchedLinearBwd(" + batchSize + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.linearSearchBwd(acex, low, high, batchSize);
+            }
+        };
+    }
+
+    /**
+     * Returns an analyzer that searches for a suffix index using exponential search (followed by a k-ary search),
+     * computing the effects of {@code batchSize} probes per round.
+     *
+     * @param batchSize
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer batchedExponentialFwd(int batchSize) {
+        checkBatchSize(batchSize);
+        return new AbstractNamedAcexAnalyzer("BatchedExponentialFwd(" + batchSize + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.exponentialSearchFwd(acex, low, high, batchSize);
+            }
+        };
+    }
+
+    /**
+     * Returns an analyzer that searches for a suffix index using exponential search (followed by a k-ary search),
+     * computing the effects of {@code batchSize} probes per round.
+     *
+     * @param batchSize
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer batchedExponentialBwd(int batchSize) {
+        checkBatchSize(batchSize);
+        return new AbstractNamedAcexAnalyzer("BatchedExponentialBwd(" + batchSize + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.exponentialSearchBwd(acex, low, high, batchSize);
+            }
+        };
+    }
+
+    /**
+     * Returns an analyzer that searches for a suffix index using a k-ary search, i.e. it computes the effects of
+     * {@code k} evenly spaced probes per round.
+     *
+     * @param k
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer kArySearchFwd(int k) {
+        checkBatchSize(k);
+        return new AbstractNamedAcexAnalyzer("KArySearchFwd(" + k + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.kArySearchLeft(acex, low, high, k);
+            }
+        };
+    }
+
+    /**
+     * Returns an analyzer that searches for a suffix index using a k-ary search, i.e. it computes the effects of
+     * {@code k} evenly spaced probes per round.
+     *
+     * @param k
+     *         the number of indices whose effects are computed per round
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer kArySearchBwd(int k) {
+        checkBatchSize(k);
+        return new AbstractNamedAcexAnalyzer("KArySearchBwd(" + k + ')') {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.kArySearchRight(acex, low, high, k);
+            }
+        };
+    }
+
+    private static void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+    }
+
     public static Collection<AbstractNamedAcexAnalyzer> getAnalyzers(Direction dir) {
         switch (dir) {
             case FORWARD:
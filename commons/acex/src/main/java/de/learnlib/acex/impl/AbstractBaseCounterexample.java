@@ -15,6 +15,10 @@
  */
 package de.learnlib.acex.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import de.learnlib.acex.AbstractCounterexample;
 import net.automatalib.commons.smartcollections.ArrayStorage;
 
@@ -54,6 +58,63 @@ public abstract class AbstractBaseCounterexample<E> implements AbstractCounterex
 
     protected abstract E computeEffect(int index);
 
+    /**
+     * Computes the effects of all given indices which have not been computed yet via {@link
+     * #computeEffectsBatched(int[])}.
+     *
+     * @param indices
+     *         the indices whose effects should be computed
+     */
+    @Override
+    public void computeEffects(int... indices) {
+        final int[] missing = new int[indices.length];
+        int numMissing = 0;
+
+        for (int idx : indices) {
+            if (values.get(idx) == null && !contains(missing, numMissing, idx)) {
+                missing[numMissing++] = idx;
+            }
+        }
+
+        if (numMissing == 0) {
+            return;
+        }
+
+        final int[] batch = Arrays.copyOf(missing, numMissing);
+        final List<E> effects = computeEffectsBatched(batch);
+
+        for (int i = 0; i < batch.length; i++) {
+            values.set(batch[i], effects.get(i));
+        }
+    }
+
+    /**
+     * Computes the effects of the given (not yet computed) indices. Subclasses should override this method if they are
+     * able to compute multiple effects more efficiently than one after another, e.g. by posing a single batch of
+     * queries.
+     *
+     * @param indices
+     *         the indices whose effects should be computed
+     *
+     * @return the effects of the given indices, in the same order as the indices
+     */
+    protected List<E> computeEffectsBatched(int[] indices) {
+        final List<E> result = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            result.add(computeEffect(idx));
+        }
+        return result;
+    }
+
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void setEffect(int index, E effect) {
         values.set(index, effect);
     }
@@ -15,6 +15,7 @@
  */
 package de.learnlib.acex.analyzers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Random;
@@ -33,9 +34,19 @@ public class AnalyzersTest {
 
     private static final int NUM_RANDOM = 10;
 
+    private static final int[] BATCH_SIZES = {1, 3, 8};
+
     @DataProvider(name = "analyzers")
     public Object[][] analyzers() {
-        Collection<AbstractNamedAcexAnalyzer> analyzers = AcexAnalyzers.getAllAnalyzers();
+        Collection<AbstractNamedAcexAnalyzer> analyzers = new ArrayList<>(AcexAnalyzers.getAllAnalyzers());
+        for (int batchSize : BATCH_SIZES) {
+            analyzers.add(AcexAnalyzers.batchedLinearFwd(batchSize));
+            analyzers.add(AcexAnalyzers.batchedLinearBwd(batchSize));
+            analyzers.add(AcexAnalyzers.batchedExponentialFwd(batchSize));
+            analyzers.add(AcexAnalyzers.batchedExponentialBwd(batchSize));
+            analyzers.add(AcexAnalyzers.kArySearchFwd(batchSize));
+            analyzers.add(AcexAnalyzers.kArySearchBwd(batchSize));
+        }
         AbstractNamedAcexAnalyzer[][] result = new AbstractNamedAcexAnalyzer[analyzers.size()][1];
         int i = 0;
         for (AbstractNamedAcexAnalyzer a : analyzers) {
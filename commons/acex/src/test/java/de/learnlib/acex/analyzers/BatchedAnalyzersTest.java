@@ -0,0 +1,154 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.acex.analyzers;
+
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.acex.impl.AbstractBaseCounterexample;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that batched analyzers compute effects in few (sequential) rounds.
+ */
+public class BatchedAnalyzersTest {
+
+    private static final int LENGTH = 500;
+    private static final long SEED = 42L;
+
+    @Test
+    public void testKAryRounds() {
+        final int[] values = createRandom(LENGTH, new Random(SEED));
+
+        final BatchCountingAcex binary = new BatchCountingAcex(values);
+        final int binaryIdx = AcexAnalyzers.BINARY_SEARCH_BWD.analyzeAbstractCounterexample(binary);
+        Assert.assertFalse(binary.testEffects(binaryIdx, binaryIdx + 1));
+
+        final BatchCountingAcex kAry = new BatchCountingAcex(values);
+        final int kAryIdx = AcexAnalyzers.kArySearchBwd(7).analyzeAbstractCounterexample(kAry);
+        Assert.assertFalse(kAry.testEffects(kAryIdx, kAryIdx + 1));
+
+        // the search range shrinks by a factor of 8 per round (plus an initial round for the bounds)
+        Assert.assertTrue(kAry.rounds <= 4, "Rounds: " + kAry.rounds);
+        Assert.assertTrue(binary.rounds > 2 * kAry.rounds, "Rounds: " + binary.rounds + " vs " + kAry.rounds);
+    }
+
+    @Test
+    public void testBatchedLinearRounds() {
+        final int[] values = new int[LENGTH + 1];
+        values[LENGTH] = 1;
+
+        final BatchCountingAcex acex = new BatchCountingAcex(values);
+        final int idx = AcexAnalyzers.batchedLinearFwd(50).analyzeAbstractCounterexample(acex);
+
+        Assert.assertEquals(idx, LENGTH - 1);
+        Assert.assertTrue(acex.rounds <= (LENGTH + 1) / 50 + 2, "Rounds: " + acex.rounds);
+    }
+
+    @Test
+    public void testBulkEffects() {
+        final int[] values = createRandom(LENGTH, new Random(SEED));
+        final BatchCountingAcex acex = new BatchCountingAcex(values);
+
+        acex.computeEffects(1, 2, 3, 2, 1);
+        Assert.assertEquals(acex.rounds, 1);
+        Assert.assertEquals(acex.effects, 3);
+
+        acex.computeEffects(2, 3, 4);
+        Assert.assertEquals(acex.rounds, 2);
+        Assert.assertEquals(acex.effects, 4);
+
+        acex.computeEffects(1, 4);
+        Assert.assertEquals(acex.rounds, 2);
+
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(acex.effect(i).intValue(), values[i]);
+        }
+        Assert.assertEquals(acex.effects, 4);
+    }
+
+    @Test
+    public void testInvalidBatchSizes() {
+        final int high = LENGTH;
+
+        for (int invalid : new int[] {0, -1}) {
+            final BatchCountingAcex acex = new BatchCountingAcex(createRandom(LENGTH, new Random(SEED)));
+
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.linearSearchFwd(acex, 0, high, invalid));
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.linearSearchBwd(acex, 0, high, invalid));
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.exponentialSearchFwd(acex, 0, high, invalid));
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.exponentialSearchBwd(acex, 0, high, invalid));
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.kArySearchLeft(acex, 0, high, invalid));
+            Assert.assertThrows(IllegalArgumentException.class,
+                                () -> AcexAnalysisAlgorithms.kArySearchRight(acex, 0, high, invalid));
+
+            // the arguments are validated before any effect is computed
+            Assert.assertEquals(acex.effects, 0);
+        }
+    }
+
+    private static int[] createRandom(int length, Random random) {
+        int[] values = new int[length + 1];
+        values[0] = 0;
+        values[length] = 1;
+        for (int i = 1; i < length; i++) {
+            values[i] = random.nextInt(2);
+        }
+        return values;
+    }
+
+    private static final class BatchCountingAcex extends AbstractBaseCounterexample<Integer> {
+
+        private final int[] values;
+        private int rounds;
+        private int effects;
+        private boolean inBatch;
+
+        BatchCountingAcex(int[] values) {
+            super(values.length);
+            this.values = values;
+        }
+
+        @Override
+        protected Integer computeEffect(int index) {
+            if (!inBatch) {
+                rounds++;
+            }
+            effects++;
+            return values[index];
+        }
+
+        @Override
+        protected List<Integer> computeEffectsBatched(int[] indices) {
+            rounds++;
+            inBatch = true;
+            final List<Integer> result = super.computeEffectsBatched(indices);
+            inBatch = false;
+            return result;
+        }
+
+        @Override
+        public boolean checkEffects(Integer eff1, Integer eff2) {
+            return eff1.equals(eff2);
+        }
+    }
+}
@@ -15,11 +15,14 @@
  */
 package de.learnlib.counterexamples.acex;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
 import de.learnlib.acex.impl.AbstractBaseCounterexample;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.words.Word;
 
 /**
@@ -66,6 +69,25 @@ public class OutInconsPrefixTransformAcex<I, D> extends AbstractBaseCounterexamp
         return oracle.answerQuery(asPrefix, suffix);
     }
 
+    @Override
+    protected List<D> computeEffectsBatched(int[] indices) {
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>(indices.length);
+
+        for (int index : indices) {
+            queries.add(new DefaultQuery<>(asTransform.apply(this.suffix.prefix(index)), this.suffix.subWord(index)));
+        }
+
+        oracle.processQueries(queries);
+
+        final List<D> result = new ArrayList<>(indices.length);
+
+        for (DefaultQuery<I, D> query : queries) {
+            result.add(query.getOutput());
+        }
+
+        return result;
+    }
+
     @Override
     public boolean checkEffects(D eff1, D eff2) {
         return Objects.equals(eff1, eff2);
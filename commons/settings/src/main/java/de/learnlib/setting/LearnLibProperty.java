@@ -22,6 +22,22 @@ package de.learnlib.setting;
  */
 public enum LearnLibProperty {
 
+    /**
+     * {@code learnlib.observationtable.compact}.
+     * <p>
+     * If {@code true}, L*-style learners store the row contents of their observation tables in a compact, primitive
+     * representation.
+     */
+    OBSERVATION_TABLE_COMPACT("observationtable.compact"),
+
+    /**
+     * {@code learnlib.observationtable.lazy}.
+     * <p>
+     * If {@code true}, L*-style learners fill the cells of new suffixes in their observation tables lazily, i.e. only
+     * once they are needed for deciding closedness or consistency.
+     */
+    OBSERVATION_TABLE_LAZY("observationtable.lazy"),
+
     /**
      * {@code learnlib.parallel.batch_size.dynamic}.
      * <p>
@@ -29,6 +45,14 @@ public enum LearnLibProperty {
      */
     PARALLEL_BATCH_SIZE_DYNAMIC("parallel.batch_size.dynamic"),
 
+    /**
+     * {@code learnlib.parallel.batch_duration.dynamic}.
+     * <p>
+     * Target duration (in microseconds) of query batches for dynamic parallel oracles. If positive, the batch size is
+     * adaptively chosen such that processing a batch takes the given duration.
+     */
+    PARALLEL_BATCH_DURATION_DYNAMIC("parallel.batch_duration.dynamic"),
+
     /**
      * {@code learnlib.parallel.batch_size.static}.
      * <p>
@@ -36,6 +60,13 @@ public enum LearnLibProperty {
      */
     PARALLEL_BATCH_SIZE_STATIC("parallel.batch_size.static"),
 
+    /**
+     * {@code learnlib.parallel.batch_cost.work_stealing}.
+     * <p>
+     * Minimum (estimated) cost of query batches for work-stealing parallel oracles.
+     */
+    PARALLEL_BATCH_COST_WORK_STEALING("parallel.batch_cost.work_stealing"),
+
     /**
      * {@code learnlib.parallel.pool_policy}.
      * <p>
@@ -38,12 +38,24 @@ public class LearnLibSettingsTest {
 
         for (LearnLibProperty p : LearnLibProperty.values()) {
             switch (p) {
+                case OBSERVATION_TABLE_COMPACT:
+                    Assert.assertTrue(settings.getBool(LearnLibProperty.OBSERVATION_TABLE_COMPACT, false));
+                    break;
+                case OBSERVATION_TABLE_LAZY:
+                    Assert.assertTrue(settings.getBool(LearnLibProperty.OBSERVATION_TABLE_LAZY, false));
+                    break;
                 case PARALLEL_BATCH_SIZE_DYNAMIC:
                     Assert.assertEquals(1, settings.getInt(LearnLibProperty.PARALLEL_BATCH_SIZE_DYNAMIC, 0));
                     break;
+                case PARALLEL_BATCH_DURATION_DYNAMIC:
+                    Assert.assertEquals(5, settings.getInt(LearnLibProperty.PARALLEL_BATCH_DURATION_DYNAMIC, 0));
+                    break;
                 case PARALLEL_BATCH_SIZE_STATIC:
                     Assert.assertEquals(2, settings.getInt(LearnLibProperty.PARALLEL_BATCH_SIZE_STATIC, 0));
                     break;
+                case PARALLEL_BATCH_COST_WORK_STEALING:
+                    Assert.assertEquals(4, settings.getInt(LearnLibProperty.PARALLEL_BATCH_COST_WORK_STEALING, 0));
+                    break;
                 case PARALLEL_POOL_POLICY:
                     Assert.assertEquals("CACHED", settings.getProperty(LearnLibProperty.PARALLEL_POOL_POLICY));
                     break;
@@ -17,11 +17,14 @@ package de.learnlib.datastructure.observationtable;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +34,7 @@ import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Observation table class.
@@ -62,15 +66,21 @@ import org.checkerframework.checker.nullness.qual.NonNull;
  */
 public abstract class AbstractObservationTable<I, D> implements MutableObservationTable<I, D>, Serializable {
 
-    private static final Integer NO_ENTRY = null; // TODO: replace with primitive specialization
     protected final List<RowImpl<I>> shortPrefixRows = new ArrayList<>();
-    // private static final int NO_ENTRY = -1;
     private final List<RowImpl<I>> longPrefixRows = new ArrayList<>();
     private final List<RowImpl<I>> allRows = new ArrayList<>();
-    private final List<List<D>> allRowContents = new ArrayList<>();
+    private final RowContentStorage<D> contentStorage;
     private final List<RowImpl<I>> canonicalRows = new ArrayList<>();
-    // private final TObjectIntMap<List<D>> rowContentIds = new TObjectIntHashMap<>(10, 0.75f, NO_ENTRY);
-    private final Map<List<D>, Integer> rowContentIds = new HashMap<>(); // TODO: replace with primitive specialization
+    // short prefix rows per content id
+    private final List<List<RowImpl<I>>> spRowsByContent = new ArrayList<>();
+    // content ids whose short prefix rows may be inconsistent
+    private final BitSet inconsistencyCandidates = new BitSet();
+    // ids of long prefix rows that may be unclosed
+    private final BitSet unclosednessCandidates = new BitSet();
+    // ids of rows whose cells for the latest suffixes have not been queried yet (only in lazy mode)
+    private final BitSet pendingRows = new BitSet();
+    private final boolean lazy;
+    private transient MembershipOracle<I, D> pendingOracle;
     private final Map<Word<I>, RowImpl<I>> rowMap = new HashMap<>();
     private final List<Word<I>> suffixes = new ArrayList<>();
     private final Set<Word<I>> suffixSet = new HashSet<>();
@@ -85,7 +95,43 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
      *         the learning alphabet.
      */
     public AbstractObservationTable(Alphabet<I> alphabet) {
+        this(alphabet, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param compactStorage
+     *         whether row contents should be stored in a compact, primitive representation (interning outputs to
+     *         {@code int}s) instead of lists of output objects. The compact representation reduces the memory footprint
+     *         and hashing costs of large tables.
+     */
+    protected AbstractObservationTable(Alphabet<I> alphabet, boolean compactStorage) {
+        this(alphabet, compactStorage, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param compactStorage
+     *         whether row contents should be stored in a compact, primitive representation (see {@link
+     *         #AbstractObservationTable(Alphabet, boolean)}).
+     * @param lazy
+     *         whether cells of new suffixes should be filled lazily. In lazy mode, new suffixes are only evaluated (in
+     *         a single batch) for rows whose contents are shared with other rows, since the cells of all other rows
+     *         cannot affect closedness or consistency. The remaining cells are queried once they are needed, i.e. if a
+     *         new row may share its contents with such a row or if the cells are explicitly accessed. Pending cells are
+     *         serialized as such, i.e. serialization does not pose queries. Deserialized tables query them once an
+     *         oracle is supplied again (see {@link #completeLazyRows(MembershipOracle)}).
+     */
+    protected AbstractObservationTable(Alphabet<I> alphabet, boolean compactStorage, boolean lazy) {
         this.alphabet = alphabet;
+        this.contentStorage = compactStorage ? new IntRowContentStorage<>() : new ListRowContentStorage<>();
+        this.lazy = lazy;
     }
 
     protected static <I, D> void buildQueries(List<DefaultQuery<I, D>> queryList,
@@ -175,28 +221,60 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
     }
 
     protected boolean processContents(RowImpl<I> row, List<D> rowContents, boolean makeCanonical) {
-        Integer contentId; // TODO: replace with primitive specialization
-        // int contentId;
         boolean added = false;
-        contentId = rowContentIds.get(rowContents);
-        if (contentId == NO_ENTRY) {
-            contentId = numberOfDistinctRows();
-            rowContentIds.put(rowContents, contentId);
-            allRowContents.add(rowContents);
+        int contentId = contentStorage.getContentId(rowContents);
+        if (contentId == RowContentStorage.NO_ENTRY) {
+            contentId = contentStorage.addContents(rowContents);
             added = true;
             if (makeCanonical) {
                 canonicalRows.add(row);
             } else {
                 canonicalRows.add(null);
             }
+            spRowsByContent.add(new ArrayList<>());
         }
-        row.setRowContentId(contentId);
+        updateContentId(row, contentId);
         return added;
     }
 
+    /**
+     * Assigns a (new) content id to the given row and records which parts of the table have to be re-checked for
+     * closedness and consistency.
+     * <p>
+     * Since the row partition induced by the content ids is only ever refined, a long prefix row can only become
+     * unclosed and a set of short prefix rows can only become inconsistent if the content id of the row or of one of
+     * the successors of the short prefix rows changes.
+     */
+    private void updateContentId(RowImpl<I> row, int contentId) {
+        final int oldContentId = row.getRowContentId();
+        if (oldContentId == contentId) {
+            return;
+        }
+
+        row.setRowContentId(contentId);
+
+        if (row.isShortPrefixRow()) {
+            if (oldContentId != -1) {
+                spRowsByContent.get(oldContentId).remove(row);
+            }
+            spRowsByContent.get(contentId).add(row);
+            inconsistencyCandidates.set(contentId);
+        } else {
+            unclosednessCandidates.set(row.getRowId());
+        }
+
+        final Word<I> label = row.getLabel();
+        if (!label.isEmpty()) {
+            final RowImpl<I> predecessor = rowMap.get(label.prefix(-1));
+            if (predecessor != null && predecessor.isShortPrefixRow() && predecessor.hasContents()) {
+                inconsistencyCandidates.set(predecessor.getRowContentId());
+            }
+        }
+    }
+
     @Override
     public int numberOfDistinctRows() {
-        return allRowContents.size();
+        return contentStorage.size();
     }
 
     @Override
@@ -219,6 +297,10 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
             return Collections.emptyList();
         }
 
+        if (lazy) {
+            return addSuffixesLazily(newSuffixList, oracle);
+        }
+
         int numNewSuffixes = newSuffixList.size();
 
         int numSpRows = shortPrefixRows.size();
@@ -239,14 +321,14 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
         Iterator<DefaultQuery<I, D>> queryIt = queries.iterator();
 
         for (RowImpl<I> row : shortPrefixRows) {
-            List<D> rowContents = allRowContents.get(row.getRowContentId());
-            if (rowContents.size() == oldSuffixCount) {
-                rowContentIds.remove(rowContents);
-                fetchResults(queryIt, rowContents, numNewSuffixes);
-                rowContentIds.put(rowContents, row.getRowContentId());
+            int contentId = row.getRowContentId();
+            if (contentStorage.getLength(contentId) == oldSuffixCount) {
+                List<D> newCells = new ArrayList<>(numNewSuffixes);
+                fetchResults(queryIt, newCells, numNewSuffixes);
+                contentStorage.appendContents(contentId, newCells);
             } else {
                 List<D> newContents = new ArrayList<>(oldSuffixCount + numNewSuffixes);
-                newContents.addAll(rowContents.subList(0, oldSuffixCount));
+                newContents.addAll(contentStorage.getContents(contentId).subList(0, oldSuffixCount));
                 fetchResults(queryIt, newContents, numNewSuffixes);
                 processContents(row, newContents, true);
             }
@@ -256,14 +338,14 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
         numSpRows = numberOfDistinctRows();
 
         for (RowImpl<I> row : longPrefixRows) {
-            List<D> rowContents = allRowContents.get(row.getRowContentId());
-            if (rowContents.size() == oldSuffixCount) {
-                rowContentIds.remove(rowContents);
-                fetchResults(queryIt, rowContents, numNewSuffixes);
-                rowContentIds.put(rowContents, row.getRowContentId());
+            int contentId = row.getRowContentId();
+            if (contentStorage.getLength(contentId) == oldSuffixCount) {
+                List<D> newCells = new ArrayList<>(numNewSuffixes);
+                fetchResults(queryIt, newCells, numNewSuffixes);
+                contentStorage.appendContents(contentId, newCells);
             } else {
                 List<D> newContents = new ArrayList<>(oldSuffixCount + numNewSuffixes);
-                newContents.addAll(rowContents.subList(0, oldSuffixCount));
+                newContents.addAll(contentStorage.getContents(contentId).subList(0, oldSuffixCount));
                 fetchResults(queryIt, newContents, numNewSuffixes);
                 if (processContents(row, newContents, false)) {
                     unclosed.add(new ArrayList<>());
@@ -281,6 +363,190 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
         return unclosed;
     }
 
+    private List<List<Row<I>>> addSuffixesLazily(List<Word<I>> newSuffixList, MembershipOracle<I, D> oracle) {
+        this.pendingOracle = oracle;
+
+        final int oldSuffixCount = suffixes.size();
+        final int numNewSuffixes = newSuffixList.size();
+        final int[] classSizes = new int[numberOfDistinctRows()];
+
+        for (RowImpl<I> row : allRows) {
+            classSizes[row.getRowContentId()]++;
+        }
+
+        // rows with unique contents cannot be split by the new suffixes, so their cells remain pending
+        final List<RowImpl<I>> rows = new ArrayList<>();
+        collectSharedRows(shortPrefixRows, classSizes, rows);
+        collectSharedRows(longPrefixRows, classSizes, rows);
+
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>(rows.size() * numNewSuffixes);
+        buildRowQueries(queries, rows, newSuffixList);
+        oracle.processQueries(queries);
+
+        final Iterator<DefaultQuery<I, D>> queryIt = queries.iterator();
+        final int numOldContents = numberOfDistinctRows();
+
+        for (RowImpl<I> row : rows) {
+            final int contentId = row.getRowContentId();
+            if (contentStorage.getLength(contentId) == oldSuffixCount) {
+                final List<D> newCells = new ArrayList<>(numNewSuffixes);
+                fetchResults(queryIt, newCells, numNewSuffixes);
+                contentStorage.appendContents(contentId, newCells);
+            } else {
+                final List<D> newContents = new ArrayList<>(oldSuffixCount + numNewSuffixes);
+                newContents.addAll(contentStorage.getContents(contentId).subList(0, oldSuffixCount));
+                fetchResults(queryIt, newContents, numNewSuffixes);
+                processContents(row, newContents, row.isShortPrefixRow());
+            }
+        }
+
+        this.suffixes.addAll(newSuffixList);
+
+        // collect the new equivalence classes of long prefix rows without a matching short prefix row
+        final int[] unclosedIndices = new int[numberOfDistinctRows()];
+        final List<List<Row<I>>> unclosed = new ArrayList<>();
+
+        for (RowImpl<I> row : longPrefixRows) {
+            final int contentId = row.getRowContentId();
+            if (contentId >= numOldContents && spRowsByContent.get(contentId).isEmpty()) {
+                if (unclosedIndices[contentId] == 0) {
+                    unclosed.add(new ArrayList<>());
+                    unclosedIndices[contentId] = unclosed.size();
+                }
+                unclosed.get(unclosedIndices[contentId] - 1).add(row);
+            }
+        }
+
+        return unclosed;
+    }
+
+    private void collectSharedRows(List<RowImpl<I>> rows, int[] classSizes, List<RowImpl<I>> result) {
+        for (RowImpl<I> row : rows) {
+            if (classSizes[row.getRowContentId()] > 1) {
+                result.add(row);
+            } else {
+                pendingRows.set(row.getRowId());
+            }
+        }
+    }
+
+    /**
+     * Queries the pending cells of all rows whose contents may coincide with any of the given (complete) row contents.
+     * This method has to be called before the given contents are {@link #processContents(RowImpl, List, boolean)
+     * processed}, so that the contents of rows with pending cells can be compared to them.
+     * <p>
+     * Since rows only have pending cells if their (queried) contents are unique, only rows whose queried cells equal a
+     * prefix of the given contents are completed.
+     *
+     * @param newContents
+     *         the row contents about to be processed
+     * @param oracle
+     *         the membership oracle
+     */
+    protected void completePendingRows(List<? extends List<D>> newContents, MembershipOracle<I, D> oracle) {
+        // (re-)attach the oracle, e.g. after deserialization
+        this.pendingOracle = oracle;
+
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+
+        // index pending rows by the length of their queried contents
+        final Map<Integer, Map<Integer, RowImpl<I>>> pendingByLength = new HashMap<>();
+        for (int rowId = pendingRows.nextSetBit(0); rowId >= 0; rowId = pendingRows.nextSetBit(rowId + 1)) {
+            final RowImpl<I> row = allRows.get(rowId);
+            final int contentId = row.getRowContentId();
+            pendingByLength.computeIfAbsent(contentStorage.getLength(contentId), k -> new HashMap<>())
+                           .put(contentId, row);
+        }
+
+        final Set<RowImpl<I>> matches = new LinkedHashSet<>();
+
+        for (List<D> contents : newContents) {
+            for (Map.Entry<Integer, Map<Integer, RowImpl<I>>> e : pendingByLength.entrySet()) {
+                final int contentId = contentStorage.getContentId(contents.subList(0, e.getKey()));
+                if (contentId != RowContentStorage.NO_ENTRY) {
+                    final RowImpl<I> row = e.getValue().get(contentId);
+                    if (row != null) {
+                        matches.add(row);
+                    }
+                }
+            }
+        }
+
+        completeRows(matches, oracle);
+    }
+
+    private void completeRows(Collection<RowImpl<I>> rows, MembershipOracle<I, D> oracle) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        final int suffixCount = suffixes.size();
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>();
+
+        for (RowImpl<I> row : rows) {
+            final int length = contentStorage.getLength(row.getRowContentId());
+            buildQueries(queries, row.getLabel(), suffixes.subList(length, suffixCount));
+        }
+
+        oracle.processQueries(queries);
+
+        final Iterator<DefaultQuery<I, D>> queryIt = queries.iterator();
+
+        for (RowImpl<I> row : rows) {
+            final int contentId = row.getRowContentId();
+            final int numPending = suffixCount - contentStorage.getLength(contentId);
+            final List<D> cells = new ArrayList<>(numPending);
+            fetchResults(queryIt, cells, numPending);
+            contentStorage.appendContents(contentId, cells);
+            pendingRows.clear(row.getRowId());
+        }
+    }
+
+    private void completeRow(Row<I> row) {
+        completePendingCells(Collections.singletonList(row));
+    }
+
+    /**
+     * Queries the pending cells of the given rows (if any) in a single batch.
+     */
+    private void completePendingCells(List<? extends Row<I>> rows) {
+        final List<RowImpl<I>> pending = new ArrayList<>(rows.size());
+
+        for (Row<I> row : rows) {
+            final RowImpl<I> impl = allRows.get(row.getRowId());
+            if (pendingRows.get(row.getRowId()) && !pending.contains(impl)) {
+                pending.add(impl);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            if (pendingOracle == null) {
+                throw new IllegalStateException("No oracle available for querying the pending cells of " + pending);
+            }
+            completeRows(pending, pendingOracle);
+        }
+    }
+
+    /**
+     * Queries all pending cells of a lazily filled table (see {@link #AbstractObservationTable(Alphabet, boolean,
+     * boolean)}) in a single batch. Since the oracle of lazy tables is not serialized, this method may be used to
+     * complete (and supply an oracle to) a deserialized table.
+     *
+     * @param oracle
+     *         the membership oracle
+     */
+    public void completeLazyRows(MembershipOracle<I, D> oracle) {
+        this.pendingOracle = oracle;
+
+        final List<RowImpl<I>> pending = new ArrayList<>(pendingRows.cardinality());
+        for (int rowId = pendingRows.nextSetBit(0); rowId >= 0; rowId = pendingRows.nextSetBit(rowId + 1)) {
+            pending.add(allRows.get(rowId));
+        }
+        completeRows(pending, oracle);
+    }
+
     @Override
     public boolean isInitialConsistencyCheckRequired() {
         return initialConsistencyCheckRequired;
@@ -327,6 +593,8 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
             if (canonicalRows.get(cid) == null) {
                 canonicalRows.set(cid, row);
             }
+            spRowsByContent.get(cid).add(row);
+            inconsistencyCandidates.set(cid);
         }
     }
 
@@ -338,9 +606,94 @@ public abstract class AbstractObservationTable<I, D> implements MutableObservati
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation only checks the long prefix rows whose contents have changed since the last check.
+     */
+    @Nullable
+    @Override
+    public Row<I> findUnclosedRow() {
+        for (int rowId = unclosednessCandidates.nextSetBit(0); rowId >= 0;
+             rowId = unclosednessCandidates.nextSetBit(rowId + 1)) {
+            final RowImpl<I> row = allRows.get(rowId);
+            if (!row.isShortPrefixRow() && spRowsByContent.get(row.getRowContentId()).isEmpty()) {
+                return row;
+            }
+            unclosednessCandidates.clear(rowId);
+        }
+
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation only checks the short prefix rows whose contents (or whose successors' contents) have changed
+     * since the last check.
+     */
+    @Nullable
+    @Override
+    public Inconsistency<I> findInconsistency() {
+        for (int contentId = inconsistencyCandidates.nextSetBit(0); contentId >= 0;
+             contentId = inconsistencyCandidates.nextSetBit(contentId + 1)) {
+            final Inconsistency<I> inconsistency = findInconsistency(spRowsByContent.get(contentId));
+            if (inconsistency != null) {
+                return inconsistency;
+            }
+            inconsistencyCandidates.clear(contentId);
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private Inconsistency<I> findInconsistency(List<RowImpl<I>> spRows) {
+        if (spRows.size() < 2) {
+            return null;
+        }
+
+        final RowImpl<I> canRow = spRows.get(0);
+        final int alphabetSize = alphabet.size();
+
+        for (int i = 1; i < spRows.size(); i++) {
+            final RowImpl<I> spRow = spRows.get(i);
+            for (int j = 0; j < alphabetSize; j++) {
+                final RowImpl<I> spRowSucc = spRow.getSuccessor(j);
+                final RowImpl<I> canRowSucc = canRow.getSuccessor(j);
+
+                if (spRowSucc != null && canRowSucc != null && spRowSucc.hasContents() && canRowSucc.hasContents() &&
+                    spRowSucc.getRowContentId() != canRowSucc.getRowContentId()) {
+                    return new Inconsistency<>(canRow, spRow, alphabet.getSymbol(j));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public int findDistinguishingSuffixIndex(Row<I> row1, Row<I> row2) {
+        if (row1.getRowContentId() == row2.getRowContentId()) {
+            return NO_DISTINGUISHING_SUFFIX;
+        }
+        completePendingCells(Arrays.asList(row1, row2));
+        return MutableObservationTable.super.findDistinguishingSuffixIndex(row1, row2);
+    }
+
     @Override
     public List<D> rowContents(Row<I> row) {
-        return allRowContents.get(row.getRowContentId());
+        completeRow(row);
+        return contentStorage.getContents(row.getRowContentId());
+    }
+
+    @Override
+    public D cellContents(Row<I> row, int columnId) {
+        final int contentId = row.getRowContentId();
+        if (columnId >= contentStorage.getLength(contentId)) {
+            completeRow(row);
+        }
+        return contentStorage.getContents(contentId).get(columnId);
     }
 
     @Override
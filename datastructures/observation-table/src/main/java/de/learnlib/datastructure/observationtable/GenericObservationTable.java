@@ -45,7 +45,34 @@ public final class GenericObservationTable<I, D> extends AbstractObservationTabl
      *         the learning alphabet.
      */
     public GenericObservationTable(Alphabet<I> alphabet) {
-        super(alphabet);
+        this(alphabet, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param compactStorage
+     *         whether row contents should be stored in a compact, primitive representation.
+     */
+    public GenericObservationTable(Alphabet<I> alphabet, boolean compactStorage) {
+        this(alphabet, compactStorage, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param compactStorage
+     *         whether row contents should be stored in a compact, primitive representation.
+     * @param lazy
+     *         whether cells of new suffixes should be filled lazily, i.e. only queried once they are needed for
+     *         deciding closedness or consistency or are explicitly accessed.
+     */
+    public GenericObservationTable(Alphabet<I> alphabet, boolean compactStorage, boolean lazy) {
+        super(alphabet, compactStorage, lazy);
         this.alphabetSize = alphabet.size();
     }
 
@@ -169,19 +196,25 @@ public final class GenericObservationTable<I, D> extends AbstractObservationTabl
         oracle.processQueries(queries);
         Iterator<DefaultQuery<I, D>> queryIt = queries.iterator();
 
-        for (RowImpl<I> row : freshSpRows) {
+        List<List<D>> freshContents = new ArrayList<>(numFreshRows);
+        for (int i = 0; i < numFreshRows; i++) {
             List<D> contents = new ArrayList<>(numSuffixes);
             fetchResults(queryIt, contents, numSuffixes);
-            processContents(row, contents, true);
+            freshContents.add(contents);
+        }
+
+        completePendingRows(freshContents, oracle);
+        Iterator<List<D>> contentsIt = freshContents.iterator();
+
+        for (RowImpl<I> row : freshSpRows) {
+            processContents(row, contentsIt.next(), true);
         }
 
         int numSpRows = numberOfDistinctRows();
         List<List<Row<I>>> unclosed = new ArrayList<>();
 
         for (RowImpl<I> row : freshLpRows) {
-            List<D> contents = new ArrayList<>(numSuffixes);
-            fetchResults(queryIt, contents, numSuffixes);
-            if (processContents(row, contents, false)) {
+            if (processContents(row, contentsIt.next(), false)) {
                 unclosed.add(new ArrayList<>());
             }
 
@@ -230,14 +263,21 @@ public final class GenericObservationTable<I, D> extends AbstractObservationTabl
             oracle.processQueries(queries);
 
             final Iterator<DefaultQuery<I, D>> queryIterator = queries.iterator();
-            final List<List<Row<I>>> result = new ArrayList<>(numLongPrefixes);
+            final List<List<D>> newContents = new ArrayList<>(numLongPrefixes);
 
-            for (RowImpl<I> row : newLongPrefixes) {
+            for (int i = 0; i < numLongPrefixes; i++) {
                 final List<D> contents = new ArrayList<>(numSuffixes);
-
                 fetchResults(queryIterator, contents, numSuffixes);
+                newContents.add(contents);
+            }
+
+            completePendingRows(newContents, oracle);
 
-                if (processContents(row, contents, false)) {
+            final Iterator<List<D>> contentsIterator = newContents.iterator();
+            final List<List<Row<I>>> result = new ArrayList<>(numLongPrefixes);
+
+            for (RowImpl<I> row : newLongPrefixes) {
+                if (processContents(row, contentsIterator.next(), false)) {
                     result.add(Collections.singletonList(row));
                 }
             }
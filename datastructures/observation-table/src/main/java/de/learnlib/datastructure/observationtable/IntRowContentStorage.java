@@ -0,0 +1,261 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.observationtable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A {@link RowContentStorage} that stores row contents as rows of a growable {@code int} matrix.
+ * <p>
+ * Outputs are interned to {@code int}s, so that each cell only occupies a single {@code int}. Row contents are
+ * interned via an open-addressing hash table over their (cached) hash codes, which are updated incrementally when
+ * columns are appended. Hence, neither hashing nor comparing row contents requires boxing or {@link Object#equals(Object)
+ * equals} calls on the outputs.
+ *
+ * @param <D>
+ *         output domain type
+ */
+final class IntRowContentStorage<D> implements RowContentStorage<D> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int HASH_SEED = 1;
+    private static final int HASH_MULTIPLIER = 31;
+
+    // interned outputs
+    private final Map<D, Integer> outputIds = new HashMap<>();
+    private final List<D> outputs = new ArrayList<>();
+
+    // row contents
+    private int[][] cells = new int[INITIAL_CAPACITY][];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // open-addressing hash table of content ids (offset by one, 0 marks an empty slot)
+    private int[] index = new int[2 * INITIAL_CAPACITY];
+
+    // buffer for looking up row contents
+    private transient int[] buffer = new int[0];
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<D> getContents(int contentId) {
+        return new ContentsView(contentId);
+    }
+
+    @Override
+    public int getLength(int contentId) {
+        return lengths[contentId];
+    }
+
+    @Override
+    public int getContentId(List<D> contents) {
+        final int length = contents.size();
+
+        if (buffer == null || buffer.length < length) {
+            buffer = new int[length];
+        }
+
+        int hash = HASH_SEED;
+        for (int i = 0; i < length; i++) {
+            final Integer outputId = outputIds.get(contents.get(i));
+            if (outputId == null) {
+                // an unknown output cannot be part of any stored contents
+                return NO_ENTRY;
+            }
+            buffer[i] = outputId;
+            hash = HASH_MULTIPLIER * hash + outputId;
+        }
+
+        final int mask = index.length - 1;
+        for (int slot = mix(hash) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            final int contentId = index[slot] - 1;
+            if (hashes[contentId] == hash && lengths[contentId] == length &&
+                rangeEquals(cells[contentId], buffer, length)) {
+                return contentId;
+            }
+        }
+
+        return NO_ENTRY;
+    }
+
+    @Override
+    public int addContents(List<D> contents) {
+        final int length = contents.size();
+        final int[] row = new int[Math.max(length, 1)];
+
+        int hash = HASH_SEED;
+        for (int i = 0; i < length; i++) {
+            final int outputId = intern(contents.get(i));
+            row[i] = outputId;
+            hash = HASH_MULTIPLIER * hash + outputId;
+        }
+
+        if (size == cells.length) {
+            final int newCapacity = 2 * size;
+            cells = Arrays.copyOf(cells, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            hashes = Arrays.copyOf(hashes, newCapacity);
+        }
+
+        final int contentId = size++;
+        cells[contentId] = row;
+        lengths[contentId] = length;
+        hashes[contentId] = hash;
+
+        if (2 * size > index.length) {
+            rehash(2 * index.length);
+        } else {
+            insertIntoIndex(contentId);
+        }
+
+        return contentId;
+    }
+
+    @Override
+    public void appendContents(int contentId, List<D> newCells) {
+        removeFromIndex(contentId);
+
+        final int oldLength = lengths[contentId];
+        final int newLength = oldLength + newCells.size();
+
+        int[] row = cells[contentId];
+        if (row.length < newLength) {
+            row = Arrays.copyOf(row, Math.max(newLength, 2 * row.length));
+            cells[contentId] = row;
+        }
+
+        // the hash of the contents is continued from the hash of the existing columns
+        int hash = hashes[contentId];
+        for (int i = oldLength; i < newLength; i++) {
+            final int outputId = intern(newCells.get(i - oldLength));
+            row[i] = outputId;
+            hash = HASH_MULTIPLIER * hash + outputId;
+        }
+
+        lengths[contentId] = newLength;
+        hashes[contentId] = hash;
+
+        insertIntoIndex(contentId);
+    }
+
+    private int intern(D output) {
+        final Integer outputId = outputIds.get(output);
+        if (outputId != null) {
+            return outputId;
+        }
+
+        final int newId = outputs.size();
+        outputs.add(output);
+        outputIds.put(output, newId);
+        return newId;
+    }
+
+    private void insertIntoIndex(int contentId) {
+        final int mask = index.length - 1;
+        int slot = mix(hashes[contentId]) & mask;
+
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        index[slot] = contentId + 1;
+    }
+
+    private void removeFromIndex(int contentId) {
+        final int mask = index.length - 1;
+        int slot = mix(hashes[contentId]) & mask;
+
+        while (index[slot] != contentId + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        // backward-shift deletion: move subsequent entries of the probe sequence into the gap
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                break;
+            }
+
+            final int home = mix(hashes[index[next] - 1]) & mask;
+            final boolean keep = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (!keep) {
+                index[gap] = index[next];
+                gap = next;
+            }
+        }
+
+        index[gap] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        index = new int[newCapacity];
+        for (int i = 0; i < size; i++) {
+            insertIntoIndex(i);
+        }
+    }
+
+    private static boolean rangeEquals(int[] a, int[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A (live) view of the contents with a given id.
+     */
+    private final class ContentsView extends AbstractList<D> implements RandomAccess {
+
+        private final int contentId;
+
+        ContentsView(int contentId) {
+            this.contentId = contentId;
+        }
+
+        @Override
+        public D get(int index) {
+            if (index < 0 || index >= lengths[contentId]) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + lengths[contentId]);
+            }
+            return outputs.get(cells[contentId][index]);
+        }
+
+        @Override
+        public int size() {
+            return lengths[contentId];
+        }
+    }
+}
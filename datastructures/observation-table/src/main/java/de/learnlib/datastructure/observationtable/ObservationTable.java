@@ -203,7 +203,7 @@ public interface ObservationTable<I, D> extends AccessSequenceTransformer<I> {
     @Nullable
     default Word<I> findDistinguishingSuffix(Inconsistency<I> inconsistency) {
         int suffixIndex = findDistinguishingSuffixIndex(inconsistency);
-        if (suffixIndex != NO_DISTINGUISHING_SUFFIX) {
+        if (suffixIndex == NO_DISTINGUISHING_SUFFIX) {
             return null;
         }
         return getSuffix(suffixIndex);
@@ -223,7 +223,7 @@ public interface ObservationTable<I, D> extends AccessSequenceTransformer<I> {
     @Nullable
     default Word<I> findDistinguishingSuffix(Row<I> row1, Row<I> row2) {
         int suffixIndex = findDistinguishingSuffixIndex(row1, row2);
-        if (suffixIndex != NO_DISTINGUISHING_SUFFIX) {
+        if (suffixIndex == NO_DISTINGUISHING_SUFFIX) {
             return null;
         }
         return getSuffix(suffixIndex);
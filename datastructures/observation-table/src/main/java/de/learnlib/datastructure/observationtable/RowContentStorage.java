@@ -0,0 +1,89 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.observationtable;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Storage for the (distinct) row contents of an {@link AbstractObservationTable}. Each distinct row content is
+ * identified by a consecutive content id, starting at {@code 0}.
+ *
+ * @param <D>
+ *         output domain type
+ */
+interface RowContentStorage<D> extends Serializable {
+
+    int NO_ENTRY = -1;
+
+    /**
+     * Returns the number of distinct row contents.
+     *
+     * @return the number of distinct row contents
+     */
+    int size();
+
+    /**
+     * Returns the contents with the given id. The returned list reflects subsequent {@link #appendContents(int, List)
+     * extensions} of the contents.
+     *
+     * @param contentId
+     *         the content id
+     *
+     * @return the contents with the given id
+     */
+    List<D> getContents(int contentId);
+
+    /**
+     * Returns the number of cells of the contents with the given id.
+     *
+     * @param contentId
+     *         the content id
+     *
+     * @return the number of cells
+     */
+    int getLength(int contentId);
+
+    /**
+     * Returns the id of the given contents.
+     *
+     * @param contents
+     *         the contents
+     *
+     * @return the id of the given contents, or {@link #NO_ENTRY} if the contents are not stored
+     */
+    int getContentId(List<D> contents);
+
+    /**
+     * Stores the given contents, which must not be stored yet.
+     *
+     * @param contents
+     *         the contents
+     *
+     * @return the (new) id of the given contents
+     */
+    int addContents(List<D> contents);
+
+    /**
+     * Appends the given cells to the contents with the given id. The extended contents must not be stored yet.
+     *
+     * @param contentId
+     *         the content id
+     * @param cells
+     *         the cells to append
+     */
+    void appendContents(int contentId, List<D> cells);
+}
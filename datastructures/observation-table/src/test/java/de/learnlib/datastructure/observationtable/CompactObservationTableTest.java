@@ -0,0 +1,127 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.observationtable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that observation tables with compact row storage behave identically to those with list-based row storage.
+ */
+public class CompactObservationTableTest {
+
+    private static final int MODULUS = 5;
+
+    @Test
+    public void testEquivalence() {
+        final Alphabet<Integer> alphabet = Alphabets.integers(0, 2);
+        final MembershipOracle<Integer, Integer> oracle = new ModuloOracle();
+
+        final GenericObservationTable<Integer, Integer> listTable = new GenericObservationTable<>(alphabet, false);
+        final GenericObservationTable<Integer, Integer> compactTable = new GenericObservationTable<>(alphabet, true);
+
+        final List<Word<Integer>> initialSuffixes = Collections.singletonList(Word.epsilon());
+
+        List<List<Row<Integer>>> unclosed =
+                listTable.initialize(Collections.singletonList(Word.epsilon()), initialSuffixes, oracle);
+        compactTable.initialize(Collections.singletonList(Word.epsilon()), initialSuffixes, oracle);
+        checkEquivalence(listTable, compactTable);
+
+        // close both tables
+        while (!unclosed.isEmpty()) {
+            final List<Row<Integer>> listRows = selectRows(unclosed);
+            final List<Row<Integer>> compactRows = mapRows(listRows, compactTable);
+            unclosed = listTable.toShortPrefixes(listRows, oracle);
+            compactTable.toShortPrefixes(compactRows, oracle);
+            checkEquivalence(listTable, compactTable);
+        }
+
+        Assert.assertEquals(listTable.numberOfDistinctRows(), MODULUS);
+
+        // the first suffix extends all contents, the second one splits rows with previously shared contents
+        final List<List<Word<Integer>>> suffixBatches =
+                Arrays.asList(Collections.singletonList(Word.fromSymbols(1)),
+                              Arrays.asList(Word.fromSymbols(2, 2), Word.fromSymbols(0, 1)),
+                              Collections.singletonList(Word.fromSymbols(1, 1, 1)));
+
+        for (List<Word<Integer>> suffixes : suffixBatches) {
+            final List<List<Row<Integer>>> listUnclosed = listTable.addSuffixes(suffixes, oracle);
+            final List<List<Row<Integer>>> compactUnclosed = compactTable.addSuffixes(suffixes, oracle);
+
+            Assert.assertEquals(compactUnclosed.size(), listUnclosed.size());
+            checkEquivalence(listTable, compactTable);
+        }
+    }
+
+    private static void checkEquivalence(ObservationTable<Integer, Integer> expected,
+                                         ObservationTable<Integer, Integer> actual) {
+        Assert.assertEquals(actual.numberOfDistinctRows(), expected.numberOfDistinctRows());
+        Assert.assertEquals(actual.getSuffixes(), expected.getSuffixes());
+        Assert.assertEquals(actual.getShortPrefixes(), expected.getShortPrefixes());
+        Assert.assertEquals(actual.getLongPrefixes(), expected.getLongPrefixes());
+
+        for (Row<Integer> expectedRow : expected.getAllRows()) {
+            final Row<Integer> actualRow = actual.getRow(expectedRow.getLabel());
+            Assert.assertNotNull(actualRow);
+            Assert.assertEquals(actualRow.getRowContentId(), expectedRow.getRowContentId());
+            Assert.assertEquals(actual.rowContents(actualRow), expected.rowContents(expectedRow));
+        }
+    }
+
+    private static List<Row<Integer>> selectRows(List<List<Row<Integer>>> unclosed) {
+        final List<Row<Integer>> result = new ArrayList<>(unclosed.size());
+        for (List<Row<Integer>> rows : unclosed) {
+            result.add(rows.get(0));
+        }
+        return result;
+    }
+
+    private static List<Row<Integer>> mapRows(List<Row<Integer>> rows, ObservationTable<Integer, Integer> table) {
+        final List<Row<Integer>> result = new ArrayList<>(rows.size());
+        for (Row<Integer> row : rows) {
+            result.add(table.getRow(row.getLabel()));
+        }
+        return result;
+    }
+
+    /**
+     * Answers each query with the sum of its input symbols modulo {@link #MODULUS}.
+     */
+    private static class ModuloOracle implements MembershipOracle<Integer, Integer> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            for (Query<Integer, Integer> q : queries) {
+                int sum = 0;
+                for (Integer i : q.getInput()) {
+                    sum += i;
+                }
+                q.answer(sum % MODULUS);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.observationtable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.GrowingMapAlphabet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the incremental closedness and consistency checks of {@link AbstractObservationTable}s agree with checks
+ * over the complete table.
+ */
+public class IncrementalObservationTableTest {
+
+    private static final int NUM_STATES = 11;
+    private static final int NUM_ROUNDS = 40;
+
+    @Test
+    public void testIncrementalChecks() {
+        final Random random = new Random(42);
+        final Alphabet<Integer> alphabet = new GrowingMapAlphabet<>(Arrays.asList(0, 1));
+        final MembershipOracle<Integer, Boolean> oracle = new CounterOracle();
+        final GenericObservationTable<Integer, Boolean> table = new GenericObservationTable<>(alphabet);
+
+        table.initialize(Collections.singletonList(Word.epsilon()), Collections.singletonList(Word.epsilon()), oracle);
+        checkTable(table);
+
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    table.addShortPrefixes(prefixClosure(randomWord(random, alphabet)), oracle);
+                    break;
+                case 1:
+                    table.addSuffix(randomWord(random, alphabet), oracle);
+                    break;
+                case 2:
+                    final Row<Integer> unclosed = table.findUnclosedRow();
+                    if (unclosed != null) {
+                        table.toShortPrefixes(Collections.singletonList(unclosed), oracle);
+                    }
+                    break;
+                default:
+                    final Inconsistency<Integer> incons = table.findInconsistency();
+                    if (incons != null) {
+                        final Word<Integer> suffix = table.findDistinguishingSuffix(incons);
+                        Assert.assertNotNull(suffix);
+                        table.addSuffix(Word.fromLetter(incons.getSymbol()).concat(suffix), oracle);
+                    }
+                    break;
+            }
+
+            if (i == NUM_ROUNDS / 2) {
+                table.addAlphabetSymbol(2, oracle);
+            }
+
+            checkTable(table);
+        }
+    }
+
+    private static void checkTable(ObservationTable<Integer, Boolean> table) {
+        final Row<Integer> unclosed = table.findUnclosedRow();
+        Assert.assertEquals(unclosed == null, isClosed(table));
+        if (unclosed != null) {
+            Assert.assertFalse(unclosed.isShortPrefixRow());
+            for (Row<Integer> spRow : table.getShortPrefixRows()) {
+                Assert.assertNotEquals(spRow.getRowContentId(), unclosed.getRowContentId());
+            }
+        }
+
+        final Inconsistency<Integer> incons = table.findInconsistency();
+        Assert.assertEquals(incons == null, isConsistent(table));
+        if (incons != null) {
+            final Row<Integer> first = incons.getFirstRow();
+            final Row<Integer> second = incons.getSecondRow();
+            Assert.assertEquals(first.getRowContentId(), second.getRowContentId());
+            Assert.assertNotEquals(table.getRowSuccessor(first, incons.getSymbol()).getRowContentId(),
+                                   table.getRowSuccessor(second, incons.getSymbol()).getRowContentId());
+        }
+    }
+
+    private static boolean isClosed(ObservationTable<Integer, Boolean> table) {
+        for (Row<Integer> lpRow : table.getLongPrefixRows()) {
+            boolean found = false;
+            for (Row<Integer> spRow : table.getShortPrefixRows()) {
+                found |= spRow.getRowContentId() == lpRow.getRowContentId();
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isConsistent(ObservationTable<Integer, Boolean> table) {
+        final Alphabet<Integer> alphabet = table.getInputAlphabet();
+        for (Row<Integer> r1 : table.getShortPrefixRows()) {
+            for (Row<Integer> r2 : table.getShortPrefixRows()) {
+                if (r1.getRowContentId() != r2.getRowContentId()) {
+                    continue;
+                }
+                for (Integer sym : alphabet) {
+                    final Row<Integer> succ1 = table.getRowSuccessor(r1, sym);
+                    final Row<Integer> succ2 = table.getRowSuccessor(r2, sym);
+                    if (succ1.getRowContentId() != succ2.getRowContentId()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Word<Integer> randomWord(Random random, Alphabet<Integer> alphabet) {
+        final int length = random.nextInt(6);
+        final WordBuilder<Integer> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+        return wb.toWord();
+    }
+
+    private static List<Word<Integer>> prefixClosure(Word<Integer> word) {
+        final List<Word<Integer>> result = new ArrayList<>(word.length());
+        for (int i = 1; i <= word.length(); i++) {
+            result.add(word.prefix(i));
+        }
+        return result;
+    }
+
+    /**
+     * Simulates a counter modulo {@link #NUM_STATES}, which accepts a word if the counter value is a square.
+     */
+    private static class CounterOracle implements MembershipOracle<Integer, Boolean> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Boolean>> queries) {
+            for (Query<Integer, Boolean> q : queries) {
+                int state = 0;
+                for (Integer i : q.getInput()) {
+                    state = (3 * state + i + 1) % NUM_STATES;
+                }
+                q.answer(state == 1 || state == 4 || state == 9 || state == 5 || state == 3);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.observationtable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.GrowingMapAlphabet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that observation tables with lazily filled cells induce the same row partition as eagerly filled ones, while
+ * posing fewer queries.
+ */
+public class LazyObservationTableTest {
+
+    private static final int NUM_STATES = 101;
+    private static final int NUM_ROUNDS = 60;
+
+    @Test
+    public void testLazyFilling() {
+        final Random random = new Random(42);
+
+        final CountingOracle eagerOracle = new CountingOracle();
+        final CountingOracle lazyOracle = new CountingOracle();
+
+        final GenericObservationTable<Integer, Integer> eagerTable =
+                new GenericObservationTable<>(new GrowingMapAlphabet<>(Arrays.asList(0, 1)), false, false);
+        final GenericObservationTable<Integer, Integer> lazyTable =
+                new GenericObservationTable<>(new GrowingMapAlphabet<>(Arrays.asList(0, 1)), false, true);
+
+        final List<Word<Integer>> initial = Collections.singletonList(Word.epsilon());
+        eagerTable.initialize(initial, initial, eagerOracle);
+        lazyTable.initialize(initial, initial, lazyOracle);
+
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    final List<Word<Integer>> prefixes =
+                            prefixClosure(randomWord(random, eagerTable.getInputAlphabet(), 5));
+                    eagerTable.addShortPrefixes(prefixes, eagerOracle);
+                    lazyTable.addShortPrefixes(prefixes, lazyOracle);
+                    break;
+                case 1:
+                    final Alphabet<Integer> alphabet = eagerTable.getInputAlphabet();
+                    final List<Word<Integer>> suffixes =
+                            Arrays.asList(randomWord(random, alphabet, 4), randomWord(random, alphabet, 4));
+                    eagerTable.addSuffixes(suffixes, eagerOracle);
+                    lazyTable.addSuffixes(suffixes, lazyOracle);
+                    break;
+                default:
+                    final Row<Integer> unclosed = eagerTable.findUnclosedRow();
+                    Assert.assertEquals(lazyTable.findUnclosedRow() == null, unclosed == null);
+                    if (unclosed != null) {
+                        eagerTable.toShortPrefixes(Collections.singletonList(unclosed), eagerOracle);
+                        lazyTable.toShortPrefixes(Collections.singletonList(lazyTable.getRow(unclosed.getLabel())),
+                                                  lazyOracle);
+                    }
+                    break;
+            }
+
+            if (i == NUM_ROUNDS / 2) {
+                eagerTable.addAlphabetSymbol(2, eagerOracle);
+                lazyTable.addAlphabetSymbol(2, lazyOracle);
+            }
+
+            checkPartition(eagerTable, lazyTable);
+        }
+
+        Assert.assertTrue(lazyOracle.count < eagerOracle.count);
+
+        // accessing the contents of rows queries their pending cells
+        for (Row<Integer> eagerRow : eagerTable.getAllRows()) {
+            final Row<Integer> lazyRow = lazyTable.getRow(eagerRow.getLabel());
+            Assert.assertEquals(lazyTable.rowContents(lazyRow), eagerTable.rowContents(eagerRow));
+        }
+
+        Assert.assertEquals(lazyOracle.count, eagerOracle.count);
+    }
+
+    @Test
+    public void testBatchedSuffixes() {
+        final CountingOracle oracle = new CountingOracle();
+        final GenericObservationTable<Integer, Integer> table = createLazyTable(oracle);
+
+        final long batches = oracle.batches;
+        table.addSuffixes(Arrays.asList(Word.fromSymbols(0), Word.fromSymbols(1), Word.fromSymbols(0, 1)), oracle);
+        Assert.assertEquals(oracle.batches, batches + 1);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final CountingOracle oracle = new CountingOracle();
+        final GenericObservationTable<Integer, Integer> table = createLazyTable(oracle);
+        for (Word<Integer> suffix : prefixClosure(Word.fromSymbols(0, 1, 1, 0, 1))) {
+            table.addSuffixes(Collections.singletonList(suffix), oracle);
+        }
+
+        final long countBefore = oracle.count;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(table);
+        }
+        // serialization does not pose queries
+        Assert.assertEquals(oracle.count, countBefore);
+
+        final GenericObservationTable<Integer, Integer> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final GenericObservationTable<Integer, Integer> read =
+                    (GenericObservationTable<Integer, Integer>) in.readObject();
+            copy = read;
+        }
+
+        // the deserialized table does not have an oracle for its pending cells
+        final Row<Integer> pendingRow = copy.getRow(Word.fromSymbols(1, 1, 1));
+        Assert.assertThrows(IllegalStateException.class, () -> copy.rowContents(pendingRow));
+
+        final CountingOracle copyOracle = new CountingOracle();
+        copy.completeLazyRows(copyOracle);
+        Assert.assertEquals(copyOracle.batches, 1);
+        Assert.assertTrue(copyOracle.count > 0);
+
+        for (Row<Integer> row : table.getAllRows()) {
+            final Row<Integer> copiedRow = copy.getRow(row.getLabel());
+            Assert.assertEquals(copy.rowContents(copiedRow), table.rowContents(row));
+        }
+
+        // all cells of the copy have been queried at once
+        Assert.assertEquals(copyOracle.batches, 1);
+    }
+
+    @Test
+    public void testNewUnclosedRows() {
+        final CountingOracle oracle = new CountingOracle();
+        final GenericObservationTable<Integer, Integer> eagerTable =
+                new GenericObservationTable<>(new GrowingMapAlphabet<>(Arrays.asList(0, 1)), false, false);
+        final GenericObservationTable<Integer, Integer> lazyTable = createLazyTable(oracle);
+
+        final List<Word<Integer>> initial = Collections.singletonList(Word.epsilon());
+        eagerTable.initialize(initial, initial, oracle);
+        eagerTable.addShortPrefixes(prefixClosure(Word.fromSymbols(0, 0, 0)), oracle);
+        eagerTable.addShortPrefixes(prefixClosure(Word.fromSymbols(1, 1, 1)), oracle);
+
+        for (Word<Integer> suffix : prefixClosure(Word.fromSymbols(0, 1, 1, 0, 1))) {
+            final List<Word<Integer>> suffixes = Collections.singletonList(suffix);
+            // only the unclosed classes induced by the new suffixes are reported
+            Assert.assertEquals(lazyTable.addSuffixes(suffixes, oracle).size(),
+                                eagerTable.addSuffixes(suffixes, oracle).size());
+        }
+    }
+
+    private static GenericObservationTable<Integer, Integer> createLazyTable(CountingOracle oracle) {
+        final GenericObservationTable<Integer, Integer> table =
+                new GenericObservationTable<>(new GrowingMapAlphabet<>(Arrays.asList(0, 1)), false, true);
+
+        final List<Word<Integer>> initial = Collections.singletonList(Word.epsilon());
+        table.initialize(initial, initial, oracle);
+        table.addShortPrefixes(prefixClosure(Word.fromSymbols(0, 0, 0)), oracle);
+        table.addShortPrefixes(prefixClosure(Word.fromSymbols(1, 1, 1)), oracle);
+
+        return table;
+    }
+
+    private static void checkPartition(ObservationTable<Integer, Integer> eagerTable,
+                                       ObservationTable<Integer, Integer> lazyTable) {
+        Assert.assertEquals(lazyTable.getSuffixes(), eagerTable.getSuffixes());
+        Assert.assertEquals(lazyTable.getShortPrefixes(), eagerTable.getShortPrefixes());
+        Assert.assertEquals(lazyTable.numberOfDistinctRows(), eagerTable.numberOfDistinctRows());
+        Assert.assertEquals(lazyTable.findInconsistency() == null, eagerTable.findInconsistency() == null);
+
+        final int[] idMap = new int[eagerTable.numberOfDistinctRows()];
+        Arrays.fill(idMap, -1);
+
+        for (Row<Integer> eagerRow : eagerTable.getAllRows()) {
+            final Row<Integer> lazyRow = lazyTable.getRow(eagerRow.getLabel());
+            final int eagerId = eagerRow.getRowContentId();
+            if (idMap[eagerId] == -1) {
+                idMap[eagerId] = lazyRow.getRowContentId();
+            }
+            Assert.assertEquals(lazyRow.getRowContentId(), idMap[eagerId]);
+        }
+    }
+
+    private static Word<Integer> randomWord(Random random, Alphabet<Integer> alphabet, int maxLength) {
+        final int length = random.nextInt(maxLength + 1);
+        final WordBuilder<Integer> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+        return wb.toWord();
+    }
+
+    private static List<Word<Integer>> prefixClosure(Word<Integer> word) {
+        final List<Word<Integer>> result = new ArrayList<>(word.length());
+        for (int i = 1; i <= word.length(); i++) {
+            result.add(word.prefix(i));
+        }
+        return result;
+    }
+
+    /**
+     * Simulates a counter modulo {@link #NUM_STATES} and counts the number of answered queries.
+     */
+    private static class CountingOracle implements MembershipOracle<Integer, Integer> {
+
+        private long count;
+        private long batches;
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            batches++;
+            for (Query<Integer, Integer> q : queries) {
+                int state = 0;
+                for (Integer i : q.getInput()) {
+                    state = (2 * state + i + 1) % NUM_STATES;
+                }
+                q.answer(state % 3);
+                count++;
+            }
+        }
+    }
+}
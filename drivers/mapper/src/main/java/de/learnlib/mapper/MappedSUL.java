@@ -21,6 +21,8 @@ import de.learnlib.api.SUL;
 import de.learnlib.api.exception.SULException;
 import de.learnlib.mapper.api.SULMapper;
 import de.learnlib.mapper.api.SULMapper.MappedException;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
 
 public class MappedSUL<AI, AO, CI, CO> implements SUL<AI, AO> {
 
@@ -76,6 +78,26 @@ public class MappedSUL<AI, AO, CI, CO> implements SUL<AI, AO> {
         return mappedEx.getThisStepOutput();
     }
 
+    @Override
+    public Word<AO> stepAll(Word<? extends AI> in) {
+        if (inError || !mapper.canMapWords()) {
+            return SUL.super.stepAll(in);
+        }
+
+        final WordBuilder<CI> concreteInput = new WordBuilder<>(in.length());
+        for (AI sym : in) {
+            concreteInput.add(mapper.mapInput(sym));
+        }
+
+        final Word<? extends CO> concreteOutput = sul.stepAll(concreteInput.toWord());
+        final WordBuilder<AO> abstractOutput = new WordBuilder<>(concreteOutput.length());
+        for (CO sym : concreteOutput) {
+            abstractOutput.add(mapper.mapOutput(sym));
+        }
+
+        return abstractOutput.toWord();
+    }
+
     @Override
     public boolean canFork() {
         return mapper.canFork() && sul.canFork();
@@ -67,6 +67,11 @@ final class SULMapperComposition<AI, AO, ACI, CAO, CI, CO>
         return new SULMapperComposition<>(mapper1.fork(), mapper2.fork());
     }
 
+    @Override
+    public boolean canMapWords() {
+        return mapper1.canMapWords() && mapper2.canMapWords();
+    }
+
     private MappedException<? extends AO> mapMappedException(MappedException<? extends CAO> mappedEx) {
         AO thisStepOutput = mapper1.mapOutput(mappedEx.getThisStepOutput());
         Optional<? extends CAO> repeatOutput = mappedEx.getSubsequentStepsOutput();
@@ -45,6 +45,11 @@ public class StringMapper<CI> implements SULMapper<String, String, CI, Object> {
         return concreteOutput.toString();
     }
 
+    @Override
+    public boolean canMapWords() {
+        return true;
+    }
+
     public Alphabet<String> getMappedInputs() {
         return mappedInputs;
     }
@@ -77,6 +77,22 @@ public interface SULMapper<AI, AO, CI, CO> extends SynchronousMapper<AI, AO, CI,
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Checks whether this mapper can translate complete words at once, i.e., whether the results of {@link
+     * #mapInput(Object)} and {@link #mapOutput(Object)} do not depend on the order of their invocations and exceptions
+     * of the mapped SUL are passed on (see {@link MappedException#pass(SULException)}). Stateless mappers with the
+     * default exception handling fulfill these requirements.
+     * <p>
+     * If this method returns {@code true}, a {@link de.learnlib.mapper.MappedSUL} forwards the words of {@link
+     * SUL#stepAll(net.automatalib.words.Word)} to the mapped SUL in a single call, which may save round trips for
+     * remote systems.
+     *
+     * @return {@code true} if this mapper can translate complete words, {@code false} otherwise.
+     */
+    default boolean canMapWords() {
+        return false;
+    }
+
     /**
      * Maps a wrapped {@link SULException} to an abstract output symbol, or rethrows it if it is unmappable.
      *
@@ -0,0 +1,101 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.mapper;
+
+import de.learnlib.api.SUL;
+import de.learnlib.mapper.api.SULMapper;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MappedSULTest {
+
+    private static final Alphabet<Character> ALPHABET = Alphabets.characters('a', 'c');
+
+    @Test
+    public void testWordMapping() {
+        final EchoSUL sul = new EchoSUL();
+        final StringMapper<Character> mapper = new StringMapper<>(ALPHABET);
+        final SUL<String, String> mappedSUL = SULMappers.apply(mapper, sul);
+
+        Assert.assertTrue(mapper.canMapWords());
+
+        mappedSUL.pre();
+        Assert.assertEquals(mappedSUL.stepAll(Word.fromSymbols("a", "b", "c")), Word.fromSymbols("a", "b", "c"));
+        mappedSUL.post();
+
+        // the complete word should have been forwarded in a single call
+        Assert.assertEquals(sul.steps, 0);
+        Assert.assertEquals(sul.stepAlls, 1);
+    }
+
+    @Test
+    public void testSymbolMapping() {
+        final EchoSUL sul = new EchoSUL();
+        final SULMapper<String, String, Character, Character> mapper =
+                SULMappers.compose(new StringMapper<>(ALPHABET), new SynchronousIdentityMapper());
+        final SUL<String, String> mappedSUL = SULMappers.apply(mapper, sul);
+
+        Assert.assertFalse(mapper.canMapWords());
+
+        mappedSUL.pre();
+        Assert.assertEquals(mappedSUL.stepAll(Word.fromSymbols("a", "b", "c")), Word.fromSymbols("a", "b", "c"));
+        mappedSUL.post();
+
+        // synchronous mappers require symbol-wise translation
+        Assert.assertEquals(sul.steps, 3);
+        Assert.assertEquals(sul.stepAlls, 0);
+    }
+
+    private static final class EchoSUL implements SUL<Character, Character> {
+
+        private int steps;
+        private int stepAlls;
+
+        @Override
+        public void pre() {}
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Character step(Character in) {
+            steps++;
+            return in;
+        }
+
+        @Override
+        public Word<Character> stepAll(Word<? extends Character> in) {
+            stepAlls++;
+            return Word.upcast(in);
+        }
+    }
+
+    private static final class SynchronousIdentityMapper implements SULMapper<Character, Object, Character, Character> {
+
+        @Override
+        public Character mapInput(Character abstractInput) {
+            return abstractInput;
+        }
+
+        @Override
+        public Object mapOutput(Character concreteOutput) {
+            return concreteOutput;
+        }
+    }
+}
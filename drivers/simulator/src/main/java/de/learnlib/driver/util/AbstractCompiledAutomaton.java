@@ -0,0 +1,190 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.automatalib.automata.concepts.StateIDs;
+import net.automatalib.automata.simple.SimpleDeterministicAutomaton;
+import net.automatalib.ts.simple.SimpleDTS;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Common base of automata that have been compiled into flat, array-backed transition tables. States are represented
+ * by their (non-negative) integer index, input symbols by their position in the alphabet that was used for
+ * compilation. Undefined transitions (and unknown input symbols) are represented by {@link #UNDEFINED}.
+ * <p>
+ * The {@link SimpleDTS} view boxes states into {@link Integer}s and is mainly provided for interoperability with
+ * existing (state-based) oracles. Performance-critical code should use the {@code int}-based methods instead.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+abstract class AbstractCompiledAutomaton<I> implements SimpleDTS<Integer, I> {
+
+    /**
+     * Index used for undefined states, i.e. the target of undefined transitions.
+     */
+    public static final int UNDEFINED = -1;
+
+    protected final int numInputs;
+    protected final int[] transitions;
+    protected final int initialState;
+    private final Map<I, Integer> symbolIndices;
+
+    protected <S> AbstractCompiledAutomaton(SimpleDeterministicAutomaton<S, I> automaton,
+                                            Collection<? extends I> inputs) {
+        this.symbolIndices = new HashMap<>((int) (inputs.size() / 0.75f) + 1);
+
+        for (I i : inputs) {
+            symbolIndices.putIfAbsent(i, symbolIndices.size());
+        }
+
+        this.numInputs = symbolIndices.size();
+
+        final StateIDs<S> stateIDs = automaton.stateIDs();
+        final int numStates = automaton.size();
+        final int[] trans = new int[numStates * numInputs];
+
+        for (S s : automaton) {
+            final int base = stateIDs.getStateId(s) * numInputs;
+            for (Map.Entry<I, Integer> e : symbolIndices.entrySet()) {
+                final S succ = automaton.getSuccessor(s, e.getKey());
+                trans[base + e.getValue()] = succ == null ? UNDEFINED : stateIDs.getStateId(succ);
+            }
+        }
+
+        final S init = automaton.getInitialState();
+
+        this.transitions = trans;
+        this.initialState = init == null ? UNDEFINED : stateIDs.getStateId(init);
+    }
+
+    /**
+     * Returns the number of states of the compiled automaton.
+     *
+     * @return the number of states
+     */
+    public int getNumStates() {
+        return numInputs == 0 ? 0 : transitions.length / numInputs;
+    }
+
+    /**
+     * Returns the number of input symbols the automaton has been compiled for.
+     *
+     * @return the number of input symbols
+     */
+    public int getNumInputs() {
+        return numInputs;
+    }
+
+    /**
+     * Returns the index of the initial state, or {@link #UNDEFINED} if the automaton has no initial state.
+     *
+     * @return the index of the initial state
+     */
+    public int getInitialStateIndex() {
+        return initialState;
+    }
+
+    /**
+     * Returns the index of the given input symbol, or {@link #UNDEFINED} if the symbol was not part of the alphabet
+     * used for compilation.
+     *
+     * @param input
+     *         the input symbol
+     *
+     * @return the index of the given input symbol
+     */
+    public int getSymbolIndex(I input) {
+        final Integer idx = symbolIndices.get(input);
+        return idx == null ? UNDEFINED : idx;
+    }
+
+    /**
+     * Returns the index of the successor state.
+     *
+     * @param state
+     *         the index of the source state, may be {@link #UNDEFINED}
+     * @param symbolIndex
+     *         the index of the input symbol, may be {@link #UNDEFINED}
+     *
+     * @return the index of the successor state, or {@link #UNDEFINED} if no such state exists
+     */
+    public int getSuccessorIndex(int state, int symbolIndex) {
+        if (state < 0 || symbolIndex < 0) {
+            return UNDEFINED;
+        }
+        return transitions[state * numInputs + symbolIndex];
+    }
+
+    /**
+     * Returns the index of the state reached by the given input sequence from the given state.
+     *
+     * @param state
+     *         the index of the source state, may be {@link #UNDEFINED}
+     * @param input
+     *         the input sequence
+     *
+     * @return the index of the reached state, or {@link #UNDEFINED} if no such state exists
+     */
+    public int getSuccessorIndex(int state, Iterable<? extends I> input) {
+        int curr = state;
+
+        if (input instanceof Word) {
+            final Word<? extends I> word = (Word<? extends I>) input;
+            final int len = word.length();
+            for (int i = 0; i < len && curr >= 0; i++) {
+                curr = getSuccessorIndex(curr, getSymbolIndex(word.getSymbol(i)));
+            }
+        } else {
+            final Iterator<? extends I> iter = input.iterator();
+            while (curr >= 0 && iter.hasNext()) {
+                curr = getSuccessorIndex(curr, getSymbolIndex(iter.next()));
+            }
+        }
+
+        return curr;
+    }
+
+    @Override
+    public @Nullable Integer getInitialState() {
+        return box(initialState);
+    }
+
+    @Override
+    public @Nullable Integer getSuccessor(Integer state, I input) {
+        return box(getSuccessorIndex(state, getSymbolIndex(input)));
+    }
+
+    @Override
+    public @Nullable Integer getSuccessor(Integer state, Iterable<? extends I> input) {
+        return box(getSuccessorIndex(state, input));
+    }
+
+    @Override
+    public @Nullable Integer getState(Iterable<? extends I> input) {
+        return box(getSuccessorIndex(initialState, input));
+    }
+
+    private static @Nullable Integer box(int state) {
+        return state < 0 ? null : state;
+    }
+}
@@ -0,0 +1,102 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import java.util.Collection;
+
+import net.automatalib.automata.concepts.StateIDs;
+import net.automatalib.automata.concepts.SuffixOutput;
+import net.automatalib.automata.fsa.DFA;
+
+/**
+ * A {@link DFA} that has been compiled into a flat, array-backed transition table and an acceptance bit-vector.
+ * Compilation happens once (see {@link #compile(DFA, Collection)}), afterwards queries are answered by plain array
+ * look-ups without allocating any objects.
+ * <p>
+ * Since this class implements {@link SuffixOutput}, it can be used as a drop-in replacement for the original automaton
+ * in e.g. {@code SimulatorOracle}s.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public final class CompiledDFA<I> extends AbstractCompiledAutomaton<I> implements SuffixOutput<I, Boolean> {
+
+    private final boolean[] accepting;
+
+    private <S> CompiledDFA(DFA<S, I> dfa, Collection<? extends I> inputs) {
+        super(dfa, inputs);
+
+        final StateIDs<S> stateIDs = dfa.stateIDs();
+        final boolean[] acc = new boolean[dfa.size()];
+
+        for (S s : dfa) {
+            acc[stateIDs.getStateId(s)] = dfa.isAccepting(s);
+        }
+
+        this.accepting = acc;
+    }
+
+    /**
+     * Compiles the given DFA with respect to the given input symbols. Symbols not contained in {@code inputs} are
+     * treated like undefined transitions, i.e. words containing them are rejected.
+     *
+     * @param dfa
+     *         the DFA to compile
+     * @param inputs
+     *         the input symbols to consider
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the compiled DFA
+     */
+    public static <I> CompiledDFA<I> compile(DFA<?, I> dfa, Collection<? extends I> inputs) {
+        return new CompiledDFA<>(dfa, inputs);
+    }
+
+    /**
+     * Returns whether the given state is accepting.
+     *
+     * @param state
+     *         the index of the state, may be {@link #UNDEFINED}
+     *
+     * @return {@code true} if the given state is defined and accepting, {@code false} otherwise
+     */
+    public boolean isAccepting(int state) {
+        return state >= 0 && accepting[state];
+    }
+
+    /**
+     * Returns whether the given input word is accepted.
+     *
+     * @param input
+     *         the input word
+     *
+     * @return {@code true} if the word is accepted, {@code false} otherwise
+     */
+    public boolean accepts(Iterable<? extends I> input) {
+        return isAccepting(getSuccessorIndex(initialState, input));
+    }
+
+    @Override
+    public Boolean computeSuffixOutput(Iterable<? extends I> prefix, Iterable<? extends I> suffix) {
+        return isAccepting(getSuccessorIndex(getSuccessorIndex(initialState, prefix), suffix));
+    }
+
+    @Override
+    public Boolean computeOutput(Iterable<? extends I> input) {
+        return accepts(input);
+    }
+}
@@ -0,0 +1,178 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.automatalib.automata.concepts.StateIDs;
+import net.automatalib.automata.concepts.SuffixOutput;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A {@link MealyMachine} that has been compiled into flat, array-backed transition and output tables. Compilation
+ * happens once (see {@link #compile(MealyMachine, Collection)}), afterwards queries are answered by plain array
+ * look-ups without allocating any objects except for the resulting output word.
+ * <p>
+ * Since this class implements {@link SuffixOutput}, it can be used as a drop-in replacement for the original automaton
+ * in e.g. {@code SimulatorOracle}s, and with {@link CompiledMealySimulatorSUL} for SUL-based setups.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public final class CompiledMealy<I, O> extends AbstractCompiledAutomaton<I> implements SuffixOutput<I, Word<O>> {
+
+    private final int[] outputs;
+    private final Object[] outputSymbols;
+
+    private <S, T> CompiledMealy(MealyMachine<S, I, T, O> mealy, Collection<? extends I> inputs) {
+        super(mealy, inputs);
+
+        final StateIDs<S> stateIDs = mealy.stateIDs();
+        final Map<O, Integer> outputIndices = new HashMap<>();
+        final int[] outs = new int[transitions.length];
+
+        for (S s : mealy) {
+            final int base = stateIDs.getStateId(s) * numInputs;
+            for (I i : inputs) {
+                final int idx = getSymbolIndex(i);
+                final T trans = mealy.getTransition(s, i);
+                if (trans != null) {
+                    final O out = mealy.getTransitionOutput(trans);
+                    outs[base + idx] = outputIndices.computeIfAbsent(out, k -> outputIndices.size());
+                }
+            }
+        }
+
+        final Object[] outSyms = new Object[outputIndices.size()];
+        for (Map.Entry<O, Integer> e : outputIndices.entrySet()) {
+            outSyms[e.getValue()] = e.getKey();
+        }
+
+        this.outputs = outs;
+        this.outputSymbols = outSyms;
+    }
+
+    /**
+     * Compiles the given Mealy machine with respect to the given input symbols. Symbols not contained in {@code inputs}
+     * are treated like undefined transitions when simulating the compiled automaton.
+     *
+     * @param mealy
+     *         the Mealy machine to compile
+     * @param inputs
+     *         the input symbols to consider
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return the compiled Mealy machine
+     */
+    public static <I, O> CompiledMealy<I, O> compile(MealyMachine<?, I, ?, O> mealy, Collection<? extends I> inputs) {
+        return new CompiledMealy<>(mealy, inputs);
+    }
+
+    /**
+     * Returns the output of the transition of the given state for the given input symbol. The behavior is unspecified
+     * if the transition is undefined, i.e. if {@link #getSuccessorIndex(int, int)} returns {@link #UNDEFINED}.
+     *
+     * @param state
+     *         the index of the source state
+     * @param symbolIndex
+     *         the index of the input symbol
+     *
+     * @return the transition output
+     */
+    public O getOutput(int state, int symbolIndex) {
+        return getOutputSymbol(state * numInputs + symbolIndex);
+    }
+
+    /**
+     * Traces the given input word from the given state and writes the produced outputs to the given builder. Tracing
+     * stops at the first undefined transition.
+     *
+     * @param state
+     *         the index of the source state, may be {@link #UNDEFINED}
+     * @param input
+     *         the input word
+     * @param output
+     *         the builder to which the produced outputs are appended
+     *
+     * @return the index of the reached state, or {@link #UNDEFINED} if an undefined transition was encountered
+     */
+    public int trace(int state, Iterable<? extends I> input, WordBuilder<? super O> output) {
+        int curr = state;
+
+        if (input instanceof Word) {
+            final Word<? extends I> word = (Word<? extends I>) input;
+            final int len = word.length();
+            for (int i = 0; i < len && curr >= 0; i++) {
+                curr = traceStep(curr, getSymbolIndex(word.getSymbol(i)), output);
+            }
+        } else {
+            final Iterator<? extends I> iter = input.iterator();
+            while (curr >= 0 && iter.hasNext()) {
+                curr = traceStep(curr, getSymbolIndex(iter.next()), output);
+            }
+        }
+
+        return curr;
+    }
+
+    private int traceStep(int state, int symbolIndex, WordBuilder<? super O> output) {
+        if (symbolIndex < 0) {
+            return UNDEFINED;
+        }
+
+        final int idx = state * numInputs + symbolIndex;
+        final int succ = transitions[idx];
+
+        if (succ >= 0) {
+            output.append(getOutputSymbol(idx));
+        }
+
+        return succ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private O getOutputSymbol(int transIdx) {
+        return (O) outputSymbols[outputs[transIdx]];
+    }
+
+    @Override
+    public Word<O> computeSuffixOutput(Iterable<? extends I> prefix, Iterable<? extends I> suffix) {
+        final int state = getSuccessorIndex(initialState, prefix);
+        if (state < 0) {
+            return Word.epsilon();
+        }
+
+        final WordBuilder<O> result =
+                suffix instanceof Word ? new WordBuilder<>(((Word<?>) suffix).length()) : new WordBuilder<>();
+        trace(state, suffix, result);
+        return result.toWord();
+    }
+
+    @Override
+    public Word<O> computeOutput(Iterable<? extends I> input) {
+        return computeSuffixOutput(Word.epsilon(), input);
+    }
+}
@@ -0,0 +1,149 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import java.util.Collection;
+
+import de.learnlib.api.ObservableSUL;
+import de.learnlib.api.SUL;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link SUL} that implements steps by stepping through a {@link CompiledMealy compiled} Mealy machine. Compared to
+ * the {@link MealySimulatorSUL}, states are plain {@code int} indices and transitions are resolved via array look-ups,
+ * which makes this SUL particularly suited for benchmarking learning algorithms on (large) simulated systems.
+ * <p>
+ * States are exposed as their {@link Integer} indices ({@link CompiledMealy#UNDEFINED} denotes the sink reached by
+ * undefined transitions) and can be {@link #restoreState(Integer) restored}. Forks share the (immutable) compiled
+ * tables and thus come at virtually no cost.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class CompiledMealySimulatorSUL<I, O> implements ObservableSUL<Integer, I, O> {
+
+    private final CompiledMealy<I, O> mealy;
+    private final @Nullable O noTransOut;
+    private int curr;
+
+    /**
+     * Constructor, compiling the given Mealy machine and using {@code null} as the output for undefined transitions.
+     *
+     * @param mealy
+     *         the Mealy machine
+     * @param inputs
+     *         the input symbols to compile the Mealy machine for
+     */
+    public CompiledMealySimulatorSUL(MealyMachine<?, I, ?, O> mealy, Collection<? extends I> inputs) {
+        this(CompiledMealy.compile(mealy, inputs), null);
+    }
+
+    /**
+     * Constructor.
+     * <p>
+     * If the given Mealy machine has no undefined transitions, the second parameter has no effect. Otherwise, if
+     * sequences of {@link #step(Object)} invocations reach an undefined transition, subsequent invocations of {@link
+     * #step(Object)} will simply return the specified {@code noTransOut} symbol.
+     *
+     * @param mealy
+     *         the compiled Mealy machine
+     * @param noTransOut
+     *         the output symbol to use when encountering undefined transitions
+     */
+    public CompiledMealySimulatorSUL(CompiledMealy<I, O> mealy, @Nullable O noTransOut) {
+        this.mealy = mealy;
+        this.noTransOut = noTransOut;
+        this.curr = CompiledMealy.UNDEFINED;
+    }
+
+    @Override
+    public void pre() {
+        this.curr = mealy.getInitialStateIndex();
+    }
+
+    @Override
+    public void post() {
+        this.curr = CompiledMealy.UNDEFINED;
+    }
+
+    @Override
+    public O step(I in) {
+        final int symIdx = mealy.getSymbolIndex(in);
+        final int succ = mealy.getSuccessorIndex(curr, symIdx);
+
+        if (succ < 0) {
+            this.curr = CompiledMealy.UNDEFINED;
+            return noTransOut;
+        }
+
+        final O out = mealy.getOutput(curr, symIdx);
+        this.curr = succ;
+        return out;
+    }
+
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        final int len = in.length();
+        final WordBuilder<O> wb = new WordBuilder<>(len);
+
+        this.curr = mealy.trace(curr, in, wb);
+
+        // pad the remaining symbols after an undefined transition
+        if (wb.size() < len) {
+            wb.repeatAppend(len - wb.size(), noTransOut);
+        }
+
+        return wb.toWord();
+    }
+
+    @Override
+    public boolean canFork() {
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public CompiledMealySimulatorSUL<I, O> fork() {
+        return new CompiledMealySimulatorSUL<>(mealy, noTransOut);
+    }
+
+    @NonNull
+    @Override
+    public Integer getState() {
+        return curr;
+    }
+
+    @Override
+    public boolean deepCopies() {
+        return true;
+    }
+
+    @Override
+    public boolean canRestoreState() {
+        return true;
+    }
+
+    @Override
+    public void restoreState(Integer state) {
+        this.curr = state;
+    }
+}
@@ -0,0 +1,116 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.oracle.SingleQueryOmegaOracle;
+import de.learnlib.driver.util.CompiledSimulatorOracle.CompiledDFASimulatorOracle;
+import de.learnlib.driver.util.CompiledSimulatorOracle.CompiledMealySimulatorOracle;
+import net.automatalib.commons.util.Pair;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * Answers omega queries by simulating a compiled ({@link CompiledDFA} or {@link CompiledMealy}) automaton. States are
+ * represented (and compared) by their index, so that detecting the loop of a query does not box any states.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public class CompiledSimulatorOmegaOracle<I, D> implements SingleQueryOmegaOracle<Integer, I, D> {
+
+    private final AbstractCompiledAutomaton<I> automaton;
+    private final CompiledSimulatorOracle<I, D> simulatorOracle;
+
+    CompiledSimulatorOmegaOracle(AbstractCompiledAutomaton<I> automaton,
+                                 CompiledSimulatorOracle<I, D> simulatorOracle) {
+        this.automaton = automaton;
+        this.simulatorOracle = simulatorOracle;
+    }
+
+    @Override
+    public MembershipOracle<I, D> getMembershipOracle() {
+        return simulatorOracle;
+    }
+
+    @Override
+    public boolean isSameState(Word<I> input1, Integer s1, Word<I> input2, Integer s2) {
+        return s1.intValue() == s2.intValue();
+    }
+
+    @Override
+    public Pair<D, Integer> answerQuery(Word<I> prefix, Word<I> loop, int repeat) {
+        assert repeat > 0;
+
+        final int[] states = new int[repeat + 1];
+        int state = automaton.getSuccessorIndex(automaton.getInitialStateIndex(), prefix);
+
+        if (state == AbstractCompiledAutomaton.UNDEFINED) {
+            return Pair.of(null, -1);
+        }
+
+        states[0] = state;
+
+        for (int i = 0; i < repeat; i++) {
+            state = automaton.getSuccessorIndex(state, loop);
+
+            if (state == AbstractCompiledAutomaton.UNDEFINED) {
+                return Pair.of(null, -1);
+            }
+
+            for (int j = 0; j <= i; j++) {
+                if (states[j] == state) {
+                    final WordBuilder<I> wb = new WordBuilder<>(prefix.length() + loop.length() * (i + 1), prefix);
+                    return Pair.of(simulatorOracle.answerQuery(wb.repeatAppend(i + 1, loop).toWord()), i + 1);
+                }
+            }
+
+            states[i + 1] = state;
+        }
+
+        return Pair.of(null, -1);
+    }
+
+    public static class CompiledDFASimulatorOmegaOracle<I> extends CompiledSimulatorOmegaOracle<I, Boolean>
+            implements SingleQueryOmegaOracleDFA<Integer, I> {
+
+        public CompiledDFASimulatorOmegaOracle(CompiledDFA<I> automaton) {
+            super(automaton, new CompiledDFASimulatorOracle<>(automaton));
+        }
+
+        @Override
+        public DFAMembershipOracle<I> getMembershipOracle() {
+            return (DFAMembershipOracle<I>) super.getMembershipOracle();
+        }
+    }
+
+    public static class CompiledMealySimulatorOmegaOracle<I, O> extends CompiledSimulatorOmegaOracle<I, Word<O>>
+            implements SingleQueryOmegaOracleMealy<Integer, I, O> {
+
+        public CompiledMealySimulatorOmegaOracle(CompiledMealy<I, O> automaton) {
+            super(automaton, new CompiledMealySimulatorOracle<>(automaton));
+        }
+
+        @Override
+        public MealyMembershipOracle<I, O> getMembershipOracle() {
+            return (MealyMembershipOracle<I, O>) super.getMembershipOracle();
+        }
+    }
+}
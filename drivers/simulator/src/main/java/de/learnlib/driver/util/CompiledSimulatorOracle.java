@@ -0,0 +1,71 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.util;
+
+import java.util.Collection;
+
+import de.learnlib.api.oracle.SingleQueryOracle;
+import net.automatalib.automata.concepts.SuffixOutput;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.words.Word;
+
+/**
+ * A membership oracle that answers queries by simulating a compiled ({@link CompiledDFA} or {@link CompiledMealy})
+ * automaton, i.e. via flat array look-ups. Apart from the output word, answering a query does not allocate.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         (suffix) output domain type
+ */
+public class CompiledSimulatorOracle<I, D> implements SingleQueryOracle<I, D> {
+
+    private final SuffixOutput<I, D> automaton;
+
+    CompiledSimulatorOracle(SuffixOutput<I, D> automaton) {
+        this.automaton = automaton;
+    }
+
+    @Override
+    public D answerQuery(Word<I> prefix, Word<I> suffix) {
+        return automaton.computeSuffixOutput(prefix, suffix);
+    }
+
+    public static class CompiledDFASimulatorOracle<I> extends CompiledSimulatorOracle<I, Boolean>
+            implements SingleQueryOracleDFA<I> {
+
+        public CompiledDFASimulatorOracle(DFA<?, I> dfa, Collection<? extends I> inputs) {
+            this(CompiledDFA.compile(dfa, inputs));
+        }
+
+        public CompiledDFASimulatorOracle(CompiledDFA<I> dfa) {
+            super(dfa);
+        }
+    }
+
+    public static class CompiledMealySimulatorOracle<I, O> extends CompiledSimulatorOracle<I, Word<O>>
+            implements SingleQueryOracleMealy<I, O> {
+
+        public CompiledMealySimulatorOracle(MealyMachine<?, I, ?, O> mealy, Collection<? extends I> inputs) {
+            this(CompiledMealy.compile(mealy, inputs));
+        }
+
+        public CompiledMealySimulatorOracle(CompiledMealy<I, O> mealy) {
+            super(mealy);
+        }
+    }
+}
@@ -155,6 +155,10 @@ public class MealySimulatorSUL<I, O> implements SUL<I, O> {
         S getCurr() {
             return curr;
         }
+
+        void setCurr(S curr) {
+            this.curr = curr;
+        }
     }
 
 }
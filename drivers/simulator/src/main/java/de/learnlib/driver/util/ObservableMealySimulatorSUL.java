@@ -43,6 +43,16 @@ public class ObservableMealySimulatorSUL<S, I, O> extends MealySimulatorSUL<I, O
         return impl.getState();
     }
 
+    @Override
+    public boolean canRestoreState() {
+        return true;
+    }
+
+    @Override
+    public void restoreState(S state) {
+        impl.restoreState(state);
+    }
+
     @Override
     public ObservableMealySimulatorSULImpl<S, I, ?, O> fork() {
         return impl.fork();
@@ -66,6 +76,16 @@ public class ObservableMealySimulatorSUL<S, I, O> extends MealySimulatorSUL<I, O
             return getCurr();
         }
 
+        @Override
+        public boolean canRestoreState() {
+            return true;
+        }
+
+        @Override
+        public void restoreState(S state) {
+            setCurr(state);
+        }
+
         @Override
         public ObservableMealySimulatorSULImpl<S, I, T, O> fork() {
             return new ObservableMealySimulatorSULImpl<>(mealy, noTransOut);
@@ -0,0 +1,153 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.examples.mealy.ExampleCoffeeMachine;
+import de.learnlib.examples.mealy.ExampleCoffeeMachine.Input;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.oracle.parallelism.ParallelOracle;
+import de.learnlib.oracle.parallelism.ParallelOracle.PoolPolicy;
+import de.learnlib.oracle.parallelism.ParallelOracleBuilders;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * An example (and small benchmark) showing how to process queries of I/O-bound SULs in parallel.
+ * <p>
+ * The SUL of this example simulates a network-facing system, where each step waits for a fixed latency. Such systems
+ * barely use the CPU, so the throughput of a parallel oracle is limited by the number of concurrently active SUL
+ * instances rather than by the number of available cores. The example compares a {@link PoolPolicy#FIXED fixed} pool
+ * with one thread per core to the {@link PoolPolicy#VIRTUAL thread-per-task} policy with an increasing number of SUL
+ * forks.
+ */
+public final class Example1 {
+
+    private static final int NUM_QUERIES = 400;
+    private static final int QUERY_LENGTH = 5;
+    private static final long STEP_LATENCY_MS = 1;
+
+    private Example1() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        final Alphabet<Input> alphabet = ExampleCoffeeMachine.createInputAlphabet();
+        final SUL<Input, String> sul =
+                new LatencySUL<>(new MealySimulatorSUL<>(ExampleCoffeeMachine.constructMachine()), STEP_LATENCY_MS);
+        final int numCores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Processing " + NUM_QUERIES + " queries of length " + QUERY_LENGTH + " with a latency of " +
+                           STEP_LATENCY_MS + "ms per step (" + numCores + " cores)");
+
+        run(sul, alphabet, PoolPolicy.FIXED, numCores);
+
+        for (int factor = 1; factor <= 16; factor *= 4) {
+            run(sul, alphabet, PoolPolicy.VIRTUAL, numCores * factor);
+        }
+    }
+
+    private static <I, O> void run(SUL<I, O> sul, Alphabet<I> alphabet, PoolPolicy policy, int poolSize) {
+
+        // the SUL oracle is thread-safe and uses (at most) one fork of the SUL per concurrent call
+        final SULOracle<I, O> sulOracle = new SULOracle<>(sul);
+        final ParallelOracle<I, Word<O>> oracle = ParallelOracleBuilders.newDynamicParallelOracle(() -> sulOracle)
+                                                                        .withBatchSize(1)
+                                                                        .withPoolSize(poolSize)
+                                                                        .withPoolPolicy(policy)
+                                                                        .create();
+
+        final List<DefaultQuery<I, Word<O>>> queries = createQueries(alphabet);
+
+        try {
+            final long start = System.nanoTime();
+            oracle.processQueries(queries);
+            final long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            System.out.println(policy + " (" + poolSize + " concurrent SULs): " + durationMs + "ms, " +
+                               (NUM_QUERIES * 1000L / durationMs) + " queries/s");
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static <I, O> List<DefaultQuery<I, Word<O>>> createQueries(Alphabet<I> alphabet) {
+        final Random random = new Random(42);
+        final List<DefaultQuery<I, Word<O>>> queries = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WordBuilder<I> wb = new WordBuilder<>(QUERY_LENGTH);
+            for (int j = 0; j < QUERY_LENGTH; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            queries.add(new DefaultQuery<>(wb.toWord()));
+        }
+
+        return queries;
+    }
+
+    /**
+     * A SUL that delays each step by a fixed latency, simulating the round-trip time of a remote system.
+     */
+    static class LatencySUL<I, O> implements SUL<I, O> {
+
+        private final SUL<I, O> delegate;
+        private final long latency;
+
+        LatencySUL(SUL<I, O> delegate, long latency) {
+            this.delegate = delegate;
+            this.latency = latency;
+        }
+
+        @Override
+        public void pre() {
+            delegate.pre();
+        }
+
+        @Override
+        public void post() {
+            delegate.post();
+        }
+
+        @Override
+        public O step(I in) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return delegate.step(in);
+        }
+
+        @Override
+        public boolean canFork() {
+            return delegate.canFork();
+        }
+
+        @Override
+        public SUL<I, O> fork() {
+            return new LatencySUL<>(delegate.fork(), latency);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.examples.dfa.ExampleKeylock;
+import de.learnlib.examples.mealy.ExampleCoffeeMachine;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.oracle.membership.SimulatorOracle;
+import de.learnlib.oracle.parallelism.DynamicParallelOracle;
+import de.learnlib.oracle.parallelism.DynamicParallelOracleBuilder;
+import de.learnlib.oracle.parallelism.ParallelOracle.PoolPolicy;
+import de.learnlib.oracle.parallelism.ParallelOracleBuilders;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * An example (and small benchmark) comparing fixed batch sizes of a {@link DynamicParallelOracle} with the adaptive
+ * batch size mode (see {@link DynamicParallelOracleBuilder#withTargetBatchDuration(long, TimeUnit)}).
+ * <p>
+ * Two systems are queried: a simulated {@link ExampleKeylock keylock} automaton, whose queries take only microseconds
+ * (so that small batches are dominated by the overhead of scheduling jobs), and a simulated {@link
+ * ExampleCoffeeMachine coffee machine} with a latency of one millisecond per step (so that large batches prevent the
+ * queries from being distributed among the workers). The adaptive mode performs well for both systems without being
+ * tuned to either of them.
+ */
+public final class Example2 {
+
+    private static final int POOL_SIZE = 4;
+    private static final int ROUNDS = 10;
+    private static final long TARGET_DURATION_US = 1000;
+
+    private Example2() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        final ExampleKeylock keylock = ExampleKeylock.createExample(50, false);
+        final MembershipOracle<Integer, Boolean> keylockOracle =
+                new SimulatorOracle<>(keylock.getReferenceAutomaton());
+
+        final Alphabet<ExampleCoffeeMachine.Input> coffeeAlphabet = ExampleCoffeeMachine.createInputAlphabet();
+        final MembershipOracle<ExampleCoffeeMachine.Input, ?> coffeeOracle = new SULOracle<>(new Example1.LatencySUL<>(
+                new MealySimulatorSUL<>(ExampleCoffeeMachine.constructMachine()),
+                1));
+
+        System.out.println("Fast system (simulated keylock, " + ROUNDS + " rounds of 20000 queries):");
+        benchmark(keylockOracle, keylock.getAlphabet(), 20_000, 20);
+
+        System.out.println("Slow system (coffee machine with 1ms latency, " + ROUNDS + " rounds of 40 queries):");
+        benchmark(coffeeOracle, coffeeAlphabet, 40, 3);
+    }
+
+    private static <I, D> void benchmark(MembershipOracle<I, D> oracle,
+                                         Alphabet<I> alphabet,
+                                         int numQueries,
+                                         int queryLength) {
+        run("  fixed (batch size 1):    ", oracle, alphabet, numQueries, queryLength, 1, 0);
+        run("  fixed (batch size 100):  ", oracle, alphabet, numQueries, queryLength, 100, 0);
+        run("  adaptive (target 1ms):   ", oracle, alphabet, numQueries, queryLength, 1, TARGET_DURATION_US);
+    }
+
+    private static <I, D> void run(String name,
+                                   MembershipOracle<I, D> delegate,
+                                   Alphabet<I> alphabet,
+                                   int numQueries,
+                                   int queryLength,
+                                   int batchSize,
+                                   long targetDuration) {
+
+        // the delegate oracles are thread-safe, so they can be shared among all workers
+        final DynamicParallelOracle<I, D> oracle = ParallelOracleBuilders.newDynamicParallelOracle(() -> delegate)
+                                                                         .withBatchSize(batchSize)
+                                                                         .withTargetBatchDuration(targetDuration,
+                                                                                                  TimeUnit.MICROSECONDS)
+                                                                         .withPoolSize(POOL_SIZE)
+                                                                         .withPoolPolicy(PoolPolicy.FIXED)
+                                                                         .create();
+        final Random random = new Random(42);
+
+        try {
+            long duration = 0;
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final List<DefaultQuery<I, D>> queries = createQueries(random, alphabet, numQueries, queryLength);
+
+                final long start = System.nanoTime();
+                oracle.processQueries(queries);
+                duration += System.nanoTime() - start;
+            }
+
+            System.out.println(name + TimeUnit.NANOSECONDS.toMillis(duration) + "ms");
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static <I, D> List<DefaultQuery<I, D>> createQueries(Random random,
+                                                                 Alphabet<I> alphabet,
+                                                                 int numQueries,
+                                                                 int queryLength) {
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>(numQueries);
+
+        for (int i = 0; i < numQueries; i++) {
+            final WordBuilder<I> wb = new WordBuilder<>(queryLength);
+            for (int j = 0; j < queryLength; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            queries.add(new DefaultQuery<>(wb.toWord()));
+        }
+
+        return queries;
+    }
+}
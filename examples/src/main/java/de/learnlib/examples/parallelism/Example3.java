@@ -0,0 +1,137 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.filter.cache.mealy.ConcurrentIncrementalMealyTreeBuilder;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.cache.sul.SULCaches;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import de.learnlib.oracle.parallelism.DynamicParallelOracle;
+import de.learnlib.oracle.parallelism.ParallelOracle.PoolPolicy;
+import de.learnlib.oracle.parallelism.ParallelOracleBuilders;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+
+/**
+ * An example (and small benchmark) measuring the contention of Mealy caches that are shared among the workers of a
+ * {@link DynamicParallelOracle}.
+ * <p>
+ * The regular tree caches guard their data structure with a single read-write lock, so every insertion of a cache miss
+ * blocks all concurrent lookups (and the {@link SULCaches SUL cache} even holds the read lock for the whole duration of
+ * a query). The concurrent tree caches (see {@link ConcurrentIncrementalMealyTreeBuilder}) perform lookups without any
+ * locking and insert new branches via compare-and-set operations. Each round of the benchmark poses new random queries,
+ * so that both cache hits and cache misses occur.
+ */
+public final class Example3 {
+
+    private static final int MODEL_SIZE = 200;
+    private static final int ROUNDS = 10;
+    private static final int NUM_QUERIES = 20_000;
+    private static final int MAX_QUERY_LENGTH = 15;
+    private static final int BATCH_SIZE = 10;
+
+    private Example3() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        final Alphabet<Integer> alphabet = Alphabets.integers(0, 3);
+        final CompactMealy<Integer, Integer> target =
+                RandomAutomata.randomMealy(new Random(42), MODEL_SIZE, alphabet, alphabet);
+        final int poolSize = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("Processing " + ROUNDS + " rounds of " + NUM_QUERIES + " queries with " + poolSize +
+                           " workers sharing a single cache:");
+
+        final MealyMembershipOracle<Integer, Integer> simulator = new MealySimulatorOracle<>(target);
+        run("  tree cache:                 ", poolSize, alphabet, a -> MealyCaches.createTreeCache(a, simulator));
+        run("  concurrent tree cache:      ",
+            poolSize,
+            alphabet,
+            a -> MealyCaches.createConcurrentTreeCache(a, simulator));
+
+        final MealySimulatorSUL<Integer, Integer> sul = new MealySimulatorSUL<>(target);
+        run("  SUL tree cache:             ",
+            poolSize,
+            alphabet,
+            a -> new SULOracle<>(SULCaches.createTreeCache(a, sul)));
+        run("  SUL concurrent tree cache:  ",
+            poolSize,
+            alphabet,
+            a -> new SULOracle<>(SULCaches.createConcurrentTreeCache(a, sul)));
+    }
+
+    private static <I, O> void run(String name,
+                                   int poolSize,
+                                   Alphabet<I> alphabet,
+                                   Function<Alphabet<I>, MembershipOracle<I, Word<O>>> cacheFactory) {
+
+        // a single (thread-safe) cache is shared among all workers
+        final MembershipOracle<I, Word<O>> cache = cacheFactory.apply(alphabet);
+        final DynamicParallelOracle<I, Word<O>> oracle = ParallelOracleBuilders.newDynamicParallelOracle(() -> cache)
+                                                                               .withBatchSize(BATCH_SIZE)
+                                                                               .withPoolSize(poolSize)
+                                                                               .withPoolPolicy(PoolPolicy.FIXED)
+                                                                               .create();
+        final Random random = new Random(42);
+
+        try {
+            long duration = 0;
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final List<DefaultQuery<I, Word<O>>> queries = createQueries(random, alphabet);
+
+                final long start = System.nanoTime();
+                oracle.processQueries(queries);
+                duration += System.nanoTime() - start;
+            }
+
+            System.out.println(name + TimeUnit.NANOSECONDS.toMillis(duration) + "ms");
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static <I, D> List<DefaultQuery<I, D>> createQueries(Random random, Alphabet<I> alphabet) {
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final int length = 1 + random.nextInt(MAX_QUERY_LENGTH);
+            final WordBuilder<I> wb = new WordBuilder<>(length);
+            for (int j = 0; j < length; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            queries.add(new DefaultQuery<>(wb.toWord()));
+        }
+
+        return queries;
+    }
+}
@@ -0,0 +1,253 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.exception.SULException;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.examples.mealy.ExampleCoffeeMachine;
+import de.learnlib.examples.mealy.ExampleCoffeeMachine.Input;
+import de.learnlib.filter.statistic.sul.SymbolCounterSUL;
+import de.learnlib.oracle.membership.SULOracle;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * An example (and small benchmark) showing the round-trip savings of {@link SUL#stepAll(Word)} for remote SULs.
+ * <p>
+ * The example starts a small TCP server on the loopback interface, which simulates the {@link ExampleCoffeeMachine
+ * coffee machine}, and queries it via a client SUL that either sends each symbol in a separate message or overrides
+ * {@link SUL#stepAll(Word)} to ship whole words in a single message. Since the {@link SULOracle} and the SUL counters
+ * forward complete words, the batching client only requires two round trips per query (one for the reset and one for
+ * the input word). The savings grow with the latency of the connection, which is minimal for the loopback interface.
+ */
+public final class Example1 {
+
+    private static final int NUM_QUERIES = 2000;
+    private static final int QUERY_LENGTH = 10;
+
+    private static final byte RESET = 0;
+    private static final byte STEP = 1;
+    private static final byte STEP_ALL = 2;
+
+    private Example1() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Alphabet<Input> alphabet = ExampleCoffeeMachine.createInputAlphabet();
+        final List<Word<Input>> words = createWords(alphabet);
+
+        try (ServerSocket server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            final Thread acceptor = new Thread(() -> serve(server));
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            System.out.println("Processing " + NUM_QUERIES + " queries of length " + QUERY_LENGTH +
+                               " on a loopback TCP connection");
+
+            run("  symbol-wise:", server.getLocalPort(), false, words);
+            run("  word-wise:  ", server.getLocalPort(), true, words);
+        }
+    }
+
+    private static void run(String name, int port, boolean batching, List<Word<Input>> words) throws IOException {
+        try (TCPSUL sul = new TCPSUL(port, batching)) {
+            final SymbolCounterSUL<Input, String> counter = new SymbolCounterSUL<>("symbols", sul);
+            final SULOracle<Input, String> oracle = new SULOracle<>(counter);
+
+            final List<DefaultQuery<Input, Word<String>>> queries = new ArrayList<>(words.size());
+            for (Word<Input> w : words) {
+                queries.add(new DefaultQuery<>(w));
+            }
+
+            final long start = System.nanoTime();
+            oracle.processQueries(queries);
+            final long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println(name + ' ' + durationMs + "ms, " + sul.getRoundTrips() + " round trips for " +
+                               counter.getStatisticalData().getCount() + " symbols");
+        }
+    }
+
+    private static List<Word<Input>> createWords(Alphabet<Input> alphabet) {
+        final Random random = new Random(42);
+        final List<Word<Input>> words = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WordBuilder<Input> wb = new WordBuilder<>(QUERY_LENGTH);
+            for (int j = 0; j < QUERY_LENGTH; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            words.add(wb.toWord());
+        }
+
+        return words;
+    }
+
+    private static void serve(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                final Socket socket = server.accept();
+                final Thread handler = new Thread(() -> handle(socket));
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // server has been closed
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of a single connection on a simulated coffee machine.
+     */
+    private static void handle(Socket socket) {
+        final SUL<Input, String> sul = new MealySimulatorSUL<>(ExampleCoffeeMachine.constructMachine());
+
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            s.setTcpNoDelay(true);
+
+            int command;
+            while ((command = in.read()) >= 0) {
+                switch (command) {
+                    case RESET:
+                        sul.post();
+                        sul.pre();
+                        out.writeByte(RESET);
+                        break;
+                    case STEP:
+                        out.writeUTF(sul.step(Input.valueOf(in.readUTF())));
+                        break;
+                    case STEP_ALL:
+                        final int length = in.readInt();
+                        for (int i = 0; i < length; i++) {
+                            out.writeUTF(sul.step(Input.valueOf(in.readUTF())));
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown command: " + command);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A client for the loopback server, which executes each call to {@link #step(ExampleCoffeeMachine.Input)} or (if batching is enabled)
+     * {@link #stepAll(Word)} in a single round trip.
+     */
+    static final class TCPSUL implements SUL<Input, String>, Closeable {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final boolean batching;
+
+        private long roundTrips;
+
+        TCPSUL(int port, boolean batching) throws IOException {
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            this.socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.batching = batching;
+        }
+
+        @Override
+        public void pre() {
+            try {
+                out.writeByte(RESET);
+                out.flush();
+                in.readByte();
+                roundTrips++;
+            } catch (IOException e) {
+                throw new SULException(e);
+            }
+        }
+
+        @Override
+        public void post() {}
+
+        @Override
+        public String step(Input input) {
+            try {
+                out.writeByte(STEP);
+                out.writeUTF(input.name());
+                out.flush();
+                final String output = in.readUTF();
+                roundTrips++;
+                return output;
+            } catch (IOException e) {
+                throw new SULException(e);
+            }
+        }
+
+        @Override
+        public Word<String> stepAll(Word<? extends Input> input) {
+            if (!batching) {
+                return SUL.super.stepAll(input);
+            }
+
+            try {
+                out.writeByte(STEP_ALL);
+                out.writeInt(input.length());
+                for (Input sym : input) {
+                    out.writeUTF(sym.name());
+                }
+                out.flush();
+
+                final WordBuilder<String> wb = new WordBuilder<>(input.length());
+                for (int i = 0; i < input.length(); i++) {
+                    wb.add(in.readUTF());
+                }
+                roundTrips++;
+                return wb.toWord();
+            } catch (IOException e) {
+                throw new SULException(e);
+            }
+        }
+
+        long getRoundTrips() {
+            return roundTrips;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.reuse;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+import de.learnlib.algorithms.lstar.mealy.ExtensibleLStarMealy;
+import de.learnlib.algorithms.lstar.mealy.ExtensibleLStarMealyBuilder;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.driver.util.CompiledMealy;
+import de.learnlib.filter.reuse.ReuseCapableOracle;
+import de.learnlib.filter.reuse.ReuseOracle;
+import de.learnlib.filter.reuse.ReuseOracle.ReuseOracleBuilder;
+import de.learnlib.filter.reuse.tree.ReuseTree;
+import de.learnlib.filter.statistic.oracle.JointCounterOracle;
+import de.learnlib.oracle.equivalence.MealySimulatorEQOracle;
+import de.learnlib.util.Experiment.MealyExperiment;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+
+/**
+ * An example (and small benchmark) comparing different system state retention strategies of the {@link ReuseOracle}.
+ * <p>
+ * The example learns a random Mealy machine whose system states are assumed to be snapshots of varying size (e.g. a
+ * serialized database). For each configuration, it reports the number of SUL steps saved by reusing system states
+ * (compared to executing each query from scratch), the peak memory retained by the stored system states and the
+ * resulting number of saved steps per MB of retained state. The cost-aware configurations bound the retained memory
+ * and keep the system states with the highest {@code depth * (hits + 1) / size} ratio.
+ */
+public final class Example1 {
+
+    private static final int SIZE = 100;
+    private static final int KIB = 1024;
+    private static final double MIB = KIB * KIB;
+
+    private Example1() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'e');
+        final CompactMealy<Character, Integer> target =
+                RandomAutomata.randomMealy(new Random(42), SIZE, alphabet, Arrays.asList(0, 1, 2));
+
+        // snapshots of different states have different sizes (between 1 and 8 KiB)
+        final ToLongFunction<SimState> snapshotSize = s -> (1 + s.state % 8) * KIB;
+
+        System.out.println("Learning a random Mealy machine with " + SIZE + " states and " + alphabet.size() +
+                           " inputs");
+
+        // the unbounded configurations use an infinite budget to keep track of the retained memory
+        run("unbounded", target, alphabet, b -> b.withRetentionBudget(Long.MAX_VALUE, snapshotSize));
+        run("1 state per node",
+            target,
+            alphabet,
+            b -> b.withMaxSystemStates(1).withRetentionBudget(Long.MAX_VALUE, snapshotSize));
+
+        for (int budget = 64; budget <= 1024; budget *= 4) {
+            final long bytes = budget * KIB;
+            run("cost-aware, " + budget + " KiB", target, alphabet, b -> b.withRetentionBudget(bytes, snapshotSize));
+        }
+    }
+
+    private static void run(String name,
+                            CompactMealy<Character, Integer> target,
+                            Alphabet<Character> alphabet,
+                            UnaryOperator<ReuseOracleBuilder<SimState, Character, Integer>> config) {
+
+        final SimulatingOracle sul = new SimulatingOracle(CompiledMealy.compile(target, alphabet));
+        final ReuseOracle<SimState, Character, Integer> reuseOracle =
+                config.apply(new ReuseOracleBuilder<>(alphabet, () -> sul)).build();
+        final ReuseTree<SimState, Character, Integer> tree = reuseOracle.getReuseTree();
+
+        final long[] peakRetained = new long[1];
+        final MealyMembershipOracle<Character, Integer> sampling = queries -> {
+            reuseOracle.processQueries(queries);
+            peakRetained[0] = Math.max(peakRetained[0], tree.getRetainedCost());
+        };
+        final JointCounterOracle<Character, Word<Integer>> counter = new JointCounterOracle<>(sampling);
+
+        final ExtensibleLStarMealy<Character, Integer> learner =
+                new ExtensibleLStarMealyBuilder<Character, Integer>().withAlphabet(alphabet)
+                                                                     .withOracle(counter)
+                                                                     .create();
+        final MealyExperiment<Character, Integer> experiment =
+                new MealyExperiment<>(learner, new MealySimulatorEQOracle<>(target), alphabet);
+
+        experiment.run();
+
+        final long saved = counter.getSymbolCount() - sul.steps;
+        final double retainedMiB = peakRetained[0] / MIB;
+
+        System.out.printf("%-24s %8d steps executed, %8d steps saved, %6.2f MB retained (peak), %9.0f steps/MB%n",
+                          name + ':',
+                          sul.steps,
+                          saved,
+                          retainedMiB,
+                          saved / Math.max(retainedMiB, 1.0 / KIB));
+    }
+
+    /**
+     * A system state, referencing the state of the simulated system.
+     */
+    static final class SimState {
+
+        private final int state;
+
+        SimState(int state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * A {@link ReuseCapableOracle} that simulates the target system and counts the executed steps.
+     */
+    static final class SimulatingOracle implements ReuseCapableOracle<SimState, Character, Integer> {
+
+        private final CompiledMealy<Character, Integer> target;
+        private long steps;
+
+        SimulatingOracle(CompiledMealy<Character, Integer> target) {
+            this.target = target;
+        }
+
+        @Override
+        public QueryResult<SimState, Integer> continueQuery(Word<Character> trace, SimState s) {
+            return run(s.state, trace);
+        }
+
+        @Override
+        public QueryResult<SimState, Integer> processQuery(Word<Character> trace) {
+            return run(target.getInitialStateIndex(), trace);
+        }
+
+        private QueryResult<SimState, Integer> run(int start, Word<Character> trace) {
+            final WordBuilder<Integer> wb = new WordBuilder<>(trace.length());
+            int state = start;
+
+            for (Character c : trace) {
+                final int idx = target.getSymbolIndex(c);
+                wb.append(target.getOutput(state, idx));
+                state = target.getSuccessorIndex(state, idx);
+            }
+
+            steps += trace.length();
+            return new QueryResult<>(wb.toWord(), new SimState(state));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.examples.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.CompiledMealy;
+import de.learnlib.driver.util.CompiledMealySimulatorSUL;
+import de.learnlib.driver.util.CompiledSimulatorOracle.CompiledMealySimulatorOracle;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+
+/**
+ * An example (and small benchmark) comparing the generic simulators with their {@link CompiledMealy compiled}
+ * counterparts.
+ * <p>
+ * The generic simulators step through the target automaton via the {@link MealyMachine} interface, which involves
+ * boxed states, transition objects, and (possibly megamorphic) interface calls. Compiled simulators translate the
+ * automaton once into flat {@code int} tables and answer queries by plain array look-ups. Each configuration is run a
+ * few times to warm up the JIT before measuring.
+ */
+public final class Example1 {
+
+    private static final int SIZE = 5000;
+    private static final int NUM_QUERIES = 20000;
+    private static final int QUERY_LENGTH = 50;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASUREMENT_ROUNDS = 5;
+
+    private Example1() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'j');
+        final CompactMealy<Character, Integer> mealy =
+                RandomAutomata.randomMealy(random, SIZE, alphabet, Arrays.asList(0, 1, 2, 3));
+        final CompiledMealy<Character, Integer> compiled = CompiledMealy.compile(mealy, alphabet);
+
+        final List<Word<Character>> words = createWords(random, alphabet);
+
+        System.out.println("Processing " + NUM_QUERIES + " queries of length " + QUERY_LENGTH + " on a Mealy machine " +
+                           "with " + SIZE + " states and " + alphabet.size() + " inputs");
+
+        run("SimulatorOracle (generic)", new MealySimulatorOracle<>(mealy), words);
+        run("SimulatorOracle (compiled)", new CompiledMealySimulatorOracle<>(compiled), words);
+        run("SULOracle (generic)", new SULOracle<>(new MealySimulatorSUL<>(mealy)), words);
+        run("SULOracle (compiled)", new SULOracle<>(new CompiledMealySimulatorSUL<>(compiled, null)), words);
+    }
+
+    private static <I, O> void run(String name, MembershipOracle<I, Word<O>> oracle, List<Word<I>> words) {
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            oracle.processQueries(createQueries(words));
+        }
+
+        long totalNs = 0;
+        for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+            final List<DefaultQuery<I, Word<O>>> queries = createQueries(words);
+            final long start = System.nanoTime();
+            oracle.processQueries(queries);
+            totalNs += System.nanoTime() - start;
+        }
+
+        final long avgMs = Math.max(1, totalNs / MEASUREMENT_ROUNDS / 1_000_000);
+        System.out.println(name + ": " + avgMs + "ms, " + (NUM_QUERIES * 1000L / avgMs) + " queries/s");
+    }
+
+    private static <I> List<Word<I>> createWords(Random random, Alphabet<I> alphabet) {
+        final List<Word<I>> words = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WordBuilder<I> wb = new WordBuilder<>(QUERY_LENGTH);
+            for (int j = 0; j < QUERY_LENGTH; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            words.add(wb.toWord());
+        }
+
+        return words;
+    }
+
+    private static <I, O> List<DefaultQuery<I, Word<O>>> createQueries(List<Word<I>> words) {
+        final List<DefaultQuery<I, Word<O>>> queries = new ArrayList<>(words.size());
+
+        for (Word<I> w : words) {
+            queries.add(new DefaultQuery<>(w));
+        }
+
+        return queries;
+    }
+}
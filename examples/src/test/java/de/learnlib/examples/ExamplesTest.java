@@ -81,12 +81,42 @@ public class ExamplesTest {
         de.learnlib.examples.bbc.Example4.main(new String[0]);
     }
 
+    @Test
+    public void testParallelismExample1() {
+        de.learnlib.examples.parallelism.Example1.main(new String[0]);
+    }
+
+    @Test
+    public void testParallelismExample2() {
+        de.learnlib.examples.parallelism.Example2.main(new String[0]);
+    }
+
+    @Test
+    public void testParallelismExample3() {
+        de.learnlib.examples.parallelism.Example3.main(new String[0]);
+    }
+
     @Test
     public void testPassiveExample1() {
         checkJVMCompatibility();
         de.learnlib.examples.passive.Example1.main(new String[0]);
     }
 
+    @Test
+    public void testRemoteExample1() throws IOException {
+        de.learnlib.examples.remote.Example1.main(new String[0]);
+    }
+
+    @Test
+    public void testReuseExample1() {
+        de.learnlib.examples.reuse.Example1.main(new String[0]);
+    }
+
+    @Test
+    public void testSimulationExample1() {
+        de.learnlib.examples.simulation.Example1.main(new String[0]);
+    }
+
     @Test
     public void testSLIExample1() {
         de.learnlib.examples.sli.Example1.main(new String[0]);
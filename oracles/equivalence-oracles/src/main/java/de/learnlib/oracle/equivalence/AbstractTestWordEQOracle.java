@@ -15,17 +15,23 @@
  */
 package de.learnlib.oracle.equivalence;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Streams;
 import de.learnlib.api.oracle.EquivalenceOracle;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.OutputLookup;
 import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.statistic.Counter;
 import net.automatalib.automata.concepts.Output;
 import net.automatalib.words.Word;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -38,6 +44,13 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Being {@link Stream stream}-based, this oracle encourages the lazy computation of counterexamples, so that all
  * counterexamples do not have to be computed upfront, but only until the first valid counterexample is found.
+ * <p>
+ * Optionally, an {@link OutputLookup} (e.g. a cache) can be {@link #setCache(OutputLookup) attached} to this oracle,
+ * or the given membership oracle can be used as such (see {@link #AbstractTestWordEQOracle(MembershipOracle, int,
+ * boolean)}). Then, test words whose outputs are already known are directly compared to the hypothesis and only the
+ * remaining test words are posed to the membership oracle. Known counterexamples are therefore returned without
+ * waiting for the current batch to fill up. The number of pruned and forwarded test words is reported by {@link
+ * #getPrunedTestWordsCounter()} and {@link #getForwardedTestWordsCounter()}. By default, no pruning takes place.
  *
  * @param <A>
  *         hypothesis type
@@ -54,16 +67,82 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
 
     private final MembershipOracle<I, D> membershipOracle;
     private final int batchSize;
+    private final Counter prunedTestWords;
+    private final Counter forwardedTestWords;
+    private @Nullable OutputLookup<I, D> cache;
 
     public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle) {
         this(membershipOracle, 1);
     }
 
     public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle, int batchSize) {
+        this(membershipOracle, batchSize, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param membershipOracle
+     *         the membership oracle for answering test words
+     * @param batchSize
+     *         the number of test words that are posed to the membership oracle at once
+     * @param pruneTestWords
+     *         whether test words should be looked up in the membership oracle before posing them, if it is an {@link
+     *         OutputLookup} (e.g. a cache)
+     */
+    @SuppressWarnings("unchecked")
+    public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle, int batchSize, boolean pruneTestWords) {
         Preconditions.checkArgument(batchSize > 0);
 
         this.membershipOracle = membershipOracle;
         this.batchSize = batchSize;
+        this.prunedTestWords = new Counter("pruned test words", "queries");
+        this.forwardedTestWords = new Counter("forwarded test words", "queries");
+
+        if (pruneTestWords && membershipOracle instanceof OutputLookup) {
+            this.cache = (OutputLookup<I, D>) membershipOracle;
+        }
+    }
+
+    /**
+     * Returns the look-up that is used for pruning test words.
+     *
+     * @return the attached look-up, or {@code null} if no pruning takes place
+     */
+    @Nullable
+    public OutputLookup<I, D> getCache() {
+        return cache;
+    }
+
+    /**
+     * Attaches a look-up (e.g. a cache) to this oracle. Before posing test words to the membership oracle, their
+     * outputs are {@link OutputLookup#lookup(Word) looked up} in the given look-up. Note that caches are not updated by
+     * this oracle, so it should usually be (a filter of) the membership oracle of this oracle.
+     *
+     * @param cache
+     *         the look-up used for pruning test words, or {@code null} to disable pruning
+     */
+    public void setCache(@Nullable OutputLookup<I, D> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the counter of test words that have been answered by the attached look-up.
+     *
+     * @return the counter of pruned test words
+     */
+    public Counter getPrunedTestWordsCounter() {
+        return prunedTestWords;
+    }
+
+    /**
+     * Returns the counter of test words that have been posed to the membership oracle after an unsuccessful look-up.
+     * Test words are not counted if no look-up is attached.
+     *
+     * @return the counter of forwarded test words
+     */
+    public Counter getForwardedTestWordsCounter() {
+        return forwardedTestWords;
     }
 
     @Nullable
@@ -77,11 +156,17 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
 
         final Stream<Word<I>> testWordStream = generateTestWords(hypothesis, inputs);
         final Stream<DefaultQuery<I, D>> queryStream = testWordStream.map(DefaultQuery::new);
-        final Stream<DefaultQuery<I, D>> answeredQueryStream = answerQueries(queryStream);
+        final OutputLookup<I, D> cache = this.cache;
+        final Stream<DefaultQuery<I, D>> answeredQueryStream =
+                cache == null ? answerQueries(queryStream) : answerQueries(queryStream, cache);
 
         final Stream<DefaultQuery<I, D>> ceStream = answeredQueryStream.filter(query -> {
             D hypOutput = hypothesis.computeOutput(query.getInput());
-            return !Objects.equals(hypOutput, query.getOutput());
+            if (Objects.equals(hypOutput, query.getOutput())) {
+                testWordPassed(hypothesis, query);
+                return false;
+            }
+            return true;
         });
 
         return ceStream.findFirst().orElse(null);
@@ -101,6 +186,18 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
      */
     protected abstract Stream<Word<I>> generateTestWords(A hypothesis, Collection<? extends I> inputs);
 
+    /**
+     * Callback that is invoked for every answered test word whose output coincides with the output of the hypothesis.
+     * Test words may be reported concurrently (e.g. by a {@link ParallelTestWordEQOracle}). The default implementation
+     * does nothing.
+     *
+     * @param hypothesis
+     *         the hypothesis the test word has been checked against
+     * @param query
+     *         the answered test word
+     */
+    protected void testWordPassed(A hypothesis, DefaultQuery<I, D> query) {}
+
     private Stream<DefaultQuery<I, D>> answerQueries(final Stream<DefaultQuery<I, D>> stream) {
         if (isBatched()) {
             /*
@@ -116,8 +213,78 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         }
     }
 
+    private Stream<DefaultQuery<I, D>> answerQueries(final Stream<DefaultQuery<I, D>> stream,
+                                                     final OutputLookup<I, D> cache) {
+        return Streams.stream(new PruningIterator(stream.iterator(), cache));
+    }
+
     private boolean isBatched() {
         return this.batchSize > 1;
     }
 
-}
\ No newline at end of file
+    /**
+     * An iterator that answers test words from the look-up if possible and collects the remaining ones in batches for
+     * the membership oracle. Cached test words are returned immediately, i.e. possibly before the test words of the
+     * current batch that have been generated earlier.
+     */
+    private final class PruningIterator extends AbstractIterator<DefaultQuery<I, D>> {
+
+        private final Iterator<DefaultQuery<I, D>> queries;
+        private final OutputLookup<I, D> cache;
+        private final List<DefaultQuery<I, D>> batch;
+        private Iterator<DefaultQuery<I, D>> answered;
+
+        PruningIterator(Iterator<DefaultQuery<I, D>> queries, OutputLookup<I, D> cache) {
+            this.queries = queries;
+            this.cache = cache;
+            this.batch = new ArrayList<>(batchSize);
+            this.answered = Collections.emptyIterator();
+        }
+
+        @Override
+        protected DefaultQuery<I, D> computeNext() {
+            if (answered.hasNext()) {
+                return answered.next();
+            }
+
+            while (queries.hasNext()) {
+                final DefaultQuery<I, D> query = queries.next();
+                final D output = cache.lookup(query.getInput());
+
+                if (output != null) {
+                    prunedTestWords.increment();
+                    query.answer(output);
+                    return query;
+                }
+
+                forwardedTestWords.increment();
+                batch.add(query);
+
+                if (batch.size() >= batchSize) {
+                    return processBatch();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                return processBatch();
+            }
+
+            return endOfData();
+        }
+
+        private DefaultQuery<I, D> processBatch() {
+            final List<DefaultQuery<I, D>> answeredBatch = new ArrayList<>(batch);
+            batch.clear();
+
+            if (isBatched()) {
+                membershipOracle.processQueries(answeredBatch);
+            } else {
+                membershipOracle.processQuery(answeredBatch.get(0));
+            }
+
+            answered = answeredBatch.iterator();
+            return answered.next();
+        }
+    }
+
+}
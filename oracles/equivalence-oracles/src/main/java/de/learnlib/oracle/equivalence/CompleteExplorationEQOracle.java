@@ -107,7 +107,30 @@ public class CompleteExplorationEQOracle<A extends Output<I, D>, I, D> extends A
      *         size of the batches sent to the membership oracle
      */
     public CompleteExplorationEQOracle(MembershipOracle<I, D> sulOracle, int minDepth, int maxDepth, int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, minDepth, maxDepth, batchSize, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sulOracle
+     *         interface to the system under learning
+     * @param minDepth
+     *         minimum exploration depth
+     * @param maxDepth
+     *         maximum exploration depth
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param pruneTestWords
+     *         whether test words should be looked up in the membership oracle before posing them (see {@link
+     *         AbstractTestWordEQOracle#AbstractTestWordEQOracle(MembershipOracle, int, boolean)})
+     */
+    public CompleteExplorationEQOracle(MembershipOracle<I, D> sulOracle,
+                                       int minDepth,
+                                       int maxDepth,
+                                       int batchSize,
+                                       boolean pruneTestWords) {
+        super(sulOracle, batchSize, pruneTestWords);
         this.minDepth = Math.min(minDepth, maxDepth);
         this.maxDepth = Math.max(minDepth, maxDepth);
     }
@@ -0,0 +1,236 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Streams;
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.buildtool.refinement.annotation.GenerateRefinement;
+import de.learnlib.buildtool.refinement.annotation.Generic;
+import de.learnlib.buildtool.refinement.annotation.Interface;
+import de.learnlib.filter.statistic.Counter;
+import net.automatalib.automata.UniversalDeterministicAutomaton;
+import net.automatalib.automata.concepts.Output;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.commons.util.collections.CollectionsUtil;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.util.automata.cover.Covers;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+
+/**
+ * An incremental variant of the {@link WpMethodEQOracle} that re-uses the test words of previous rounds.
+ * <p>
+ * The access sequences (state and transition cover) and the global characterizing set are extended incrementally, so
+ * that the test words of regions that are unchanged between two hypotheses stay the same. Whenever a test word passes
+ * (i.e. the system under learning agrees with the hypothesis), its output is recorded. A test word of a later round is
+ * skipped if the current hypothesis predicts the same output for it as the hypothesis it has passed against, because
+ * the (deterministic) system under learning will answer it the same way again. Hence, only test words that touch
+ * changed parts of the hypothesis or use new (local) suffixes are posed to the membership oracle.
+ * <p>
+ * Whenever the hypothesis changes, recorded test words whose outputs are no longer predicted by it are discarded, so
+ * that only test words agreeing with the current hypothesis are kept. As with the {@link IncrementalWMethodEQOracle},
+ * the alphabet is fixed upon construction and test words are generated over the complete alphabet. The inputs passed to {@link #findCounterExample(Object, Collection)} must therefore be contained in it,
+ * otherwise an {@link IllegalArgumentException} is thrown.
+ *
+ * @param <A>
+ *         hypothesis type
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+@GenerateRefinement(name = "DFAIncrementalWpMethodEQOracle",
+                    generics = "I",
+                    parentGenerics = {@Generic(clazz = DFA.class, generics = {"?", "I"}),
+                                      @Generic("I"),
+                                      @Generic(clazz = Boolean.class)},
+                    parameterMapping = @de.learnlib.buildtool.refinement.annotation.Map(
+                            from = MembershipOracle.class,
+                            to = DFAMembershipOracle.class,
+                            withGenerics = "I"),
+                    interfaces = @Interface(clazz = DFAEquivalenceOracle.class, generics = "I"))
+@GenerateRefinement(name = "MealyIncrementalWpMethodEQOracle",
+                    generics = {"I", "O"},
+                    parentGenerics = {@Generic(clazz = MealyMachine.class, generics = {"?", "I", "?", "O"}),
+                                      @Generic("I"),
+                                      @Generic(clazz = Word.class, generics = "O")},
+                    parameterMapping = @de.learnlib.buildtool.refinement.annotation.Map(
+                            from = MembershipOracle.class,
+                            to = MealyMembershipOracle.class,
+                            withGenerics = {"I", "O"}),
+                    interfaces = @Interface(clazz = MealyEquivalenceOracle.class, generics = {"I", "O"}))
+public class IncrementalWpMethodEQOracle<A extends UniversalDeterministicAutomaton<?, I, ?, ?, ?> & Output<I, D>, I, D>
+        extends AbstractTestWordEQOracle<A, I, D> {
+
+    private final Alphabet<I> alphabet;
+    private int maxDepth;
+
+    private final List<Word<I>> stateCover;
+    private final List<Word<I>> transitionCover;
+    private final List<Word<I>> globalSuffixes;
+    private final Map<Word<I>, D> passedTests;
+    private final Counter skippedTests;
+
+    public IncrementalWpMethodEQOracle(MembershipOracle<I, D> oracle, Alphabet<I> alphabet) {
+        this(oracle, alphabet, 1);
+    }
+
+    public IncrementalWpMethodEQOracle(MembershipOracle<I, D> oracle, Alphabet<I> alphabet, int maxDepth) {
+        this(oracle, alphabet, maxDepth, 1);
+    }
+
+    public IncrementalWpMethodEQOracle(MembershipOracle<I, D> oracle,
+                                       Alphabet<I> alphabet,
+                                       int maxDepth,
+                                       int batchSize) {
+        this(oracle, alphabet, maxDepth, batchSize, false);
+    }
+
+    public IncrementalWpMethodEQOracle(MembershipOracle<I, D> oracle,
+                                       Alphabet<I> alphabet,
+                                       int maxDepth,
+                                       int batchSize,
+                                       boolean pruneTestWords) {
+        super(oracle, batchSize, pruneTestWords);
+
+        this.alphabet = alphabet;
+        this.maxDepth = maxDepth;
+        this.stateCover = new ArrayList<>();
+        this.transitionCover = new ArrayList<>();
+        this.globalSuffixes = new ArrayList<>();
+        this.passedTests = new ConcurrentHashMap<>();
+        this.skippedTests = new Counter("skipped test words", "queries");
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Returns the counter of test words that have been skipped because they passed against a previous hypothesis that
+     * agrees with the current one.
+     *
+     * @return the counter of skipped test words
+     */
+    public Counter getSkippedTestsCounter() {
+        return skippedTests;
+    }
+
+    @Override
+    protected Stream<Word<I>> generateTestWords(A hypothesis, Collection<? extends I> inputs) {
+        for (I input : inputs) {
+            if (!alphabet.containsSymbol(input)) {
+                throw new IllegalArgumentException("Input '" + input + "' is not contained in the alphabet of this " +
+                                                   "oracle, which is fixed upon construction");
+            }
+        }
+
+        // only keep the test words whose recorded outputs are still predicted by the (changed) hypothesis
+        passedTests.entrySet().removeIf(e -> !Objects.equals(e.getValue(), hypothesis.computeOutput(e.getKey())));
+
+        final UniversalDeterministicAutomaton<?, I, ?, ?, ?> automaton = hypothesis;
+        return generateTestWordsInternal(automaton, hypothesis);
+    }
+
+    private <S> Stream<Word<I>> generateTestWordsInternal(UniversalDeterministicAutomaton<S, I, ?, ?, ?> automaton,
+                                                          A hypothesis) {
+
+        final List<Word<I>> newWords = new ArrayList<>();
+        Covers.incrementalStateCover(automaton, alphabet, stateCover, newWords);
+        stateCover.addAll(newWords);
+
+        newWords.clear();
+        Covers.incrementalTransitionCover(automaton, alphabet, transitionCover, newWords);
+        transitionCover.addAll(newWords);
+
+        newWords.clear();
+        Automata.incrementalCharacterizingSet(automaton, alphabet, globalSuffixes, newWords);
+        globalSuffixes.addAll(newWords);
+
+        final List<Word<I>> middleParts = new ArrayList<>();
+        for (List<I> middle : CollectionsUtil.allTuples(alphabet, 0, maxDepth)) {
+            middleParts.add(Word.fromList(middle));
+        }
+
+        final Set<Word<I>> stateCoverSet = new HashSet<>(stateCover);
+        final Map<S, List<Word<I>>> localSuffixes = new HashMap<>();
+        final Function<S, List<Word<I>>> localSuffixFunction =
+                s -> Automata.stateCharacterizingSet(automaton, alphabet, s);
+
+        // the first phase tests all access sequences with the global characterizing set ...
+        final Stream<Word<I>> firstPhase =
+                stateCover.stream()
+                          .flatMap(as -> middleParts.stream().map(as::concat))
+                          .flatMap(p -> withSuffixes(p, globalSuffixes));
+
+        // ... the second phase tests the remaining transitions with the local suffixes of their target states
+        final Stream<Word<I>> secondPhase =
+                transitionCover.stream()
+                               .filter(as -> !stateCoverSet.contains(as))
+                               .flatMap(as -> middleParts.stream().map(as::concat))
+                               .flatMap(p -> withSuffixes(p,
+                                                          localSuffixes.computeIfAbsent(automaton.getState(p),
+                                                                                        localSuffixFunction)));
+
+        return Streams.concat(firstPhase, secondPhase).filter(w -> !hasPassed(w));
+    }
+
+    @Override
+    protected void testWordPassed(A hypothesis, DefaultQuery<I, D> query) {
+        final D output = query.getOutput();
+        if (output != null) {
+            passedTests.put(query.getInput(), output);
+        }
+    }
+
+    private boolean hasPassed(Word<I> testWord) {
+        if (passedTests.containsKey(testWord)) {
+            skippedTests.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    private static <I> Stream<Word<I>> withSuffixes(Word<I> prefix, List<Word<I>> suffixes) {
+        if (suffixes.isEmpty()) {
+            return Stream.of(prefix);
+        }
+        return suffixes.stream().map(prefix::concat);
+    }
+}
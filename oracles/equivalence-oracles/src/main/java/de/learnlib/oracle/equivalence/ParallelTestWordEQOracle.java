@@ -0,0 +1,297 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.concepts.Output;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An equivalence oracle that answers the test words of an {@link AbstractTestWordEQOracle} (e.g. a {@link
+ * WMethodEQOracle}, {@link WpMethodEQOracle}, {@link RandomWMethodEQOracle} or {@link CompleteExplorationEQOracle})
+ * in parallel.
+ * <p>
+ * Test words are generated (lazily) on the calling thread and partitioned into batches. Up to one batch per given
+ * membership oracle is in flight at the same time. Each batch is answered by an exclusive membership oracle and
+ * directly compared to the hypothesis by the executing worker. Hence, the hypothesis needs to support concurrent
+ * (read-only) access.
+ * <p>
+ * As soon as a counterexample is found, no further batches are submitted and all pending batches that were generated
+ * after the batch containing the counterexample are cancelled, i.e. they are skipped if they have not been started
+ * yet, and their workers are interrupted otherwise. Batches that were generated before are still answered,
+ * so that the oracle returns the shortest counterexample of all answered batches (preferring the first generated one
+ * in case of equal length). For test word generators that enumerate words by increasing length (such as the {@link
+ * CompleteExplorationEQOracle}), this coincides with the counterexample found by a sequential check.
+ * <p>
+ * Note that the membership oracle of the wrapped test word oracle is not used for answering queries.
+ *
+ * @param <A>
+ *         hypothesis type
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output (domain) type
+ */
+public class ParallelTestWordEQOracle<A extends Output<I, D>, I, D> implements EquivalenceOracle<A, I, D> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelTestWordEQOracle.class);
+
+    @NonNull
+    private final AbstractTestWordEQOracle<A, I, D> testWordOracle;
+    @NonNull
+    private final BlockingQueue<MembershipOracle<I, D>> idleOracles;
+    @Positive
+    private final int numOracles;
+    @Positive
+    private final int batchSize;
+    @NonNull
+    private final ExecutorService executor;
+
+    /**
+     * Constructor. Uses a fixed thread pool with one thread per given membership oracle.
+     *
+     * @param testWordOracle
+     *         the oracle whose test words should be answered in parallel
+     * @param oracles
+     *         the membership oracles used for answering the test words
+     * @param batchSize
+     *         size of the batches that are answered by a single membership oracle
+     */
+    public ParallelTestWordEQOracle(AbstractTestWordEQOracle<A, I, D> testWordOracle,
+                                    Collection<? extends MembershipOracle<I, D>> oracles,
+                                    @Positive int batchSize) {
+        this(testWordOracle, oracles, batchSize, Executors.newFixedThreadPool(Math.max(1, oracles.size())));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param testWordOracle
+     *         the oracle whose test words should be answered in parallel
+     * @param oracles
+     *         the membership oracles used for answering the test words
+     * @param batchSize
+     *         size of the batches that are answered by a single membership oracle
+     * @param executor
+     *         the executor that runs the batches
+     */
+    public ParallelTestWordEQOracle(AbstractTestWordEQOracle<A, I, D> testWordOracle,
+                                    Collection<? extends MembershipOracle<I, D>> oracles,
+                                    @Positive int batchSize,
+                                    ExecutorService executor) {
+        Preconditions.checkArgument(!oracles.isEmpty(), "No membership oracles specified");
+        Preconditions.checkArgument(batchSize > 0);
+
+        this.testWordOracle = testWordOracle;
+        this.idleOracles = new LinkedBlockingQueue<>(oracles);
+        this.numOracles = oracles.size();
+        this.batchSize = batchSize;
+        this.executor = executor;
+    }
+
+    @Nullable
+    @Override
+    public DefaultQuery<I, D> findCounterExample(A hypothesis, Collection<? extends I> inputs) {
+        // Fail fast on empty inputs
+        if (inputs.isEmpty()) {
+            LOGGER.warn("Passed empty set of inputs to equivalence oracle; no counterexample can be found!");
+            return null;
+        }
+
+        final Iterator<List<DefaultQuery<I, D>>> batches = Iterators.partition(testWordOracle.generateTestWords(
+                hypothesis,
+                inputs).map(DefaultQuery<I, D>::new).iterator(), batchSize);
+
+        final CompletionService<BatchResult<I, D>> completionService = new ExecutorCompletionService<>(executor);
+        final NavigableMap<Integer, Future<BatchResult<I, D>>> pending = new TreeMap<>();
+        // index of the first (generated) batch that contains a counterexample
+        final AtomicInteger ceBatch = new AtomicInteger(Integer.MAX_VALUE);
+
+        BatchResult<I, D> result = null;
+        ExecutionException failure = null;
+        int inFlight = 0;
+        int index = 0;
+
+        try {
+            while (inFlight > 0 || (failure == null && ceBatch.get() == Integer.MAX_VALUE && batches.hasNext())) {
+                while (inFlight < numOracles && failure == null && ceBatch.get() == Integer.MAX_VALUE &&
+                       batches.hasNext()) {
+                    final Batch batch = new Batch(index, batches.next(), hypothesis, ceBatch);
+                    pending.put(index++, completionService.submit(batch));
+                    inFlight++;
+                }
+
+                final Future<BatchResult<I, D>> future = completionService.take();
+                pending.values().remove(future);
+
+                try {
+                    final BatchResult<I, D> batchResult = future.get();
+                    if (batchResult != null) {
+                        cancel(pending.tailMap(batchResult.index, false));
+                        if (result == null || batchResult.isBetterThan(result)) {
+                            result = batchResult;
+                        }
+                    }
+                } catch (CancellationException e) {
+                    // batch has been generated after a counterexample
+                } catch (ExecutionException e) {
+                    // skip remaining batches
+                    ceBatch.set(-1);
+                    cancel(pending);
+                    failure = e;
+                } finally {
+                    inFlight--;
+                }
+            }
+        } catch (InterruptedException e) {
+            ceBatch.set(-1);
+            cancel(pending);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for test words to be answered", e);
+        }
+
+        if (failure != null) {
+            final Throwable cause = failure.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+
+        return result == null ? null : result.counterexample;
+    }
+
+    /**
+     * Initiates an orderly shutdown of the executor of this oracle.
+     *
+     * @see ExecutorService#shutdown()
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Attempts to stop all actively executing batches of this oracle.
+     *
+     * @see ExecutorService#shutdownNow()
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    private static void cancel(Map<?, ? extends Future<?>> futures) {
+        for (Future<?> f : futures.values()) {
+            f.cancel(true);
+        }
+    }
+
+    private final class Batch implements Callable<BatchResult<I, D>> {
+
+        private final int index;
+        private final List<DefaultQuery<I, D>> queries;
+        private final A hypothesis;
+        private final AtomicInteger ceBatch;
+
+        Batch(int index, List<DefaultQuery<I, D>> queries, A hypothesis, AtomicInteger ceBatch) {
+            this.index = index;
+            this.queries = queries;
+            this.hypothesis = hypothesis;
+            this.ceBatch = ceBatch;
+        }
+
+        @Override
+        @Nullable
+        public BatchResult<I, D> call() throws InterruptedException {
+            // a counterexample has already been found in a batch that was generated earlier
+            if (index > ceBatch.get()) {
+                return null;
+            }
+
+            // a cancelled batch may still hold its oracle until its worker reacts to the interruption
+            final MembershipOracle<I, D> oracle = idleOracles.take();
+
+            try {
+                oracle.processQueries(queries);
+            } finally {
+                idleOracles.offer(oracle);
+            }
+
+            DefaultQuery<I, D> shortest = null;
+
+            for (DefaultQuery<I, D> query : queries) {
+                if (Objects.equals(hypothesis.computeOutput(query.getInput()), query.getOutput())) {
+                    testWordOracle.testWordPassed(hypothesis, query);
+                } else if (shortest == null || query.getInput().length() < shortest.getInput().length()) {
+                    shortest = query;
+                }
+            }
+
+            if (shortest == null) {
+                return null;
+            }
+
+            ceBatch.accumulateAndGet(index, Math::min);
+            return new BatchResult<>(index, shortest);
+        }
+    }
+
+    private static final class BatchResult<I, D> {
+
+        private final int index;
+        private final DefaultQuery<I, D> counterexample;
+
+        BatchResult(int index, DefaultQuery<I, D> counterexample) {
+            this.index = index;
+            this.counterexample = counterexample;
+        }
+
+        boolean isBetterThan(BatchResult<I, D> other) {
+            final int thisLength = counterexample.getInput().length();
+            final int otherLength = other.counterexample.getInput().length();
+
+            return thisLength < otherLength || (thisLength == otherLength && index < other.index);
+        }
+    }
+}
@@ -163,7 +163,36 @@ public class RandomWpMethodEQOracle<A extends UniversalDeterministicAutomaton<?,
                                   int bound,
                                   Random random,
                                   int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, minimalSize, rndLength, bound, random, batchSize, false);
+    }
+
+    /**
+     * Constructor for a bounded testing oracle with specific batch size.
+     *
+     * @param sulOracle
+     *         oracle which answers tests.
+     * @param minimalSize
+     *         minimal size of the random word
+     * @param rndLength
+     *         expected length (in addition to minimalSize) of random word
+     * @param bound
+     *         specifies the bound (set to 0 for unbounded).
+     * @param random
+     *         custom Random generator.
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param pruneTestWords
+     *         whether test words should be looked up in the membership oracle before posing them (see {@link
+     *         AbstractTestWordEQOracle#AbstractTestWordEQOracle(MembershipOracle, int, boolean)})
+     */
+    public RandomWpMethodEQOracle(MembershipOracle<I, D> sulOracle,
+                                  int minimalSize,
+                                  int rndLength,
+                                  int bound,
+                                  Random random,
+                                  int batchSize,
+                                  boolean pruneTestWords) {
+        super(sulOracle, batchSize, pruneTestWords);
         this.minimalSize = minimalSize;
         this.rndLength = rndLength;
         this.bound = bound;
@@ -120,7 +120,36 @@ public class WpMethodEQOracle<A extends UniversalDeterministicAutomaton<?, I, ?,
      * @see WpMethodTestsIterator
      */
     public WpMethodEQOracle(MembershipOracle<I, D> sulOracle, int lookahead, int expectedSize, int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, lookahead, expectedSize, batchSize, false);
+    }
+
+    /**
+     * Constructor. Uses {@link Math#max(int, int) Math.max}{@code (lookahead, expectedSize - }{@link
+     * UniversalDeterministicAutomaton#size() hypothesis.size()}{@code )} to determine the maximum length of sequences,
+     * that should be appended to the state-cover (first phase) and remaining transition-cover (second phase) part of
+     * the test sequence to account for the fact that the system under learning may have more states than the current
+     * hypothesis.
+     *
+     * @param sulOracle
+     *         interface to the system under learning
+     * @param lookahead
+     *         the (minimal) maximum length of the "middle" part of the test cases
+     * @param expectedSize
+     *         the expected size of the system under learning
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param pruneTestWords
+     *         whether test words should be looked up in the membership oracle before posing them (see {@link
+     *         AbstractTestWordEQOracle#AbstractTestWordEQOracle(MembershipOracle, int, boolean)})
+     *
+     * @see WpMethodTestsIterator
+     */
+    public WpMethodEQOracle(MembershipOracle<I, D> sulOracle,
+                            int lookahead,
+                            int expectedSize,
+                            int batchSize,
+                            boolean pruneTestWords) {
+        super(sulOracle, batchSize, pruneTestWords);
         this.lookahead = lookahead;
         this.expectedSize = expectedSize;
     }
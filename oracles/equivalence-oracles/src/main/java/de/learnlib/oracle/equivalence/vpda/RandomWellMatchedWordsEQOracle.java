@@ -59,7 +59,18 @@ public class RandomWellMatchedWordsEQOracle<I> extends AbstractTestWordEQOracle<
                                           final int minLength,
                                           final int maxLength,
                                           final int batchSize) {
-        super(oracle, batchSize);
+        this(random, oracle, callProb, maxTests, minLength, maxLength, batchSize, false);
+    }
+
+    public RandomWellMatchedWordsEQOracle(final Random random,
+                                          final MembershipOracle<I, Boolean> oracle,
+                                          final double callProb,
+                                          final int maxTests,
+                                          final int minLength,
+                                          final int maxLength,
+                                          final int batchSize,
+                                          final boolean pruneTestWords) {
+        super(oracle, batchSize, pruneTestWords);
 
         Preconditions.checkArgument(minLength <= maxLength, "minLength is smaller than maxLength");
 
@@ -0,0 +1,144 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.examples.dfa.ExamplePaulAndMary;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import net.automatalib.words.impl.Symbol;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class IncrementalWpMethodEQOracleTest extends AbstractEQOracleTest<DFA<?, Symbol>, Symbol, Boolean> {
+
+    private DFA<?, Symbol> dfa;
+    private Set<Word<Symbol>> prefixes;
+    private Set<Word<Symbol>> suffixes;
+
+    @BeforeClass
+    public void setUp() {
+        this.dfa = ExamplePaulAndMary.constructMachine();
+
+        this.prefixes = new HashSet<>(Automata.stateCover(this.dfa, getAlphabet()));
+        this.prefixes.addAll(Automata.transitionCover(this.dfa, getAlphabet()));
+        this.suffixes = new HashSet<>(Automata.characterizingSet(this.dfa, getAlphabet()));
+        addLocalSuffixes(this.dfa, this.suffixes);
+    }
+
+    private <S> void addLocalSuffixes(DFA<S, Symbol> automaton, Set<Word<Symbol>> result) {
+        for (S s : automaton) {
+            result.addAll(Automata.stateCharacterizingSet(automaton, getAlphabet(), s));
+        }
+    }
+
+    @Test
+    public void testIncrementality() {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'c');
+        final CompactDFA<Character> target = RandomAutomata.randomDFA(new Random(42), 20, alphabet);
+        final CompactDFA<Character> hypothesis = RandomAutomata.randomDFA(new Random(42), 20, alphabet);
+
+        // redirect a single transition of the hypothesis, such that it differs from the target
+        for (int s = 0; Automata.findSeparatingWord(target, hypothesis, alphabet) == null; s++) {
+            hypothesis.setTransition(0, (Character) 'a', (Integer) (s % target.size()));
+        }
+
+        final CountingOracle<Character> counter = new CountingOracle<>(new DFASimulatorOracle<>(target));
+        final DFAIncrementalWpMethodEQOracle<Character> eqOracle =
+                new DFAIncrementalWpMethodEQOracle<>(counter, alphabet, 1, 10);
+
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+        final long numInitialQueries = counter.numQueries;
+        Assert.assertTrue(numInitialQueries > 0);
+
+        // all tests have passed against the same hypothesis
+        counter.numQueries = 0;
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+        Assert.assertEquals(counter.numQueries, 0);
+
+        // only tests of the changed region are executed
+        counter.numQueries = 0;
+        final DefaultQuery<Character, Boolean> ce = eqOracle.findCounterExample(hypothesis, alphabet);
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getOutput(), target.computeOutput(ce.getInput()));
+        Assert.assertNotEquals(ce.getOutput(), hypothesis.computeOutput(ce.getInput()));
+        Assert.assertTrue(counter.numQueries < numInitialQueries);
+        Assert.assertTrue(eqOracle.getSkippedTestsCounter().getCount() > 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownInputs() {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+        final CompactDFA<Character> target = RandomAutomata.randomDFA(new Random(42), 5, alphabet);
+        final DFAIncrementalWpMethodEQOracle<Character> eqOracle =
+                new DFAIncrementalWpMethodEQOracle<>(new DFASimulatorOracle<>(target), alphabet);
+
+        eqOracle.findCounterExample(target, Alphabets.characters('a', 'c'));
+    }
+
+    @Override
+    protected void checkGeneratedQuery(Word<Symbol> query) {
+        prefixes.stream().filter(w -> w.isPrefixOf(query)).findAny().orElseThrow(AssertionError::new);
+        suffixes.stream().filter(w -> w.isSuffixOf(query)).findAny().orElseThrow(AssertionError::new);
+    }
+
+    @Override
+    protected EquivalenceOracle<DFA<?, Symbol>, Symbol, Boolean> getOracle(MembershipOracle<Symbol, Boolean> mOracle) {
+        return new IncrementalWpMethodEQOracle<>(mOracle, getAlphabet());
+    }
+
+    @Override
+    protected DFA<?, Symbol> getHypothesis() {
+        return dfa;
+    }
+
+    @Override
+    protected Alphabet<Symbol> getAlphabet() {
+        return ExamplePaulAndMary.createInputAlphabet();
+    }
+
+    private static class CountingOracle<I> implements DFAMembershipOracle<I> {
+
+        private final DFAMembershipOracle<I> delegate;
+        private long numQueries;
+
+        CountingOracle(DFAMembershipOracle<I> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+            numQueries += queries.size();
+            delegate.processQueries(queries);
+        }
+    }
+}
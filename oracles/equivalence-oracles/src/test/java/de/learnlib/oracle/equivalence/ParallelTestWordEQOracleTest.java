@@ -0,0 +1,230 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.examples.dfa.ExamplePaulAndMary;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.concepts.Output;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Symbol;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParallelTestWordEQOracleTest {
+
+    private static final int NUM_ORACLES = 4;
+    private static final int BATCH_SIZE = 3;
+
+    @Test
+    public void testShortestCounterexample() {
+        final DFA<?, Symbol> target = ExamplePaulAndMary.constructMachine();
+        final Alphabet<Symbol> alphabet = ExamplePaulAndMary.createInputAlphabet();
+        final DFA<?, Symbol> hypothesis = rejectingDFA(alphabet);
+
+        final DFAMembershipOracle<Symbol> mqo = new DFASimulatorOracle<>(target);
+        final CompleteExplorationEQOracle<DFA<?, Symbol>, Symbol, Boolean> eqo =
+                new CompleteExplorationEQOracle<>(mqo, 1, 5);
+
+        final DefaultQuery<Symbol, Boolean> sequentialCE = eqo.findCounterExample(hypothesis, alphabet);
+        Assert.assertNotNull(sequentialCE);
+
+        final ParallelTestWordEQOracle<DFA<?, Symbol>, Symbol, Boolean> parallelEQO =
+                new ParallelTestWordEQOracle<>(eqo, Collections.nCopies(NUM_ORACLES, mqo), BATCH_SIZE);
+
+        try {
+            final DefaultQuery<Symbol, Boolean> parallelCE = parallelEQO.findCounterExample(hypothesis, alphabet);
+
+            Assert.assertNotNull(parallelCE);
+            Assert.assertEquals(parallelCE.getInput().length(), sequentialCE.getInput().length());
+            Assert.assertEquals(parallelCE.getOutput(), target.computeOutput(parallelCE.getInput()));
+            Assert.assertNotEquals(parallelCE.getOutput(), hypothesis.computeOutput(parallelCE.getInput()));
+        } finally {
+            parallelEQO.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoCounterexample() {
+        final DFA<?, Symbol> target = ExamplePaulAndMary.constructMachine();
+        final Alphabet<Symbol> alphabet = ExamplePaulAndMary.createInputAlphabet();
+
+        final CountingOracle<Symbol, Boolean> sequentialOracle =
+                new CountingOracle<>(new DFASimulatorOracle<>(target));
+        final WMethodEQOracle<DFA<?, Symbol>, Symbol, Boolean> eqo = new WMethodEQOracle<>(sequentialOracle, 2);
+
+        Assert.assertNull(eqo.findCounterExample(target, alphabet));
+
+        final List<CountingOracle<Symbol, Boolean>> oracles = new ArrayList<>(NUM_ORACLES);
+        for (int i = 0; i < NUM_ORACLES; i++) {
+            oracles.add(new CountingOracle<>(new DFASimulatorOracle<>(target)));
+        }
+
+        final ParallelTestWordEQOracle<DFA<?, Symbol>, Symbol, Boolean> parallelEQO =
+                new ParallelTestWordEQOracle<>(eqo, oracles, BATCH_SIZE);
+
+        try {
+            Assert.assertNull(parallelEQO.findCounterExample(target, alphabet));
+        } finally {
+            parallelEQO.shutdown();
+        }
+
+        final int parallelQueries = oracles.stream().mapToInt(CountingOracle::getQueryCounter).sum();
+        Assert.assertEquals(parallelQueries, sequentialOracle.getQueryCounter());
+    }
+
+    @Test(timeOut = 10000)
+    public void testEarlyCancellation() {
+        final CountingOracle<Character, Boolean> mqo = new CountingOracle<>(queries -> {
+            for (Query<Character, Boolean> q : queries) {
+                q.answer(Boolean.TRUE);
+            }
+        });
+
+        // every test word is a counterexample, and there are infinitely many of them
+        final Output<Character, Boolean> hypothesis = input -> Boolean.FALSE;
+        final InfiniteEQOracle eqo = new InfiniteEQOracle(mqo);
+
+        final ParallelTestWordEQOracle<Output<Character, Boolean>, Character, Boolean> parallelEQO =
+                new ParallelTestWordEQOracle<>(eqo, Collections.nCopies(NUM_ORACLES, mqo), BATCH_SIZE);
+
+        try {
+            final DefaultQuery<Character, Boolean> ce =
+                    parallelEQO.findCounterExample(hypothesis, Collections.singleton('a'));
+
+            Assert.assertNotNull(ce);
+            // the first generated batch is never skipped and contains the first generated counterexample
+            Assert.assertEquals(ce.getInput(), Word.fromLetter((char) 0));
+        } finally {
+            parallelEQO.shutdown();
+        }
+
+        // at most one wave of batches may have been answered
+        Assert.assertTrue(mqo.getQueryCounter() <= NUM_ORACLES * BATCH_SIZE);
+    }
+
+    @Test(timeOut = 10000)
+    public void testRunningBatchCancellation() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(NUM_ORACLES - 1);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final MembershipOracle<Character, Boolean> mqo = queries -> {
+            try {
+                if (queries.stream().anyMatch(q -> q.getInput().equals(Word.fromLetter((char) 0)))) {
+                    // the first batch completes once the other batches are running
+                    running.await(5, TimeUnit.SECONDS);
+                } else {
+                    // all other batches block until they are interrupted
+                    running.countDown();
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                }
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+            }
+            for (Query<Character, Boolean> q : queries) {
+                q.answer(Boolean.TRUE);
+            }
+        };
+
+        final Output<Character, Boolean> hypothesis = input -> Boolean.FALSE;
+        final InfiniteEQOracle eqo = new InfiniteEQOracle(mqo);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_ORACLES);
+
+        final ParallelTestWordEQOracle<Output<Character, Boolean>, Character, Boolean> parallelEQO =
+                new ParallelTestWordEQOracle<>(eqo, Collections.nCopies(NUM_ORACLES, mqo), BATCH_SIZE, executor);
+
+        try {
+            // the oracles of cancelled batches can be re-used
+            for (int i = 0; i < 2; i++) {
+                final DefaultQuery<Character, Boolean> ce =
+                        parallelEQO.findCounterExample(hypothesis, Collections.singleton('a'));
+
+                Assert.assertNotNull(ce);
+                Assert.assertEquals(ce.getInput(), Word.fromLetter((char) 0));
+            }
+        } finally {
+            parallelEQO.shutdown();
+        }
+
+        // the running batches have been interrupted instead of running to completion
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertTrue(interrupted.get() >= NUM_ORACLES - 1);
+    }
+
+    private static DFA<?, Symbol> rejectingDFA(Alphabet<Symbol> alphabet) {
+        final CompactDFA<Symbol> dfa = new CompactDFA<>(alphabet);
+        final int init = dfa.addInitialState(false);
+
+        for (Symbol s : alphabet) {
+            dfa.addTransition(init, s, init);
+        }
+
+        return dfa;
+    }
+
+    private static final class CountingOracle<I, D> implements MembershipOracle<I, D> {
+
+        private final MembershipOracle<I, D> delegate;
+        private final AtomicInteger queryCounter;
+
+        CountingOracle(MembershipOracle<I, D> delegate) {
+            this.delegate = delegate;
+            this.queryCounter = new AtomicInteger();
+        }
+
+        int getQueryCounter() {
+            return queryCounter.get();
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, D>> queries) {
+            queryCounter.addAndGet(queries.size());
+            delegate.processQueries(queries);
+        }
+    }
+
+    private static final class InfiniteEQOracle
+            extends AbstractTestWordEQOracle<Output<Character, Boolean>, Character, Boolean> {
+
+        InfiniteEQOracle(MembershipOracle<Character, Boolean> membershipOracle) {
+            super(membershipOracle);
+        }
+
+        @Override
+        protected Stream<Word<Character>> generateTestWords(Output<Character, Boolean> hypothesis,
+                                                            Collection<? extends Character> inputs) {
+            final AtomicInteger counter = new AtomicInteger();
+            return Stream.generate(() -> Word.fromLetter((char) counter.getAndIncrement()));
+        }
+    }
+}
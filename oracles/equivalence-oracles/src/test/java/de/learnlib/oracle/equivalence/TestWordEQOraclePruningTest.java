@@ -0,0 +1,151 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.dfa.DFACacheOracle;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.util.automata.fsa.DFAs;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the cache-aware pruning of test words in {@link AbstractTestWordEQOracle}s.
+ */
+public class TestWordEQOraclePruningTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private Alphabet<Character> alphabet;
+    private CompactDFA<Character> target;
+
+    @BeforeClass
+    public void setUp() {
+        this.alphabet = Alphabets.characters('a', 'c');
+        this.target = RandomAutomata.randomDFA(new Random(42), 10, alphabet);
+    }
+
+    @Test
+    public void testPruning() {
+        final CountingOracle<Character> counter = new CountingOracle<>(new DFASimulatorOracle<>(target));
+        final DFACacheOracle<Character> cache = DFACaches.createTreeCache(alphabet, counter);
+        final DFAWMethodEQOracle<Character> eqOracle = new DFAWMethodEQOracle<>(cache, 1, 0, BATCH_SIZE, true);
+
+        Assert.assertSame(eqOracle.getCache(), cache);
+
+        // pruning is opt-in
+        Assert.assertNull(new DFAWMethodEQOracle<>(cache, 1, 0, BATCH_SIZE).getCache());
+
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+
+        final long numMisses = eqOracle.getForwardedTestWordsCounter().getCount();
+        final long numHits = eqOracle.getPrunedTestWordsCounter().getCount();
+        final long numQueries = counter.numQueries;
+
+        // test words of previous batches (e.g. duplicates) may already be answered by the cache
+        Assert.assertTrue(numMisses > 0);
+        Assert.assertTrue(numQueries <= numMisses);
+
+        // all test words are answered by the cache now
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+
+        Assert.assertEquals(counter.numQueries, numQueries);
+        Assert.assertEquals(eqOracle.getForwardedTestWordsCounter().getCount(), numMisses);
+        Assert.assertEquals(eqOracle.getPrunedTestWordsCounter().getCount(), 2 * numHits + numMisses);
+    }
+
+    @Test
+    public void testMembershipOracleAsCache() {
+        final DFACacheOracle<Character> cache = DFACaches.createTreeCache(alphabet, new DFASimulatorOracle<>(target));
+        final TestOracle<Character> eqOracle = new TestOracle<>(cache, BATCH_SIZE, true);
+
+        Assert.assertSame(eqOracle.getCache(), cache);
+
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+        Assert.assertNull(eqOracle.findCounterExample(target, alphabet));
+
+        Assert.assertEquals(eqOracle.getForwardedTestWordsCounter().getCount(), 1);
+        Assert.assertEquals(eqOracle.getPrunedTestWordsCounter().getCount(), 1);
+
+        // without opting in, the cache is not used for look-ups
+        Assert.assertNull(new TestOracle<>(cache, BATCH_SIZE, false).getCache());
+    }
+
+    @Test
+    public void testCachedCounterexample() {
+        final DFACacheOracle<Character> cache =
+                DFACaches.createTreeCache(alphabet, new DFASimulatorOracle<>(target));
+        new DFAWMethodEQOracle<>(cache, 1, 0, BATCH_SIZE).findCounterExample(target, alphabet);
+
+        final CountingOracle<Character> counter = new CountingOracle<>(new DFASimulatorOracle<>(target));
+        final DFAWMethodEQOracle<Character> eqOracle = new DFAWMethodEQOracle<>(counter, 1, 0, BATCH_SIZE);
+        Assert.assertNull(eqOracle.getCache());
+        eqOracle.setCache(cache);
+
+        final DFA<?, Character> hypothesis = DFAs.complement(target, alphabet);
+        final DefaultQuery<Character, Boolean> ce = eqOracle.findCounterExample(hypothesis, alphabet);
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getOutput(), target.computeOutput(ce.getInput()));
+        Assert.assertNotEquals(ce.getOutput(), hypothesis.computeOutput(ce.getInput()));
+
+        // the counterexample has been found without posing (a batch of) queries to the membership oracle
+        Assert.assertEquals(counter.numQueries, 0);
+        Assert.assertEquals(eqOracle.getPrunedTestWordsCounter().getCount(), 1);
+    }
+
+    private static class TestOracle<I> extends AbstractTestWordEQOracle<DFA<?, I>, I, Boolean> {
+
+        TestOracle(DFAMembershipOracle<I> membershipOracle, int batchSize, boolean pruneTestWords) {
+            super(membershipOracle, batchSize, pruneTestWords);
+        }
+
+        @Override
+        protected Stream<Word<I>> generateTestWords(DFA<?, I> hypothesis, Collection<? extends I> inputs) {
+            return Stream.of(Word.epsilon());
+        }
+    }
+
+    private static class CountingOracle<I> implements DFAMembershipOracle<I> {
+
+        private final DFAMembershipOracle<I> delegate;
+        private long numQueries;
+
+        CountingOracle(DFAMembershipOracle<I> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+            numQueries += queries.size();
+            delegate.processQueries(queries);
+        }
+    }
+}
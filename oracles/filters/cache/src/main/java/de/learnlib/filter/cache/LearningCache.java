@@ -16,9 +16,11 @@
 package de.learnlib.filter.cache;
 
 import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.oracle.OutputLookup;
 import net.automatalib.automata.fsa.DFA;
 import net.automatalib.automata.transducers.MealyMachine;
 import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Interface for a cache used in automata learning.
@@ -28,7 +30,9 @@ import net.automatalib.words.Word;
  * pose the same query twice or more times in different contexts.
  * <p>
  * A learning cache provides a {@link #createCacheConsistencyTest() cache consistency test}, which is an equivalence
- * query realization that only checks a given hypothesis against the contents of the cache.
+ * query realization that only checks a given hypothesis against the contents of the cache. Additionally, the cached
+ * output of individual words can be {@link #lookup(Word) looked up}, e.g. for answering test words of equivalence
+ * oracles without posing queries to the real system.
  *
  * @param <A>
  *         the (maximally generic) automaton model for which the caches stores information. For example, for a {@link
@@ -41,7 +45,7 @@ import net.automatalib.words.Word;
  *
  * @author Malte Isberner
  */
-public interface LearningCache<A, I, O> {
+public interface LearningCache<A, I, O> extends OutputLookup<I, O> {
 
     /**
      * Creates a <i>cache consistency test</i>. A cache consistency test is an equivalence oracle which checks a given
@@ -54,6 +58,24 @@ public interface LearningCache<A, I, O> {
      */
     EquivalenceOracle<A, I, O> createCacheConsistencyTest();
 
+    /**
+     * Looks up the output of the given input word in the contents of the cache. No queries are posed to the underlying
+     * system.
+     * <p>
+     * The default implementation does not support look-ups and always returns {@code null}.
+     *
+     * @param input
+     *         the input word
+     *
+     * @return the cached output of the (complete) input word, or {@code null} if the output is not (fully) contained in
+     * the cache
+     */
+    @Nullable
+    @Override
+    default O lookup(Word<I> input) {
+        return null;
+    }
+
     /**
      * Specialization of the {@link LearningCache} interface for DFA learning.
      *
@@ -0,0 +1,117 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import de.learnlib.filter.cache.mealy.ConcurrentIncrementalMealyTreeBuilder;
+
+/**
+ * A {@link ReadWriteLock} whose locks do not provide any mutual exclusion. Caches may use this lock if their underlying
+ * data structure is thread-safe by itself (e.g. a {@link ConcurrentIncrementalMealyTreeBuilder}) so that concurrent
+ * queries do not block each other.
+ * <p>
+ * Since there is no lock that could be released while waiting, the {@link Lock#newCondition() conditions} of this lock
+ * cannot be reliably signalled. Instead, all waiting methods return immediately (which the {@link Condition} contract
+ * permits as a spurious wakeup), i.e. waiting for a condition degrades to re-checking it in a loop.
+ */
+public final class NoopReadWriteLock implements ReadWriteLock {
+
+    private static final Lock NOOP_LOCK = new NoopLock();
+    private static final Condition NOOP_CONDITION = new NoopCondition();
+
+    @Override
+    public Lock readLock() {
+        return NOOP_LOCK;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return NOOP_LOCK;
+    }
+
+    private static final class NoopLock implements Lock {
+
+        @Override
+        public void lock() {}
+
+        @Override
+        public void lockInterruptibly() {}
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock() {}
+
+        @Override
+        public Condition newCondition() {
+            return NOOP_CONDITION;
+        }
+    }
+
+    private static final class NoopCondition implements Condition {
+
+        @Override
+        public void await() throws InterruptedException {
+            checkInterrupted();
+        }
+
+        @Override
+        public void awaitUninterruptibly() {}
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            checkInterrupted();
+            return nanosTimeout;
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            checkInterrupted();
+            return true;
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            checkInterrupted();
+            return true;
+        }
+
+        @Override
+        public void signal() {}
+
+        @Override
+        public void signalAll() {}
+
+        private static void checkInterrupted() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import de.learnlib.filter.cache.bounded.BoundedTrie.Node;
+import de.learnlib.filter.statistic.CacheStatistics;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A DFA cache oracle with a bounded number of prefix tree nodes. Once the node budget is exceeded, the least recently
+ * used subtrees are evicted (see {@link BoundedTrie}), so the memory consumption of the cache stays bounded during long
+ * equivalence checks (e.g. random walks). The paths of the queries of the current batch are never evicted.
+ * <p>
+ * The number of cache hits, cache misses and evicted nodes can be accessed via {@link #getStatistics()}. Note that
+ * evicted queries are forwarded to the delegate oracle again and that the {@link #createCacheConsistencyTest() cache
+ * consistency test} can only check the remaining cache contents.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class BoundedDFACacheOracle<I> implements DFALearningCacheOracle<I> {
+
+    private final Alphabet<I> alphabet;
+    private final BoundedTrie<Boolean> trie;
+    private final MembershipOracle<I, Boolean> delegate;
+    private final ReadWriteLock lock;
+    private final CacheStatistics statistics;
+
+    public BoundedDFACacheOracle(Alphabet<I> alphabet, int maxNodes, MembershipOracle<I, Boolean> delegate) {
+        this.alphabet = alphabet;
+        this.trie = new BoundedTrie<>(alphabet.size(), maxNodes);
+        this.delegate = delegate;
+        this.lock = new ReentrantReadWriteLock();
+        this.statistics = new CacheStatistics("DFA cache");
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        final long start = trie.tick();
+
+        // group the misses by their input, so that each word is only queried once
+        final Map<Word<I>, List<Query<I, Boolean>>> misses = new LinkedHashMap<>();
+        int numMisses = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Query<I, Boolean> q : queries) {
+                final Boolean answer = lookup(q.getInput(), trie.tick());
+                if (answer != null) {
+                    q.answer(answer);
+                } else {
+                    misses.computeIfAbsent(q.getInput(), k -> new ArrayList<>()).add(q);
+                    numMisses++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // count misses per query, i.e. duplicate misses are misses as well (although queried only once)
+        statistics.getHits().increment(queries.size() - numMisses);
+        statistics.getMisses().increment(numMisses);
+
+        if (misses.isEmpty()) {
+            return;
+        }
+
+        final List<DefaultQuery<I, Boolean>> delegateQueries = new ArrayList<>(misses.size());
+        for (Word<I> input : misses.keySet()) {
+            delegateQueries.add(new DefaultQuery<>(input));
+        }
+
+        delegate.processQueries(delegateQueries);
+
+        lock.writeLock().lock();
+        try {
+            for (DefaultQuery<I, Boolean> q : delegateQueries) {
+                insert(q.getInput(), q.getOutput(), trie.tick());
+            }
+
+            if (trie.isFull()) {
+                statistics.getEvictions().increment(trie.evict(start));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (DefaultQuery<I, Boolean> q : delegateQueries) {
+            for (Query<I, Boolean> orig : misses.get(q.getInput())) {
+                orig.answer(q.getOutput());
+            }
+        }
+    }
+
+    @Override
+    public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
+        return this::findSeparatingQuery;
+    }
+
+    @Nullable
+    @Override
+    public Boolean lookup(Word<I> input) {
+        final Boolean result;
+
+        lock.readLock().lock();
+        try {
+            result = lookup(input, trie.tick());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (result == null) {
+            statistics.getMisses().increment();
+        } else {
+            statistics.getHits().increment();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the statistics (hits, misses and evicted nodes) of this cache.
+     *
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the number of nodes of the prefix tree.
+     *
+     * @return the number of nodes
+     */
+    public int getCacheSize() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private @Nullable Boolean lookup(Word<I> input, long time) {
+        Node<Boolean> node = trie.getRoot();
+        trie.touch(node, time);
+
+        for (I sym : input) {
+            node = trie.getChild(node, alphabet.getSymbolIndex(sym));
+            if (node == null) {
+                return null;
+            }
+            trie.touch(node, time);
+        }
+
+        return node.getValue();
+    }
+
+    private void insert(Word<I> input, boolean accepted, long time) {
+        Node<Boolean> node = trie.getRoot();
+        trie.touch(node, time);
+
+        for (I sym : input) {
+            node = trie.getOrAddChild(node, alphabet.getSymbolIndex(sym));
+            trie.touch(node, time);
+        }
+
+        final Boolean oldValue = node.getValue();
+
+        if (oldValue == null) {
+            node.setValue(accepted);
+        } else if (oldValue != accepted) {
+            throw new ConflictException("Incompatible output for word " + input + ": " + oldValue + " vs " + accepted);
+        }
+    }
+
+    private <S> @Nullable DefaultQuery<I, Boolean> findSeparatingQuery(DFA<S, I> hypothesis,
+                                                                       Collection<? extends I> inputs) {
+        final S init = hypothesis.getInitialState();
+
+        if (init == null) {
+            return null;
+        }
+
+        final Deque<Record<S, I>> queue = new ArrayDeque<>();
+        queue.add(new Record<>(trie.getRoot(), init, Word.epsilon()));
+
+        lock.readLock().lock();
+        try {
+            Record<S, I> current;
+            while ((current = queue.poll()) != null) {
+                final Boolean value = current.node.getValue();
+
+                if (value != null && value != hypothesis.isAccepting(current.state)) {
+                    final DefaultQuery<I, Boolean> result = new DefaultQuery<>(current.input);
+                    result.answer(value);
+                    return result;
+                }
+
+                for (I sym : inputs) {
+                    if (!alphabet.containsSymbol(sym)) {
+                        continue;
+                    }
+
+                    final Node<Boolean> child = trie.getChild(current.node, alphabet.getSymbolIndex(sym));
+                    final S succ = hypothesis.getSuccessor(current.state, sym);
+
+                    if (child != null && succ != null) {
+                        queue.add(new Record<>(child, succ, current.input.append(sym)));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I> {
+
+        private final Node<Boolean> node;
+        private final S state;
+        private final Word<I> input;
+
+        Record(Node<Boolean> node, S state, Word<I> input) {
+            this.node = node;
+            this.state = state;
+            this.input = input;
+        }
+    }
+}
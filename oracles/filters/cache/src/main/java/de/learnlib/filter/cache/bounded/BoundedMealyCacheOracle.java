@@ -0,0 +1,278 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import de.learnlib.filter.cache.bounded.BoundedTrie.Node;
+import de.learnlib.filter.statistic.CacheStatistics;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A Mealy cache oracle with a bounded number of prefix tree nodes. Once the node budget is exceeded, the least recently
+ * used subtrees are evicted (see {@link BoundedTrie}), so the memory consumption of the cache stays bounded during long
+ * equivalence checks (e.g. random walks). The paths of the queries of the current batch are never evicted.
+ * <p>
+ * Cache misses are delegated as complete words (with an empty prefix), so that all outputs of a query can be stored.
+ * The number of cache hits, cache misses and evicted nodes can be accessed via {@link #getStatistics()}. Note that
+ * evicted queries are forwarded to the delegate oracle again and that the {@link #createCacheConsistencyTest() cache
+ * consistency test} can only check the remaining cache contents.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class BoundedMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
+
+    private final Alphabet<I> alphabet;
+    private final BoundedTrie<O> trie;
+    private final MembershipOracle<I, Word<O>> delegate;
+    private final ReadWriteLock lock;
+    private final CacheStatistics statistics;
+
+    public BoundedMealyCacheOracle(Alphabet<I> alphabet, int maxNodes, MembershipOracle<I, Word<O>> delegate) {
+        this.alphabet = alphabet;
+        this.trie = new BoundedTrie<>(alphabet.size(), maxNodes);
+        this.delegate = delegate;
+        this.lock = new ReentrantReadWriteLock();
+        this.statistics = new CacheStatistics("Mealy cache");
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        final long start = trie.tick();
+
+        // group the misses by their input, so that each word is only queried once
+        final Map<Word<I>, List<Query<I, Word<O>>>> misses = new LinkedHashMap<>();
+        int numMisses = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Query<I, Word<O>> q : queries) {
+                final Word<O> output = lookup(q.getInput(), trie.tick());
+                if (output != null) {
+                    q.answer(output.subWord(q.getPrefix().length()));
+                } else {
+                    misses.computeIfAbsent(q.getInput(), k -> new ArrayList<>()).add(q);
+                    numMisses++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // count misses per query, i.e. duplicate misses are misses as well (although queried only once)
+        statistics.getHits().increment(queries.size() - numMisses);
+        statistics.getMisses().increment(numMisses);
+
+        if (misses.isEmpty()) {
+            return;
+        }
+
+        final List<DefaultQuery<I, Word<O>>> delegateQueries = new ArrayList<>(misses.size());
+        for (Word<I> input : misses.keySet()) {
+            delegateQueries.add(new DefaultQuery<>(input));
+        }
+
+        delegate.processQueries(delegateQueries);
+
+        lock.writeLock().lock();
+        try {
+            for (DefaultQuery<I, Word<O>> q : delegateQueries) {
+                insert(q.getInput(), q.getOutput(), trie.tick());
+            }
+
+            if (trie.isFull()) {
+                statistics.getEvictions().increment(trie.evict(start));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (DefaultQuery<I, Word<O>> q : delegateQueries) {
+            for (Query<I, Word<O>> orig : misses.get(q.getInput())) {
+                orig.answer(q.getOutput().subWord(orig.getPrefix().length()));
+            }
+        }
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return this::findSeparatingQuery;
+    }
+
+    @Nullable
+    @Override
+    public Word<O> lookup(Word<I> input) {
+        final Word<O> result;
+
+        lock.readLock().lock();
+        try {
+            result = lookup(input, trie.tick());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (result == null) {
+            statistics.getMisses().increment();
+        } else {
+            statistics.getHits().increment();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the statistics (hits, misses and evicted nodes) of this cache.
+     *
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the number of nodes of the prefix tree.
+     *
+     * @return the number of nodes
+     */
+    public int getCacheSize() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private @Nullable Word<O> lookup(Word<I> input, long time) {
+        final WordBuilder<O> wb = new WordBuilder<>(input.length());
+        Node<O> node = trie.getRoot();
+        trie.touch(node, time);
+
+        for (I sym : input) {
+            node = trie.getChild(node, alphabet.getSymbolIndex(sym));
+            if (node == null) {
+                return null;
+            }
+            trie.touch(node, time);
+            wb.add(node.getValue());
+        }
+
+        return wb.toWord();
+    }
+
+    private void insert(Word<I> input, Word<O> output, long time) {
+        Node<O> node = trie.getRoot();
+        trie.touch(node, time);
+
+        for (int i = 0; i < input.length(); i++) {
+            node = trie.getOrAddChild(node, alphabet.getSymbolIndex(input.getSymbol(i)));
+            trie.touch(node, time);
+
+            final O out = output.getSymbol(i);
+            final O oldOut = node.getValue();
+
+            if (oldOut == null) {
+                node.setValue(out);
+            } else if (!Objects.equals(oldOut, out)) {
+                throw new ConflictException("Incompatible output symbols: " + oldOut + " vs " + out);
+            }
+        }
+    }
+
+    private <S, T> @Nullable DefaultQuery<I, Word<O>> findSeparatingQuery(MealyMachine<S, I, T, O> hypothesis,
+                                                                          Collection<? extends I> inputs) {
+        final S init = hypothesis.getInitialState();
+
+        if (init == null) {
+            return null;
+        }
+
+        final Deque<Record<S, I, O>> queue = new ArrayDeque<>();
+        queue.add(new Record<>(trie.getRoot(), init, Word.epsilon(), Word.epsilon()));
+
+        lock.readLock().lock();
+        try {
+            Record<S, I, O> current;
+            while ((current = queue.poll()) != null) {
+                for (I sym : inputs) {
+                    if (!alphabet.containsSymbol(sym)) {
+                        continue;
+                    }
+
+                    final Node<O> child = trie.getChild(current.node, alphabet.getSymbolIndex(sym));
+
+                    if (child == null) {
+                        continue;
+                    }
+
+                    final O out = child.getValue();
+                    final T trans = hypothesis.getTransition(current.state, sym);
+                    final Word<I> input = current.input.append(sym);
+                    final Word<O> output = current.output.append(out);
+
+                    if (trans == null || !Objects.equals(out, hypothesis.getTransitionOutput(trans))) {
+                        final DefaultQuery<I, Word<O>> result = new DefaultQuery<>(input);
+                        result.answer(output);
+                        return result;
+                    }
+
+                    queue.add(new Record<>(child, hypothesis.getSuccessor(trans), input, output));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final Node<O> node;
+        private final S state;
+        private final Word<I> input;
+        private final Word<O> output;
+
+        Record(Node<O> node, S state, Word<I> input, Word<O> output) {
+            this.node = node;
+            this.state = state;
+            this.input = input;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A prefix tree (trie) over int-encoded input symbols with a bounded number of nodes. Each node stores a single value,
+ * which is either the value of the word that leads to this node (e.g. the acceptance of a DFA query) or the value of
+ * its incoming edge (e.g. the output of a Mealy transition).
+ * <p>
+ * Every node carries the time of its last access, which is measured by a logical clock that is advanced via {@link
+ * #tick()}. Since nodes can only be reached via their parents, users of this class must {@link #touch(Node, long)
+ * touch} all nodes on the path to an accessed node, so that the access time of a node is at least the access time of
+ * each node of its subtree. Once the number of nodes exceeds the budget, {@link #evict(long)} removes the (least
+ * recently used) subtrees whose access time is below a threshold. The threshold is chosen such that the number of nodes
+ * drops below a low-water mark (so that the eviction costs amortize over many insertions), which yields an LRU
+ * approximation at the granularity of complete subtrees.
+ * <p>
+ * This class is not thread-safe. However, concurrent {@link #touch(Node, long) touches} during reads are tolerated: a
+ * lost update of an access time only affects the eviction order, because the eviction restores the above invariant
+ * before selecting its threshold.
+ *
+ * @param <V>
+ *         value type
+ */
+final class BoundedTrie<V> {
+
+    /**
+     * The ratio of the node budget that is retained by an eviction.
+     */
+    static final double LOW_WATER_RATIO = 0.75;
+
+    private final Node<V> root;
+    private final int alphabetSize;
+    private final int maxNodes;
+    private final int lowWater;
+    private final AtomicLong clock;
+    private int size;
+
+    BoundedTrie(int alphabetSize, int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("The node budget must be positive");
+        }
+
+        this.root = new Node<>(alphabetSize);
+        this.alphabetSize = alphabetSize;
+        this.maxNodes = maxNodes;
+        this.lowWater = Math.max(1, (int) (maxNodes * LOW_WATER_RATIO));
+        this.clock = new AtomicLong();
+        this.size = 1;
+    }
+
+    Node<V> getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the number of nodes, including the root.
+     *
+     * @return the number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size > maxNodes;
+    }
+
+    /**
+     * Advances the logical clock.
+     *
+     * @return the new time
+     */
+    long tick() {
+        return clock.incrementAndGet();
+    }
+
+    void touch(Node<V> node, long time) {
+        if (node.lastAccess < time) {
+            node.lastAccess = time;
+        }
+    }
+
+    @Nullable
+    Node<V> getChild(Node<V> node, int symbol) {
+        return node.children[symbol];
+    }
+
+    Node<V> getOrAddChild(Node<V> node, int symbol) {
+        Node<V> child = node.children[symbol];
+
+        if (child == null) {
+            child = new Node<>(alphabetSize);
+            node.children[symbol] = child;
+            size++;
+        }
+
+        return child;
+    }
+
+    /**
+     * Evicts the least recently used subtrees, until the number of nodes drops below the low-water mark. Nodes that
+     * have been accessed at (or after) the given time are never evicted, so the low-water mark may not be reached.
+     *
+     * @param protectedSince
+     *         the time since which accessed nodes are protected from eviction
+     *
+     * @return the number of evicted nodes
+     */
+    int evict(long protectedSince) {
+        final int toEvict = size - lowWater;
+
+        if (toEvict <= 0) {
+            return 0;
+        }
+
+        final long[] accessTimes = collectAccessTimes();
+        Arrays.sort(accessTimes);
+
+        // evict all nodes (and therefore subtrees) that are at most as recent as the toEvict-th least recent node
+        final long threshold = Math.min(accessTimes[Math.min(toEvict, accessTimes.length) - 1] + 1, protectedSince);
+
+        final int evicted = evictSubtrees(threshold);
+        size -= evicted;
+        return evicted;
+    }
+
+    /**
+     * Collects the access times of all non-root nodes and (re-)establishes that the access time of each node is at
+     * least the access time of each node in its subtree.
+     */
+    private long[] collectAccessTimes() {
+        final long[] result = new long[size - 1];
+        int idx = 0;
+
+        // iterative post-order traversal: each node is pushed twice, the second visit propagates the access times
+        final Deque<Node<V>> stack = new ArrayDeque<>();
+        final Deque<Boolean> visited = new ArrayDeque<>();
+        stack.push(root);
+        visited.push(Boolean.FALSE);
+
+        while (!stack.isEmpty()) {
+            final Node<V> node = stack.pop();
+
+            if (!visited.pop()) {
+                stack.push(node);
+                visited.push(Boolean.TRUE);
+                for (Node<V> child : node.children) {
+                    if (child != null) {
+                        stack.push(child);
+                        visited.push(Boolean.FALSE);
+                    }
+                }
+            } else {
+                for (Node<V> child : node.children) {
+                    if (child != null && child.lastAccess > node.lastAccess) {
+                        node.lastAccess = child.lastAccess;
+                    }
+                }
+                if (node != root) {
+                    result[idx++] = node.lastAccess;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int evictSubtrees(long threshold) {
+        int evicted = 0;
+
+        final Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            final Node<V> node = stack.pop();
+
+            for (int i = 0; i < node.children.length; i++) {
+                final Node<V> child = node.children[i];
+
+                if (child == null) {
+                    continue;
+                }
+
+                if (child.lastAccess < threshold) {
+                    evicted += countNodes(child);
+                    node.children[i] = null;
+                } else {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return evicted;
+    }
+
+    private static <V> int countNodes(Node<V> node) {
+        int result = 0;
+
+        final Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(node);
+
+        while (!stack.isEmpty()) {
+            final Node<V> n = stack.pop();
+            result++;
+            for (Node<V> child : n.children) {
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    static final class Node<V> {
+
+        private final @Nullable Node<V>[] children;
+        private @Nullable V value;
+        private long lastAccess;
+
+        @SuppressWarnings("unchecked")
+        Node(int alphabetSize) {
+            this.children = new Node[alphabetSize];
+        }
+
+        @Nullable
+        V getValue() {
+            return value;
+        }
+
+        void setValue(V value) {
+            this.value = value;
+        }
+    }
+}
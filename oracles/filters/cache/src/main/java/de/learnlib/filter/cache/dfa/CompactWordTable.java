@@ -0,0 +1,254 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A compact hash table that maps int-encoded words to their acceptance.
+ * <p>
+ * The table is addressed by 64-bit (polynomial) fingerprints of the words, which are stored in a primitive array using
+ * open addressing. The words themselves are stored variable-length encoded in a byte arena, so that collisions of
+ * fingerprints can be verified. The acceptance of the words is stored in a bit set. Compared to a {@link
+ * java.util.HashMap} of {@link net.automatalib.words.Word}s, this avoids the object overhead of boxed words and map
+ * entries.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class CompactWordTable implements Serializable {
+
+    private static final long FINGERPRINT_BASE = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // open addressing (linear probing): fingerprint 0 marks an empty slot
+    private long[] fingerprints;
+    private int[] entries;
+
+    // arena offsets of the words, indexed by their entry
+    private int[] offsets;
+    private byte[] arena;
+    private int arenaSize;
+    private final BitSet accepted;
+
+    private int size;
+
+    CompactWordTable() {
+        this.fingerprints = new long[INITIAL_CAPACITY];
+        this.entries = new int[INITIAL_CAPACITY];
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.arena = new byte[INITIAL_CAPACITY * Long.BYTES];
+        this.accepted = new BitSet();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the acceptance of the given word.
+     *
+     * @return the acceptance, or {@code null} if the word is not contained in the table
+     */
+    @Nullable
+    Boolean get(int[] word) {
+        final int entry = find(word, fingerprint(word));
+        return entry < 0 ? null : accepted.get(entry);
+    }
+
+    void put(int[] word, boolean acceptance) {
+        final long fingerprint = fingerprint(word);
+        int entry = find(word, fingerprint);
+
+        if (entry < 0) {
+            entry = add(word, fingerprint);
+        }
+
+        accepted.set(entry, acceptance);
+    }
+
+    /**
+     * Returns the word of the given entry, where entries are numbered (in insertion order) from {@code 0} to {@link
+     * #size()} (exclusive).
+     */
+    int[] getWord(int entry) {
+        int pos = offsets[entry];
+
+        final int length = readVarInt(pos);
+        pos += varIntLength(length);
+
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = readVarInt(pos);
+            pos += varIntLength(result[i]);
+        }
+
+        return result;
+    }
+
+    boolean isAccepted(int entry) {
+        return accepted.get(entry);
+    }
+
+    private int find(int[] word, long fingerprint) {
+        final int mask = fingerprints.length - 1;
+
+        for (int slot = slot(fingerprint, mask); fingerprints[slot] != 0; slot = (slot + 1) & mask) {
+            if (fingerprints[slot] == fingerprint && matches(entries[slot], word)) {
+                return entries[slot];
+            }
+        }
+
+        return -1;
+    }
+
+    private int add(int[] word, long fingerprint) {
+        if (2 * (size + 1) > fingerprints.length) {
+            rehash(2 * fingerprints.length);
+        }
+
+        final int entry = size++;
+
+        if (entry == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        offsets[entry] = arenaSize;
+        writeWord(word);
+
+        final int mask = fingerprints.length - 1;
+        int slot = slot(fingerprint, mask);
+        while (fingerprints[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        fingerprints[slot] = fingerprint;
+        entries[slot] = entry;
+
+        return entry;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldFingerprints = fingerprints;
+        final int[] oldEntries = entries;
+        final int mask = capacity - 1;
+
+        fingerprints = new long[capacity];
+        entries = new int[capacity];
+
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            final long fingerprint = oldFingerprints[i];
+            if (fingerprint != 0) {
+                int slot = slot(fingerprint, mask);
+                while (fingerprints[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                fingerprints[slot] = fingerprint;
+                entries[slot] = oldEntries[i];
+            }
+        }
+    }
+
+    private boolean matches(int entry, int[] word) {
+        int pos = offsets[entry];
+
+        final int length = readVarInt(pos);
+        if (length != word.length) {
+            return false;
+        }
+        pos += varIntLength(length);
+
+        for (int sym : word) {
+            if (readVarInt(pos) != sym) {
+                return false;
+            }
+            pos += varIntLength(sym);
+        }
+
+        return true;
+    }
+
+    private void writeWord(int[] word) {
+        int required = arenaSize + varIntLength(word.length);
+        for (int sym : word) {
+            required += varIntLength(sym);
+        }
+
+        if (required > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(required, 2 * arena.length));
+        }
+
+        writeVarInt(word.length);
+        for (int sym : word) {
+            writeVarInt(sym);
+        }
+    }
+
+    private void writeVarInt(int value) {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            arena[arenaSize++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        arena[arenaSize++] = (byte) v;
+    }
+
+    private int readVarInt(int pos) {
+        int result = 0;
+        int shift = 0;
+        int p = pos;
+        byte b;
+
+        do {
+            b = arena[p++];
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return result;
+    }
+
+    private static int varIntLength(int value) {
+        int result = 1;
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            result++;
+            v >>>= 7;
+        }
+        return result;
+    }
+
+    static long fingerprint(int[] word) {
+        long result = word.length;
+        for (int sym : word) {
+            result = result * FINGERPRINT_BASE + sym + 1;
+        }
+        // reserve 0 for empty slots
+        return result == 0 ? 1 : result;
+    }
+
+    private static int slot(long fingerprint, int mask) {
+        // finalizer of MurmurHash3, so that all bits of the fingerprint affect the slot
+        long h = fingerprint;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
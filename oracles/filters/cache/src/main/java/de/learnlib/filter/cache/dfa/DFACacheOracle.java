@@ -19,10 +19,14 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import de.learnlib.api.Resumable;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
@@ -35,6 +39,8 @@ import net.automatalib.incremental.dfa.dag.IncrementalPCDFADAGBuilder;
 import net.automatalib.incremental.dfa.tree.IncrementalDFATreeBuilder;
 import net.automatalib.incremental.dfa.tree.IncrementalPCDFATreeBuilder;
 import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,25 +49,37 @@ import org.slf4j.LoggerFactory;
  * oracle. Queries that can be answered from the cache are answered directly, others are forwarded to the delegate
  * oracle. When the delegate oracle has finished processing these remaining queries, the results are incorporated into
  * the cache.
+ * <p>
+ * When processing queries {@link #processQueriesAsync(Collection) asynchronously}, cache hits are answered immediately
+ * and cache misses are forwarded to the delegate oracle asynchronously (if it supports it, see {@link
+ * AsyncMembershipOracle#asAsync(MembershipOracle)}).
+ * <p>
+ * If the cache is queried concurrently (or a batch contains duplicate queries), each input word is forwarded to the
+ * delegate oracle only once. Queries for words that are currently being answered by the delegate oracle wait for the
+ * result of the in-flight query.
  *
  * @param <I>
  *         input symbol class
  *
  * @author Malte Isberner
  */
-public class DFACacheOracle<I>
-        implements DFALearningCacheOracle<I>, SupportsGrowingAlphabet<I>, Resumable<DFACacheOracleState<I>> {
+public class DFACacheOracle<I> implements DFALearningCacheOracle<I>,
+                                          AsyncMembershipOracle<I, Boolean>,
+                                          SupportsGrowingAlphabet<I>,
+                                          Resumable<DFACacheOracleState<I>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DFACacheOracle.class);
 
     private IncrementalDFABuilder<I> incDfa;
     private final ReadWriteLock incDfaLock;
     private final MembershipOracle<I, Boolean> delegate;
+    private final ConcurrentMap<Word<I>, CompletableFuture<Boolean>> inFlightQueries;
 
     DFACacheOracle(IncrementalDFABuilder<I> incDfa, MembershipOracle<I, Boolean> delegate) {
         this.incDfa = incDfa;
         this.incDfaLock = new ReentrantReadWriteLock();
         this.delegate = delegate;
+        this.inFlightQueries = new ConcurrentHashMap<>();
     }
 
     /**
@@ -152,8 +170,40 @@ public class DFACacheOracle<I>
         return new DFACacheConsistencyTest<>(incDfa, incDfaLock);
     }
 
+    @Nullable
     @Override
-    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+    public Boolean lookup(Word<I> input) {
+        incDfaLock.readLock().lock();
+        try {
+            final Acceptance acc = incDfa.lookup(input);
+            return acc == Acceptance.DONT_KNOW ? null : acc.toBoolean();
+        } finally {
+            incDfaLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Boolean>> queries) {
+        final List<CompletableFuture<?>> pendingAnswers = new ArrayList<>();
+        final List<ProxyQuery<I>> unanswered = answerFromCache(queries, pendingAnswers);
+
+        if (!unanswered.isEmpty()) {
+            pendingAnswers.add(AsyncMembershipOracle.asAsync(delegate)
+                                                    .processQueriesAsync(unanswered)
+                                                    .whenComplete((res, throwable) -> {
+                                                        if (throwable == null) {
+                                                            insertIntoCache(unanswered);
+                                                        } else {
+                                                            abort(unanswered, throwable);
+                                                        }
+                                                    }));
+        }
+
+        return CompletableFuture.allOf(pendingAnswers.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private List<ProxyQuery<I>> answerFromCache(Collection<? extends Query<I, Boolean>> queries,
+                                                List<CompletableFuture<?>> pendingAnswers) {
         List<ProxyQuery<I>> unanswered = new ArrayList<>();
 
         incDfaLock.readLock().lock();
@@ -163,22 +213,52 @@ public class DFACacheOracle<I>
                 if (acc != Acceptance.DONT_KNOW) {
                     q.answer(acc.toBoolean());
                 } else {
-                    unanswered.add(new ProxyQuery<>(q));
+                    final CompletableFuture<Boolean> inFlight =
+                            inFlightQueries.putIfAbsent(q.getInput(), new CompletableFuture<>());
+                    if (inFlight == null) {
+                        unanswered.add(new ProxyQuery<>(q));
+                    } else {
+                        pendingAnswers.add(inFlight.thenAccept(q::answer));
+                    }
                 }
             }
         } finally {
             incDfaLock.readLock().unlock();
         }
 
-        delegate.processQueries(unanswered);
+        return unanswered;
+    }
+
+    private void insertIntoCache(List<ProxyQuery<I>> answered) {
+        Throwable failure = null;
 
         incDfaLock.writeLock().lock();
         try {
-            for (ProxyQuery<I> q : unanswered) {
+            for (ProxyQuery<I> q : answered) {
                 incDfa.insert(q.getInput(), q.getAnswer());
             }
+        } catch (RuntimeException | Error e) {
+            // e.g. a conflict due to a non-deterministic delegate
+            failure = e;
+            throw e;
         } finally {
             incDfaLock.writeLock().unlock();
+
+            // only remove the in-flight queries after updating the cache, so that concurrent lookups either hit the
+            // cache or wait for the in-flight query
+            if (failure == null) {
+                for (ProxyQuery<I> q : answered) {
+                    inFlightQueries.remove(q.getInput()).complete(q.getAnswer());
+                }
+            } else {
+                abort(answered, failure);
+            }
+        }
+    }
+
+    private void abort(List<ProxyQuery<I>> unanswered, Throwable throwable) {
+        for (ProxyQuery<I> q : unanswered) {
+            inFlightQueries.remove(q.getInput()).completeExceptionally(throwable);
         }
     }
 
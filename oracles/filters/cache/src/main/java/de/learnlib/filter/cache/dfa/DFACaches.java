@@ -15,7 +15,12 @@
  */
 package de.learnlib.filter.cache.dfa;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.filter.cache.bounded.BoundedDFACacheOracle;
+import de.learnlib.filter.cache.persistent.PersistentDFACacheOracle;
 import net.automatalib.incremental.dfa.IncrementalDFABuilder;
 import net.automatalib.incremental.dfa.dag.IncrementalDFADAGBuilder;
 import net.automatalib.incremental.dfa.dag.IncrementalPCDFADAGBuilder;
@@ -87,6 +92,24 @@ public final class DFACaches {
         return new DFAHashCacheOracle<>(mqOracle);
     }
 
+    /**
+     * Creates a hash-based cache oracle for a DFA learning setup, which stores the cached words in a compact, int-encoded
+     * form. See {@link DFACompactHashCacheOracle} for details.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFACompactHashCacheOracle}.
+     */
+    public static <I> DFACompactHashCacheOracle<I> createCompactHashCache(Alphabet<I> alphabet,
+                                                                          MembershipOracle<I, Boolean> mqOracle) {
+        return new DFACompactHashCacheOracle<>(alphabet, mqOracle);
+    }
+
     /**
      * Creates a cache oracle for a DFA learning setup.
      * <p>
@@ -121,4 +144,51 @@ public final class DFACaches {
     public static <I> DFACacheOracle<I> createDAGCache(Alphabet<I> alphabet, MembershipOracle<I, Boolean> mqOracle) {
         return DFACacheOracle.createDAGCacheOracle(alphabet, mqOracle);
     }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, which stores its contents in the given file, so that the cache
+     * survives across learning runs. See {@link PersistentDFACacheOracle} for details.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param path
+     *         the path of the cache file, which is created if it does not exist yet
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link PersistentDFACacheOracle}.
+     *
+     * @throws IOException
+     *         if the cache file cannot be opened
+     */
+    public static <I> PersistentDFACacheOracle<I> createPersistentCache(Alphabet<I> alphabet,
+                                                                        Path path,
+                                                                        MembershipOracle<I, Boolean> mqOracle)
+            throws IOException {
+        return PersistentDFACacheOracle.open(alphabet, path, mqOracle);
+    }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, whose prefix tree is bounded by the given number of nodes. Once
+     * the budget is exceeded, the least recently used parts of the cache are evicted. See {@link BoundedDFACacheOracle}
+     * for details.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param maxNodes
+     *         the maximum number of nodes of the prefix tree
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link BoundedDFACacheOracle}.
+     */
+    public static <I> BoundedDFACacheOracle<I> createBoundedCache(Alphabet<I> alphabet,
+                                                                  int maxNodes,
+                                                                  MembershipOracle<I, Boolean> mqOracle) {
+        return new BoundedDFACacheOracle<>(alphabet, maxNodes, mqOracle);
+    }
 }
@@ -0,0 +1,241 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.learnlib.api.Resumable;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import de.learnlib.filter.cache.dfa.DFACompactHashCacheOracle.DFACompactHashCacheOracleState;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A memory-efficient variant of the {@link DFAHashCacheOracle}. Input words are encoded by the {@link
+ * Alphabet#getSymbolIndex(Object) indices} of their symbols and stored in a {@link CompactWordTable}, which addresses
+ * them by 64-bit fingerprints (verifying collisions against the stored words) and stores their acceptance in a bit set.
+ * This avoids keeping a {@link Word} object and a map entry per cached query.
+ * <p>
+ * Just like the {@link DFAHashCacheOracle}, each input word is forwarded to the delegate oracle only once, even if it
+ * occurs multiple times in a batch or is queried concurrently.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class DFACompactHashCacheOracle<I> implements DFALearningCacheOracle<I>,
+                                                     AsyncMembershipOracle<I, Boolean>,
+                                                     Resumable<DFACompactHashCacheOracleState> {
+
+    private final Alphabet<I> alphabet;
+    private final MembershipOracle<I, Boolean> delegate;
+    private CompactWordTable cache;
+    private final Lock cacheLock;
+    private final Map<Word<I>, CompletableFuture<Boolean>> inFlightQueries;
+
+    public DFACompactHashCacheOracle(Alphabet<I> alphabet, MembershipOracle<I, Boolean> delegate) {
+        this.alphabet = alphabet;
+        this.delegate = delegate;
+        this.cache = new CompactWordTable();
+        this.cacheLock = new ReentrantLock();
+        this.inFlightQueries = new HashMap<>();
+    }
+
+    @Override
+    public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
+        return (hypothesis, inputs) -> {
+            cacheLock.lock();
+            try {
+                for (int i = 0; i < cache.size(); i++) {
+                    final Word<I> input = decode(cache.getWord(i));
+                    final boolean answer = cache.isAccepted(i);
+
+                    if (hypothesis.computeOutput(input) != answer) {
+                        final DefaultQuery<I, Boolean> result = new DefaultQuery<>(input);
+                        result.answer(answer);
+                        return result;
+                    }
+                }
+                return null;
+            } finally {
+                cacheLock.unlock();
+            }
+        };
+    }
+
+    @Nullable
+    @Override
+    public Boolean lookup(Word<I> input) {
+        cacheLock.lock();
+        try {
+            return cache.get(encode(input));
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Boolean>> queries) {
+        final List<CompletableFuture<?>> pendingAnswers = new ArrayList<>();
+        final List<ProxyQuery<I>> misses = answerFromCache(queries, pendingAnswers);
+
+        if (!misses.isEmpty()) {
+            pendingAnswers.add(AsyncMembershipOracle.asAsync(delegate)
+                                                    .processQueriesAsync(misses)
+                                                    .whenComplete((res, throwable) -> {
+                                                        if (throwable == null) {
+                                                            insertIntoCache(misses);
+                                                        } else {
+                                                            abort(misses, throwable);
+                                                        }
+                                                    }));
+        }
+
+        return CompletableFuture.allOf(pendingAnswers.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private List<ProxyQuery<I>> answerFromCache(Collection<? extends Query<I, Boolean>> queries,
+                                                List<CompletableFuture<?>> pendingAnswers) {
+        final List<ProxyQuery<I>> misses = new ArrayList<>();
+
+        cacheLock.lock();
+        try {
+            for (Query<I, Boolean> qry : queries) {
+                final Word<I> input = qry.getInput();
+                final Boolean answer = cache.get(encode(input));
+                if (answer != null) {
+                    qry.answer(answer);
+                } else {
+                    final CompletableFuture<Boolean> inFlight = inFlightQueries.get(input);
+                    if (inFlight == null) {
+                        inFlightQueries.put(input, new CompletableFuture<>());
+                        misses.add(new ProxyQuery<>(qry));
+                    } else {
+                        pendingAnswers.add(inFlight.thenAccept(qry::answer));
+                    }
+                }
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+
+        return misses;
+    }
+
+    private void insertIntoCache(List<ProxyQuery<I>> misses) {
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(misses.size());
+        Throwable failure = null;
+
+        cacheLock.lock();
+        try {
+            for (ProxyQuery<I> miss : misses) {
+                cache.put(encode(miss.getInput()), miss.getAnswer());
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // release the in-flight queries even if the cache update failed, so that waiting queries do not hang
+            for (ProxyQuery<I> miss : misses) {
+                futures.add(inFlightQueries.remove(miss.getInput()));
+            }
+            cacheLock.unlock();
+
+            for (int i = 0; i < misses.size(); i++) {
+                if (failure == null) {
+                    futures.get(i).complete(misses.get(i).getAnswer());
+                } else {
+                    futures.get(i).completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private void abort(List<ProxyQuery<I>> misses, Throwable throwable) {
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(misses.size());
+
+        cacheLock.lock();
+        try {
+            for (ProxyQuery<I> miss : misses) {
+                futures.add(inFlightQueries.remove(miss.getInput()));
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+
+        for (CompletableFuture<Boolean> f : futures) {
+            f.completeExceptionally(throwable);
+        }
+    }
+
+    private int[] encode(Word<I> word) {
+        final int[] result = new int[word.length()];
+        int i = 0;
+        for (I sym : word) {
+            result[i++] = alphabet.getSymbolIndex(sym);
+        }
+        return result;
+    }
+
+    private Word<I> decode(int[] word) {
+        final WordBuilder<I> result = new WordBuilder<>(word.length);
+        for (int sym : word) {
+            result.add(alphabet.getSymbol(sym));
+        }
+        return result.toWord();
+    }
+
+    @Override
+    public DFACompactHashCacheOracleState suspend() {
+        return new DFACompactHashCacheOracleState(cache);
+    }
+
+    @Override
+    public void resume(DFACompactHashCacheOracleState state) {
+        this.cache = state.getCache();
+    }
+
+    /**
+     * The state of a {@link DFACompactHashCacheOracle}. Since the cached words are stored by the indices of their
+     * symbols, the state must only be resumed by an oracle with the same alphabet.
+     */
+    public static class DFACompactHashCacheOracleState implements Serializable {
+
+        private final CompactWordTable cache;
+
+        DFACompactHashCacheOracleState(CompactWordTable cache) {
+            this.cache = cache;
+        }
+
+        CompactWordTable getCache() {
+            return cache;
+        }
+    }
+}
@@ -21,10 +21,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import de.learnlib.api.Resumable;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.EquivalenceOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
@@ -32,17 +34,31 @@ import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
 import de.learnlib.filter.cache.dfa.DFAHashCacheOracle.DFAHashCacheOracleState;
 import net.automatalib.automata.fsa.DFA;
 import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumable<DFAHashCacheOracleState<I>> {
+/**
+ * A hash-based DFA cache. Queries that can be answered from the cache are answered directly, others are forwarded to
+ * the delegate oracle. Each input word is forwarded to the delegate oracle only once, even if it occurs multiple times
+ * in a batch or is queried concurrently: queries for words that are currently being answered by the delegate oracle
+ * wait for the result of the in-flight query.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>,
+                                              AsyncMembershipOracle<I, Boolean>,
+                                              Resumable<DFAHashCacheOracleState<I>> {
 
     private final MembershipOracle<I, Boolean> delegate;
     private Map<Word<I>, Boolean> cache;
     private final Lock cacheLock;
+    private final Map<Word<I>, CompletableFuture<Boolean>> inFlightQueries;
 
     public DFAHashCacheOracle(MembershipOracle<I, Boolean> delegate) {
         this.delegate = delegate;
         this.cache = new HashMap<>();
         this.cacheLock = new ReentrantLock();
+        this.inFlightQueries = new HashMap<>();
     }
 
     @Override
@@ -50,8 +66,39 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
         return new DFAHashCacheConsistencyTest<>(cache, cacheLock);
     }
 
+    @Nullable
     @Override
-    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+    public Boolean lookup(Word<I> input) {
+        cacheLock.lock();
+        try {
+            return cache.get(input);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Boolean>> queries) {
+        final List<CompletableFuture<?>> pendingAnswers = new ArrayList<>();
+        final List<ProxyQuery<I>> misses = answerFromCache(queries, pendingAnswers);
+
+        if (!misses.isEmpty()) {
+            pendingAnswers.add(AsyncMembershipOracle.asAsync(delegate)
+                                                    .processQueriesAsync(misses)
+                                                    .whenComplete((res, throwable) -> {
+                                                        if (throwable == null) {
+                                                            insertIntoCache(misses);
+                                                        } else {
+                                                            abort(misses, throwable);
+                                                        }
+                                                    }));
+        }
+
+        return CompletableFuture.allOf(pendingAnswers.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private List<ProxyQuery<I>> answerFromCache(Collection<? extends Query<I, Boolean>> queries,
+                                                List<CompletableFuture<?>> pendingAnswers) {
         List<ProxyQuery<I>> misses = new ArrayList<>();
 
         cacheLock.lock();
@@ -62,23 +109,66 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
                 if (answer != null) {
                     qry.answer(answer);
                 } else {
-                    misses.add(new ProxyQuery<>(qry));
+                    final CompletableFuture<Boolean> inFlight = inFlightQueries.get(input);
+                    if (inFlight == null) {
+                        inFlightQueries.put(input, new CompletableFuture<>());
+                        misses.add(new ProxyQuery<>(qry));
+                    } else {
+                        pendingAnswers.add(inFlight.thenAccept(qry::answer));
+                    }
                 }
             }
         } finally {
             cacheLock.unlock();
         }
 
-        delegate.processQueries(misses);
+        return misses;
+    }
+
+    private void insertIntoCache(List<ProxyQuery<I>> misses) {
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(misses.size());
+        Throwable failure = null;
 
         cacheLock.lock();
         try {
             for (ProxyQuery<I> miss : misses) {
                 cache.put(miss.getInput(), miss.getAnswer());
             }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // release the in-flight queries even if the cache update failed, so that waiting queries do not hang
+            for (ProxyQuery<I> miss : misses) {
+                futures.add(inFlightQueries.remove(miss.getInput()));
+            }
+            cacheLock.unlock();
+
+            for (int i = 0; i < misses.size(); i++) {
+                if (failure == null) {
+                    futures.get(i).complete(misses.get(i).getAnswer());
+                } else {
+                    futures.get(i).completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private void abort(List<ProxyQuery<I>> misses, Throwable throwable) {
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(misses.size());
+
+        cacheLock.lock();
+        try {
+            for (ProxyQuery<I> miss : misses) {
+                futures.add(inFlightQueries.remove(miss.getInput()));
+            }
         } finally {
             cacheLock.unlock();
         }
+
+        for (CompletableFuture<Boolean> f : futures) {
+            f.completeExceptionally(throwable);
+        }
     }
 
     @Override
@@ -0,0 +1,137 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import net.automatalib.automata.concepts.InputAlphabetHolder;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.tree.AbstractIncrementalMealyTreeBuilder;
+import net.automatalib.incremental.mealy.tree.AnnotatedEdge;
+import net.automatalib.incremental.mealy.tree.Edge;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Alphabets;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A thread-safe variant of the {@link net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder}.
+ * <p>
+ * Lookups (including the {@link #asTransitionSystem() transition system view} and {@link
+ * #findSeparatingWord(net.automatalib.automata.transducers.MealyMachine, Collection, boolean) separating word
+ * computation}) do not acquire any locks and may run concurrently with insertions. New branches of the tree are
+ * inserted via a single compare-and-set operation on the parent node. If two threads concurrently insert the same
+ * branch, one of them wins and the other one continues its insertion on the branch of the winner (after checking its
+ * output for conflicts). As nodes and edges are never removed, readers always observe a consistent (prefix-closed)
+ * tree.
+ * <p>
+ * Adding new alphabet symbols (see {@link #addAlphabetSymbol(Object)}) grows the storage of all nodes and therefore
+ * must not happen concurrently with other operations.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class ConcurrentIncrementalMealyTreeBuilder<I, O>
+        extends AbstractIncrementalMealyTreeBuilder<ConcurrentNode<O>, I, O> implements InputAlphabetHolder<I> {
+
+    private final Alphabet<I> inputAlphabet;
+    private volatile int alphabetSize;
+
+    public ConcurrentIncrementalMealyTreeBuilder(Alphabet<I> inputAlphabet) {
+        super(new ConcurrentNode<>(inputAlphabet.size()));
+        this.inputAlphabet = inputAlphabet;
+        this.alphabetSize = inputAlphabet.size();
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            Alphabets.toGrowingAlphabetOrThrowException(this.inputAlphabet).addSymbol(symbol);
+        }
+
+        final int newAlphabetSize = this.inputAlphabet.size();
+        // even if the symbol was already in the alphabet, we need to make sure to be able to store the new symbol
+        if (alphabetSize < newAlphabetSize) {
+            final Deque<ConcurrentNode<O>> stack = new ArrayDeque<>();
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                final ConcurrentNode<O> node = stack.pop();
+                node.ensureInputCapacity(newAlphabetSize);
+
+                for (int i = 0; i < alphabetSize; i++) {
+                    final Edge<ConcurrentNode<O>, O> edge = node.getEdge(i);
+                    if (edge != null) {
+                        stack.push(edge.getTarget());
+                    }
+                }
+            }
+
+            this.alphabetSize = newAlphabetSize;
+        }
+    }
+
+    @Override
+    @Nullable
+    protected Edge<ConcurrentNode<O>, O> getEdge(ConcurrentNode<O> node, I symbol) {
+        return node.getEdge(inputAlphabet.getSymbolIndex(symbol));
+    }
+
+    @Override
+    protected ConcurrentNode<O> createNode() {
+        return new ConcurrentNode<>(alphabetSize);
+    }
+
+    @Override
+    protected ConcurrentNode<O> insertNode(ConcurrentNode<O> parent, I input, O output) {
+        final Edge<ConcurrentNode<O>, O> edge = new Edge<>(output, createNode());
+        final Edge<ConcurrentNode<O>, O> actual = parent.setEdgeIfAbsent(inputAlphabet.getSymbolIndex(input), edge);
+
+        // another thread has inserted this branch concurrently, continue on its branch
+        if (actual != edge && !Objects.equals(output, actual.getOutput())) {
+            throw new ConflictException(
+                    "Output mismatch: '" + output + "' vs '" + actual.getOutput() + "' (concurrent insertion)");
+        }
+
+        return actual.getTarget();
+    }
+
+    @Override
+    protected Collection<AnnotatedEdge<ConcurrentNode<O>, I, O>> getOutgoingEdges(ConcurrentNode<O> node) {
+        final int size = alphabetSize;
+        final List<AnnotatedEdge<ConcurrentNode<O>, I, O>> result = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final Edge<ConcurrentNode<O>, O> edge = node.getEdge(i);
+            if (edge != null) {
+                result.add(new AnnotatedEdge<>(edge, inputAlphabet.getSymbol(i)));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+}
@@ -0,0 +1,90 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.automatalib.incremental.mealy.tree.Edge;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A node of a {@link ConcurrentIncrementalMealyTreeBuilder}. Outgoing edges are stored in an {@link
+ * AtomicReferenceArray}, so that they can be read without locking and inserted via compare-and-set operations.
+ *
+ * @param <O>
+ *         output symbol type
+ */
+final class ConcurrentNode<O> implements Serializable {
+
+    private volatile AtomicReferenceArray<Edge<ConcurrentNode<O>, O>> outEdges;
+
+    ConcurrentNode(int alphabetSize) {
+        this.outEdges = new AtomicReferenceArray<>(alphabetSize);
+    }
+
+    @Nullable
+    Edge<ConcurrentNode<O>, O> getEdge(int idx) {
+        final AtomicReferenceArray<Edge<ConcurrentNode<O>, O>> edges = outEdges;
+        return idx < edges.length() ? edges.get(idx) : null;
+    }
+
+    /**
+     * Sets the outgoing edge for the given input index, unless another edge has already been set.
+     *
+     * @param idx
+     *         the input index
+     * @param edge
+     *         the edge to set
+     *
+     * @return {@code edge} if it has been set, the already existing edge otherwise
+     */
+    Edge<ConcurrentNode<O>, O> setEdgeIfAbsent(int idx, Edge<ConcurrentNode<O>, O> edge) {
+        final AtomicReferenceArray<Edge<ConcurrentNode<O>, O>> edges = outEdges;
+
+        if (edges.compareAndSet(idx, null, edge)) {
+            return edge;
+        }
+
+        // edges are never removed, so a failed CAS implies an existing edge
+        return edges.get(idx);
+    }
+
+    /**
+     * Grows the edge storage of this node to the given capacity. Must not be called concurrently with {@link
+     * #setEdgeIfAbsent(int, Edge)}.
+     *
+     * @param capacity
+     *         the new capacity
+     *
+     * @return {@code true} if the storage has been grown, {@code false} if it already had sufficient capacity
+     */
+    boolean ensureInputCapacity(int capacity) {
+        final AtomicReferenceArray<Edge<ConcurrentNode<O>, O>> edges = outEdges;
+        final int length = edges.length();
+
+        if (length >= capacity) {
+            return false;
+        }
+
+        final AtomicReferenceArray<Edge<ConcurrentNode<O>, O>> newEdges = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < length; i++) {
+            newEdges.set(i, edges.get(i));
+        }
+        this.outEdges = newEdges;
+        return true;
+    }
+}
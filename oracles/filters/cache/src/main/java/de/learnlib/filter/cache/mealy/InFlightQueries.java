@@ -0,0 +1,130 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A registry of the queries that a {@link InternalMealyCacheOracle Mealy cache} currently forwards to its delegate
+ * oracle. Since the output of a Mealy query contains the outputs of all its prefixes, a query only needs to be
+ * forwarded to the delegate if no in-flight query for an extension of its input word exists. Otherwise, it can wait for
+ * the result of the in-flight query instead.
+ * <p>
+ * The in-flight queries are organized in a (pruned) prefix tree, so that its size is bounded by the total length of the
+ * in-flight queries. This class is thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+final class InFlightQueries<I, O> {
+
+    private final Node<I, O> root = new Node<>();
+
+    /**
+     * Registers the given input word as in-flight, unless there already exists an in-flight query for an extension of
+     * the given word.
+     *
+     * @param word
+     *         the input word to register
+     * @param future
+     *         the future that will be completed with the (complete) output of the given word
+     *
+     * @return {@code null} if the given word has been registered (and the caller is responsible for completing the
+     * future and eventually calling {@link #remove(Word)}), or the future of an in-flight query for an extension of the
+     * given word
+     */
+    @Nullable
+    synchronized CompletableFuture<Word<O>> register(Word<I> word, CompletableFuture<Word<O>> future) {
+        Node<I, O> node = root;
+
+        for (I sym : word) {
+            node = node.children.computeIfAbsent(sym, k -> new Node<>());
+        }
+
+        final CompletableFuture<Word<O>> existing = findPending(node);
+
+        if (existing == null) {
+            node.future = future;
+        }
+
+        return existing;
+    }
+
+    /**
+     * Removes the given (previously registered) input word from the set of in-flight queries.
+     *
+     * @param word
+     *         the input word to remove
+     *
+     * @return the future that was registered for the given word
+     */
+    synchronized CompletableFuture<Word<O>> remove(Word<I> word) {
+        final Deque<Node<I, O>> path = new ArrayDeque<>(word.length() + 1);
+        Node<I, O> node = root;
+        path.push(node);
+
+        for (I sym : word) {
+            node = node.children.get(sym);
+            path.push(node);
+        }
+
+        final CompletableFuture<Word<O>> result = node.future;
+        node.future = null;
+
+        // prune nodes that are no longer part of any in-flight query
+        for (int i = word.length() - 1; i >= 0 && path.peek().isEmpty(); i--) {
+            path.pop();
+            path.peek().children.remove(word.getSymbol(i));
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private CompletableFuture<Word<O>> findPending(Node<I, O> node) {
+        final Deque<Node<I, O>> stack = new ArrayDeque<>();
+        stack.push(node);
+
+        while (!stack.isEmpty()) {
+            final Node<I, O> curr = stack.pop();
+            if (curr.future != null) {
+                return curr.future;
+            }
+            stack.addAll(curr.children.values());
+        }
+
+        return null;
+    }
+
+    private static final class Node<I, O> {
+
+        private final Map<I, Node<I, O>> children = new HashMap<>();
+        private CompletableFuture<Word<O>> future;
+
+        boolean isEmpty() {
+            return future == null && children.isEmpty();
+        }
+    }
+}
@@ -21,9 +21,11 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
@@ -34,6 +36,7 @@ import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
 import net.automatalib.words.impl.GrowingMapAlphabet;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Mealy cache. This cache is implemented as a membership oracle: upon construction, it is provided with a delegate
@@ -47,6 +50,14 @@ import net.automatalib.words.impl.GrowingMapAlphabet;
  * respective value. The rationale behind this is that the concrete error message (key in the mapping) is still
  * reflected in the learned model, it is forced to result in a sink state with only a single repeating output symbol
  * (value in the mapping).
+ * <p>
+ * When processing queries {@link #processQueriesAsync(Collection) asynchronously}, cache hits are answered immediately
+ * and cache misses are forwarded to the delegate oracle asynchronously (if it supports it, see {@link
+ * AsyncMembershipOracle#asAsync(MembershipOracle)}).
+ * <p>
+ * If the cache is queried concurrently, a query is forwarded to the delegate oracle only if no other query for the same
+ * input word (or an extension of it) is currently being answered by the delegate oracle. Otherwise, the query waits for
+ * the result of the in-flight query.
  *
  * @param <I>
  *         input symbol class
@@ -55,13 +66,15 @@ import net.automatalib.words.impl.GrowingMapAlphabet;
  *
  * @author Malte Isberner
  */
-class InternalMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>, SupportsGrowingAlphabet<I> {
+class InternalMealyCacheOracle<I, O>
+        implements MealyLearningCacheOracle<I, O>, AsyncMembershipOracle<I, Word<O>>, SupportsGrowingAlphabet<I> {
 
     private final MembershipOracle<I, Word<O>> delegate;
     protected IncrementalMealyBuilder<I, O> incMealy;
     protected final ReadWriteLock incMealyLock;
     private final Comparator<? super Query<I, ?>> queryCmp;
     private final Mapping<? super O, ? extends O> errorSyms;
+    private final InFlightQueries<I, O> inFlightQueries;
 
     InternalMealyCacheOracle(IncrementalMealyBuilder<I, O> incrementalBuilder,
                              Mapping<? super O, ? extends O> errorSyms,
@@ -73,11 +86,20 @@ class InternalMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>,
                              Mapping<? super O, ? extends O> errorSyms,
                              MembershipOracle<I, Word<O>> delegate,
                              Comparator<I> comparator) {
+        this(incrementalBuilder, new ReentrantReadWriteLock(), errorSyms, delegate, comparator);
+    }
+
+    InternalMealyCacheOracle(IncrementalMealyBuilder<I, O> incrementalBuilder,
+                             ReadWriteLock lock,
+                             Mapping<? super O, ? extends O> errorSyms,
+                             MembershipOracle<I, Word<O>> delegate,
+                             Comparator<I> comparator) {
         this.incMealy = incrementalBuilder;
-        this.incMealyLock = new ReentrantReadWriteLock();
+        this.incMealyLock = lock;
         this.queryCmp = new ReverseLexCmp<>(comparator);
         this.errorSyms = errorSyms;
         this.delegate = delegate;
+        this.inFlightQueries = new InFlightQueries<>();
     }
 
     public int getCacheSize() {
@@ -89,12 +111,51 @@ class InternalMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>,
         return new MealyCacheConsistencyTest<>(incMealy, incMealyLock);
     }
 
+    @Nullable
+    @Override
+    public Word<O> lookup(Word<I> input) {
+        final WordBuilder<O> wb = new WordBuilder<>(input.length());
+
+        incMealyLock.readLock().lock();
+        try {
+            return incMealy.lookup(input, wb) ? wb.toWord() : null;
+        } finally {
+            incMealyLock.readLock().unlock();
+        }
+    }
+
     @Override
-    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Word<O>>> queries) {
         if (queries.isEmpty()) {
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final List<CompletableFuture<?>> pendingAnswers = new ArrayList<>();
+        final List<MasterQuery<I, O>> masterQueries = answerFromCache(queries, pendingAnswers);
+
+        if (!masterQueries.isEmpty()) {
+            pendingAnswers.add(AsyncMembershipOracle.asAsync(delegate)
+                                                    .processQueriesAsync(masterQueries)
+                                                    .whenComplete((res, throwable) -> {
+                                                        if (throwable == null) {
+                                                            insertIntoCache(masterQueries);
+                                                        } else {
+                                                            abort(masterQueries, throwable);
+                                                        }
+                                                    }));
         }
 
+        return CompletableFuture.allOf(pendingAnswers.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Answers the given queries from the cache (if possible) and groups the remaining ones by their master queries.
+     * Master queries whose input word is a prefix of a query that is currently forwarded to the delegate oracle (e.g.
+     * by a concurrent call) are not returned but answered once the in-flight query completes. The futures of these
+     * answers are added to the given list.
+     */
+    private List<MasterQuery<I, O>> answerFromCache(Collection<? extends Query<I, Word<O>>> queries,
+                                                    List<CompletableFuture<?>> pendingAnswers) {
         List<Query<I, Word<O>>> qrys = new ArrayList<>(queries);
         qrys.sort(queryCmp);
 
@@ -127,19 +188,72 @@ class InternalMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>,
                 // isPrefixOf
                 ref = curr;
             }
+
+            // only register the master queries once all of their slaves have been added
+            return registerInFlight(masterQueries, pendingAnswers);
         } finally {
             incMealyLock.readLock().unlock();
         }
+    }
+
+    private List<MasterQuery<I, O>> registerInFlight(List<MasterQuery<I, O>> masterQueries,
+                                                     List<CompletableFuture<?>> pendingAnswers) {
+        final List<MasterQuery<I, O>> result = new ArrayList<>(masterQueries.size());
 
-        delegate.processQueries(masterQueries);
+        for (MasterQuery<I, O> master : masterQueries) {
+            final Word<I> word = master.getSuffix();
+            final CompletableFuture<Word<O>> inFlight = inFlightQueries.register(word, new CompletableFuture<>());
+
+            if (inFlight != null) {
+                pendingAnswers.add(inFlight.thenAccept(output -> master.answer(output.prefix(word.length()))));
+                continue;
+            }
+
+            // The cache may have been updated (and the in-flight query removed) between our lookup and the
+            // registration, unless cache updates are excluded by the read lock. Check again to not query the delegate
+            // unnecessarily.
+            final MasterQuery<I, O> recheck = createMasterQuery(word);
+            if (recheck.isAnswered()) {
+                master.answer(recheck.getAnswer());
+                inFlightQueries.remove(word).complete(recheck.getAnswer());
+            } else {
+                result.add(master);
+            }
+        }
+
+        return result;
+    }
+
+    private void insertIntoCache(List<MasterQuery<I, O>> masterQueries) {
+        Throwable failure = null;
 
         incMealyLock.writeLock().lock();
         try {
             for (MasterQuery<I, O> m : masterQueries) {
                 postProcess(m);
             }
+        } catch (RuntimeException | Error e) {
+            // e.g. a conflict due to a non-deterministic delegate
+            failure = e;
+            throw e;
         } finally {
             incMealyLock.writeLock().unlock();
+
+            // only remove the in-flight queries after updating the cache, so that concurrent lookups either hit the
+            // cache or wait for the in-flight query
+            if (failure == null) {
+                for (MasterQuery<I, O> m : masterQueries) {
+                    inFlightQueries.remove(m.getSuffix()).complete(m.getAnswer());
+                }
+            } else {
+                abort(masterQueries, failure);
+            }
+        }
+    }
+
+    private void abort(List<MasterQuery<I, O>> masterQueries, Throwable throwable) {
+        for (MasterQuery<I, O> m : masterQueries) {
+            inFlightQueries.remove(m.getSuffix()).completeExceptionally(throwable);
         }
     }
 
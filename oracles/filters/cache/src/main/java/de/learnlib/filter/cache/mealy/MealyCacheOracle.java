@@ -18,9 +18,11 @@ package de.learnlib.filter.cache.mealy;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import de.learnlib.api.Resumable;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.filter.cache.NoopReadWriteLock;
 import de.learnlib.filter.cache.mealy.MealyCacheOracle.MealyCacheOracleState;
 import net.automatalib.automata.transducers.OutputAndLocalInputs;
 import net.automatalib.commons.util.mappings.Mapping;
@@ -52,6 +54,14 @@ public class MealyCacheOracle<I, O> extends InternalMealyCacheOracle<I, O>
         super(incrementalBuilder, errorSyms, delegate, comparator);
     }
 
+    MealyCacheOracle(IncrementalMealyBuilder<I, O> incrementalBuilder,
+                     ReadWriteLock lock,
+                     Mapping<? super O, ? extends O> errorSyms,
+                     MembershipOracle<I, Word<O>> delegate,
+                     Comparator<I> comparator) {
+        super(incrementalBuilder, lock, errorSyms, delegate, comparator);
+    }
+
     public static <I, O> MealyCacheOracle<I, O> createDAGCacheOracle(Alphabet<I> inputAlphabet,
                                                                      MembershipOracle<I, Word<O>> delegate) {
         return createDAGCacheOracle(inputAlphabet, null, delegate);
@@ -76,6 +86,22 @@ public class MealyCacheOracle<I, O> extends InternalMealyCacheOracle<I, O>
         return new MealyCacheOracle<>(incrementalBuilder, errorSyms, delegate, inputAlphabet);
     }
 
+    public static <I, O> MealyCacheOracle<I, O> createConcurrentTreeCacheOracle(Alphabet<I> inputAlphabet,
+                                                                                MembershipOracle<I, Word<O>> delegate) {
+        return createConcurrentTreeCacheOracle(inputAlphabet, null, delegate);
+    }
+
+    public static <I, O> MealyCacheOracle<I, O> createConcurrentTreeCacheOracle(Alphabet<I> inputAlphabet,
+                                                                                Mapping<? super O, ? extends O> errorSyms,
+                                                                                MembershipOracle<I, Word<O>> delegate) {
+        IncrementalMealyBuilder<I, O> incrementalBuilder = new ConcurrentIncrementalMealyTreeBuilder<>(inputAlphabet);
+        return new MealyCacheOracle<>(incrementalBuilder,
+                                      new NoopReadWriteLock(),
+                                      errorSyms,
+                                      delegate,
+                                      inputAlphabet);
+    }
+
     public static <I, O> MealyCacheOracle<I, O> createDynamicTreeCacheOracle(MembershipOracle<I, Word<O>> delegate) {
         return createDynamicTreeCacheOracle(null, delegate);
     }
@@ -15,10 +15,14 @@
  */
 package de.learnlib.filter.cache.mealy;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
 
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.oracle.StateLocalInputOracle;
+import de.learnlib.filter.cache.bounded.BoundedMealyCacheOracle;
+import de.learnlib.filter.cache.persistent.PersistentMealyCacheOracle;
 import net.automatalib.automata.transducers.OutputAndLocalInputs;
 import net.automatalib.commons.util.mappings.Mapping;
 import net.automatalib.incremental.mealy.dag.IncrementalMealyDAGBuilder;
@@ -97,6 +101,48 @@ public final class MealyCaches {
         return MealyCacheOracle.createTreeCacheOracle(alphabet, errorSyms, mqOracle);
     }
 
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a thread-safe tree for internal cache
+     * organization.
+     * <p>
+     * In contrast to the other caches, concurrent queries to this cache do not block each other: lookups do not acquire
+     * any locks and new branches of the tree are inserted via compare-and-set operations (see {@link
+     * ConcurrentIncrementalMealyTreeBuilder}). This cache is therefore suited for setups in which the cache itself is
+     * queried concurrently, e.g. by the workers of a parallel oracle.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a concurrent tree-based implementation
+     */
+    public static <I, O> MealyCacheOracle<I, O> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                          MembershipOracle<I, Word<O>> mqOracle) {
+        return MealyCacheOracle.createConcurrentTreeCacheOracle(alphabet, mqOracle);
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a thread-safe tree for internal cache
+     * organization.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param errorSyms
+     *         a mapping for the prefix-closure filter
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a concurrent tree-based implementation
+     *
+     * @see #createConcurrentTreeCache(Alphabet, MembershipOracle)
+     */
+    public static <I, O> MealyCacheOracle<I, O> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                          Mapping<? super O, ? extends O> errorSyms,
+                                                                          MembershipOracle<I, Word<O>> mqOracle) {
+        return MealyCacheOracle.createConcurrentTreeCacheOracle(alphabet, errorSyms, mqOracle);
+    }
+
     /**
      * Creates a cache oracle for a Mealy machine learning setup with a dynamic alphabet storage, using a tree for
      * internal cache organization.
@@ -223,4 +269,48 @@ public final class MealyCaches {
                                                             MembershipOracle<I, Word<O>> mqOracle) {
         return MealyCacheOracle.createDAGCacheOracle(alphabet, mqOracle);
     }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, which stores its contents in the given file (and an
+     * additional symbol file), so that the cache survives across learning runs. See {@link PersistentMealyCacheOracle}
+     * for details.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param path
+     *         the path of the cache file, which is created if it does not exist yet
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a persistent implementation
+     *
+     * @throws IOException
+     *         if the cache files cannot be opened
+     */
+    public static <I, O> PersistentMealyCacheOracle<I, O> createPersistentCache(Alphabet<I> alphabet,
+                                                                                Path path,
+                                                                                MembershipOracle<I, Word<O>> mqOracle)
+            throws IOException {
+        return PersistentMealyCacheOracle.open(alphabet, path, mqOracle);
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, whose prefix tree is bounded by the given number of
+     * nodes. Once the budget is exceeded, the least recently used parts of the cache are evicted. See {@link
+     * BoundedMealyCacheOracle} for details.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param maxNodes
+     *         the maximum number of nodes of the prefix tree
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a bounded implementation
+     */
+    public static <I, O> BoundedMealyCacheOracle<I, O> createBoundedCache(Alphabet<I> alphabet,
+                                                                          int maxNodes,
+                                                                          MembershipOracle<I, Word<O>> mqOracle) {
+        return new BoundedMealyCacheOracle<>(alphabet, maxNodes, mqOracle);
+    }
 }
@@ -0,0 +1,430 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A prefix tree (trie) over int-encoded input symbols, which is stored in a memory-mapped file.
+ * <p>
+ * The file consists of a fixed-size header, followed by the nodes of the trie. Each node occupies a fixed number of
+ * bytes, so nodes are addressed by their index. Depending on the configuration, a node stores <ul> <li>the index of its
+ * parent node and the input symbol of its incoming edge,</li> <li>an (optional) node value, e.g. the acceptance of a
+ * DFA query,</li> <li>the index of the successor node for each input symbol, and</li> <li>an (optional) edge value for
+ * each input symbol, e.g. the output of a Mealy transition.</li> </ul> The value {@code 0} denotes missing information
+ * throughout the file: the root node has index {@code 0}, so a child index of {@code 0} denotes a missing child, and
+ * node and edge values of {@code 0} denote unknown values.
+ * <p>
+ * The trie is append-only: new nodes are appended after the last node, and existing information is never modified (only
+ * unknown values may be set). Appending a new child first initializes the new node (zeroes plus the reference to its
+ * parent), then increases the node count in the header, then writes the edge value and finally links the child to its
+ * parent. Each of these steps writes aligned {@code int}s. A child link is only valid if it is below the node count and
+ * the child refers back to the parent (and symbol) of the link. Hence, the file is always in a consistent state if the
+ * process crashes: a node may lose (some of) its information, but it never contains wrong information, even if the
+ * crash left dangling links to nodes that are re-used later on. Note that the operating system may write modified
+ * pages of the mapped file in any order, so after an operating system crash (or power failure) only the state of the
+ * last {@link #flush()} is guaranteed.
+ * <p>
+ * The header contains a checksum of the configuration of the trie, which is validated when opening the file, and the
+ * number of symbols (e.g. of a {@link SymbolTable}) that edge values may refer to (see {@link #getSymbolCount()}).
+ * <p>
+ * The file is mapped in segments of fixed size, so that the operating system loads its contents lazily (on access).
+ * <p>
+ * This class is not thread-safe. Concurrent reads are safe, as long as no concurrent writes occur.
+ */
+final class MappedTrie implements Closeable {
+
+    static final int FLAG_NODE_VALUES = 1;
+    static final int FLAG_EDGE_VALUES = 2;
+
+    // visible for testing (simulation of crashes)
+    static final int NODE_COUNT_POS = 20;
+    static final int SYMBOL_COUNT_POS = 24;
+
+    private static final int MAGIC = 0x4C4C4354; // "LLCT"
+    private static final int VERSION = 2;
+
+    private static final int MAGIC_POS = 0;
+    private static final int VERSION_POS = 4;
+    private static final int FLAGS_POS = 8;
+    private static final int ALPHABET_SIZE_POS = 12;
+    private static final int NODES_PER_SEGMENT_POS = 16;
+    private static final int CHECKSUM_POS = 28;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments;
+
+    private final int flags;
+    private final int alphabetSize;
+    private final int nodesPerSegment;
+    private final int nodeSize;
+    private final int nodeValueOffset;
+    private final int childrenOffset;
+    private final int edgeValuesOffset;
+
+    private int nodeCount;
+
+    private MappedTrie(FileChannel channel, MappedByteBuffer header) throws IOException {
+        this.channel = channel;
+        this.header = header;
+
+        if (header.getInt(MAGIC_POS) != MAGIC) {
+            throw new IOException("Not a cache file");
+        }
+        if (header.getInt(VERSION_POS) != VERSION) {
+            throw new IOException("Unsupported cache file version: " + header.getInt(VERSION_POS));
+        }
+
+        if (header.getInt(CHECKSUM_POS) != checksum(header)) {
+            throw new IOException("Corrupt cache file header");
+        }
+
+        this.flags = header.getInt(FLAGS_POS);
+        this.alphabetSize = header.getInt(ALPHABET_SIZE_POS);
+        this.nodesPerSegment = header.getInt(NODES_PER_SEGMENT_POS);
+        this.nodeCount = header.getInt(NODE_COUNT_POS);
+
+        if (alphabetSize <= 0 || nodesPerSegment <= 0 || nodeCount <= 0 || getSymbolCount() < 0) {
+            throw new IOException("Corrupt cache file header");
+        }
+
+        try {
+            validateConfiguration(alphabetSize, flags, nodesPerSegment);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unsupported cache file configuration", e);
+        }
+
+        this.nodeValueOffset = 2 * Integer.BYTES;
+        this.childrenOffset = nodeValueOffset + (hasNodeValues() ? Integer.BYTES : 0);
+        this.edgeValuesOffset = childrenOffset + alphabetSize * Integer.BYTES;
+        this.nodeSize = edgeValuesOffset + (hasEdgeValues() ? alphabetSize * Integer.BYTES : 0);
+
+        this.segments = new ArrayList<>();
+        while (segments.size() * (long) nodesPerSegment < nodeCount) {
+            mapSegment();
+        }
+    }
+
+    /**
+     * Opens the trie stored in the given file. If the file does not exist (or is empty), a new trie with the given
+     * configuration is created. Otherwise, the configuration of the existing trie must match the given one.
+     *
+     * @param path
+     *         the path of the file
+     * @param alphabetSize
+     *         the number of input symbols
+     * @param flags
+     *         the combination of {@link #FLAG_NODE_VALUES} and {@link #FLAG_EDGE_VALUES}
+     *
+     * @return the opened trie
+     *
+     * @throws IOException
+     *         if the file cannot be opened or does not contain a compatible trie
+     */
+    static MappedTrie open(Path path, int alphabetSize, int flags) throws IOException {
+        final MappedTrie result = open(path, alphabetSize, flags, -1, StandardOpenOption.CREATE);
+
+        if (result.alphabetSize != alphabetSize || result.flags != flags) {
+            result.close();
+            throw new IOException("The cache file '" + path + "' was created for a different alphabet or model type");
+        }
+
+        return result;
+    }
+
+    /**
+     * Opens the trie stored in the given file, which must exist.
+     *
+     * @param path
+     *         the path of the file
+     *
+     * @return the opened trie
+     *
+     * @throws IOException
+     *         if the file cannot be opened or does not contain a trie
+     */
+    static MappedTrie open(Path path) throws IOException {
+        return open(path, -1, 0, -1, StandardOpenOption.READ);
+    }
+
+    /**
+     * Creates a new trie in the given file, which must not exist yet.
+     *
+     * @param path
+     *         the path of the file
+     * @param alphabetSize
+     *         the number of input symbols
+     * @param flags
+     *         the combination of {@link #FLAG_NODE_VALUES} and {@link #FLAG_EDGE_VALUES}
+     * @param nodesPerSegment
+     *         the number of nodes per mapped segment of the file
+     *
+     * @return the created trie
+     *
+     * @throws IOException
+     *         if the file cannot be created
+     * @throws IllegalArgumentException
+     *         if a segment of the given configuration exceeds the maximum size of a mapped region
+     */
+    static MappedTrie create(Path path, int alphabetSize, int flags, int nodesPerSegment) throws IOException {
+        return open(path, alphabetSize, flags, nodesPerSegment, StandardOpenOption.CREATE_NEW);
+    }
+
+    private static MappedTrie open(Path path,
+                                   int alphabetSize,
+                                   int flags,
+                                   int nodesPerSegment,
+                                   StandardOpenOption createOption) throws IOException {
+        if (alphabetSize > 0) {
+            validateConfiguration(alphabetSize, flags, Math.max(1, nodesPerSegment));
+        }
+
+        final FileChannel channel =
+                FileChannel.open(path, createOption, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final boolean initialize = channel.size() == 0;
+
+            if (initialize && alphabetSize <= 0) {
+                throw new IOException("The cache file '" + path + "' is empty");
+            }
+
+            final MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            if (initialize) {
+                final int nodeSize = computeNodeSize(alphabetSize, flags);
+                header.putInt(MAGIC_POS, MAGIC);
+                header.putInt(VERSION_POS, VERSION);
+                header.putInt(FLAGS_POS, flags);
+                header.putInt(ALPHABET_SIZE_POS, alphabetSize);
+                header.putInt(NODES_PER_SEGMENT_POS,
+                              nodesPerSegment > 0 ? nodesPerSegment : Math.max(1, DEFAULT_SEGMENT_SIZE / nodeSize));
+                header.putInt(CHECKSUM_POS, checksum(header));
+                // the root node
+                header.putInt(NODE_COUNT_POS, 1);
+            }
+
+            return new MappedTrie(channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    int getNodesPerSegment() {
+        return nodesPerSegment;
+    }
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of symbols that edge values may refer to. Symbols are registered (see {@link
+     * #setSymbolCount(int)}) only after they have been persisted, so a symbol table of an intact pair of files contains
+     * at least this many symbols.
+     *
+     * @return the number of symbols that edge values may refer to
+     */
+    int getSymbolCount() {
+        return header.getInt(SYMBOL_COUNT_POS);
+    }
+
+    void setSymbolCount(int symbolCount) {
+        header.putInt(SYMBOL_COUNT_POS, symbolCount);
+    }
+
+    boolean hasNodeValues() {
+        return (flags & FLAG_NODE_VALUES) != 0;
+    }
+
+    boolean hasEdgeValues() {
+        return (flags & FLAG_EDGE_VALUES) != 0;
+    }
+
+    /**
+     * Returns the index of the successor of the given node for the given input symbol.
+     *
+     * @return the index of the successor, or {@code 0} if no such successor exists
+     */
+    int getChild(int node, int symbol) {
+        final int child = segment(node).getInt(position(node) + childrenOffset + symbol * Integer.BYTES);
+
+        if (child <= 0 || child >= nodeCount) {
+            return 0;
+        }
+
+        final MappedByteBuffer childSegment = segment(child);
+        final int childPos = position(child);
+
+        if (childSegment.getInt(childPos) != node || childSegment.getInt(childPos + Integer.BYTES) != symbol) {
+            // a dangling link of a crashed write
+            return 0;
+        }
+
+        return child;
+    }
+
+    int getNodeValue(int node) {
+        assert hasNodeValues();
+        return segment(node).getInt(position(node) + nodeValueOffset);
+    }
+
+    void setNodeValue(int node, int value) {
+        assert hasNodeValues();
+        segment(node).putInt(position(node) + nodeValueOffset, value);
+    }
+
+    int getEdgeValue(int node, int symbol) {
+        assert hasEdgeValues();
+        return segment(node).getInt(position(node) + edgeValuesOffset + symbol * Integer.BYTES);
+    }
+
+    void setEdgeValue(int node, int symbol, int value) {
+        assert hasEdgeValues();
+        segment(node).putInt(position(node) + edgeValuesOffset + symbol * Integer.BYTES, value);
+    }
+
+    /**
+     * Appends a new node and links it as the successor of the given node for the given input symbol.
+     *
+     * @param node
+     *         the parent node
+     * @param symbol
+     *         the input symbol
+     * @param edgeValue
+     *         the value of the new edge (ignored, if the trie does not store edge values)
+     *
+     * @return the index of the new node
+     *
+     * @throws IOException
+     *         if the file cannot be extended
+     */
+    int addChild(int node, int symbol, int edgeValue) throws IOException {
+        final int child = nodeCount;
+
+        if (child == Integer.MAX_VALUE) {
+            throw new IOException("Cache file is full");
+        }
+
+        if (child / nodesPerSegment >= segments.size()) {
+            mapSegment();
+        }
+
+        // the space may contain garbage of a crashed write
+        final MappedByteBuffer childSegment = segment(child);
+        final int childPos = position(child);
+        for (int i = 0; i < nodeSize; i += Integer.BYTES) {
+            childSegment.putInt(childPos + i, 0);
+        }
+        childSegment.putInt(childPos, node);
+        childSegment.putInt(childPos + Integer.BYTES, symbol);
+
+        nodeCount++;
+        header.putInt(NODE_COUNT_POS, nodeCount);
+
+        final MappedByteBuffer parentSegment = segment(node);
+        final int parentPos = position(node);
+        if (hasEdgeValues()) {
+            parentSegment.putInt(parentPos + edgeValuesOffset + symbol * Integer.BYTES, edgeValue);
+        }
+        parentSegment.putInt(parentPos + childrenOffset + symbol * Integer.BYTES, child);
+
+        return child;
+    }
+
+    /**
+     * Writes all changes to the storage device.
+     */
+    void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void mapSegment() throws IOException {
+        final long segmentSize = (long) nodesPerSegment * nodeSize;
+        final long offset = HEADER_SIZE + segments.size() * segmentSize;
+        segments.add(channel.map(MapMode.READ_WRITE, offset, segmentSize));
+    }
+
+    /**
+     * Checks that a segment of the given configuration fits into a single mapped region.
+     */
+    private static void validateConfiguration(int alphabetSize, int flags, int nodesPerSegment) {
+        try {
+            Math.multiplyExact(nodesPerSegment, computeNodeSize(alphabetSize, flags));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The segment size of " + nodesPerSegment + " nodes over " +
+                                               alphabetSize + " symbols exceeds the maximum size of a mapped region",
+                                               e);
+        }
+    }
+
+    private static int computeNodeSize(int alphabetSize, int flags) {
+        // the parent, the symbol, the node value (if any), the children and the edge values (if any)
+        final int fixedInts = (flags & FLAG_NODE_VALUES) != 0 ? 3 : 2;
+        final int intsPerSymbol = (flags & FLAG_EDGE_VALUES) != 0 ? 2 : 1;
+        final int ints = Math.addExact(fixedInts, Math.multiplyExact(intsPerSymbol, alphabetSize));
+        return Math.multiplyExact(ints, Integer.BYTES);
+    }
+
+    /**
+     * Computes the checksum of the (immutable) configuration stored in the header.
+     */
+    private static int checksum(MappedByteBuffer header) {
+        final CRC32 crc = new CRC32();
+        for (int pos = MAGIC_POS; pos < NODES_PER_SEGMENT_POS + Integer.BYTES; pos++) {
+            crc.update(header.get(pos));
+        }
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer segment(int node) {
+        return segments.get(node / nodesPerSegment);
+    }
+
+    private int position(int node) {
+        return (node % nodesPerSegment) * nodeSize;
+    }
+}
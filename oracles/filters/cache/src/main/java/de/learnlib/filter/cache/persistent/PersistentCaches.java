@@ -0,0 +1,185 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Tooling for the files of {@link PersistentDFACacheOracle persistent DFA caches} and {@link
+ * PersistentMealyCacheOracle persistent Mealy caches}.
+ */
+public final class PersistentCaches {
+
+    private PersistentCaches() {
+        throw new IllegalStateException("Constructor should never be invoked");
+    }
+
+    /**
+     * Command-line entry point for {@link #compact(Path, Path)}.
+     *
+     * @param args
+     *         the source and the target file
+     *
+     * @throws IOException
+     *         if compacting the cache file fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: " + PersistentCaches.class.getName() + " <source> <target>");
+            System.exit(1);
+        }
+
+        compact(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Compacts the cache file {@code source} into the (new) file {@code target}. The compacted file only contains the
+     * information that is reachable from the root of the prefix tree, i.e. it drops <ul> <li>nodes (and output
+     * symbols) that are no longer referenced after a crash,</li> <li>DFA prefixes that do not lead to any cached
+     * answer, and</li> <li>Mealy transitions whose outputs got lost.</li> </ul> Furthermore, the nodes are stored in
+     * breadth-first order, which improves the locality of lookups. For Mealy caches, the symbol file is compacted as
+     * well.
+     * <p>
+     * The source file must not be used by a cache oracle during compaction.
+     *
+     * @param source
+     *         the path of the existing cache file
+     * @param target
+     *         the path of the compacted cache file, which must not exist yet
+     *
+     * @throws IOException
+     *         if the source cannot be read or the target cannot be written
+     */
+    public static void compact(Path source, Path target) throws IOException {
+        try (MappedTrie src = MappedTrie.open(source);
+             MappedTrie dst = MappedTrie.create(target,
+                                                src.getAlphabetSize(),
+                                                src.getFlags(),
+                                                src.getNodesPerSegment())) {
+
+            if (src.hasEdgeValues()) {
+                final Path srcSymbolsPath = PersistentMealyCacheOracle.getSymbolsPath(source);
+                final Path dstSymbolsPath = PersistentMealyCacheOracle.getSymbolsPath(target);
+
+                if (!Files.exists(srcSymbolsPath)) {
+                    throw new IOException("Missing symbol file '" + srcSymbolsPath + '\'');
+                }
+
+                try (SymbolTable<?> srcSymbols = SymbolTable.openRaw(srcSymbolsPath, StandardOpenOption.READ);
+                     SymbolTable<?> dstSymbols = SymbolTable.openRaw(dstSymbolsPath,
+                                                                     StandardOpenOption.CREATE_NEW)) {
+                    PersistentMealyCacheOracle.checkSymbols(src, srcSymbols, srcSymbolsPath);
+                    copy(src, dst, null, srcSymbols, dstSymbols);
+
+                    // the symbols have to be persisted before the compacted file refers to them
+                    dstSymbols.flush();
+                    dst.setSymbolCount(dstSymbols.size());
+                }
+            } else {
+                copy(src, dst, computeUsefulNodes(src), null, null);
+            }
+        }
+    }
+
+    /**
+     * Copies the reachable part of {@code src} to {@code dst} in breadth-first order. Since {@code dst} is filled in
+     * breadth-first order as well, the index of a target node equals its position in the queue.
+     */
+    private static void copy(MappedTrie src,
+                             MappedTrie dst,
+                             @Nullable BitSet usefulNodes,
+                             @Nullable SymbolTable<?> srcSymbols,
+                             @Nullable SymbolTable<?> dstSymbols) throws IOException {
+        final int alphabetSize = src.getAlphabetSize();
+        final int[] srcNodes = new int[src.getNodeCount()];
+        final int @Nullable [] symbolMapping = srcSymbols == null ? null : new int[srcSymbols.size() + 1];
+
+        if (src.hasNodeValues()) {
+            dst.setNodeValue(0, src.getNodeValue(0));
+        }
+
+        for (int dstNode = 0; dstNode < dst.getNodeCount(); dstNode++) {
+            final int srcNode = srcNodes[dstNode];
+
+            for (int sym = 0; sym < alphabetSize; sym++) {
+                final int srcChild = src.getChild(srcNode, sym);
+
+                // children are always appended after their parents, anything else is garbage
+                if (srcChild <= srcNode || (usefulNodes != null && !usefulNodes.get(srcChild))) {
+                    continue;
+                }
+
+                int edgeValue = 0;
+
+                if (symbolMapping != null && srcSymbols != null && dstSymbols != null) {
+                    final int srcCode = src.getEdgeValue(srcNode, sym);
+
+                    if (srcCode <= 0 || srcCode > srcSymbols.size()) {
+                        // the output got lost, hence the subtree is of no use
+                        continue;
+                    }
+
+                    if (symbolMapping[srcCode] == 0) {
+                        symbolMapping[srcCode] = dstSymbols.addRecord(srcSymbols.getRecord(srcCode));
+                    }
+
+                    edgeValue = symbolMapping[srcCode];
+                }
+
+                final int dstChild = dst.addChild(dstNode, sym, edgeValue);
+
+                if (dstChild >= srcNodes.length) {
+                    throw new IOException("Corrupt cache file: node " + srcChild + " has multiple parents");
+                }
+
+                srcNodes[dstChild] = srcChild;
+
+                if (src.hasNodeValues()) {
+                    dst.setNodeValue(dstChild, src.getNodeValue(srcChild));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the nodes of a DFA cache whose subtree contains at least one cached answer. Since children are always
+     * appended after their parents, a single backwards pass over the nodes suffices.
+     */
+    private static BitSet computeUsefulNodes(MappedTrie trie) {
+        final int alphabetSize = trie.getAlphabetSize();
+        final BitSet result = new BitSet(trie.getNodeCount());
+
+        for (int node = trie.getNodeCount() - 1; node >= 0; node--) {
+            boolean useful = trie.getNodeValue(node) != 0;
+
+            for (int sym = 0; !useful && sym < alphabetSize; sym++) {
+                final int child = trie.getChild(node, sym);
+                useful = child > node && result.get(child);
+            }
+
+            result.set(node, useful);
+        }
+
+        return result;
+    }
+}
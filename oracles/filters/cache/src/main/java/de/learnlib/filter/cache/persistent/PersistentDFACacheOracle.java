@@ -0,0 +1,289 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A DFA cache oracle that stores its contents in a memory-mapped file, so that the cache survives across learning
+ * runs. The file is loaded lazily (i.e. only the accessed parts are read from the storage device) and every cache miss
+ * is appended to the file. Appends are crash-consistent: if the process terminates abnormally, the file may lose the
+ * most recent (unflushed) answers, but it never contains wrong answers.
+ * <p>
+ * The file is bound to the size of the alphabet that was used for its creation, as input symbols are stored by their
+ * {@link Alphabet#getSymbolIndex(Object) index}. Hence, the same file must only be re-used with the same alphabet
+ * (and system under learning). Files that have accumulated garbage (e.g. due to crashes) can be compacted via {@link
+ * PersistentCaches#compact(Path, Path)}.
+ * <p>
+ * The oracle holds the file open until it is {@link #close() closed}.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class PersistentDFACacheOracle<I> implements DFALearningCacheOracle<I>, Closeable {
+
+    private static final int REJECTED = 1;
+    private static final int ACCEPTED = 2;
+
+    private final Alphabet<I> alphabet;
+    private final MappedTrie trie;
+    private final MembershipOracle<I, Boolean> delegate;
+    private final ReadWriteLock lock;
+
+    PersistentDFACacheOracle(Alphabet<I> alphabet, MappedTrie trie, MembershipOracle<I, Boolean> delegate) {
+        this.alphabet = alphabet;
+        this.trie = trie;
+        this.delegate = delegate;
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Opens (or creates) the persistent cache stored in the given file.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param path
+     *         the path of the cache file
+     * @param delegate
+     *         the oracle to delegate queries to, in case of a cache-miss
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cache oracle
+     *
+     * @throws IOException
+     *         if the file cannot be opened or was created for a different alphabet or model type
+     */
+    public static <I> PersistentDFACacheOracle<I> open(Alphabet<I> alphabet,
+                                                       Path path,
+                                                       MembershipOracle<I, Boolean> delegate) throws IOException {
+        return new PersistentDFACacheOracle<>(alphabet,
+                                              MappedTrie.open(path, alphabet.size(), MappedTrie.FLAG_NODE_VALUES),
+                                              delegate);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        // group the misses by their input, so that each word is only queried once
+        final Map<Word<I>, List<Query<I, Boolean>>> misses = new LinkedHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Query<I, Boolean> q : queries) {
+                final int value = lookupValue(q.getInput());
+                if (value != 0) {
+                    q.answer(value == ACCEPTED);
+                } else {
+                    misses.computeIfAbsent(q.getInput(), k -> new ArrayList<>()).add(q);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (misses.isEmpty()) {
+            return;
+        }
+
+        final List<DefaultQuery<I, Boolean>> delegateQueries = new ArrayList<>(misses.size());
+        for (Word<I> input : misses.keySet()) {
+            delegateQueries.add(new DefaultQuery<>(input));
+        }
+
+        delegate.processQueries(delegateQueries);
+
+        lock.writeLock().lock();
+        try {
+            for (DefaultQuery<I, Boolean> q : delegateQueries) {
+                insert(q.getInput(), q.getOutput());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (DefaultQuery<I, Boolean> q : delegateQueries) {
+            for (Query<I, Boolean> orig : misses.get(q.getInput())) {
+                orig.answer(q.getOutput());
+            }
+        }
+    }
+
+    @Override
+    public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
+        return this::findSeparatingQuery;
+    }
+
+    @Nullable
+    @Override
+    public Boolean lookup(Word<I> input) {
+        lock.readLock().lock();
+        try {
+            final int value = lookupValue(input);
+            return value == 0 ? null : value == ACCEPTED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes of the prefix tree stored in the cache file.
+     *
+     * @return the number of nodes
+     */
+    public int getCacheSize() {
+        lock.readLock().lock();
+        try {
+            return trie.getNodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all cached answers to the storage device.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            trie.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            trie.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int lookupValue(Word<I> input) {
+        int node = 0;
+
+        for (I sym : input) {
+            node = trie.getChild(node, alphabet.getSymbolIndex(sym));
+            if (node == 0) {
+                return 0;
+            }
+        }
+
+        return trie.getNodeValue(node);
+    }
+
+    private void insert(Word<I> input, boolean accepted) throws IOException {
+        int node = 0;
+
+        for (I sym : input) {
+            final int symIdx = alphabet.getSymbolIndex(sym);
+            final int child = trie.getChild(node, symIdx);
+            node = child != 0 ? child : trie.addChild(node, symIdx, 0);
+        }
+
+        final int value = accepted ? ACCEPTED : REJECTED;
+        final int oldValue = trie.getNodeValue(node);
+
+        if (oldValue == 0) {
+            trie.setNodeValue(node, value);
+        } else if (oldValue != value) {
+            throw new ConflictException("Incompatible output for word " + input + ": " + accepted + " vs " + !accepted);
+        }
+    }
+
+    private <S> @Nullable DefaultQuery<I, Boolean> findSeparatingQuery(DFA<S, I> hypothesis,
+                                                                       Collection<? extends I> inputs) {
+        final S init = hypothesis.getInitialState();
+
+        if (init == null) {
+            return null;
+        }
+
+        final Deque<Record<S, I>> queue = new ArrayDeque<>();
+        queue.add(new Record<>(0, init, Word.epsilon()));
+
+        lock.readLock().lock();
+        try {
+            Record<S, I> current;
+            while ((current = queue.poll()) != null) {
+                final int value = trie.getNodeValue(current.node);
+
+                if (value != 0 && (value == ACCEPTED) != hypothesis.isAccepting(current.state)) {
+                    final DefaultQuery<I, Boolean> result = new DefaultQuery<>(current.input);
+                    result.answer(value == ACCEPTED);
+                    return result;
+                }
+
+                for (I sym : inputs) {
+                    if (!alphabet.containsSymbol(sym)) {
+                        continue;
+                    }
+
+                    final int child = trie.getChild(current.node, alphabet.getSymbolIndex(sym));
+                    final S succ = hypothesis.getSuccessor(current.state, sym);
+
+                    if (child != 0 && succ != null) {
+                        queue.add(new Record<>(child, succ, current.input.append(sym)));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I> {
+
+        private final int node;
+        private final S state;
+        private final Word<I> input;
+
+        Record(int node, S state, Word<I> input) {
+            this.node = node;
+            this.state = state;
+            this.input = input;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A Mealy cache oracle that stores its contents in a memory-mapped file, so that the cache survives across learning
+ * runs. The file is loaded lazily (i.e. only the accessed parts are read from the storage device) and every cache miss
+ * is appended to the file. Appends are crash-consistent: if the process terminates abnormally, the file may lose the
+ * most recent answers, but it never contains wrong answers. After an operating system crash (or power failure), only
+ * the answers written until the last {@link #flush()} are guaranteed to be intact.
+ * <p>
+ * Output symbols are serialized (and therefore must be {@link java.io.Serializable}) once into an additional symbol
+ * file ({@code <path>.symbols}), and are referenced by int codes in the cache file. New symbols are forced to the
+ * storage device before the cache file refers to them, and the cache file records the number of symbols it may refer
+ * to. Opening a cache file whose symbol file lacks some of these symbols fails, rather than assigning their codes to
+ * different symbols. Input symbols are stored by their
+ * {@link Alphabet#getSymbolIndex(Object) index}, so the same files must only be re-used with the same alphabet (and
+ * system under learning). Files that have accumulated garbage (e.g. due to crashes) can be compacted via {@link
+ * PersistentCaches#compact(Path, Path)}.
+ * <p>
+ * Cache misses are delegated as complete words (with an empty prefix), so that all outputs of a query can be stored.
+ * The oracle holds the files open until it is {@link #close() closed}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class PersistentMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>, Closeable {
+
+    private static final String SYMBOLS_SUFFIX = ".symbols";
+
+    private final Alphabet<I> alphabet;
+    private final MappedTrie trie;
+    private final SymbolTable<O> outputs;
+    private final MembershipOracle<I, Word<O>> delegate;
+    private final ReadWriteLock lock;
+
+    PersistentMealyCacheOracle(Alphabet<I> alphabet,
+                               MappedTrie trie,
+                               SymbolTable<O> outputs,
+                               MembershipOracle<I, Word<O>> delegate) {
+        this.alphabet = alphabet;
+        this.trie = trie;
+        this.outputs = outputs;
+        this.delegate = delegate;
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Opens (or creates) the persistent cache stored in the given file (and its symbol file).
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param path
+     *         the path of the cache file
+     * @param delegate
+     *         the oracle to delegate queries to, in case of a cache-miss
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return the cache oracle
+     *
+     * @throws IOException
+     *         if the files cannot be opened or were created for a different alphabet or model type
+     */
+    public static <I, O> PersistentMealyCacheOracle<I, O> open(Alphabet<I> alphabet,
+                                                               Path path,
+                                                               MembershipOracle<I, Word<O>> delegate)
+            throws IOException {
+        final MappedTrie trie = MappedTrie.open(path, alphabet.size(), MappedTrie.FLAG_EDGE_VALUES);
+        try {
+            final Path symbolsPath = getSymbolsPath(path);
+            final SymbolTable<O> outputs = SymbolTable.open(symbolsPath);
+            try {
+                checkSymbols(trie, outputs, symbolsPath);
+            } catch (IOException e) {
+                outputs.close();
+                throw e;
+            }
+            return new PersistentMealyCacheOracle<>(alphabet, trie, outputs, delegate);
+        } catch (IOException | RuntimeException e) {
+            trie.close();
+            throw e;
+        }
+    }
+
+    static void checkSymbols(MappedTrie trie, SymbolTable<?> symbols, Path symbolsPath) throws IOException {
+        if (symbols.size() < trie.getSymbolCount()) {
+            throw new IOException("The symbol file '" + symbolsPath + "' lacks " +
+                                  (trie.getSymbolCount() - symbols.size()) + " symbol(s) referenced by the cache file");
+        }
+    }
+
+    static Path getSymbolsPath(Path path) {
+        return path.resolveSibling(path.getFileName() + SYMBOLS_SUFFIX);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        // group the misses by their input, so that each word is only queried once
+        final Map<Word<I>, List<Query<I, Word<O>>>> misses = new LinkedHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Query<I, Word<O>> q : queries) {
+                final Word<O> output = lookupOutput(q.getInput());
+                if (output != null) {
+                    q.answer(output.subWord(q.getPrefix().length()));
+                } else {
+                    misses.computeIfAbsent(q.getInput(), k -> new ArrayList<>()).add(q);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (misses.isEmpty()) {
+            return;
+        }
+
+        final List<DefaultQuery<I, Word<O>>> delegateQueries = new ArrayList<>(misses.size());
+        for (Word<I> input : misses.keySet()) {
+            delegateQueries.add(new DefaultQuery<>(input));
+        }
+
+        delegate.processQueries(delegateQueries);
+
+        lock.writeLock().lock();
+        try {
+            for (DefaultQuery<I, Word<O>> q : delegateQueries) {
+                insert(q.getInput(), q.getOutput());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (DefaultQuery<I, Word<O>> q : delegateQueries) {
+            for (Query<I, Word<O>> orig : misses.get(q.getInput())) {
+                orig.answer(q.getOutput().subWord(orig.getPrefix().length()));
+            }
+        }
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return this::findSeparatingQuery;
+    }
+
+    @Nullable
+    @Override
+    public Word<O> lookup(Word<I> input) {
+        lock.readLock().lock();
+        try {
+            return lookupOutput(input);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes of the prefix tree stored in the cache file.
+     *
+     * @return the number of nodes
+     */
+    public int getCacheSize() {
+        lock.readLock().lock();
+        try {
+            return trie.getNodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all cached answers to the storage device.
+     *
+     * @throws IOException
+     *         if the symbol file cannot be written
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            // the symbols have to be persisted before their codes
+            outputs.flush();
+            trie.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try (SymbolTable<O> o = outputs; MappedTrie t = trie) {
+            // the symbols have to be persisted before their codes
+            o.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private @Nullable Word<O> lookupOutput(Word<I> input) {
+        final WordBuilder<O> wb = new WordBuilder<>(input.length());
+        int node = 0;
+
+        for (I sym : input) {
+            final int symIdx = alphabet.getSymbolIndex(sym);
+            final int child = trie.getChild(node, symIdx);
+            final O out = outputs.getSymbol(trie.getEdgeValue(node, symIdx));
+
+            if (child == 0 || out == null) {
+                return null;
+            }
+
+            wb.add(out);
+            node = child;
+        }
+
+        return wb.toWord();
+    }
+
+    private void insert(Word<I> input, Word<O> output) throws IOException {
+        int node = 0;
+
+        for (int i = 0; i < input.length(); i++) {
+            final int symIdx = alphabet.getSymbolIndex(input.getSymbol(i));
+            final O out = output.getSymbol(i);
+            final int child = trie.getChild(node, symIdx);
+
+            if (child == 0) {
+                node = trie.addChild(node, symIdx, getCode(out));
+                continue;
+            }
+
+            final int code = trie.getEdgeValue(node, symIdx);
+            final O oldOut = outputs.getSymbol(code);
+
+            if (oldOut == null) {
+                // the output got lost (e.g. due to a crash) and can be restored
+                trie.setEdgeValue(node, symIdx, getCode(out));
+            } else if (!Objects.equals(oldOut, out)) {
+                throw new ConflictException("Incompatible output symbols: " + oldOut + " vs " + out);
+            }
+
+            node = child;
+        }
+    }
+
+    private int getCode(O symbol) throws IOException {
+        final int code = outputs.getCode(symbol);
+
+        // the symbol table has persisted the symbol before returning its code
+        if (code > trie.getSymbolCount()) {
+            trie.setSymbolCount(code);
+        }
+
+        return code;
+    }
+
+    private <S, T> @Nullable DefaultQuery<I, Word<O>> findSeparatingQuery(MealyMachine<S, I, T, O> hypothesis,
+                                                                          Collection<? extends I> inputs) {
+        final S init = hypothesis.getInitialState();
+
+        if (init == null) {
+            return null;
+        }
+
+        final Deque<Record<S, I, O>> queue = new ArrayDeque<>();
+        queue.add(new Record<>(0, init, Word.epsilon(), Word.epsilon()));
+
+        lock.readLock().lock();
+        try {
+            Record<S, I, O> current;
+            while ((current = queue.poll()) != null) {
+                for (I sym : inputs) {
+                    if (!alphabet.containsSymbol(sym)) {
+                        continue;
+                    }
+
+                    final int symIdx = alphabet.getSymbolIndex(sym);
+                    final int child = trie.getChild(current.node, symIdx);
+                    final O out = outputs.getSymbol(trie.getEdgeValue(current.node, symIdx));
+
+                    if (child == 0 || out == null) {
+                        continue;
+                    }
+
+                    final T trans = hypothesis.getTransition(current.state, sym);
+                    final Word<I> input = current.input.append(sym);
+                    final Word<O> output = current.output.append(out);
+
+                    if (trans == null || !Objects.equals(out, hypothesis.getTransitionOutput(trans))) {
+                        final DefaultQuery<I, Word<O>> result = new DefaultQuery<>(input);
+                        result.answer(output);
+                        return result;
+                    }
+
+                    queue.add(new Record<>(child, hypothesis.getSuccessor(trans), input, output));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final int node;
+        private final S state;
+        private final Word<I> input;
+        private final Word<O> output;
+
+        Record(int node, S state, Word<I> input, Word<O> output) {
+            this.node = node;
+            this.state = state;
+            this.input = input;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An append-only file that assigns int codes to (serializable) symbols, e.g. the output symbols of a Mealy cache. Codes
+ * start at {@code 1}, so that {@code 0} can be used to denote unknown symbols.
+ * <p>
+ * Each symbol is stored as a record consisting of its length, its serialized form and a checksum. When opening the
+ * file, records are read until the first incomplete or corrupt record (e.g. caused by a crash during an append), at
+ * which point the file is truncated. A new symbol record is written and forced to the storage device (see {@link
+ * #getCode(Object)}) before its code is returned, so the code of a persisted record can never refer to a truncated
+ * record (whose code would be re-assigned later on).
+ * <p>
+ * This class is not thread-safe. Concurrent reads are safe, as long as no concurrent writes occur.
+ *
+ * @param <O>
+ *         symbol type
+ */
+final class SymbolTable<O> implements Closeable {
+
+    private static final int RECORD_OVERHEAD = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final List<byte[]> records;
+    private final List<O> symbols;
+    private final Map<O, Integer> codes;
+
+    private SymbolTable(FileChannel channel, boolean deserialize) throws IOException {
+        this.channel = channel;
+        this.records = new ArrayList<>();
+        this.symbols = new ArrayList<>();
+        this.codes = new HashMap<>();
+
+        final long size = channel.size();
+        final ByteBuffer head = ByteBuffer.allocate(Integer.BYTES);
+        long pos = 0;
+
+        while (pos + RECORD_OVERHEAD <= size) {
+            head.clear();
+            channel.read(head, pos);
+            final int length = head.getInt(0);
+
+            if (length < 0 || pos + RECORD_OVERHEAD + length > size) {
+                break;
+            }
+
+            final ByteBuffer record = ByteBuffer.allocate(length + Integer.BYTES);
+            while (record.hasRemaining()) {
+                channel.read(record, pos + Integer.BYTES + record.position());
+            }
+
+            final byte[] bytes = new byte[length];
+            record.flip();
+            record.get(bytes);
+
+            if (record.getInt() != checksum(bytes)) {
+                break;
+            }
+
+            records.add(bytes);
+            if (deserialize) {
+                final O symbol = deserialize(bytes);
+                symbols.add(symbol);
+                codes.put(symbol, symbols.size());
+            }
+            pos += RECORD_OVERHEAD + length;
+        }
+
+        // drop incomplete records
+        channel.truncate(pos);
+        channel.position(pos);
+    }
+
+    static <O> SymbolTable<O> open(Path path) throws IOException {
+        return open(path, true, StandardOpenOption.CREATE);
+    }
+
+    /**
+     * Opens the given file without deserializing the contained symbols. Only the raw records (see {@link
+     * #getRecord(int)}, {@link #addRecord(byte[])}) can be accessed.
+     */
+    static <O> SymbolTable<O> openRaw(Path path, StandardOpenOption createOption) throws IOException {
+        return open(path, false, createOption);
+    }
+
+    private static <O> SymbolTable<O> open(Path path, boolean deserialize, StandardOpenOption createOption)
+            throws IOException {
+        final FileChannel channel =
+                FileChannel.open(path, createOption, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new SymbolTable<>(channel, deserialize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return records.size();
+    }
+
+    /**
+     * Returns the symbol for the given code.
+     *
+     * @return the symbol, or {@code null} if the code is unknown
+     */
+    @Nullable
+    O getSymbol(int code) {
+        return code > 0 && code <= symbols.size() ? symbols.get(code - 1) : null;
+    }
+
+    /**
+     * Returns the code of the given symbol, appending a new record if necessary. New records are forced to the storage
+     * device, so that the returned code can be safely persisted.
+     */
+    int getCode(O symbol) throws IOException {
+        final Integer code = codes.get(symbol);
+
+        if (code != null) {
+            return code;
+        }
+
+        addRecord(serialize(symbol));
+        flush();
+        symbols.add(symbol);
+        codes.put(symbol, symbols.size());
+        return symbols.size();
+    }
+
+    byte[] getRecord(int code) {
+        return records.get(code - 1);
+    }
+
+    int addRecord(byte[] bytes) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + bytes.length);
+        record.putInt(bytes.length);
+        record.put(bytes);
+        record.putInt(checksum(bytes));
+        record.flip();
+
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+
+        records.add(bytes);
+        return records.size();
+    }
+
+    void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private static int checksum(byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] serialize(Object symbol) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(symbol);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <O> O deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (O) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -22,6 +22,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import de.learnlib.api.Resumable;
 import de.learnlib.api.SUL;
 import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import de.learnlib.filter.cache.NoopReadWriteLock;
+import de.learnlib.filter.cache.mealy.ConcurrentIncrementalMealyTreeBuilder;
 import de.learnlib.filter.cache.mealy.MealyCacheConsistencyTest;
 import de.learnlib.filter.cache.sul.SULCache.SULCacheState;
 import de.learnlib.oracle.membership.SULOracle;
@@ -31,6 +33,7 @@ import net.automatalib.incremental.mealy.dag.IncrementalMealyDAGBuilder;
 import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
 import net.automatalib.ts.output.MealyTransitionSystem;
 import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -64,7 +67,11 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
     private final SULCacheImpl<?, I, ?, O> impl;
 
     SULCache(IncrementalMealyBuilder<I, O> incMealy, SUL<I, O> sul) {
-        this(new SULCacheImpl<>(incMealy, new ReentrantReadWriteLock(), incMealy.asTransitionSystem(), sul));
+        this(incMealy, new ReentrantReadWriteLock(), sul);
+    }
+
+    SULCache(IncrementalMealyBuilder<I, O> incMealy, ReadWriteLock lock, SUL<I, O> sul) {
+        this(new SULCacheImpl<>(incMealy, lock, incMealy.asTransitionSystem(), sul));
     }
 
     private <S, T> SULCache(SULCacheImpl<S, I, T, O> cacheImpl) {
@@ -80,6 +87,25 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
         return new SULCache<>(new IncrementalMealyDAGBuilder<>(alphabet), sul);
     }
 
+    /**
+     * Creates a cache that uses a {@link ConcurrentIncrementalMealyTreeBuilder} for internal cache organization. Forks
+     * of this cache (see {@link #fork()}) do not block each other while querying the cache.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param sul
+     *         the system under learning
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a SUL cache with a concurrent tree-based implementation
+     */
+    public static <I, O> SULCache<I, O> createConcurrentTreeCache(Alphabet<I> alphabet, SUL<I, O> sul) {
+        return new SULCache<>(new ConcurrentIncrementalMealyTreeBuilder<>(alphabet), new NoopReadWriteLock(), sul);
+    }
+
     @Override
     public void pre() {
         impl.pre();
@@ -95,6 +121,11 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
         return impl.step(in);
     }
 
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        return impl.stepAll(in);
+    }
+
     @Override
     public boolean canFork() {
         return impl.canFork();
@@ -111,6 +142,12 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
         return impl.createCacheConsistencyTest();
     }
 
+    @Nullable
+    @Override
+    public Word<O> lookup(Word<I> input) {
+        return impl.lookup(input);
+    }
+
     @Override
     public void addAlphabetSymbol(I symbol) {
         impl.addAlphabetSymbol(symbol);
@@ -204,6 +241,49 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
             return out;
         }
 
+        @Override
+        public Word<O> stepAll(Word<? extends I> in) {
+            if (current != null) {
+                final WordBuilder<O> wb = new WordBuilder<>(in.length());
+
+                for (I sym : in) {
+                    final T trans = mealyTs.getTransition(current, sym);
+
+                    if (trans == null) {
+                        wb.clear();
+                        break;
+                    }
+
+                    wb.add(mealyTs.getTransitionOutput(trans));
+                    current = mealyTs.getSuccessor(trans);
+                    assert current != null;
+                }
+
+                if (wb.size() == in.length()) {
+                    inputWord.append(in);
+                    return wb.toWord();
+                }
+
+                // cache miss: replay the complete input word (including the previous steps) in a single call
+                incMealyLock.readLock().unlock();
+                current = null;
+                delegate.pre();
+                delegatePreCalled = true;
+
+                final int numPrevious = inputWord.size();
+                inputWord.append(in);
+                outputWord.append(delegate.stepAll(inputWord.toWord()));
+
+                return outputWord.toWord(numPrevious, outputWord.size());
+            }
+
+            inputWord.append(in);
+            final Word<O> out = delegate.stepAll(in);
+            outputWord.append(out);
+
+            return out;
+        }
+
         // TODO: The SUL interface might need a cleanup() method which, by contract,
         // is to be called regardless of whether preceding step()s threw unrecoverable
         // errors!
@@ -248,6 +328,19 @@ public class SULCache<I, O> extends SULOracle<I, O> implements SUL<I, O>,
             return new MealyCacheConsistencyTest<>(incMealy, incMealyLock);
         }
 
+        @Nullable
+        @Override
+        public Word<O> lookup(Word<I> input) {
+            final WordBuilder<O> wb = new WordBuilder<>(input.length());
+
+            incMealyLock.readLock().lock();
+            try {
+                return incMealy.lookup(input, wb) ? wb.toWord() : null;
+            } finally {
+                incMealyLock.readLock().unlock();
+            }
+        }
+
         @Override
         public void addAlphabetSymbol(I symbol) {
             incMealy.addAlphabetSymbol(symbol);
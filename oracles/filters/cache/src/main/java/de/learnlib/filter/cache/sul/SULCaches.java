@@ -28,6 +28,10 @@ public final class SULCaches {
         return SULCache.createTreeCache(alphabet, sul);
     }
 
+    public static <I, O> SULCache<I, O> createConcurrentTreeCache(Alphabet<I> alphabet, SUL<I, O> sul) {
+        return SULCache.createConcurrentTreeCache(alphabet, sul);
+    }
+
     public static <I, O> SULCache<I, O> createCache(Alphabet<I> alphabet, SUL<I, O> sul) {
         return createDAGCache(alphabet, sul);
     }
@@ -0,0 +1,127 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import de.learnlib.api.oracle.AsyncMembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.statistic.oracle.CounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle;
+import net.automatalib.automata.concepts.SuffixOutput;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the asynchronous query processing of the cache oracles.
+ */
+public class AsyncCacheTest {
+
+    private static final int NUM_QUERIES = 100;
+    private static final int MAX_LENGTH = 5;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDFATreeCache() {
+        testCache(CacheTestUtils.DFA,
+                  delegate -> DFACaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, delegate));
+    }
+
+    @Test
+    public void testDFAHashCache() {
+        testCache(CacheTestUtils.DFA, DFACaches::createHashCache);
+    }
+
+    @Test
+    public void testDFACompactHashCache() {
+        testCache(CacheTestUtils.DFA,
+                  delegate -> DFACaches.createCompactHashCache(CacheTestUtils.INPUT_ALPHABET, delegate));
+    }
+
+    @Test
+    public void testMealyTreeCache() {
+        testCache(CacheTestUtils.MEALY,
+                  delegate -> MealyCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, delegate));
+    }
+
+    private <D> void testCache(SuffixOutput<Character, D> target,
+                               Function<MembershipOracle<Character, D>, AsyncMembershipOracle<Character, D>> cacheFactory) {
+
+        final CounterOracle<Character, D> counter = new CounterOracle<>(new SimulatorOracle<>(target), "counter");
+        final AsyncMembershipOracle<Character, D> cache =
+                cacheFactory.apply(AsyncMembershipOracle.asAsync(counter, executor));
+
+        final List<DefaultQuery<Character, D>> queries = createQueries();
+
+        cache.processQueriesAsync(queries).join();
+
+        for (DefaultQuery<Character, D> q : queries) {
+            Assert.assertEquals(q.getOutput(), target.computeOutput(q.getInput()));
+        }
+
+        final long count = counter.getCount();
+        Assert.assertTrue(count > 0);
+
+        // all queries should be answered from the cache now
+        final List<DefaultQuery<Character, D>> repeatedQueries = createQueries();
+
+        Assert.assertTrue(cache.processQueriesAsync(repeatedQueries).isDone());
+        Assert.assertEquals(counter.getCount(), count);
+
+        for (DefaultQuery<Character, D> q : repeatedQueries) {
+            Assert.assertEquals(q.getOutput(), target.computeOutput(q.getInput()));
+        }
+    }
+
+    private static <D> List<DefaultQuery<Character, D>> createQueries() {
+        final List<DefaultQuery<Character, D>> queries = new ArrayList<>(NUM_QUERIES);
+        final int alphabetSize = CacheTestUtils.INPUT_ALPHABET.size();
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WordBuilder<Character> wb = new WordBuilder<>();
+            int remainder = i;
+            for (int j = 0; j < MAX_LENGTH && remainder > 0; j++) {
+                wb.add(CacheTestUtils.INPUT_ALPHABET.getSymbol(remainder % alphabetSize));
+                remainder /= alphabetSize;
+            }
+            queries.add(new DefaultQuery<>(Word.epsilon(), wb.toWord()));
+        }
+
+        return queries;
+    }
+}
@@ -0,0 +1,240 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import de.learnlib.api.oracle.AsyncMembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.statistic.oracle.CounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle;
+import net.automatalib.automata.concepts.SuffixOutput;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the cache oracles forward queries which are already being answered by the delegate oracle (in-flight
+ * queries) only once.
+ */
+public class InFlightCacheTest {
+
+    private static final Word<Character> WORD = Word.fromCharSequence("abcab");
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDFATreeCache() {
+        testCache(CacheTestUtils.DFA,
+                  delegate -> DFACaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, delegate),
+                  WORD);
+    }
+
+    @Test
+    public void testDFAHashCache() {
+        testCache(CacheTestUtils.DFA, DFACaches::createHashCache, WORD);
+    }
+
+    @Test
+    public void testDFACompactHashCache() {
+        testCache(CacheTestUtils.DFA,
+                  delegate -> DFACaches.createCompactHashCache(CacheTestUtils.INPUT_ALPHABET, delegate),
+                  WORD);
+    }
+
+    @Test
+    public void testMealyTreeCache() {
+        // the second query is a prefix of the in-flight query
+        testCache(CacheTestUtils.MEALY,
+                  delegate -> MealyCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, delegate),
+                  WORD.prefix(3));
+    }
+
+    @Test
+    public void testMealyConcurrentTreeCache() {
+        testCache(CacheTestUtils.MEALY,
+                  delegate -> MealyCaches.createConcurrentTreeCache(CacheTestUtils.INPUT_ALPHABET, delegate),
+                  WORD.prefix(3));
+    }
+
+    @Test
+    public void testDuplicatesInBatch() {
+        final CounterOracle<Character, Boolean> counter =
+                new CounterOracle<>(new SimulatorOracle<>(CacheTestUtils.DFA), "counter");
+        final MembershipOracle<Character, Boolean> cache = DFACaches.createHashCache(counter);
+
+        final DefaultQuery<Character, Boolean> q1 = new DefaultQuery<>(WORD);
+        final DefaultQuery<Character, Boolean> q2 = new DefaultQuery<>(WORD);
+        cache.processQueries(Arrays.asList(q1, q2));
+
+        Assert.assertEquals(counter.getCount(), 1);
+        Assert.assertEquals(q1.getOutput(), CacheTestUtils.DFA.computeOutput(WORD));
+        Assert.assertEquals(q2.getOutput(), CacheTestUtils.DFA.computeOutput(WORD));
+    }
+
+    @Test
+    public void testFailure() {
+        final MembershipOracle<Character, Boolean> failing = queries -> {
+            throw new IllegalStateException();
+        };
+        final BlockingOracle<Character, Boolean> blocking = new BlockingOracle<>(failing);
+        final AsyncMembershipOracle<Character, Boolean> cache =
+                DFACaches.createHashCache(AsyncMembershipOracle.asAsync(blocking, executor));
+
+        final CompletableFuture<Void> f1 = cache.processQueryAsync(new DefaultQuery<>(WORD));
+        final CompletableFuture<Void> f2 = cache.processQueryAsync(new DefaultQuery<>(WORD));
+
+        blocking.release();
+
+        for (CompletableFuture<Void> f : Arrays.asList(f1, f2)) {
+            try {
+                f.join();
+                Assert.fail("Exception expected");
+            } catch (CompletionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testInconsistentAnswer() throws InterruptedException, TimeoutException {
+        // answers the first batch with 'x's and all subsequent ones (once released) with 'y's
+        final AtomicBoolean first = new AtomicBoolean(true);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final MembershipOracle<Character, Word<Character>> inconsistent = queries -> {
+            final char output;
+            if (first.getAndSet(false)) {
+                output = 'x';
+            } else {
+                await(latch);
+                output = 'y';
+            }
+            for (Query<Character, Word<Character>> q : queries) {
+                final WordBuilder<Character> wb = new WordBuilder<>();
+                wb.repeatAppend(q.getSuffix().length(), output);
+                q.answer(wb.toWord());
+            }
+        };
+        final AsyncMembershipOracle<Character, Word<Character>> cache =
+                MealyCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET,
+                                            AsyncMembershipOracle.asAsync(inconsistent, executor));
+
+        cache.processQueryAsync(new DefaultQuery<>(WORD.prefix(1))).join();
+
+        // the delegate's answer for WORD conflicts with the cached answer for its prefix
+        final CompletableFuture<Void> f1 = cache.processQueryAsync(new DefaultQuery<>(WORD));
+        final CompletableFuture<Void> f2 = cache.processQueryAsync(new DefaultQuery<>(WORD.prefix(3)));
+
+        Assert.assertFalse(f2.isDone());
+        latch.countDown();
+
+        // neither the in-flight query nor the waiting one must hang, and the failed query must not stay in flight
+        final DefaultQuery<Character, Word<Character>> q3 = new DefaultQuery<>(WORD.prefix(3));
+        final CompletableFuture<Void> f3 = f2.handle((res, t) -> null).thenCompose(x -> cache.processQueryAsync(q3));
+
+        for (CompletableFuture<Void> f : Arrays.asList(f1, f2, f3)) {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+                Assert.fail("Exception expected");
+            } catch (ExecutionException e) {
+                // expected
+            }
+        }
+    }
+
+    private <D> void testCache(SuffixOutput<Character, D> target,
+                               Function<MembershipOracle<Character, D>, AsyncMembershipOracle<Character, D>> cacheFactory,
+                               Word<Character> secondWord) {
+
+        final CounterOracle<Character, D> counter = new CounterOracle<>(new SimulatorOracle<>(target), "counter");
+        final BlockingOracle<Character, D> blocking = new BlockingOracle<>(counter);
+        final AsyncMembershipOracle<Character, D> cache =
+                cacheFactory.apply(AsyncMembershipOracle.asAsync(blocking, executor));
+
+        final DefaultQuery<Character, D> q1 = new DefaultQuery<>(WORD);
+        final DefaultQuery<Character, D> q2 = new DefaultQuery<>(secondWord);
+
+        final CompletableFuture<Void> f1 = cache.processQueryAsync(q1);
+        final CompletableFuture<Void> f2 = cache.processQueryAsync(q2);
+
+        // the second query has to wait for the first one
+        Assert.assertFalse(f2.isDone());
+
+        blocking.release();
+        CompletableFuture.allOf(f1, f2).join();
+
+        Assert.assertEquals(counter.getCount(), 1);
+        Assert.assertEquals(q1.getOutput(), target.computeOutput(WORD));
+        Assert.assertEquals(q2.getOutput(), target.computeOutput(secondWord));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class BlockingOracle<I, D> implements MembershipOracle<I, D> {
+
+        private final MembershipOracle<I, D> delegate;
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        BlockingOracle(MembershipOracle<I, D> delegate) {
+            this.delegate = delegate;
+        }
+
+        void release() {
+            latch.countDown();
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, D>> queries) {
+            await(latch);
+            delegate.processQueries(queries);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the conditions of a {@link NoopReadWriteLock} never block.
+ */
+public class NoopReadWriteLockTest {
+
+    @Test(timeOut = 2000)
+    public void testCondition() throws InterruptedException {
+        final NoopReadWriteLock lock = new NoopReadWriteLock();
+
+        for (Lock l : new Lock[] {lock.readLock(), lock.writeLock()}) {
+            l.lock();
+            try {
+                final Condition condition = l.newCondition();
+                condition.await();
+                condition.awaitUninterruptibly();
+                Assert.assertTrue(condition.await(1, TimeUnit.MINUTES));
+                Assert.assertTrue(condition.awaitNanos(TimeUnit.MINUTES.toNanos(1)) > 0);
+                condition.signalAll();
+            } finally {
+                l.unlock();
+            }
+        }
+    }
+
+    @Test(expectedExceptions = InterruptedException.class)
+    public void testInterruptedCondition() throws InterruptedException {
+        final Condition condition = new NoopReadWriteLock().writeLock().newCondition();
+
+        Thread.currentThread().interrupt();
+        try {
+            condition.await();
+        } finally {
+            // do not leak the interruption to other tests
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.statistic.CacheStatistics;
+import de.learnlib.filter.statistic.oracle.DFACounterOracle;
+import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the eviction of bounded caches.
+ */
+public class BoundedCacheEvictionTest {
+
+    private static final int MAX_NODES = 100;
+    private static final int NUM_QUERIES = 500;
+    private static final int LENGTH = 10;
+
+    @Test
+    public void testDFAEviction() {
+        final DFACounterOracle<Character> counter =
+                new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA), "counterOracle");
+        final BoundedDFACacheOracle<Character> cache =
+                new BoundedDFACacheOracle<>(CacheTestUtils.INPUT_ALPHABET, MAX_NODES, counter);
+        final Random random = new Random(42);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final DefaultQuery<Character, Boolean> query = new DefaultQuery<>(randomWord(random));
+            cache.processQuery(query);
+
+            Assert.assertEquals(query.getOutput(), CacheTestUtils.DFA.computeOutput(query.getInput()));
+            Assert.assertTrue(cache.getCacheSize() <= MAX_NODES);
+        }
+
+        checkStatistics(cache.getStatistics(), counter.getCount());
+
+        // the most recent query must still be cached
+        final long count = counter.getCount();
+        final Random replay = new Random(42);
+        Word<Character> last = null;
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            last = randomWord(replay);
+        }
+        Assert.assertEquals(cache.answerQuery(last), CacheTestUtils.DFA.computeOutput(last));
+        Assert.assertEquals(counter.getCount(), count);
+    }
+
+    @Test
+    public void testMealyEviction() {
+        final MealyCounterOracle<Character, Integer> counter =
+                new MealyCounterOracle<>(new MealySimulatorOracle<>(CacheTestUtils.MEALY), "counterOracle");
+        final BoundedMealyCacheOracle<Character, Integer> cache =
+                new BoundedMealyCacheOracle<>(CacheTestUtils.INPUT_ALPHABET, MAX_NODES, counter);
+        final Random random = new Random(42);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Word<Character> word = randomWord(random);
+            final DefaultQuery<Character, Word<Integer>> query = new DefaultQuery<>(word.prefix(1), word.subWord(1));
+            cache.processQuery(query);
+
+            Assert.assertEquals(query.getOutput(), CacheTestUtils.MEALY.computeSuffixOutput(query.getPrefix(),
+                                                                                              query.getSuffix()));
+            Assert.assertTrue(cache.getCacheSize() <= MAX_NODES);
+        }
+
+        checkStatistics(cache.getStatistics(), counter.getCount());
+    }
+
+    @Test
+    public void testBatchIsProtected() {
+        final DFACounterOracle<Character> counter =
+                new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA), "counterOracle");
+        final BoundedDFACacheOracle<Character> cache =
+                new BoundedDFACacheOracle<>(CacheTestUtils.INPUT_ALPHABET, MAX_NODES, counter);
+        final Random random = new Random(42);
+
+        // a single batch that exceeds the budget
+        final List<DefaultQuery<Character, Boolean>> batch = new ArrayList<>(NUM_QUERIES);
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            batch.add(new DefaultQuery<>(randomWord(random)));
+        }
+
+        cache.processQueries(batch);
+
+        Assert.assertTrue(cache.getCacheSize() > MAX_NODES);
+        Assert.assertEquals(cache.getStatistics().getEvictions().getCount(), 0);
+
+        // a subsequent query evicts the (now unprotected) previous batch
+        final long count = counter.getCount();
+        cache.processQueries(Collections.singleton(new DefaultQuery<>(Word.epsilon())));
+
+        Assert.assertEquals(counter.getCount(), count + 1);
+        Assert.assertTrue(cache.getCacheSize() <= MAX_NODES);
+    }
+
+    @Test
+    public void testDuplicateMisses() {
+        final DFACounterOracle<Character> counter =
+                new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA), "counterOracle");
+        final BoundedDFACacheOracle<Character> cache =
+                new BoundedDFACacheOracle<>(CacheTestUtils.INPUT_ALPHABET, MAX_NODES, counter);
+
+        final Word<Character> word = randomWord(new Random(42));
+        final List<DefaultQuery<Character, Boolean>> batch = new ArrayList<>(2);
+        batch.add(new DefaultQuery<>(word));
+        batch.add(new DefaultQuery<>(word));
+
+        cache.processQueries(batch);
+
+        // duplicate misses are delegated once, but counted per query
+        Assert.assertEquals(counter.getCount(), 1);
+        Assert.assertEquals(cache.getStatistics().getHits().getCount(), 0);
+        Assert.assertEquals(cache.getStatistics().getMisses().getCount(), 2);
+    }
+
+    private static void checkStatistics(CacheStatistics statistics, long delegatedQueries) {
+        Assert.assertEquals(statistics.getHits().getCount() + statistics.getMisses().getCount(), NUM_QUERIES);
+        Assert.assertEquals(statistics.getMisses().getCount(), delegatedQueries);
+        Assert.assertTrue(statistics.getEvictions().getCount() > 0);
+    }
+
+    private static Word<Character> randomWord(Random random) {
+        final Alphabet<Character> alphabet = CacheTestUtils.INPUT_ALPHABET;
+        final WordBuilder<Character> wb = new WordBuilder<>(LENGTH);
+
+        // short words lead to cache hits
+        final int length = 1 + random.nextInt(LENGTH);
+        for (int i = 0; i < length; i++) {
+            wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+
+        return wb.toWord();
+    }
+}
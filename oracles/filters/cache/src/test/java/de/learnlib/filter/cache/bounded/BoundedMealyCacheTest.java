@@ -0,0 +1,74 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import de.learnlib.filter.cache.AbstractCacheTest;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+
+/**
+ * Tests the {@link BoundedMealyCacheOracle} with a budget that is large enough to not evict any nodes.
+ */
+public class BoundedMealyCacheTest
+        extends AbstractCacheTest<BoundedMealyCacheOracle<Character, Integer>, MealyMachine<?, Character, ?, Integer>, Character, Word<Integer>> {
+
+    private final MealyCounterOracle<Character, Integer> counter;
+
+    public BoundedMealyCacheTest() {
+        counter = new MealyCounterOracle<>(new MealySimulatorOracle<>(CacheTestUtils.MEALY), "counterOracle");
+    }
+
+    @Override
+    protected MealyMachine<?, Character, ?, Integer> getTargetModel() {
+        return CacheTestUtils.MEALY;
+    }
+
+    @Override
+    protected MealyMachine<?, Character, ?, Integer> getInvalidTargetModel() {
+        return CacheTestUtils.MEALY_INVALID;
+    }
+
+    @Override
+    protected BoundedMealyCacheOracle<Character, Integer> getCachedOracle() {
+        return MealyCaches.createBoundedCache(getAlphabet(), 1000, counter);
+    }
+
+    @Override
+    protected BoundedMealyCacheOracle<Character, Integer> getResumedOracle(BoundedMealyCacheOracle<Character, Integer> original) {
+        // bounded caches are not resumable, but their contents should survive subsequent queries
+        return original;
+    }
+
+    @Override
+    protected long getNumberOfPosedQueries() {
+        return counter.getCount();
+    }
+
+    @Override
+    protected boolean supportsPrefixes() {
+        return true;
+    }
+
+    @Override
+    protected Alphabet<Character> getAlphabet() {
+        return CacheTestUtils.INPUT_ALPHABET;
+    }
+}
@@ -0,0 +1,112 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CompactWordTableTest {
+
+    @Test
+    public void testAgainstHashMap() {
+        final Random random = new Random(42);
+        final CompactWordTable table = new CompactWordTable();
+        final Map<List<Integer>, Boolean> reference = new HashMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            final int[] word = randomWord(random);
+            final boolean acceptance = random.nextBoolean();
+
+            if (!reference.containsKey(toList(word))) {
+                reference.put(toList(word), acceptance);
+                table.put(word, acceptance);
+            }
+        }
+
+        Assert.assertEquals(table.size(), reference.size());
+
+        for (int i = 0; i < table.size(); i++) {
+            final List<Integer> word = toList(table.getWord(i));
+            Assert.assertEquals(reference.get(word), Boolean.valueOf(table.isAccepted(i)));
+        }
+
+        for (Map.Entry<List<Integer>, Boolean> e : reference.entrySet()) {
+            Assert.assertEquals(table.get(toArray(e.getKey())), e.getValue());
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            final int[] word = randomWord(random);
+            Assert.assertEquals(table.get(word), reference.get(toList(word)));
+        }
+    }
+
+    @Test
+    public void testLargeSymbols() {
+        final CompactWordTable table = new CompactWordTable();
+        final int[] word = {0, 127, 128, 16_384, Integer.MAX_VALUE};
+
+        table.put(word, true);
+        table.put(new int[0], false);
+
+        Assert.assertEquals(table.get(word), Boolean.TRUE);
+        Assert.assertEquals(table.get(new int[0]), Boolean.FALSE);
+        Assert.assertNull(table.get(new int[] {0, 127, 128, 16_384}));
+        Assert.assertEquals(table.getWord(0), word);
+    }
+
+    @Test
+    public void testUpdate() {
+        final CompactWordTable table = new CompactWordTable();
+        final int[] word = {1, 2, 3};
+
+        table.put(word, true);
+        table.put(word, false);
+
+        Assert.assertEquals(table.size(), 1);
+        Assert.assertEquals(table.get(word), Boolean.FALSE);
+    }
+
+    private static int[] randomWord(Random random) {
+        // use a large alphabet in order to test multi-byte encodings
+        final int[] result = new int[random.nextInt(8)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = random.nextInt(300);
+        }
+        return result;
+    }
+
+    private static List<Integer> toList(int[] word) {
+        final List<Integer> result = new ArrayList<>(word.length);
+        for (int sym : word) {
+            result.add(sym);
+        }
+        return result;
+    }
+
+    private static int[] toArray(List<Integer> word) {
+        final int[] result = new int[word.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = word.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.learnlib.filter.cache.CacheTestUtils;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.GrowingMapAlphabet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentIncrementalMealyTreeBuilderTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_WORDS = 2000;
+    private static final int MAX_LENGTH = 10;
+
+    @Test(timeOut = 20000)
+    public void testConcurrentInsertions() throws InterruptedException, ExecutionException {
+        final CompactMealy<Character, Integer> target = CacheTestUtils.MEALY;
+        final Alphabet<Character> alphabet = CacheTestUtils.INPUT_ALPHABET;
+        final ConcurrentIncrementalMealyTreeBuilder<Character, Integer> builder =
+                new ConcurrentIncrementalMealyTreeBuilder<>(alphabet);
+
+        final List<Word<Character>> words = new ArrayList<>(NUM_WORDS);
+        final Random random = new Random(42);
+        for (int i = 0; i < NUM_WORDS; i++) {
+            final WordBuilder<Character> wb = new WordBuilder<>();
+            final int length = random.nextInt(MAX_LENGTH + 1);
+            for (int j = 0; j < length; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            words.add(wb.toWord());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(NUM_THREADS);
+
+            // every thread inserts all words (in different orders) and concurrently looks up its previous insertions
+            for (int t = 0; t < NUM_THREADS; t++) {
+                final int offset = t * (NUM_WORDS / NUM_THREADS);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < NUM_WORDS; i++) {
+                        final Word<Character> word = words.get((offset + i) % NUM_WORDS);
+                        builder.insert(word, target.computeOutput(word));
+
+                        final Word<Character> prefix = word.prefix(word.length() / 2);
+                        Assert.assertTrue(builder.hasDefinitiveInformation(prefix));
+                        Assert.assertEquals(builder.lookup(prefix), target.computeOutput(prefix));
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Word<Character> word : words) {
+            Assert.assertEquals(builder.lookup(word), target.computeOutput(word));
+        }
+
+        Assert.assertNull(builder.findSeparatingWord(target, alphabet, false));
+    }
+
+    @Test(expectedExceptions = ConflictException.class)
+    public void testConflict() {
+        final ConcurrentIncrementalMealyTreeBuilder<Character, Integer> builder =
+                new ConcurrentIncrementalMealyTreeBuilder<>(CacheTestUtils.INPUT_ALPHABET);
+
+        builder.insert(Word.fromCharSequence("ab"), Word.fromSymbols(1, 2));
+        builder.insert(Word.fromCharSequence("abc"), Word.fromSymbols(1, 3, 1));
+    }
+
+    @Test
+    public void testGrowingAlphabet() {
+        final GrowingMapAlphabet<Character> alphabet = new GrowingMapAlphabet<>(CacheTestUtils.INPUT_ALPHABET);
+        final ConcurrentIncrementalMealyTreeBuilder<Character, Integer> builder =
+                new ConcurrentIncrementalMealyTreeBuilder<>(alphabet);
+
+        final Word<Character> word = Word.fromCharSequence("abc");
+        builder.insert(word, Word.fromSymbols(1, 2, 3));
+
+        builder.addAlphabetSymbol('d');
+        final Word<Character> extension = Word.fromCharSequence("abd");
+        builder.insert(extension, Word.fromSymbols(1, 2, 4));
+
+        Assert.assertEquals(builder.lookup(word), Word.fromSymbols(1, 2, 3));
+        Assert.assertEquals(builder.lookup(extension), Word.fromSymbols(1, 2, 4));
+        Assert.assertEquals(builder.getInputAlphabet().size(), CacheTestUtils.INPUT_ALPHABET.size() + 1);
+    }
+}
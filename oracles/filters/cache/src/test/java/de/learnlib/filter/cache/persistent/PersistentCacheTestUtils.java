@@ -0,0 +1,69 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.cache.CacheTestUtils;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+final class PersistentCacheTestUtils {
+
+    private PersistentCacheTestUtils() {}
+
+    /**
+     * Creates queries for all words of the given maximum length over the test alphabet.
+     */
+    static <D> List<DefaultQuery<Character, D>> createQueries(int maxLength) {
+        final Alphabet<Character> alphabet = CacheTestUtils.INPUT_ALPHABET;
+        final List<DefaultQuery<Character, D>> result = new ArrayList<>();
+        List<Word<Character>> words = new ArrayList<>();
+        words.add(Word.epsilon());
+
+        for (int i = 0; i < maxLength; i++) {
+            final List<Word<Character>> next = new ArrayList<>(words.size() * alphabet.size());
+            for (Word<Character> w : words) {
+                for (Character c : alphabet) {
+                    next.add(new WordBuilder<>(w).append(c).toWord());
+                }
+            }
+            words = next;
+        }
+
+        for (Word<Character> w : words) {
+            result.add(new DefaultQuery<>(w));
+        }
+
+        return result;
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
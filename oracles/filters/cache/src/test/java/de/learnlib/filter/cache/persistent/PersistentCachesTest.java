@@ -0,0 +1,283 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.statistic.oracle.DFACounterOracle;
+import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the crash recovery and the compaction of persistent caches.
+ */
+public class PersistentCachesTest {
+
+    private static final int LENGTH = 4;
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("learnlib-cache");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        PersistentCacheTestUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testDFACrashRecovery() throws IOException {
+        final Path file = directory.resolve("dfa.cache");
+        final List<DefaultQuery<Character, Boolean>> queries = PersistentCacheTestUtils.createQueries(LENGTH);
+
+        final int size = fillDFACache(file, queries);
+
+        // simulate a crash that lost the second half of the appended nodes (but not the links to them)
+        setNodeCount(file, size / 2);
+
+        final DFACounterOracle<Character> counter = newDFACounter();
+        try (PersistentDFACacheOracle<Character> cache = PersistentDFACacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                                        file,
+                                                                                        counter)) {
+            final List<DefaultQuery<Character, Boolean>> repeated = PersistentCacheTestUtils.createQueries(LENGTH);
+            cache.processQueries(repeated);
+
+            // some answers were lost, but none is wrong
+            Assert.assertTrue(counter.getCount() > 0);
+            Assert.assertTrue(counter.getCount() < queries.size());
+            assertDFAOutputs(repeated);
+            Assert.assertEquals(cache.getCacheSize(), size);
+        }
+    }
+
+    @Test
+    public void testMealyCrashRecovery() throws IOException {
+        final Path file = directory.resolve("mealy.cache");
+        final List<DefaultQuery<Character, Word<Integer>>> queries = PersistentCacheTestUtils.createQueries(LENGTH);
+
+        final int size = fillMealyCache(file, queries);
+
+        // simulate a crash that lost the second half of the appended nodes and interrupted the append of a new output
+        // symbol (which cannot be referenced yet)
+        setNodeCount(file, size / 2);
+        final Path symbolsFile = PersistentMealyCacheOracle.getSymbolsPath(file);
+        try (FileChannel channel = FileChannel.open(symbolsFile, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 1);
+            buffer.putInt(42).put((byte) 1).flip();
+            channel.write(buffer, channel.size());
+        }
+
+        final MealyCounterOracle<Character, Integer> counter = newMealyCounter();
+        try (PersistentMealyCacheOracle<Character, Integer> cache =
+                     PersistentMealyCacheOracle.open(CacheTestUtils.INPUT_ALPHABET, file, counter)) {
+            final List<DefaultQuery<Character, Word<Integer>>> repeated =
+                    PersistentCacheTestUtils.createQueries(LENGTH);
+            cache.processQueries(repeated);
+
+            Assert.assertTrue(counter.getCount() > 0);
+            Assert.assertTrue(counter.getCount() < queries.size());
+            assertMealyOutputs(repeated);
+            Assert.assertEquals(cache.getCacheSize(), size);
+
+            final long count = counter.getCount();
+            cache.processQueries(PersistentCacheTestUtils.createQueries(LENGTH));
+            Assert.assertEquals(counter.getCount(), count);
+        }
+    }
+
+    @Test
+    public void testDFACompaction() throws IOException {
+        final Path file = directory.resolve("dfa.cache");
+        final Path compacted = directory.resolve("dfa-compacted.cache");
+        final List<DefaultQuery<Character, Boolean>> queries = PersistentCacheTestUtils.createQueries(LENGTH);
+
+        final int size = fillDFACache(file, queries);
+
+        // lose the answers of the last (complete) subtree, so that the file contains a useless prefix
+        setNodeCount(file, size - CacheTestUtils.INPUT_ALPHABET.size());
+
+        PersistentCaches.compact(file, compacted);
+
+        final DFACounterOracle<Character> counter = newDFACounter();
+        final DFACounterOracle<Character> compactedCounter = newDFACounter();
+
+        try (PersistentDFACacheOracle<Character> cache = PersistentDFACacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                                        file,
+                                                                                        counter);
+             PersistentDFACacheOracle<Character> compactedCache = PersistentDFACacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                                                 compacted,
+                                                                                                 compactedCounter)) {
+
+            Assert.assertTrue(compactedCache.getCacheSize() < cache.getCacheSize());
+
+            final List<DefaultQuery<Character, Boolean>> repeated = PersistentCacheTestUtils.createQueries(LENGTH);
+            compactedCache.processQueries(repeated);
+            cache.processQueries(PersistentCacheTestUtils.createQueries(LENGTH));
+
+            // the compacted cache contains the same answers
+            Assert.assertEquals(compactedCounter.getCount(), counter.getCount());
+            assertDFAOutputs(repeated);
+        }
+    }
+
+    @Test
+    public void testMealyCompaction() throws IOException {
+        final Path file = directory.resolve("mealy.cache");
+        final Path compacted = directory.resolve("mealy-compacted.cache");
+        final List<DefaultQuery<Character, Word<Integer>>> queries = PersistentCacheTestUtils.createQueries(LENGTH);
+
+        final int size = fillMealyCache(file, queries);
+
+        PersistentCaches.compact(file, compacted);
+
+        final MealyCounterOracle<Character, Integer> counter = newMealyCounter();
+        try (PersistentMealyCacheOracle<Character, Integer> cache =
+                     PersistentMealyCacheOracle.open(CacheTestUtils.INPUT_ALPHABET, compacted, counter)) {
+            Assert.assertEquals(cache.getCacheSize(), size);
+
+            final List<DefaultQuery<Character, Word<Integer>>> repeated =
+                    PersistentCacheTestUtils.createQueries(LENGTH);
+            cache.processQueries(repeated);
+
+            Assert.assertEquals(counter.getCount(), 0);
+            assertMealyOutputs(repeated);
+        }
+
+        Assert.assertTrue(Files.size(PersistentMealyCacheOracle.getSymbolsPath(compacted)) <=
+                          Files.size(PersistentMealyCacheOracle.getSymbolsPath(file)));
+    }
+
+    @Test
+    public void testLostSymbols() throws IOException {
+        final Path file = directory.resolve("mealy.cache");
+
+        fillMealyCache(file, PersistentCacheTestUtils.createQueries(LENGTH));
+
+        // the last symbol record is referenced by the cache file, so its code must not be re-assigned
+        final Path symbolsFile = PersistentMealyCacheOracle.getSymbolsPath(file);
+        try (FileChannel channel = FileChannel.open(symbolsFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        Assert.expectThrows(IOException.class,
+                            () -> PersistentMealyCacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                  file,
+                                                                  newMealyCounter()));
+        Assert.expectThrows(IOException.class,
+                            () -> PersistentCaches.compact(file, directory.resolve("mealy-compacted.cache")));
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        final Path file = directory.resolve("dfa.cache");
+
+        fillDFACache(file, PersistentCacheTestUtils.createQueries(LENGTH));
+
+        // alter the number of nodes per segment, which would map the nodes incorrectly
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(1);
+            buffer.put((byte) 1).flip();
+            channel.write(buffer, MappedTrie.NODE_COUNT_POS - 1);
+        }
+
+        final IOException e = Assert.expectThrows(IOException.class,
+                                                  () -> PersistentDFACacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                                      file,
+                                                                                      newDFACounter()));
+        Assert.assertTrue(e.getMessage().contains("Corrupt"));
+    }
+
+    @Test
+    public void testSegmentSizeOverflow() {
+        final Path file = directory.resolve("mealy.cache");
+
+        Assert.expectThrows(IllegalArgumentException.class,
+                            () -> MappedTrie.create(file, 1 << 16, MappedTrie.FLAG_EDGE_VALUES, 1 << 16));
+        Assert.assertFalse(Files.exists(file));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testAlphabetMismatch() throws IOException {
+        final Path file = directory.resolve("dfa.cache");
+
+        fillDFACache(file, PersistentCacheTestUtils.createQueries(LENGTH));
+
+        PersistentDFACacheOracle.open(Alphabets.characters('a', 'd'), file, newDFACounter()).close();
+    }
+
+    private static int fillDFACache(Path file, List<DefaultQuery<Character, Boolean>> queries) throws IOException {
+        try (PersistentDFACacheOracle<Character> cache = PersistentDFACacheOracle.open(CacheTestUtils.INPUT_ALPHABET,
+                                                                                        file,
+                                                                                        newDFACounter())) {
+            cache.processQueries(queries);
+            return cache.getCacheSize();
+        }
+    }
+
+    private static int fillMealyCache(Path file, List<DefaultQuery<Character, Word<Integer>>> queries)
+            throws IOException {
+        try (PersistentMealyCacheOracle<Character, Integer> cache =
+                     PersistentMealyCacheOracle.open(CacheTestUtils.INPUT_ALPHABET, file, newMealyCounter())) {
+            cache.processQueries(queries);
+            return cache.getCacheSize();
+        }
+    }
+
+    private static DFACounterOracle<Character> newDFACounter() {
+        return new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA), "counterOracle");
+    }
+
+    private static MealyCounterOracle<Character, Integer> newMealyCounter() {
+        return new MealyCounterOracle<>(new MealySimulatorOracle<>(CacheTestUtils.MEALY), "counterOracle");
+    }
+
+    private static void assertDFAOutputs(List<DefaultQuery<Character, Boolean>> queries) {
+        for (DefaultQuery<Character, Boolean> q : queries) {
+            Assert.assertEquals(q.getOutput(), CacheTestUtils.DFA.computeOutput(q.getInput()));
+        }
+    }
+
+    private static void assertMealyOutputs(List<DefaultQuery<Character, Word<Integer>>> queries) {
+        for (DefaultQuery<Character, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), CacheTestUtils.MEALY.computeOutput(q.getInput()));
+        }
+    }
+
+    private static void setNodeCount(Path file, int nodeCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+            buffer.putInt(nodeCount).flip();
+            channel.write(buffer, MappedTrie.NODE_COUNT_POS);
+        }
+    }
+}
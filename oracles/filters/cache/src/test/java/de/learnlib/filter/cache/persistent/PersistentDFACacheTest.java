@@ -0,0 +1,103 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.learnlib.filter.cache.AbstractCacheTest;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.filter.statistic.oracle.DFACounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.words.Alphabet;
+import org.testng.annotations.AfterClass;
+
+/**
+ * Tests the {@link PersistentDFACacheOracle}. Resuming is tested by re-opening the cache file.
+ */
+public class PersistentDFACacheTest
+        extends AbstractCacheTest<PersistentDFACacheOracle<Character>, DFA<?, Character>, Character, Boolean> {
+
+    private final DFACounterOracle<Character> counter;
+    private final Path directory;
+    private final Path cacheFile;
+
+    private PersistentDFACacheOracle<Character> resumedOracle;
+
+    public PersistentDFACacheTest() throws IOException {
+        counter = new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA), "counterOracle");
+        directory = Files.createTempDirectory("learnlib-cache");
+        cacheFile = directory.resolve("dfa.cache");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        oracle.close();
+        if (resumedOracle != null) {
+            resumedOracle.close();
+        }
+        PersistentCacheTestUtils.deleteDirectory(directory);
+    }
+
+    @Override
+    protected DFA<?, Character> getTargetModel() {
+        return CacheTestUtils.DFA;
+    }
+
+    @Override
+    protected DFA<?, Character> getInvalidTargetModel() {
+        return CacheTestUtils.DFA_INVALID;
+    }
+
+    @Override
+    protected PersistentDFACacheOracle<Character> getCachedOracle() {
+        try {
+            return DFACaches.createPersistentCache(getAlphabet(), cacheFile, counter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected PersistentDFACacheOracle<Character> getResumedOracle(PersistentDFACacheOracle<Character> original) {
+        try {
+            original.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        resumedOracle = getCachedOracle();
+        return resumedOracle;
+    }
+
+    @Override
+    protected long getNumberOfPosedQueries() {
+        return counter.getCount();
+    }
+
+    @Override
+    protected boolean supportsPrefixes() {
+        return false;
+    }
+
+    @Override
+    protected Alphabet<Character> getAlphabet() {
+        return CacheTestUtils.INPUT_ALPHABET;
+    }
+}
@@ -23,6 +23,8 @@ import de.learnlib.filter.statistic.sul.ResetCounterSUL;
 import net.automatalib.automata.transducers.MealyMachine;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
 
 /**
  * @author frohme
@@ -73,5 +75,38 @@ public abstract class AbstractSULCacheTest
         return CacheTestUtils.INPUT_ALPHABET;
     }
 
+    @Test
+    public void testStepAll() {
+        final ResetCounterSUL<Character, Integer> resets =
+                new ResetCounterSUL<>("resets", new MealySimulatorSUL<>(CacheTestUtils.MEALY));
+        final SULCache<Character, Integer> cache = getCache(resets);
+
+        final Alphabet<Character> alphabet = getAlphabet();
+        final Character first = alphabet.getSymbol(0);
+        final Word<Character> word = Word.fromSymbols(alphabet.getSymbol(1), alphabet.getSymbol(2), first);
+        final Word<Integer> expected = CacheTestUtils.MEALY.computeSuffixOutput(Word.fromLetter(first), word);
+
+        // cache miss after a single step
+        cache.pre();
+        cache.step(first);
+        Assert.assertEquals(cache.stepAll(word), expected);
+        cache.post();
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 1);
+
+        // cache hit for (a prefix of) the previously executed word
+        cache.pre();
+        Assert.assertEquals(cache.step(first), CacheTestUtils.MEALY.computeOutput(Word.fromLetter(first)).firstSymbol());
+        Assert.assertEquals(cache.stepAll(word.prefix(2)), expected.prefix(2));
+        cache.post();
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 1);
+
+        // extension of the cached word
+        cache.pre();
+        final Word<Character> extended = Word.fromLetter(first).concat(word, word);
+        Assert.assertEquals(cache.stepAll(extended), CacheTestUtils.MEALY.computeOutput(extended));
+        cache.post();
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 2);
+    }
+
     protected abstract SULCache<Character, Integer> getCache(SUL<Character, Integer> delegate);
 }
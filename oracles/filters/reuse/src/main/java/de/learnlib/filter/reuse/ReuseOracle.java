@@ -15,13 +15,17 @@
  */
 package de.learnlib.filter.reuse;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import de.learnlib.api.oracle.SingleQueryOracle.SingleQueryOracleMealy;
+import de.learnlib.api.query.Query;
 import de.learnlib.filter.reuse.ReuseCapableOracle.QueryResult;
 import de.learnlib.filter.reuse.tree.BoundedDeque.AccessPolicy;
 import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
@@ -32,7 +36,6 @@ import de.learnlib.filter.reuse.tree.ReuseTree.ReuseTreeBuilder;
 import de.learnlib.filter.reuse.tree.SystemStateHandler;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
-import net.automatalib.words.WordBuilder;
 
 /**
  * The reuse oracle is a {@link MealyMembershipOracle} that is able to <ul> <li>Cache queries: Each processed query will
@@ -49,6 +52,12 @@ import net.automatalib.words.WordBuilder;
  * The usage of model invariant input symbols and failure output symbols is disabled by default and can be enabled upon
  * construction (see {@link ReuseOracleBuilder#withFailureOutputs(Set)} and {@link
  * ReuseOracleBuilder#withInvariantInputs(Set)}).
+ * <p>
+ * The reuse oracle is thread-safe (each thread uses its own {@link ReuseCapableOracle}, see {@link
+ * #getReuseCapableOracle()}) and may therefore be shared by, e.g., parallel oracles. System states are claimed
+ * exclusively from the {@link ReuseTree}, so that no system state is resumed by two threads at the same time. Batches
+ * of queries are processed in an order that maximizes the reuse of system states (see {@link
+ * #processQueries(Collection)}).
  *
  * @param <S>
  *         system state class
@@ -63,13 +72,18 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
 
     private final ThreadLocal<ReuseCapableOracle<S, I, O>> executableOracles;
 
+    private final ThreadLocal<Object[]> symbolBuffers;
+
     private final ReuseTree<S, I, O> tree;
 
+    private final Comparator<Query<I, ?>> queryOrder;
+
     /**
      * Default constructor.
      */
     ReuseOracle(ReuseOracleBuilder<S, I, O> builder) {
         this.executableOracles = ThreadLocal.withInitial(builder.oracleSupplier);
+        this.symbolBuffers = ThreadLocal.withInitial(() -> new Object[0]);
         this.tree = new ReuseTreeBuilder<S, I, O>(builder.alphabet).withSystemStateHandler(builder.systemStateHandler)
                                                                    .withFailureOutputs(builder.failureOutputSymbols)
                                                                    .withInvariantInputs(builder.invariantInputSymbols)
@@ -77,7 +91,41 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
                                                                    .withMaxSystemStates(builder.maxSystemStates)
                                                                    .withAccessPolicy(builder.accessPolicy)
                                                                    .withEvictPolicy(builder.evictPolicy)
+                                                                   .withRetentionBudget(builder.retentionBudget,
+                                                                                        builder.retentionCost)
                                                                    .build();
+        this.queryOrder = (q1, q2) -> compareInputs(builder.alphabet, q1.getInput(), q2.getInput());
+    }
+
+    /**
+     * Processes the given queries in the lexicographic order of their inputs, where each word precedes its extensions.
+     * This way, the system state reached by a query is directly available to the queries extending it, and queries
+     * that are prefixes of already executed queries are answered from the {@link ReuseTree}.
+     */
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        final List<Query<I, Word<O>>> sortedQueries = new ArrayList<>(queries);
+        sortedQueries.sort(queryOrder);
+
+        for (Query<I, Word<O>> q : sortedQueries) {
+            q.answer(processQuery(q.getInput()).suffix(q.getSuffix().length()));
+        }
+    }
+
+    private static <I> int compareInputs(Alphabet<I> alphabet, Word<I> w1, Word<I> w2) {
+        final int len1 = w1.length();
+        final int len2 = w2.length();
+        final int len = Math.min(len1, len2);
+
+        for (int i = 0; i < len; i++) {
+            final int cmp = Integer.compare(alphabet.getSymbolIndex(w1.getSymbol(i)),
+                                            alphabet.getSymbolIndex(w2.getSymbol(i)));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return Integer.compare(len1, len2);
     }
 
     @Override
@@ -114,7 +162,7 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
         // No system state available
         if (nodeResult == null) {
             final QueryResult<S, O> newResult =
-                    filterAndProcessQuery(query, tree.getPartialOutput(query), oracle::processQuery);
+                    filterAndProcessQuery(query, getPartialOutput(query), oracle::processQuery);
 
             tree.insert(query, newResult);
 
@@ -123,26 +171,39 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
             final int suffixLen = query.size() - nodeResult.prefixLength;
             final Word<I> suffix = query.suffix(suffixLen);
 
-            final Word<O> partialOutput = tree.getPartialOutput(query);
-            final Word<O> partialSuffixOutput = partialOutput.suffix(suffixLen);
+            final Word<O> partialOutput = getPartialOutput(query);
+            final Word<O> partialSuffixOutput = partialOutput == null ? null : partialOutput.suffix(suffixLen);
 
             final ReuseNode<S, I, O> reuseNode = nodeResult.reuseNode;
             final S systemState = nodeResult.systemState;
 
-            final QueryResult<S, O> suffixQueryResult = filterAndProcessQuery(suffix,
-                                                                              partialSuffixOutput,
-                                                                              filteredInput -> oracle.continueQuery(
-                                                                                      filteredInput,
-                                                                                      systemState));
+            final QueryResult<S, O> suffixQueryResult;
+
+            try {
+                suffixQueryResult = filterAndProcessQuery(suffix,
+                                                          partialSuffixOutput,
+                                                          filteredInput -> oracle.continueQuery(filteredInput,
+                                                                                                systemState));
+            } finally {
+                tree.releaseSystemState(nodeResult);
+            }
 
             this.tree.insert(suffix, reuseNode, suffixQueryResult);
 
             final Word<O> prefixOutput = tree.getOutput(query.prefix(nodeResult.prefixLength));
-            output = new WordBuilder<>(prefixOutput).append(suffixQueryResult.output).toWord();
+            output = prefixOutput.concat(suffixQueryResult.output);
         }
         return output;
     }
 
+    /**
+     * Returns the partial output of the given query (see {@link ReuseTree#getPartialOutput(Word)}), or {@code null} if
+     * the tree cannot contain "reflexive" edges (in which case no symbols need to be filtered).
+     */
+    private Word<O> getPartialOutput(Word<I> query) {
+        return tree.isPumpingEnabled() ? tree.getPartialOutput(query) : null;
+    }
+
     /**
      * Returns the {@link ReuseCapableOracle} used by this instance.
      */
@@ -152,13 +213,15 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
 
     /**
      * Filters all the query elements corresponding to "reflexive" edges in the reuse tree, executes the shorter query,
-     * and fills the filtered outputs into the resulting output word.
+     * and fills the filtered outputs into the resulting output word. Both words are assembled in a per-thread buffer,
+     * so that apart from the (immutable) words themselves no intermediate objects are allocated.
      *
      * @param query
      *         the input query with "reflexive" symbols (may be a suffix of the original query, if a system state is
      *         reused).
      * @param partialOutput
-     *         the output information from the tree with {@code null} entries for all "non-reflexive" edges.
+     *         the output information from the tree with {@code null} entries for all "non-reflexive" edges. May be
+     *         {@code null} if the tree contains no "reflexive" edges.
      * @param processQuery
      *         a function that actually processes the (shortened) query.
      *
@@ -167,33 +230,51 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
     private QueryResult<S, O> filterAndProcessQuery(Word<I> query,
                                                     Word<O> partialOutput,
                                                     Function<Word<I>, QueryResult<S, O>> processQuery) {
-        final LinkedList<I> filteredQueryList = new LinkedList<>(query.asList());
-        final Iterator<I> queryIterator = filteredQueryList.iterator();
+        if (partialOutput == null) {
+            return processQuery.apply(query);
+        }
+
+        final int len = query.length();
+        final Object[] buffer = getSymbolBuffer(len);
 
         // filter "reflexive" edges
-        for (final O outputSymbol : partialOutput) {
-            queryIterator.next();
-            if (outputSymbol != null) {
-                queryIterator.remove();
+        int filteredLen = 0;
+        for (int i = 0; i < len; i++) {
+            if (partialOutput.getSymbol(i) == null) {
+                buffer[filteredLen++] = query.getSymbol(i);
             }
         }
 
-        // process the query
-        final QueryResult<S, O> res = processQuery.apply(Word.fromList(filteredQueryList));
+        if (filteredLen == len) {
+            return processQuery.apply(query);
+        }
 
-        final WordBuilder<O> wordBuilder = new WordBuilder<>();
-        final Iterator<O> resultIterator = res.output.iterator();
+        // process the query
+        @SuppressWarnings("unchecked")
+        final Word<I> filteredQuery = Word.fromArray((I[]) buffer, 0, filteredLen);
+        final QueryResult<S, O> res = processQuery.apply(filteredQuery);
 
         // insert back the a priori available outputs of "reflexive" edges
-        for (final O output : partialOutput) {
-            if (output == null) {
-                wordBuilder.add(resultIterator.next());
-            } else {
-                wordBuilder.add(output);
-            }
+        int resultIdx = 0;
+        for (int i = 0; i < len; i++) {
+            final O output = partialOutput.getSymbol(i);
+            buffer[i] = output == null ? res.output.getSymbol(resultIdx++) : output;
         }
 
-        return new QueryResult<>(wordBuilder.toWord(), res.newState);
+        @SuppressWarnings("unchecked")
+        final Word<O> output = Word.fromArray((O[]) buffer, 0, len);
+        return new QueryResult<>(output, res.newState);
+    }
+
+    private Object[] getSymbolBuffer(int length) {
+        Object[] buffer = symbolBuffers.get();
+
+        if (buffer.length < length) {
+            buffer = new Object[Math.max(length, 2 * buffer.length)];
+            symbolBuffers.set(buffer);
+        }
+
+        return buffer;
     }
 
     /**
@@ -215,6 +296,8 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
         private int maxSystemStates = -1;
         private AccessPolicy accessPolicy = AccessPolicy.LIFO;
         private EvictPolicy evictPolicy = EvictPolicy.EVICT_OLDEST;
+        private long retentionBudget = -1;
+        private ToLongFunction<? super S> retentionCost = s -> 1;
 
         public ReuseOracleBuilder(Alphabet<I> alphabet,
                                   Supplier<? extends ReuseCapableOracle<S, I, O>> oracleSupplier) {
@@ -257,6 +340,18 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
             return this;
         }
 
+        /**
+         * Bounds the accumulated retention cost of all system states stored by the oracle.
+         *
+         * @see ReuseTreeBuilder#withRetentionBudget(long, ToLongFunction)
+         */
+        public ReuseOracleBuilder<S, I, O> withRetentionBudget(long retentionBudget,
+                                                              ToLongFunction<? super S> retentionCost) {
+            this.retentionBudget = retentionBudget;
+            this.retentionCost = retentionCost;
+            return this;
+        }
+
         public ReuseOracle<S, I, O> build() {
             return new ReuseOracle<>(this);
         }
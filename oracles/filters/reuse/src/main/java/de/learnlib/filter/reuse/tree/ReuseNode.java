@@ -15,9 +15,11 @@
  */
 package de.learnlib.filter.reuse.tree;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import de.learnlib.filter.reuse.tree.BoundedDeque.AccessPolicy;
 import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
@@ -27,6 +29,9 @@ import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
  * ReuseEdge}s. Each {@link ReuseNode} may contain a system state holding relevant informations (e.g. database
  * identifiers or an object) that belongs to the system state that 'represents' the system state after executing a
  * membership query.
+ * <p>
+ * Edges may be read concurrently (they are published safely once added). Access to the system states of a node is not
+ * synchronized and is guarded by the {@link ReuseTree}.
  *
  * @param <S>
  *         system state class
@@ -39,19 +44,30 @@ import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
  */
 public class ReuseNode<S, I, O> {
 
-    private final ReuseEdge<S, I, O>[] edges;
+    private final AtomicReferenceArray<ReuseEdge<S, I, O>> edges;
     private final BoundedDeque<S> systemStates;
     // private S systemstate;
     private final int id;
+    private final int depth;
+    private long hits;
 
-    @SuppressWarnings("unchecked")
     public ReuseNode(int id,
                      int alphabetSize,
                      int maxSystemStates,
                      AccessPolicy accessPolicy,
                      EvictPolicy evictPolicy) {
-        this.edges = new ReuseEdge[alphabetSize];
+        this(id, 0, alphabetSize, maxSystemStates, accessPolicy, evictPolicy);
+    }
+
+    public ReuseNode(int id,
+                     int depth,
+                     int alphabetSize,
+                     int maxSystemStates,
+                     AccessPolicy accessPolicy,
+                     EvictPolicy evictPolicy) {
+        this.edges = new AtomicReferenceArray<>(alphabetSize);
         this.id = id;
+        this.depth = depth;
         this.systemStates = new BoundedDeque<>(maxSystemStates, accessPolicy, evictPolicy);
     }
 
@@ -81,19 +97,52 @@ public class ReuseNode<S, I, O> {
         systemStates.clear();
     }
 
+    boolean removeSystemState(S state) {
+        final Iterator<S> iter = systemStates.iterator();
+        while (iter.hasNext()) {
+            if (iter.next() == state) {
+                iter.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the depth of this node, i.e. the number of (non-reflexive) edges between the root and this node.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns how often a system state of this node has been reused.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    void incrementHits() {
+        hits++;
+    }
+
     /**
      * Returns all outgoing {@link ReuseEdge}s from this {@link ReuseNode}. If there are none the returned {@link
      * java.util.Collection} will be empty (but never {@code null}).
      */
     public Collection<ReuseEdge<S, I, O>> getEdges() {
-        return Arrays.asList(edges);
+        final List<ReuseEdge<S, I, O>> result = new ArrayList<>(edges.length());
+        for (int i = 0; i < edges.length(); i++) {
+            result.add(edges.get(i));
+        }
+        return result;
     }
 
     /**
      * Adds an outgoing {@link ReuseEdge} to this {@link ReuseNode}.
      */
     public void addEdge(int index, ReuseEdge<S, I, O> edge) {
-        this.edges[index] = edge;
+        this.edges.set(index, edge);
     }
 
     public ReuseNode<S, I, O> getTargetNodeForInput(int index) {
@@ -108,7 +157,7 @@ public class ReuseNode<S, I, O> {
      * May be {@code null}.
      */
     public ReuseEdge<S, I, O> getEdgeWithInput(int index) {
-        return this.edges[index];
+        return this.edges.get(index);
     }
 
     public int getId() {
@@ -124,11 +173,22 @@ public class ReuseNode<S, I, O> {
          */
         public final int prefixLength;
 
+        /**
+         * The number of times the system states of the {@link ReuseTree} had been disposed when this result was
+         * created, used for detecting stale results upon {@link ReuseTree#releaseSystemState(NodeResult) release}.
+         */
+        final int disposals;
+
         public NodeResult(ReuseNode<S, I, O> reuseNode, S systemState, int prefixLength) {
+            this(reuseNode, systemState, prefixLength, 0);
+        }
+
+        NodeResult(ReuseNode<S, I, O> reuseNode, S systemState, int prefixLength, int disposals) {
             super();
             this.reuseNode = reuseNode;
             this.systemState = systemState;
             this.prefixLength = prefixLength;
+            this.disposals = disposals;
         }
     }
 
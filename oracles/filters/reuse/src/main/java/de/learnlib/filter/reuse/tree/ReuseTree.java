@@ -18,9 +18,15 @@ package de.learnlib.filter.reuse.tree;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
 
 import de.learnlib.filter.reuse.ReuseCapableOracle;
 import de.learnlib.filter.reuse.ReuseException;
@@ -42,6 +48,18 @@ import net.automatalib.words.WordBuilder;
  * SUL and maintains also available system states. The {@link ReuseTree} is only 'tree like' since it may contain
  * reflexive edges at nodes (only possible if {@link ReuseTreeBuilder#withFailureOutputs(Set)} or {@link
  * ReuseTreeBuilder#withInvariantInputs(Set)} is set).
+ * <p>
+ * The {@link ReuseTree} is thread-safe: output look-ups ({@link #getOutput(Word)}, {@link #getPartialOutput(Word)}) do
+ * not block, while modifications and system state accesses are synchronized. System states are handed out exclusively
+ * (see {@link #fetchSystemState(Word)}), so that no two callers resume the same system state concurrently.
+ * <p>
+ * Besides the per-node bound on system states (see {@link ReuseTreeBuilder#withMaxSystemStates(int)}), the tree may
+ * be configured with a global retention budget (see {@link ReuseTreeBuilder#withRetentionBudget(long,
+ * ToLongFunction)}). If the accumulated retention cost of the stored system states exceeds the budget, the system
+ * states with the lowest <i>benefit</i> are evicted, where the benefit of a system state is {@code depth * (hits + 1) /
+ * cost}, i.e. the number of symbols it saves per reuse, weighted by how often system states of its node have been
+ * reused, relative to the cost of retaining it. The retained system states are kept ordered by their benefit, so that
+ * evicting a system state takes logarithmic time.
  *
  * @param <S>
  *         system state class
@@ -63,10 +81,20 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
     private final int maxSystemStates;
     private final AccessPolicy accessPolicy;
     private final EvictPolicy evictPolicy;
+    private final long retentionBudget;
+    private final ToLongFunction<? super S> retentionCost;
+    /** The stored system states in eviction order, only maintained if a retention budget is configured. */
+    private final NavigableSet<RetainedState<S, I, O>> retainedStates;
+    /** The entries of {@link #retainedStates}, indexed by (the identity of) their system states. */
+    private final Map<S, RetainedState<S, I, O>> retainedStateIndex;
+    private long retainedCost;
+    private long retentionSeq;
     /** May be reset to zero, see {@link ReuseTree#clearTree()}. */
     private int nodeCount;
     /** May be reinitialized, see {@link ReuseTree#clearTree()}. */
-    private ReuseNode<S, I, O> root;
+    private volatile ReuseNode<S, I, O> root;
+    /** The number of times the system states have been disposed, used for detecting stale claims. */
+    private int disposals;
 
     ReuseTree(ReuseTreeBuilder<S, I, O> builder) {
         this.alphabet = builder.alphabet;
@@ -85,14 +113,46 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
         this.maxSystemStates = builder.maxSystemStates;
         this.accessPolicy = builder.accessPolicy;
         this.evictPolicy = builder.evictPolicy;
+        this.retentionBudget = builder.retentionBudget;
+        this.retentionCost = builder.retentionCost;
+        this.retainedStates = new TreeSet<>(Comparator.comparingDouble((RetainedState<S, I, O> r) -> r.benefit)
+                                                      .thenComparingLong(r -> r.seq));
+        this.retainedStateIndex = new IdentityHashMap<>();
 
         // local and not configurable
         this.alphabetSize = alphabet.size();
-        this.root = createNode();
+        this.root = createNode(0);
     }
 
-    private ReuseNode<S, I, O> createNode() {
-        return new ReuseNode<>(nodeCount++, alphabetSize, maxSystemStates, accessPolicy, evictPolicy);
+    private ReuseNode<S, I, O> createNode(int depth) {
+        return new ReuseNode<>(nodeCount++, depth, alphabetSize, maxSystemStates, accessPolicy, evictPolicy);
+    }
+
+    private boolean isBudgeted() {
+        return retentionBudget > 0;
+    }
+
+    /**
+     * Returns the accumulated retention cost of all system states currently stored in the tree. Only tracked if a
+     * retention budget has been configured (see {@link ReuseTreeBuilder#withRetentionBudget(long, ToLongFunction)}),
+     * otherwise {@code 0} is returned.
+     *
+     * @return the accumulated retention cost of all stored system states
+     */
+    public long getRetainedCost() {
+        synchronized (this) {
+            return retainedCost;
+        }
+    }
+
+    /**
+     * Returns whether the tree may contain "reflexive" edges, i.e. whether invariant input symbols or failure output
+     * symbols have been configured (see {@link #getPartialOutput(Word)}).
+     *
+     * @return {@code true} if the tree may contain "reflexive" edges, {@code false} otherwise
+     */
+    public boolean isPumpingEnabled() {
+        return !invariantInputSymbols.isEmpty() || !failureOutputSymbols.isEmpty();
     }
 
     /**
@@ -109,18 +169,16 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
             throw new IllegalArgumentException(msg);
         }
 
-        final WordBuilder<O> output = new WordBuilder<>();
+        final WordBuilder<O> output = new WordBuilder<>(query.size());
 
-        synchronized (this) {
-            ReuseNode<S, I, O> sink = getRoot();
-            for (final I symbol : query) {
-                final ReuseEdge<S, I, O> edge = sink.getEdgeWithInput(alphabet.getSymbolIndex(symbol));
-                if (edge == null) {
-                    return null;
-                }
-                output.add(edge.getOutput());
-                sink = edge.getTarget();
+        ReuseNode<S, I, O> sink = getRoot();
+        for (final I symbol : query) {
+            final ReuseEdge<S, I, O> edge = sink.getEdgeWithInput(alphabet.getSymbolIndex(symbol));
+            if (edge == null) {
+                return null;
             }
+            output.add(edge.getOutput());
+            sink = edge.getTarget();
         }
 
         return output.toWord();
@@ -151,24 +209,22 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
             throw new IllegalArgumentException(msg);
         }
 
-        final WordBuilder<O> output = new WordBuilder<>();
+        final WordBuilder<O> output = new WordBuilder<>(query.size());
 
-        synchronized (this) {
-            ReuseNode<S, I, O> sink = getRoot();
-            for (final I symbol : query) {
-                final ReuseEdge<S, I, O> edge = sink.getEdgeWithInput(alphabet.getSymbolIndex(symbol));
-                // add null-pointers if no more outputs are available
-                if (edge == null) {
-                    break;
-                }
-                // add output for "reflexive" edges
-                if (sink.equals(edge.getTarget())) {
-                    output.add(edge.getOutput());
-                } else { // for "non-reflexive" edges add a null-pointer.
-                    output.add(null);
-                }
-                sink = edge.getTarget();
+        ReuseNode<S, I, O> sink = getRoot();
+        for (final I symbol : query) {
+            final ReuseEdge<S, I, O> edge = sink.getEdgeWithInput(alphabet.getSymbolIndex(symbol));
+            // add null-pointers if no more outputs are available
+            if (edge == null) {
+                break;
             }
+            // add output for "reflexive" edges
+            if (sink.equals(edge.getTarget())) {
+                output.add(edge.getOutput());
+            } else { // for "non-reflexive" edges add a null-pointer.
+                output.add(null);
+            }
+            sink = edge.getTarget();
         }
 
         // fill the output with null-pointers to the size of the query.
@@ -184,6 +240,10 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      */
     public void disposeSystemstates() {
         synchronized (this) {
+            this.disposals++;
+            this.retainedCost = 0;
+            this.retainedStates.clear();
+            this.retainedStateIndex.clear();
             disposeSystemstates(getRoot());
         }
     }
@@ -214,16 +274,21 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      */
     public void clearTree() {
         synchronized (this) {
+            this.disposals++;
+            this.retainedCost = 0;
+            this.retainedStates.clear();
+            this.retainedStateIndex.clear();
             this.nodeCount = 0;
             disposeSystemstates(root);
-            this.root = createNode();
+            this.root = createNode(0);
         }
     }
 
     /**
-     * Returns a reuseable {@link ReuseNode.NodeResult} with system state or {@code null} if none such exists. If
-     * ''oldInvalidated'' was set to {@code true} (in the {@link ReuseOracle}) the system state is already removed from
-     * the tree whenever one was available.
+     * Returns a reuseable {@link ReuseNode.NodeResult} with system state or {@code null} if none such exists. The
+     * system state is claimed exclusively by the caller, i.e. it is removed from the tree and not handed out again
+     * until it is {@link #releaseSystemState(ReuseNode.NodeResult) released}. If ''oldInvalidated'' was set to {@code
+     * true} (in the {@link ReuseOracle}) the system state is invalidated and releasing it has no effect.
      *
      * @param query
      *         Not allowed to be {@code null}.
@@ -263,9 +328,40 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
                 return null;
             }
 
-            S systemState = lastState.fetchSystemState(invalidateSystemstates);
+            S systemState = lastState.fetchSystemState(true);
+            lastState.incrementHits();
+            removedState(lastState, systemState);
+            updateBenefits(lastState);
 
-            return new ReuseNode.NodeResult<>(lastState, systemState, length);
+            return new ReuseNode.NodeResult<>(lastState, systemState, length, disposals);
+        }
+    }
+
+    /**
+     * Releases a system state that has been claimed via {@link #fetchSystemState(Word)}. If system state invalidation
+     * is disabled, the system state is returned to its node and becomes available for reuse again (unless the system
+     * states of the tree have been disposed in the meantime, in which case the {@link SystemStateHandler} is informed
+     * about its disposal). Otherwise, this method has no effect.
+     *
+     * @param nodeResult
+     *         the result of a previous call to {@link #fetchSystemState(Word)}, not allowed to be {@code null}
+     */
+    public void releaseSystemState(ReuseNode.NodeResult<S, I, O> nodeResult) {
+        if (nodeResult == null) {
+            String msg = "The nodeResult is not allowed to be null.";
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (invalidateSystemstates) {
+            return;
+        }
+
+        synchronized (this) {
+            if (nodeResult.disposals == disposals) {
+                addSystemState(nodeResult.reuseNode, nodeResult.systemState);
+            } else {
+                systemStateHandler.dispose(nodeResult.systemState);
+            }
         }
     }
 
@@ -346,7 +442,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
                 } else if (invariantInputSymbols.contains(in)) {
                     rn = effectiveSink;
                 } else {
-                    rn = createNode();
+                    rn = createNode(effectiveSink.getDepth() + 1);
                 }
 
                 int index = alphabet.getSymbolIndex(in);
@@ -354,13 +450,73 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
                 effectiveSink = rn;
             }
 
-            S evictedState = effectiveSink.addSystemState(queryResult.newState);
+            addSystemState(effectiveSink, queryResult.newState);
+        }
+    }
+
+    private void addSystemState(ReuseNode<S, I, O> node, S state) {
+        final S evictedState = node.addSystemState(state);
+
+        if (isBudgeted()) {
+            final RetainedState<S, I, O> retained =
+                    new RetainedState<>(node, state, retentionCost.applyAsLong(state), retentionSeq++);
+            retainedStates.add(retained);
+            retainedStateIndex.put(state, retained);
+            retainedCost += retained.cost;
             if (evictedState != null) {
-                systemStateHandler.dispose(evictedState);
+                removedState(node, evictedState);
+            }
+        }
+
+        if (evictedState != null) {
+            systemStateHandler.dispose(evictedState);
+        }
+
+        if (isBudgeted() && retainedCost > retentionBudget) {
+            enforceRetentionBudget();
+        }
+    }
+
+    private void removedState(ReuseNode<S, I, O> node, S state) {
+        if (isBudgeted()) {
+            final RetainedState<S, I, O> retained = retainedStateIndex.remove(state);
+            if (retained != null) {
+                retainedStates.remove(retained);
+                retainedCost -= retained.cost;
+            }
+        }
+    }
+
+    /**
+     * Re-orders the remaining system states of the given node after the reuse count of the node has changed.
+     */
+    private void updateBenefits(ReuseNode<S, I, O> node) {
+        if (isBudgeted()) {
+            final Iterator<S> iter = node.systemStatesIterator();
+            while (iter.hasNext()) {
+                final RetainedState<S, I, O> retained = retainedStateIndex.get(iter.next());
+                if (retained != null) {
+                    retainedStates.remove(retained);
+                    retained.updateBenefit();
+                    retainedStates.add(retained);
+                }
             }
         }
     }
 
+    /**
+     * Evicts the system states with the lowest benefit until the retained cost is within the retention budget again.
+     */
+    private void enforceRetentionBudget() {
+        while (retainedCost > retentionBudget && !retainedStates.isEmpty()) {
+            final RetainedState<S, I, O> victim = retainedStates.pollFirst();
+            retainedStateIndex.remove(victim.state);
+            retainedCost -= victim.cost;
+            victim.node.removeSystemState(victim.state);
+            systemStateHandler.dispose(victim.state);
+        }
+    }
+
     @Override
     public Collection<ReuseNode<S, I, O>> getNodes() {
         Collection<ReuseNode<S, I, O>> collection = new ArrayList<>();
@@ -412,6 +568,8 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
         private int maxSystemStates = -1;
         private AccessPolicy accessPolicy = AccessPolicy.LIFO;
         private EvictPolicy evictPolicy = EvictPolicy.EVICT_OLDEST;
+        private long retentionBudget = -1;
+        private ToLongFunction<? super S> retentionCost = s -> 1;
 
         public ReuseTreeBuilder(Alphabet<I> alphabet) {
             this.alphabet = alphabet;
@@ -455,8 +613,49 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
             return this;
         }
 
+        /**
+         * Bounds the accumulated retention cost of all system states in the tree. If the budget is exceeded, the
+         * system states with the lowest benefit ({@code depth * (hits + 1) / cost}) are evicted (and disposed via the
+         * {@link SystemStateHandler}).
+         *
+         * @param retentionBudget
+         *         the maximum accumulated retention cost. A value less than or equal to 0 means unbounded
+         * @param retentionCost
+         *         a function estimating the (positive) cost of retaining a system state, e.g. its size in bytes. Must
+         *         return the same value for a system state whenever it is invoked
+         *
+         * @return {@code this}
+         */
+        public ReuseTreeBuilder<S, I, O> withRetentionBudget(long retentionBudget,
+                                                            ToLongFunction<? super S> retentionCost) {
+            this.retentionBudget = retentionBudget;
+            this.retentionCost = retentionCost;
+            return this;
+        }
+
         public ReuseTree<S, I, O> build() {
             return new ReuseTree<>(this);
         }
     }
+
+    private static final class RetainedState<S, I, O> {
+
+        private final ReuseNode<S, I, O> node;
+        private final S state;
+        private final long cost;
+        private final long seq;
+        private double benefit;
+
+        RetainedState(ReuseNode<S, I, O> node, S state, long cost, long seq) {
+            this.node = node;
+            this.state = state;
+            this.cost = cost;
+            this.seq = seq;
+            updateBenefit();
+        }
+
+        void updateBenefit() {
+            this.benefit = (double) node.getDepth() * (node.getHits() + 1) / Math.max(1, cost);
+        }
+    }
 }
@@ -0,0 +1,206 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.reuse.ReuseCapableOracle;
+import de.learnlib.filter.reuse.ReuseOracle;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for batch processing and concurrent access of the {@link ReuseOracle}.
+ */
+public class ConcurrentReuseTest {
+
+    private static final int THRESHOLD = 5;
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_BATCHES = 200;
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_LENGTH = 6;
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 2);
+
+    @Test
+    public void testBatchOrder() {
+        final CountingOracle oracle = new CountingOracle();
+        final ReuseOracle<State, Integer, String> reuseOracle =
+                new ReuseOracle.ReuseOracleBuilder<>(alphabet, () -> oracle).build();
+
+        final List<DefaultQuery<Integer, Word<String>>> queries =
+                Arrays.asList(new DefaultQuery<>(Word.fromSymbols(1, 1, 1)),
+                              new DefaultQuery<>(Word.fromSymbols(1)),
+                              new DefaultQuery<>(Word.fromSymbols(1), Word.fromSymbols(1)));
+
+        reuseOracle.processQueries(queries);
+
+        for (DefaultQuery<Integer, Word<String>> q : queries) {
+            Assert.assertEquals(q.getOutput(), expectedOutput(q.getInput()).suffix(q.getSuffix().length()));
+        }
+
+        // a single reset, all extensions continue from the previously reached system state
+        Assert.assertEquals(oracle.resets.get(), 1);
+        Assert.assertEquals(oracle.continues.get(), 2);
+    }
+
+    @Test
+    public void testConcurrentInvalidatingAccess() throws InterruptedException, ExecutionException {
+        testConcurrentAccess(true);
+    }
+
+    @Test
+    public void testConcurrentNonInvalidatingAccess() throws InterruptedException, ExecutionException {
+        testConcurrentAccess(false);
+    }
+
+    private void testConcurrentAccess(boolean invalidate) throws InterruptedException, ExecutionException {
+        final Set<State> statesInUse = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final AtomicBoolean violation = new AtomicBoolean();
+
+        final ReuseOracle<State, Integer, String> reuseOracle =
+                new ReuseOracle.ReuseOracleBuilder<>(alphabet, () -> new CountingOracle(statesInUse, violation))
+                        .withEnabledSystemstateInvalidation(invalidate)
+                        .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        final List<Future<List<DefaultQuery<Integer, Word<String>>>>> futures = new ArrayList<>(NUM_BATCHES);
+
+        try {
+            for (int i = 0; i < NUM_BATCHES; i++) {
+                final Random random = new Random(i);
+                futures.add(executor.submit(() -> {
+                    final List<DefaultQuery<Integer, Word<String>>> batch = generateBatch(random);
+                    reuseOracle.processQueries(batch);
+                    return batch;
+                }));
+            }
+
+            for (Future<List<DefaultQuery<Integer, Word<String>>>> f : futures) {
+                for (DefaultQuery<Integer, Word<String>> q : f.get()) {
+                    Assert.assertEquals(q.getOutput(), expectedOutput(q.getInput()).suffix(q.getSuffix().length()));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertFalse(violation.get(), "A system state has been resumed concurrently");
+        Assert.assertTrue(statesInUse.isEmpty());
+    }
+
+    private List<DefaultQuery<Integer, Word<String>>> generateBatch(Random random) {
+        final List<DefaultQuery<Integer, Word<String>>> result = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final int length = random.nextInt(MAX_LENGTH + 1);
+            final int prefixLength = random.nextInt(length + 1);
+            final WordBuilder<Integer> wb = new WordBuilder<>(length);
+            for (int j = 0; j < length; j++) {
+                wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            result.add(new DefaultQuery<>(wb.toWord(0, prefixLength), wb.toWord(prefixLength, length)));
+        }
+
+        return result;
+    }
+
+    private static Word<String> expectedOutput(Word<Integer> input) {
+        return run(new State(0), input).output;
+    }
+
+    private static ReuseCapableOracle.QueryResult<State, String> run(State state, Word<Integer> input) {
+        int value = state.value;
+        final WordBuilder<String> output = new WordBuilder<>(input.length());
+
+        for (Integer symbol : input) {
+            if (value + symbol <= THRESHOLD) {
+                value += symbol;
+                output.add("ok");
+            } else {
+                output.add("error");
+            }
+        }
+
+        return new ReuseCapableOracle.QueryResult<>(output.toWord(), new State(value));
+    }
+
+    private static final class State {
+
+        private final int value;
+
+        State(int value) {
+            this.value = value;
+        }
+    }
+
+    private static final class CountingOracle implements ReuseCapableOracle<State, Integer, String> {
+
+        private final AtomicInteger resets = new AtomicInteger();
+        private final AtomicInteger continues = new AtomicInteger();
+        private final Set<State> statesInUse;
+        private final AtomicBoolean violation;
+
+        CountingOracle() {
+            this(Collections.newSetFromMap(new ConcurrentHashMap<>()), new AtomicBoolean());
+        }
+
+        CountingOracle(Set<State> statesInUse, AtomicBoolean violation) {
+            this.statesInUse = statesInUse;
+            this.violation = violation;
+        }
+
+        @Override
+        public QueryResult<State, String> continueQuery(Word<Integer> trace, State s) {
+            continues.incrementAndGet();
+
+            if (!statesInUse.add(s)) {
+                violation.set(true);
+            }
+
+            try {
+                // widen the window for concurrent accesses
+                Thread.yield();
+                return run(s, trace);
+            } finally {
+                statesInUse.remove(s);
+            }
+        }
+
+        @Override
+        public QueryResult<State, String> processQuery(Word<Integer> trace) {
+            resets.incrementAndGet();
+            return run(new State(0), trace);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.filter.reuse.ReuseCapableOracle.QueryResult;
+import de.learnlib.filter.reuse.tree.ReuseNode.NodeResult;
+import de.learnlib.filter.reuse.tree.ReuseTree;
+import de.learnlib.filter.reuse.tree.ReuseTree.ReuseTreeBuilder;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the cost-aware eviction of system states in the {@link ReuseTree}.
+ */
+public class RetentionBudgetTest {
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 3);
+
+    @Test
+    public void testCostAwareEviction() {
+        final List<String> disposed = new ArrayList<>();
+        // the cost of a system state is encoded in its length
+        final ReuseTree<String, Integer, String> tree =
+                new ReuseTreeBuilder<String, Integer, String>(alphabet).withRetentionBudget(10, String::length)
+                                                                       .withSystemStateHandler(disposed::add)
+                                                                       .build();
+
+        tree.insert(Word.fromSymbols(1, 1), new QueryResult<>(Word.fromSymbols("a", "a"), "AAAAAAAA"));
+        tree.insert(Word.fromSymbols(2), new QueryResult<>(Word.fromSymbols("b"), "BB"));
+        Assert.assertEquals(tree.getRetainedCost(), 10);
+        Assert.assertTrue(disposed.isEmpty());
+
+        // the deep but expensive system state has the lowest benefit (2 / 8 < 1 / 2)
+        tree.insert(Word.fromSymbols(3), new QueryResult<>(Word.fromSymbols("c"), "CC"));
+        Assert.assertEquals(disposed.size(), 1);
+        Assert.assertEquals(disposed.get(0), "AAAAAAAA");
+        Assert.assertEquals(tree.getRetainedCost(), 4);
+        Assert.assertNull(tree.fetchSystemState(Word.fromSymbols(1, 1, 0)));
+    }
+
+    @Test
+    public void testHitAwareEviction() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, String> tree =
+                new ReuseTreeBuilder<String, Integer, String>(alphabet).withRetentionBudget(2, s -> 1)
+                                                                       .withEnabledSystemstateInvalidation(false)
+                                                                       .withSystemStateHandler(disposed::add)
+                                                                       .build();
+
+        tree.insert(Word.fromSymbols(1), new QueryResult<>(Word.fromSymbols("a"), "A"));
+        tree.insert(Word.fromSymbols(2, 2), new QueryResult<>(Word.fromSymbols("b", "b"), "B"));
+
+        // reuse the shallow system state twice
+        for (int i = 0; i < 2; i++) {
+            final NodeResult<String, Integer, String> result = tree.fetchSystemState(Word.fromSymbols(1, 0));
+            Assert.assertNotNull(result);
+            Assert.assertEquals(result.systemState, "A");
+            // claimed system states do not count towards the budget
+            Assert.assertEquals(tree.getRetainedCost(), 1);
+            tree.releaseSystemState(result);
+        }
+
+        // benefits: A = 1 * 3, B = 2 * 1, C = 2 * 1
+        tree.insert(Word.fromSymbols(3, 3), new QueryResult<>(Word.fromSymbols("c", "c"), "C"));
+
+        Assert.assertEquals(tree.getRetainedCost(), 2);
+        Assert.assertEquals(disposed.size(), 1);
+        Assert.assertNotEquals(disposed.get(0), "A");
+        Assert.assertNotNull(tree.fetchSystemState(Word.fromSymbols(1)));
+    }
+
+    @Test
+    public void testBenefitUpdate() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, String> tree =
+                new ReuseTreeBuilder<String, Integer, String>(alphabet).withRetentionBudget(4, s -> 1)
+                                                                       .withMaxSystemStates(3)
+                                                                       .withSystemStateHandler(disposed::add)
+                                                                       .build();
+
+        for (int i = 1; i <= 3; i++) {
+            tree.insert(Word.fromSymbols(1), new QueryResult<>(Word.fromSymbols("a"), "A" + i));
+        }
+        tree.insert(Word.fromSymbols(2, 2), new QueryResult<>(Word.fromSymbols("b", "b"), "B"));
+
+        // claim two of the shallow system states, which raises the benefit of the remaining one to 1 * 3
+        Assert.assertNotNull(tree.fetchSystemState(Word.fromSymbols(1)));
+        Assert.assertNotNull(tree.fetchSystemState(Word.fromSymbols(1)));
+        Assert.assertEquals(tree.getRetainedCost(), 2);
+
+        tree.insert(Word.fromSymbols(3, 3), new QueryResult<>(Word.fromSymbols("c", "c"), "C"));
+        tree.insert(Word.fromSymbols(0, 0), new QueryResult<>(Word.fromSymbols("d", "d"), "D"));
+        Assert.assertTrue(disposed.isEmpty());
+
+        // all deep system states have a benefit of 2 * 1, the oldest one is evicted
+        tree.insert(Word.fromSymbols(3, 0), new QueryResult<>(Word.fromSymbols("c", "e"), "E"));
+        Assert.assertEquals(disposed, Collections.singletonList("B"));
+        Assert.assertEquals(tree.getRetainedCost(), 4);
+        Assert.assertEquals(tree.fetchSystemState(Word.fromSymbols(1)).systemState, "A1");
+    }
+
+    @Test
+    public void testDisposal() {
+        final ReuseTree<String, Integer, String> tree =
+                new ReuseTreeBuilder<String, Integer, String>(alphabet).withRetentionBudget(10, String::length)
+                                                                       .build();
+
+        tree.insert(Word.fromSymbols(1), new QueryResult<>(Word.fromSymbols("a"), "AA"));
+        Assert.assertEquals(tree.getRetainedCost(), 2);
+
+        tree.disposeSystemstates();
+        Assert.assertEquals(tree.getRetainedCost(), 0);
+
+        tree.insert(Word.fromSymbols(1), new QueryResult<>(Word.fromSymbols("a"), "AAA"));
+        Assert.assertEquals(tree.getRetainedCost(), 3);
+
+        tree.clearTree();
+        Assert.assertEquals(tree.getRetainedCost(), 0);
+    }
+}
@@ -0,0 +1,81 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Statistical data of a cache, consisting of {@link Counter counters} for the cache hits, the cache misses and the
+ * evicted cache entries. The counters are thread-safe.
+ */
+public class CacheStatistics extends AbstractStatisticData {
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public CacheStatistics(String name) {
+        super(name, "queries");
+        this.hits = new Counter(name + " hits", "queries");
+        this.misses = new Counter(name + " misses", "queries");
+        this.evictions = new Counter(name + " evictions", "entries");
+    }
+
+    @NonNull
+    public Counter getHits() {
+        return hits;
+    }
+
+    @NonNull
+    public Counter getMisses() {
+        return misses;
+    }
+
+    @NonNull
+    public Counter getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the ratio of queries that have been answered by the cache.
+     *
+     * @return the hit ratio, or {@code 0} if no queries have been posed yet
+     */
+    public double getHitRatio() {
+        final long numHits = hits.getCount();
+        final long total = numHits + misses.getCount();
+        return total == 0 ? 0 : (double) numHits / total;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return getDetails();
+    }
+
+    @Override
+    @NonNull
+    public String getSummary() {
+        return getName() + " [" + getUnit() + "]: " + hits.getCount() + " hits, " + misses.getCount() + " misses";
+    }
+
+    @Override
+    @NonNull
+    public String getDetails() {
+        return getSummary() + ", " + evictions.getCount() + " evicted " + evictions.getUnit() + " (hit ratio: " +
+               getHitRatio() + ')';
+    }
+}
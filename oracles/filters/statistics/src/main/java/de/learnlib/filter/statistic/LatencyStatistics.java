@@ -0,0 +1,156 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe latency histogram that supports percentile queries (e.g. the median or the 99th percentile) in
+ * constant memory. Data points are sorted into logarithmic buckets with {@value #SUB_BUCKETS} linear sub-buckets each,
+ * so that percentiles are reported with a relative error of at most {@code 1/}{@value #SUB_BUCKETS}. The mean and
+ * maximum values are exact.
+ */
+public class LatencyStatistics extends AbstractStatisticData {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyStatistics(String name, String unit) {
+        super(name, unit);
+    }
+
+    /**
+     * Records a latency. Negative values are treated as {@code 0}.
+     *
+     * @param latency
+     *         the latency to record
+     */
+    public void addDataPoint(long latency) {
+        final long value = Math.max(0, latency);
+
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    public long getMedian() {
+        return getPercentile(50);
+    }
+
+    /**
+     * Returns the (approximated) latency below or at which the given percentage of the recorded data points lies.
+     *
+     * @param percentile
+     *         the percentile, must be within {@code (0, 100]}
+     *
+     * @return the latency of the given percentile, or {@code 0} if no data points have been recorded yet
+     */
+    public long getPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be within (0, 100]: " + percentile);
+        }
+
+        final long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exp = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exp - SUB_BUCKET_BITS;
+        final int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long sub = index % SUB_BUCKETS;
+        final long lower = (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return getDetails();
+    }
+
+    @Override
+    @NonNull
+    public String getSummary() {
+        return getName() + " [" + getUnit() + "]: " + getCount() + " (count), " + getMean() + " (mean), " +
+               getMedian() + " (p50), " + getPercentile(99) + " (p99), " + getMax() + " (max)";
+    }
+
+    @Override
+    @NonNull
+    public String getDetails() {
+        return getSummary() + ", " + getPercentile(90) + " (p90), " + getPercentile(99.9) + " (p99.9), " + getSum() +
+               " (sum)";
+    }
+}
@@ -48,4 +48,14 @@ public class ResetCounterObservableSUL<S, I, O> extends ResetCounterSUL<I, O> im
     public boolean deepCopies() {
         return sul.deepCopies();
     }
+
+    @Override
+    public boolean canRestoreState() {
+        return sul.canRestoreState();
+    }
+
+    @Override
+    public void restoreState(S state) {
+        sul.restoreState(state);
+    }
 }
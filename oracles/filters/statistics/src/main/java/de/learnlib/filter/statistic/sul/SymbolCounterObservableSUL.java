@@ -48,4 +48,14 @@ public class SymbolCounterObservableSUL<S, I, O> extends SymbolCounterSUL<I, O>
     public boolean deepCopies() {
         return sul.deepCopies();
     }
+
+    @Override
+    public boolean canRestoreState() {
+        return sul.canRestoreState();
+    }
+
+    @Override
+    public void restoreState(S state) {
+        sul.restoreState(state);
+    }
 }
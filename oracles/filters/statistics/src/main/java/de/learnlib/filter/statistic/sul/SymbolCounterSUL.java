@@ -18,6 +18,7 @@ package de.learnlib.filter.statistic.sul;
 import de.learnlib.api.SUL;
 import de.learnlib.api.statistic.StatisticSUL;
 import de.learnlib.filter.statistic.Counter;
+import net.automatalib.words.Word;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -52,6 +53,12 @@ public class SymbolCounterSUL<I, O> implements StatisticSUL<I, O> {
         return sul.step(in);
     }
 
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        counter.increment(in.length());
+        return sul.stepAll(in);
+    }
+
     @Override
     public boolean canFork() {
         return sul.canFork();
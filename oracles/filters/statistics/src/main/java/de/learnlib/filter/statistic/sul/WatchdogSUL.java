@@ -0,0 +1,359 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic.sul;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.exception.SULException;
+import de.learnlib.api.statistic.StatisticSUL;
+import de.learnlib.filter.statistic.Counter;
+import de.learnlib.filter.statistic.LatencyStatistics;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link SUL} wrapper that guards the execution of the wrapped SUL with per-step and per-query deadlines.
+ * <p>
+ * Each call to the wrapped SUL is executed on a dedicated worker thread, while the calling thread waits for at most
+ * the configured step timeout (and the remaining time of the per-query timeout). If a call times out, the (hung) SUL
+ * instance is abandoned, a fresh instance is obtained via {@link SUL#fork()} from the originally wrapped SUL, the
+ * inputs of the current query are replayed on the fresh instance and the call is retried. If the number of retries is
+ * exhausted, the per-query deadline has passed or the wrapped SUL is not forkable, a {@link SULException} (wrapping a
+ * {@link TimeoutException}) is thrown instead.
+ * <p>
+ * This allows, e.g., parallel oracles to continue with a healthy SUL instance instead of blocking a worker thread
+ * forever on a single hung step. Note that abandoned SUL instances are never used again, but their (interrupted)
+ * worker threads may only terminate once the hung call returns. Consequently, if the wrapped SUL is not forkable, a
+ * timeout leaves this SUL without a usable instance: all subsequent calls to {@link #pre()} and {@link #step(Object)}
+ * throw a {@link SULException} (and {@link #post()} does nothing).
+ * <p>
+ * Additionally, this SUL records the latency of each executed step (including timed-out ones) in a {@link
+ * LatencyStatistics} object, which allows to inspect the tail latency (e.g. p99 or maximum) of the wrapped system.
+ * For words executed via {@link #stepAll(Word)}, the average latency per symbol is recorded for each symbol. The
+ * statistics and the timeout counter are shared with all {@link #fork() forks}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class WatchdogSUL<I, O> implements StatisticSUL<I, O> {
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long KEEP_ALIVE_MS = 1000;
+
+    private final SUL<I, O> prototype;
+    private final long stepTimeout;
+    private final long queryTimeout;
+    private final int maxRetries;
+    private final LatencyStatistics latencies;
+    private final Counter timeouts;
+
+    private final WordBuilder<I> trace;
+    private SUL<I, O> active;
+    private ExecutorService executor;
+    private boolean needsRestart;
+    private boolean failed;
+    private long queryDeadline;
+
+    /**
+     * Constructor, using no per-query timeout and at most {@value #DEFAULT_MAX_RETRIES} retries.
+     *
+     * @param sul
+     *         the SUL to guard
+     * @param stepTimeout
+     *         the maximum duration of a single step
+     * @param unit
+     *         the unit of the timeout
+     */
+    public WatchdogSUL(SUL<I, O> sul, long stepTimeout, TimeUnit unit) {
+        this(sul, stepTimeout, Long.MAX_VALUE, unit, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the SUL to guard
+     * @param stepTimeout
+     *         the maximum duration of a single step
+     * @param queryTimeout
+     *         the maximum duration of a single query, i.e. the time between calls to {@link #pre()} and {@link #post()}
+     *         (use {@link Long#MAX_VALUE} for no limit)
+     * @param unit
+     *         the unit of the timeouts
+     * @param maxRetries
+     *         the maximum number of times a timed-out call is retried on a fresh SUL instance
+     */
+    public WatchdogSUL(SUL<I, O> sul, long stepTimeout, long queryTimeout, TimeUnit unit, int maxRetries) {
+        this(sul,
+             sul,
+             unit.toNanos(stepTimeout),
+             unit.toNanos(queryTimeout),
+             maxRetries,
+             new LatencyStatistics("step latency", "ns"),
+             new Counter("step timeouts", "steps"));
+    }
+
+    private WatchdogSUL(SUL<I, O> prototype,
+                        SUL<I, O> active,
+                        long stepTimeout,
+                        long queryTimeout,
+                        int maxRetries,
+                        LatencyStatistics latencies,
+                        Counter timeouts) {
+        if (stepTimeout <= 0 || queryTimeout <= 0) {
+            throw new IllegalArgumentException("Timeouts must be positive");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Number of retries must not be negative");
+        }
+
+        this.prototype = prototype;
+        this.active = active;
+        this.stepTimeout = stepTimeout;
+        this.queryTimeout = queryTimeout;
+        this.maxRetries = maxRetries;
+        this.latencies = latencies;
+        this.timeouts = timeouts;
+        this.trace = new WordBuilder<>();
+        this.executor = createExecutor();
+    }
+
+    @Override
+    public void pre() {
+        checkNotFailed();
+        trace.clear();
+        queryDeadline = deadlineAfter(System.nanoTime(), queryTimeout);
+        needsRestart = true;
+        execute(null, 0);
+    }
+
+    @Override
+    public void post() {
+        if (!needsRestart && !failed) {
+            try {
+                guarded(() -> {
+                    active.post();
+                    return null;
+                }, deadlineAfter(System.nanoTime(), stepTimeout));
+            } catch (TimeoutException e) {
+                timeouts.increment();
+                replaceInstance();
+            }
+        }
+        trace.clear();
+    }
+
+    @Override
+    @Nullable
+    public O step(@Nullable I in) {
+        checkNotFailed();
+        final long start = System.nanoTime();
+        try {
+            final O result = execute(sul -> sul.step(in), 1);
+            trace.append(in);
+            return result;
+        } finally {
+            latencies.addDataPoint(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        checkNotFailed();
+        final int len = in.length();
+
+        if (len == 0) {
+            return Word.epsilon();
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final Word<O> result = execute(sul -> sul.stepAll(in), len);
+            trace.append(in);
+            return result;
+        } finally {
+            final long avg = (System.nanoTime() - start) / len;
+            for (int i = 0; i < len; i++) {
+                latencies.addDataPoint(avg);
+            }
+        }
+    }
+
+    @Override
+    public boolean canFork() {
+        return prototype.canFork();
+    }
+
+    @Override
+    public WatchdogSUL<I, O> fork() {
+        final SUL<I, O> fork = prototype.fork();
+        return new WatchdogSUL<>(fork, fork, stepTimeout, queryTimeout, maxRetries, latencies, timeouts);
+    }
+
+    @Override
+    @NonNull
+    public LatencyStatistics getStatisticalData() {
+        return latencies;
+    }
+
+    /**
+     * Returns the counter of timed-out calls to the wrapped SUL (including calls that succeeded on a retry).
+     *
+     * @return the counter of timed-out calls
+     */
+    @NonNull
+    public Counter getTimeoutCounter() {
+        return timeouts;
+    }
+
+    private <T> @Nullable T execute(@Nullable SULAction<I, O, T> action, int numSymbols) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (needsRestart) {
+                    final Word<I> replay = trace.toWord();
+                    final SUL<I, O> sul = active;
+                    guarded(() -> {
+                        sul.pre();
+                        if (!replay.isEmpty()) {
+                            sul.stepAll(replay);
+                        }
+                        return null;
+                    }, stepDeadline(replay.length() + 1));
+                    needsRestart = false;
+                }
+                if (action == null) {
+                    return null;
+                }
+                final SUL<I, O> sul = active;
+                return guarded(() -> action.apply(sul), stepDeadline(numSymbols));
+            } catch (TimeoutException e) {
+                timeouts.increment();
+
+                final boolean deadlinePassed = System.nanoTime() - queryDeadline >= 0;
+
+                if (attempt >= maxRetries || deadlinePassed || !prototype.canFork()) {
+                    replaceInstance();
+                    throw new SULException(e);
+                }
+
+                replaceInstance();
+            }
+        }
+    }
+
+    /**
+     * Returns the deadline for executing the given number of symbols, bounded by the deadline of the current query.
+     */
+    private long stepDeadline(int numSymbols) {
+        final long now = System.nanoTime();
+        final long factor = Math.max(1, numSymbols);
+        final long timeout = stepTimeout > Long.MAX_VALUE / factor ? Long.MAX_VALUE : stepTimeout * factor;
+        final long deadline = deadlineAfter(now, timeout);
+        return deadline - queryDeadline < 0 ? deadline : queryDeadline;
+    }
+
+    private <T> T guarded(Callable<T> task, long deadline) throws TimeoutException {
+        final long remaining = deadline - System.nanoTime();
+
+        if (remaining <= 0) {
+            throw new TimeoutException("Deadline exceeded");
+        }
+
+        final Future<T> future = executor.submit(task);
+
+        try {
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SULException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SULException(cause);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Abandons the current SUL instance (and its worker thread) and replaces it with a fresh fork of the prototype. The
+     * fresh instance is initialized lazily upon its next use. If the prototype is not forkable, this SUL enters a
+     * permanently failed state, because the abandoned instance may still be in use by its worker thread.
+     */
+    private void replaceInstance() {
+        executor.shutdownNow();
+        executor = createExecutor();
+        needsRestart = true;
+
+        if (prototype.canFork()) {
+            active = prototype.fork();
+        } else {
+            failed = true;
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failed) {
+            throw new SULException(new IllegalStateException(
+                    "A call to the (non-forkable) SUL timed out and the SUL instance has been abandoned"));
+        }
+    }
+
+    private static long deadlineAfter(long start, long timeout) {
+        final long deadline = start + timeout;
+        // saturate on overflow
+        return deadline - start < 0 ? start + Long.MAX_VALUE : deadline;
+    }
+
+    private static ExecutorService createExecutor() {
+        final ThreadPoolExecutor result = new ThreadPoolExecutor(1,
+                                                                 1,
+                                                                 KEEP_ALIVE_MS,
+                                                                 TimeUnit.MILLISECONDS,
+                                                                 new LinkedBlockingQueue<>(),
+                                                                 r -> {
+                                                                     final Thread t = new Thread(r, "watchdog-sul");
+                                                                     t.setDaemon(true);
+                                                                     return t;
+                                                                 });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface SULAction<I, O, T> {
+
+        T apply(SUL<I, O> sul);
+    }
+}
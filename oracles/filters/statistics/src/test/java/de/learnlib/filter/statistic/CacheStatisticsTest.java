@@ -0,0 +1,42 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CacheStatisticsTest {
+
+    @Test
+    public void testCounters() {
+        final CacheStatistics statistics = new CacheStatistics("cache");
+
+        Assert.assertEquals(statistics.getHitRatio(), 0.0);
+
+        statistics.getHits().increment(3);
+        statistics.getMisses().increment();
+        statistics.getEvictions().increment(10);
+
+        Assert.assertEquals(statistics.getHits().getCount(), 3);
+        Assert.assertEquals(statistics.getMisses().getCount(), 1);
+        Assert.assertEquals(statistics.getEvictions().getCount(), 10);
+        Assert.assertEquals(statistics.getHitRatio(), 0.75);
+
+        Assert.assertEquals(statistics.getSummary(), "cache [queries]: 3 hits, 1 misses");
+        Assert.assertEquals(statistics.getDetails(),
+                            "cache [queries]: 3 hits, 1 misses, 10 evicted entries (hit ratio: 0.75)");
+    }
+}
@@ -0,0 +1,66 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyStatisticsTest {
+
+    @Test
+    public void testPercentiles() {
+        final LatencyStatistics statistics = new LatencyStatistics("latency", "ns");
+
+        Assert.assertEquals(statistics.getCount(), 0);
+        Assert.assertEquals(statistics.getPercentile(99), 0);
+
+        for (int i = 1000; i > 0; i--) {
+            statistics.addDataPoint(i);
+        }
+
+        Assert.assertEquals(statistics.getCount(), 1000);
+        Assert.assertEquals(statistics.getSum(), 500500);
+        Assert.assertEquals(statistics.getMean(), 500.5);
+        Assert.assertEquals(statistics.getMax(), 1000);
+        Assert.assertEquals(statistics.getPercentile(100), 1000);
+
+        assertWithinError(statistics.getMedian(), 500);
+        assertWithinError(statistics.getPercentile(99), 990);
+        assertWithinError(statistics.getPercentile(0.1), 1);
+    }
+
+    @Test
+    public void testSmallAndLargeValues() {
+        final LatencyStatistics statistics = new LatencyStatistics("latency", "ns");
+
+        statistics.addDataPoint(-5);
+        statistics.addDataPoint(3);
+        statistics.addDataPoint(Long.MAX_VALUE);
+
+        Assert.assertEquals(statistics.getPercentile(10), 0);
+        Assert.assertEquals(statistics.getMedian(), 3);
+        Assert.assertEquals(statistics.getPercentile(100), Long.MAX_VALUE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LatencyStatistics("latency", "ns").getPercentile(0);
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        Assert.assertTrue(Math.abs(actual - expected) <= expected / 16, actual + " vs. " + expected);
+    }
+}
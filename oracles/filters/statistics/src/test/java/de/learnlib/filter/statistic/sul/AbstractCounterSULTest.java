@@ -98,6 +98,18 @@ public abstract class AbstractCounterSULTest {
         Assert.assertEquals(getCount(), oldCount + 2 * 3 * getCountIncreasePerQuery());
     }
 
+    @Test(dependsOnMethods = "testSharedForkCounter")
+    public void testWordQueryBatch() {
+        final MealyMembershipOracle<Integer, Character> mqo = getWordSimulator(statisticSUL);
+
+        final Collection<Query<Integer, Word<Character>>> queries = createQueries(3);
+        final long oldCount = getCount();
+
+        mqo.processQueries(queries);
+
+        Assert.assertEquals(getCount(), oldCount + 3 * getCountIncreasePerQuery());
+    }
+
     @Test
     public void testGetName() {
         Assert.assertEquals(statisticSUL.getStatisticalData().getName(), TestQueries.COUNTER_NAME);
@@ -119,4 +131,15 @@ public abstract class AbstractCounterSULTest {
             }
         };
     }
+
+    private static <I, O> SingleQueryOracleMealy<I, O> getWordSimulator(SUL<I, O> sul) {
+        return (prefix, suffix) -> {
+            sul.pre();
+            try {
+                return sul.stepAll(prefix.concat(suffix)).subWord(prefix.length());
+            } finally {
+                sul.post();
+            }
+        };
+    }
 }
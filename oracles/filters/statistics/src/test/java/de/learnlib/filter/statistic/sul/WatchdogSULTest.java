@@ -0,0 +1,190 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.statistic.sul;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.exception.SULException;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WatchdogSULTest {
+
+    private static final String HANG = "hang";
+
+    @Test
+    public void testRecoverFromHang() {
+        final HangingSUL sul = new HangingSUL(1, 0);
+        final WatchdogSUL<String, Integer> watchdog = new WatchdogSUL<>(sul, 100, TimeUnit.MILLISECONDS);
+
+        watchdog.pre();
+        Assert.assertEquals(watchdog.step("a").intValue(), 1);
+        Assert.assertEquals(watchdog.step(HANG).intValue(), 2);
+        Assert.assertEquals(watchdog.step("a").intValue(), 3);
+        watchdog.post();
+
+        // the initial instance, and the fork that replaced the hung instance
+        Assert.assertEquals(sul.instances.get(), 2);
+        Assert.assertEquals(watchdog.getTimeoutCounter().getCount(), 1);
+        Assert.assertEquals(watchdog.getStatisticalData().getCount(), 3);
+        Assert.assertTrue(watchdog.getStatisticalData().getMax() >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        watchdog.pre();
+        Assert.assertEquals(watchdog.stepAll(Word.fromSymbols("a", HANG, "a")), Word.fromSymbols(1, 2, 3));
+        watchdog.post();
+
+        Assert.assertEquals(watchdog.getTimeoutCounter().getCount(), 1);
+        Assert.assertEquals(watchdog.getStatisticalData().getCount(), 6);
+    }
+
+    @Test
+    public void testRetriesExhausted() {
+        final HangingSUL sul = new HangingSUL(Integer.MAX_VALUE, 0);
+        final WatchdogSUL<String, Integer> watchdog =
+                new WatchdogSUL<>(sul, 50, Long.MAX_VALUE, TimeUnit.MILLISECONDS, 2);
+
+        watchdog.pre();
+        final SULException e = Assert.expectThrows(SULException.class, () -> watchdog.step(HANG));
+        Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        watchdog.post();
+
+        Assert.assertEquals(watchdog.getTimeoutCounter().getCount(), 3);
+
+        // the watchdog continues with a fresh instance
+        watchdog.pre();
+        Assert.assertEquals(watchdog.step("a").intValue(), 1);
+        watchdog.post();
+    }
+
+    @Test
+    public void testQueryTimeout() {
+        final HangingSUL sul = new HangingSUL(0, 100);
+        final WatchdogSUL<String, Integer> watchdog = new WatchdogSUL<>(sul, 1000, 250, TimeUnit.MILLISECONDS, 3);
+
+        watchdog.pre();
+        Assert.assertEquals(watchdog.step("a").intValue(), 1);
+        Assert.assertEquals(watchdog.step("a").intValue(), 2);
+        Assert.expectThrows(SULException.class, () -> watchdog.step("a"));
+        watchdog.post();
+
+        Assert.assertEquals(watchdog.getTimeoutCounter().getCount(), 1);
+    }
+
+    @Test
+    public void testNonForkableTimeout() {
+        final HangingSUL sul = new HangingSUL(1, 0, false);
+        final WatchdogSUL<String, Integer> watchdog = new WatchdogSUL<>(sul, 50, TimeUnit.MILLISECONDS);
+
+        watchdog.pre();
+        Assert.assertEquals(watchdog.step("a").intValue(), 1);
+        final SULException e = Assert.expectThrows(SULException.class, () -> watchdog.step(HANG));
+        Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        watchdog.post();
+
+        // the abandoned instance must not be used again
+        Assert.expectThrows(SULException.class, watchdog::pre);
+        Assert.expectThrows(SULException.class, () -> watchdog.step("a"));
+        Assert.expectThrows(SULException.class, () -> watchdog.stepAll(Word.fromSymbols("a")));
+        watchdog.post();
+
+        Assert.assertEquals(sul.instances.get(), 1);
+        Assert.assertEquals(sul.steps, 1);
+    }
+
+    @Test
+    public void testFork() {
+        final HangingSUL sul = new HangingSUL(1, 0);
+        final WatchdogSUL<String, Integer> watchdog = new WatchdogSUL<>(sul, 100, TimeUnit.MILLISECONDS);
+        final WatchdogSUL<String, Integer> fork = watchdog.fork();
+
+        fork.pre();
+        Assert.assertEquals(fork.stepAll(Word.fromSymbols("a", HANG)), Word.fromSymbols(1, 2));
+        fork.post();
+
+        // statistics are shared between forks
+        Assert.assertSame(fork.getStatisticalData(), watchdog.getStatisticalData());
+        Assert.assertEquals(watchdog.getTimeoutCounter().getCount(), 1);
+    }
+
+    /**
+     * A SUL that outputs the number of executed steps and hangs on the {@link #HANG} symbol a given number of times.
+     */
+    private static final class HangingSUL implements SUL<String, Integer> {
+
+        private final AtomicInteger hangs;
+        private final AtomicInteger instances;
+        private final long delay;
+        private final boolean forkable;
+        private volatile int steps;
+
+        HangingSUL(int hangs, long delay) {
+            this(hangs, delay, true);
+        }
+
+        HangingSUL(int hangs, long delay, boolean forkable) {
+            this(new AtomicInteger(hangs), new AtomicInteger(), delay, forkable);
+        }
+
+        private HangingSUL(AtomicInteger hangs, AtomicInteger instances, long delay, boolean forkable) {
+            this.hangs = hangs;
+            this.instances = instances;
+            this.delay = delay;
+            this.forkable = forkable;
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public void pre() {
+            steps = 0;
+        }
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Integer step(String in) {
+            try {
+                if (HANG.equals(in) && hangs.getAndDecrement() > 0) {
+                    Thread.sleep(Long.MAX_VALUE);
+                }
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SULException(e);
+            }
+            return ++steps;
+        }
+
+        @Override
+        public boolean canFork() {
+            return forkable;
+        }
+
+        @Override
+        public SUL<String, Integer> fork() {
+            if (!forkable) {
+                throw new UnsupportedOperationException();
+            }
+            return new HangingSUL(hangs, instances, delay, true);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+
+import net.automatalib.words.Word;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A bounded pool of SUL state snapshots, organized in a prefix tree of the input words that led to the respective
+ * states.
+ * <p>
+ * Each snapshot has a size (determined by a size estimator), and the total size of all snapshots is bounded by the
+ * capacity of the pool. If a new snapshot does not fit, snapshots are evicted in the order of their benefit per size,
+ * i.e., the number of symbols a snapshot saves (its length, multiplied by the number of times it has been reused,
+ * plus one) divided by its size. Ties are broken in favor of the more recently used snapshot. If the new snapshot
+ * itself has the lowest benefit per size, it is not added to the pool. Snapshots are kept in an ordered set by their
+ * eviction priority, so that both finding a victim and updating the priority of a reused snapshot take logarithmic
+ * time.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <S>
+ *         SUL state type
+ * @param <I>
+ *         input symbol type
+ */
+final class CheckpointPool<S, I> {
+
+    /**
+     * Orders snapshots by ascending benefit per size, breaking ties by the time of their last use. Since every use
+     * draws a new time stamp, no two snapshots are equal with respect to this order.
+     */
+    private static final Comparator<Node<?, ?>> EVICTION_ORDER =
+            Comparator.<Node<?, ?>>comparingDouble(CheckpointPool::benefit).thenComparingLong(n -> n.lastUse);
+
+    private final long capacity;
+    private final ToLongFunction<? super S> sizeEstimator;
+
+    private final Node<S, I> root = new Node<>(null, null, 0);
+    private final NavigableSet<Node<S, I>> checkpoints = new TreeSet<>(EVICTION_ORDER);
+    private long size;
+    private long clock;
+
+    CheckpointPool(@NonNegative long capacity, ToLongFunction<? super S> sizeEstimator) {
+        this.capacity = capacity;
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    /**
+     * Returns the deepest snapshot for a prefix (including the word itself) of the given word.
+     *
+     * @param word
+     *         the input word
+     *
+     * @return the deepest snapshot, or {@code null} if no snapshot for any (non-empty) prefix exists
+     */
+    synchronized @Nullable Checkpoint<S> lookup(Word<I> word) {
+        Node<S, I> node = root;
+        Node<S, I> deepest = null;
+
+        for (I sym : word) {
+            node = node.children == null ? null : node.children.get(sym);
+            if (node == null) {
+                break;
+            }
+            if (node.state != null) {
+                deepest = node;
+            }
+        }
+
+        if (deepest == null) {
+            return null;
+        }
+
+        checkpoints.remove(deepest);
+        deepest.hits++;
+        deepest.lastUse = ++clock;
+        checkpoints.add(deepest);
+        return new Checkpoint<>(deepest.state, deepest.depth);
+    }
+
+    /**
+     * Adds a snapshot for the given (non-empty) word, replacing any previous snapshot for the same word.
+     *
+     * @param word
+     *         the input word that led to the given state
+     * @param state
+     *         the snapshot
+     */
+    synchronized void put(Word<I> word, S state) {
+        final long stateSize = Math.max(1, sizeEstimator.applyAsLong(state));
+
+        if (word.isEmpty() || stateSize > capacity) {
+            return;
+        }
+
+        final Node<S, I> existing = find(word);
+
+        if (existing != null && existing.state != null) {
+            checkpoints.remove(existing);
+            size -= existing.size;
+            existing.state = state;
+            existing.size = stateSize;
+            existing.lastUse = ++clock;
+            checkpoints.add(existing);
+            size += stateSize;
+            evict(existing);
+            return;
+        }
+
+        final double benefit = benefit(word.length(), 0, stateSize);
+
+        // evict before creating the path of the new snapshot, so that pruning the victims cannot detach it
+        while (size + stateSize > capacity) {
+            final Node<S, I> victim = checkpoints.first();
+            if (benefit < benefit(victim)) {
+                // the new snapshot is the least valuable one
+                return;
+            }
+            remove(victim);
+        }
+
+        Node<S, I> node = root;
+        for (I sym : word) {
+            node = node.getOrAddChild(sym);
+        }
+
+        node.state = state;
+        node.size = stateSize;
+        node.hits = 0;
+        node.lastUse = ++clock;
+        checkpoints.add(node);
+        size += stateSize;
+    }
+
+    synchronized int getNumberOfCheckpoints() {
+        return checkpoints.size();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private @Nullable Node<S, I> find(Word<I> word) {
+        Node<S, I> node = root;
+        for (I sym : word) {
+            node = node.children == null ? null : node.children.get(sym);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Evicts the least valuable snapshots other than the given one, until the pool fits into its capacity again.
+     */
+    private void evict(Node<S, I> keep) {
+        while (size > capacity) {
+            Node<S, I> victim = checkpoints.first();
+            if (victim == keep) {
+                victim = checkpoints.higher(keep);
+            }
+            // the kept snapshot fits into the pool on its own, so there are other snapshots as long as it overflows
+            assert victim != null;
+            remove(victim);
+        }
+    }
+
+    private void remove(Node<S, I> node) {
+        checkpoints.remove(node);
+        size -= node.size;
+        node.state = null;
+        prune(node);
+    }
+
+    /**
+     * Removes the given node (and its ancestors) from the tree, as long as they neither have a snapshot nor children.
+     */
+    private static <S, I> void prune(Node<S, I> node) {
+        Node<S, I> curr = node;
+        while (curr.parent != null && curr.state == null && (curr.children == null || curr.children.isEmpty())) {
+            curr.parent.children.remove(curr.symbol);
+            curr = curr.parent;
+        }
+    }
+
+    private static double benefit(Node<?, ?> node) {
+        return benefit(node.depth, node.hits, node.size);
+    }
+
+    private static double benefit(int depth, long hits, long size) {
+        return (double) depth * (hits + 1) / size;
+    }
+
+    /**
+     * An immutable reference to a snapshot and the length of the input word that led to it.
+     *
+     * @param <S>
+     *         SUL state type
+     */
+    static final class Checkpoint<S> {
+
+        private final S state;
+        private final int length;
+
+        Checkpoint(S state, int length) {
+            this.state = state;
+            this.length = length;
+        }
+
+        S getState() {
+            return state;
+        }
+
+        int getLength() {
+            return length;
+        }
+    }
+
+    private static final class Node<S, I> {
+
+        private final @Nullable Node<S, I> parent;
+        private final @Nullable I symbol;
+        private final int depth;
+        private @Nullable Map<I, Node<S, I>> children;
+
+        private @Nullable S state;
+        private long size;
+        private long hits;
+        private long lastUse;
+
+        Node(@Nullable Node<S, I> parent, @Nullable I symbol, int depth) {
+            this.parent = parent;
+            this.symbol = symbol;
+            this.depth = depth;
+        }
+
+        Node<S, I> getOrAddChild(I sym) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(sym, k -> new Node<>(this, k, depth + 1));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+import de.learnlib.api.ObservableSUL;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.statistic.Counter;
+import de.learnlib.oracle.membership.CheckpointPool.Checkpoint;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+
+/**
+ * A membership oracle for {@link ObservableSUL}s that resumes queries from snapshots of previously reached SUL states
+ * instead of re-executing their prefixes.
+ * <p>
+ * After executing the prefix of a query (e.g., an access sequence of an observation table), the oracle stores a
+ * snapshot of the SUL state (see {@link ObservableSUL#getState()}) in a bounded pool. Subsequent queries restore (see
+ * {@link ObservableSUL#restoreState(Object)}) the deepest snapshot that matches their prefix and only execute the
+ * remaining symbols. The pool evicts snapshots based on the number of symbols they save relative to their (estimated)
+ * size. If the SUL cannot restore states, all queries are executed from the initial state, as in {@link SULOracle}.
+ * <p>
+ * Like {@link SULOracle}, this oracle is thread-safe: for forkable SULs, each call exclusively uses a fork of the SUL
+ * (bounded by a maximum number of forks), and snapshots are shared among all forks. Otherwise, access to the SUL is
+ * synchronized. The number of symbols saved by restoring snapshots can be observed via {@link
+ * #getSavedSymbolsCounter()}.
+ *
+ * @param <S>
+ *         SUL state type
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class CheckpointSULOracle<S, I, O> implements MealyMembershipOracle<I, O> {
+
+    private final ObservableSUL<S, I, O> sul;
+    private final SULForkPool<ObservableSUL<S, I, O>> forkPool;
+    private final CheckpointPool<S, I> checkpoints;
+    private final boolean restorable;
+
+    private final Counter savedSymbols = new Counter("saved symbols", "symbols");
+
+    /**
+     * Constructor, which bounds the number of snapshots.
+     *
+     * @param sul
+     *         the system under learning
+     * @param maxCheckpoints
+     *         the maximum number of stored snapshots
+     */
+    public CheckpointSULOracle(ObservableSUL<S, I, O> sul, @NonNegative int maxCheckpoints) {
+        this(sul, maxCheckpoints, s -> 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param capacity
+     *         the maximum total size of all stored snapshots
+     * @param sizeEstimator
+     *         the function estimating the (memory) size of a snapshot, in the same unit as the capacity
+     * @param maxForks
+     *         the maximum number of forks of the given SUL that are used concurrently. Has no effect if the SUL cannot
+     *         be forked.
+     */
+    public CheckpointSULOracle(ObservableSUL<S, I, O> sul,
+                               @NonNegative long capacity,
+                               ToLongFunction<? super S> sizeEstimator,
+                               @Positive int maxForks) {
+        this.sul = sul;
+        this.checkpoints = new CheckpointPool<>(capacity, sizeEstimator);
+        this.restorable = sul.canRestoreState();
+        if (sul.canFork()) {
+            this.forkPool = new SULForkPool<>(sul::fork, maxForks);
+        } else {
+            this.forkPool = null;
+        }
+    }
+
+    public Counter getSavedSymbolsCounter() {
+        return savedSymbols;
+    }
+
+    /**
+     * Returns the number of currently stored snapshots.
+     *
+     * @return the number of snapshots
+     */
+    public int getNumberOfCheckpoints() {
+        return checkpoints.getNumberOfCheckpoints();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (forkPool != null) {
+            final ObservableSUL<S, I, O> fork = forkPool.acquire();
+            try {
+                processQueries(fork, queries);
+            } finally {
+                forkPool.release(fork);
+            }
+        } else {
+            synchronized (sul) {
+                processQueries(sul, queries);
+            }
+        }
+    }
+
+    private void processQueries(ObservableSUL<S, I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
+        for (Query<I, Word<O>> q : queries) {
+            q.answer(answerQuery(sul, q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    private Word<O> answerQuery(ObservableSUL<S, I, O> sul, Word<I> prefix, Word<I> suffix) {
+        if (!restorable || prefix.isEmpty()) {
+            return SULOracle.answerQuery(sul, prefix, suffix);
+        }
+
+        sul.pre();
+        try {
+            int start = 0;
+
+            final Checkpoint<S> checkpoint = checkpoints.lookup(prefix);
+            if (checkpoint != null) {
+                sul.restoreState(checkpoint.getState());
+                start = checkpoint.getLength();
+                savedSymbols.increment(start);
+            }
+
+            if (start < prefix.length()) {
+                sul.stepAll(prefix.subWord(start));
+                checkpoints.put(prefix, sul.getState());
+            }
+
+            return sul.stepAll(suffix);
+        } finally {
+            sul.post();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.Collection;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.statistic.Counter;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A membership oracle for {@link SUL}s with expensive resets, which chains queries without resetting the SUL in
+ * between.
+ * <p>
+ * Instead of resetting the SUL after each query, the oracle executes a homing sequence, whose outputs determine the
+ * state of the SUL (according to the current hypothesis, see {@link #setHypothesis(MealyMachine)}), followed by a
+ * transfer sequence to the initial state of the hypothesis. The homing sequence is either computed from the hypothesis
+ * or supplied by the user (in which case it may also be a synchronizing sequence). The SUL is only reset (via {@link
+ * SUL#post()} and {@link SUL#pre()}) if no hypothesis is available or the outputs of the homing or transfer sequence
+ * disagree with the hypothesis.
+ * <p>
+ * Note that this oracle relies on the hypothesis to correctly identify the states reached by the homing sequence.
+ * Since a wrong identification is only detected if it results in different outputs, answers may be incorrect for
+ * systems whose behavior deviates from the hypothesis in ways the homing and transfer sequences do not reveal.
+ * <p>
+ * The number of hard resets and homing executions can be observed via {@link #getHardResetCounter()} and {@link
+ * #getHomingCounter()}. This oracle is thread-safe, but processes queries sequentially on the single given SUL.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class HomingSULOracle<I, O> implements MealyMembershipOracle<I, O> {
+
+    private final SUL<I, O> sul;
+    private final Collection<? extends I> inputs;
+    private final @Nullable Word<I> homingSequence;
+
+    private final Counter hardResets = new Counter("hard resets", "resets");
+    private final Counter homingExecutions = new Counter("homing executions", "executions");
+
+    private @Nullable HypothesisHoming<?, I, ?, O> homing;
+    private boolean running;
+    private boolean dirty;
+    private boolean resetRequired;
+
+    /**
+     * Constructor. The homing sequence is computed from the hypothesis.
+     *
+     * @param sul
+     *         the system under learning
+     * @param inputs
+     *         the inputs of the hypotheses
+     */
+    public HomingSULOracle(SUL<I, O> sul, Collection<? extends I> inputs) {
+        this(sul, inputs, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param inputs
+     *         the inputs of the hypotheses
+     * @param homingSequence
+     *         the homing (or synchronizing) sequence, or {@code null} if it should be computed from the hypothesis
+     */
+    public HomingSULOracle(SUL<I, O> sul, Collection<? extends I> inputs, @Nullable Word<I> homingSequence) {
+        this.sul = sul;
+        this.inputs = inputs;
+        this.homingSequence = homingSequence;
+    }
+
+    /**
+     * Sets the hypothesis that is used for determining the states reached by the homing sequence. Should be called
+     * whenever the learner refines its hypothesis.
+     *
+     * @param hypothesis
+     *         the current hypothesis, or {@code null} if the SUL should be reset after each query
+     */
+    public synchronized void setHypothesis(@Nullable MealyMachine<?, I, ?, O> hypothesis) {
+        this.homing = hypothesis == null ? null : HypothesisHoming.of(hypothesis, inputs, homingSequence);
+    }
+
+    /**
+     * Returns the homing sequence that is currently used.
+     *
+     * @return the homing sequence, or {@code null} if no hypothesis has been set
+     */
+    public synchronized @Nullable Word<I> getHomingSequence() {
+        return homing == null ? null : homing.getHomingSequence();
+    }
+
+    public Counter getHardResetCounter() {
+        return hardResets;
+    }
+
+    public Counter getHomingCounter() {
+        return homingExecutions;
+    }
+
+    @Override
+    public synchronized void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        for (Query<I, Word<O>> q : queries) {
+            q.answer(executeQuery(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    /**
+     * Shuts down the SUL (via {@link SUL#post()}), if it is currently running. Subsequent queries restart the SUL.
+     */
+    public synchronized void post() {
+        if (running) {
+            running = false;
+            sul.post();
+        }
+    }
+
+    private Word<O> executeQuery(Word<I> prefix, Word<I> suffix) {
+        returnToInitialState();
+
+        final Word<I> input = prefix.concat(suffix);
+
+        // if the execution fails, the state of the SUL is unknown and a hard reset is required
+        resetRequired = true;
+        final Word<O> output = sul.stepAll(input);
+        resetRequired = false;
+        dirty |= !input.isEmpty();
+
+        return output.subWord(prefix.length());
+    }
+
+    private void returnToInitialState() {
+        if (running && !dirty) {
+            return;
+        }
+
+        if (running && !resetRequired && homing != null) {
+            homingExecutions.increment();
+            resetRequired = true;
+            if (homing.home(sul)) {
+                resetRequired = false;
+                dirty = false;
+                return;
+            }
+        }
+
+        if (running) {
+            sul.post();
+        }
+
+        hardResets.increment();
+        sul.pre();
+        running = true;
+        dirty = false;
+        resetRequired = false;
+    }
+}
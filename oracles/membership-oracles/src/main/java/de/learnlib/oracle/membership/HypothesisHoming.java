@@ -0,0 +1,249 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.learnlib.api.SUL;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Information for bringing a SUL back to its initial state without resetting it, derived from a hypothesis: a homing
+ * sequence (whose output determines the state reached after its execution) and, for each state of the hypothesis, a
+ * shortest transfer sequence to the initial state.
+ *
+ * @param <S>
+ *         hypothesis state type
+ * @param <I>
+ *         input symbol type
+ * @param <T>
+ *         hypothesis transition type
+ * @param <O>
+ *         output symbol type
+ */
+final class HypothesisHoming<S, I, T, O> {
+
+    private final Word<I> homingSequence;
+    private final Map<Word<O>, S> homedStates;
+    private final Map<S, Word<I>> transferInputs;
+    private final Map<S, Word<O>> transferOutputs;
+
+    private HypothesisHoming(Word<I> homingSequence,
+                             Map<Word<O>, S> homedStates,
+                             Map<S, Word<I>> transferInputs,
+                             Map<S, Word<O>> transferOutputs) {
+        this.homingSequence = homingSequence;
+        this.homedStates = homedStates;
+        this.transferInputs = transferInputs;
+        this.transferOutputs = transferOutputs;
+    }
+
+    /**
+     * Constructs the homing information for the given hypothesis.
+     *
+     * @param hypothesis
+     *         the hypothesis
+     * @param inputs
+     *         the inputs of the hypothesis
+     * @param homingSequence
+     *         a (user-supplied) homing sequence, or {@code null} if a homing sequence should be computed from the
+     *         hypothesis. If the given sequence is not homing for the hypothesis, the outputs that do not determine a
+     *         unique state are treated as unknown.
+     * @param <S>
+     *         hypothesis state type
+     * @param <I>
+     *         input symbol type
+     * @param <T>
+     *         hypothesis transition type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return the homing information
+     */
+    static <S, I, T, O> HypothesisHoming<S, I, T, O> of(MealyMachine<S, I, T, O> hypothesis,
+                                                        Collection<? extends I> inputs,
+                                                        @Nullable Word<I> homingSequence) {
+        final Word<I> hs = homingSequence == null ? computeHomingSequence(hypothesis, inputs) : homingSequence;
+
+        // output of the homing sequence -> reached state (null if ambiguous)
+        final Map<Word<O>, S> homedStates = new HashMap<>();
+        final Set<Word<O>> ambiguousOutputs = new HashSet<>();
+        for (S s : hypothesis) {
+            final List<O> output = new ArrayList<>(hs.length());
+            if (hypothesis.trace(s, hs, output)) {
+                final Word<O> outputWord = Word.fromList(output);
+                final S target = hypothesis.getSuccessor(s, hs);
+                final S previous = homedStates.putIfAbsent(outputWord, target);
+                if (previous != null && !previous.equals(target)) {
+                    ambiguousOutputs.add(outputWord);
+                }
+            }
+        }
+        homedStates.keySet().removeAll(ambiguousOutputs);
+
+        final Map<S, Word<I>> transferInputs = computeTransferSequences(hypothesis, inputs);
+        final Map<S, Word<O>> transferOutputs = new HashMap<>();
+        for (Map.Entry<S, Word<I>> e : transferInputs.entrySet()) {
+            final List<O> output = new ArrayList<>(e.getValue().length());
+            hypothesis.trace(e.getKey(), e.getValue(), output);
+            transferOutputs.put(e.getKey(), Word.fromList(output));
+        }
+
+        return new HypothesisHoming<>(hs, homedStates, transferInputs, transferOutputs);
+    }
+
+    Word<I> getHomingSequence() {
+        return homingSequence;
+    }
+
+    /**
+     * Executes the homing sequence and the transfer sequence of the identified state on the given SUL.
+     *
+     * @param sul
+     *         the SUL (between calls to {@link SUL#pre()} and {@link SUL#post()})
+     *
+     * @return {@code true} if the observed outputs agree with the hypothesis (so that the SUL is in its initial state
+     * according to the hypothesis), {@code false} otherwise
+     */
+    boolean home(SUL<I, O> sul) {
+        final S state = homedStates.get(sul.stepAll(homingSequence));
+        if (state == null) {
+            return false;
+        }
+
+        final Word<I> transfer = transferInputs.get(state);
+        if (transfer == null) {
+            return false;
+        }
+
+        return transfer.isEmpty() || sul.stepAll(transfer).equals(transferOutputs.get(state));
+    }
+
+    /**
+     * Computes a homing sequence by successively appending separating words for pairs of states that cannot be
+     * distinguished by the outputs of the sequence constructed so far.
+     */
+    static <S, I, O> Word<I> computeHomingSequence(MealyMachine<S, I, ?, O> hypothesis,
+                                                   Collection<? extends I> inputs) {
+        final WordBuilder<I> wb = new WordBuilder<>();
+
+        // the current uncertainty: the sets of possible current states, grouped by the observed outputs
+        List<Set<S>> blocks = new ArrayList<>();
+        blocks.add(new LinkedHashSet<>(hypothesis.getStates()));
+
+        while (true) {
+            Set<S> block = null;
+            for (Set<S> b : blocks) {
+                if (b.size() > 1) {
+                    block = b;
+                    break;
+                }
+            }
+
+            if (block == null) {
+                return wb.toWord();
+            }
+
+            final Iterator<S> iter = block.iterator();
+            final S first = iter.next();
+            final S second = iter.next();
+            final Word<I> sep = Automata.findSeparatingWord(hypothesis, first, second, inputs);
+
+            if (sep == null) {
+                // equivalent states (the hypothesis is not minimal), the homing sequence needs not distinguish them
+                block.remove(second);
+                continue;
+            }
+
+            wb.append(sep);
+
+            final List<Set<S>> newBlocks = new ArrayList<>(blocks.size());
+            for (Set<S> b : blocks) {
+                final Map<Word<O>, Set<S>> successors = new HashMap<>();
+                for (S s : b) {
+                    final List<O> output = new ArrayList<>(sep.length());
+                    if (hypothesis.trace(s, sep, output)) {
+                        successors.computeIfAbsent(Word.fromList(output), k -> new LinkedHashSet<>())
+                                  .add(hypothesis.getSuccessor(s, sep));
+                    }
+                }
+                newBlocks.addAll(successors.values());
+            }
+            blocks = newBlocks;
+        }
+    }
+
+    /**
+     * Computes for each state (from which the initial state is reachable) a shortest input sequence leading to the
+     * initial state, using a backwards breadth-first search.
+     */
+    private static <S, I> Map<S, Word<I>> computeTransferSequences(MealyMachine<S, I, ?, ?> hypothesis,
+                                                                   Collection<? extends I> inputs) {
+        final Map<S, List<S>> predecessors = new HashMap<>();
+        for (S s : hypothesis) {
+            for (I i : inputs) {
+                final S succ = hypothesis.getSuccessor(s, i);
+                if (succ != null) {
+                    predecessors.computeIfAbsent(succ, k -> new ArrayList<>()).add(s);
+                }
+            }
+        }
+
+        final S init = hypothesis.getInitialState();
+        final Map<S, Word<I>> result = new HashMap<>();
+        if (init == null) {
+            return result;
+        }
+
+        final Deque<S> queue = new ArrayDeque<>();
+        result.put(init, Word.epsilon());
+        queue.add(init);
+
+        while (!queue.isEmpty()) {
+            final S curr = queue.poll();
+            final Word<I> suffix = result.get(curr);
+
+            for (S pred : predecessors.getOrDefault(curr, Collections.emptyList())) {
+                if (!result.containsKey(pred)) {
+                    for (I i : inputs) {
+                        if (curr.equals(hypothesis.getSuccessor(pred, i))) {
+                            result.put(pred, suffix.prepend(i));
+                            queue.add(pred);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
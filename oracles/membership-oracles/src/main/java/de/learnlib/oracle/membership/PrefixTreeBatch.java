@@ -0,0 +1,190 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Organizes a batch of queries in a prefix tree of their input words, such that the batch can be answered by executing
+ * only the maximal input words (the leaves of the tree): every query whose input word is a prefix of another input
+ * word is answered by the output of the (first) maximal word that extends it. For a deterministic system, this saves
+ * one reset (and the corresponding symbols) per non-maximal query.
+ * <p>
+ * The runs are returned in depth-first order of the tree, i.e. consecutive runs share their longest common prefix.
+ * For SULs that can restore previously observed states, each run additionally describes at which depth it branches
+ * off the previous runs ({@link Run#getBranchDepth()}) and at which depths it passes branching nodes of the tree
+ * ({@link Run#getSnapshotDepths()}), i.e. at which depths later runs branch off.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+final class PrefixTreeBatch<I, O> {
+
+    private final List<Run<I, O>> runs;
+
+    private PrefixTreeBatch(List<Run<I, O>> runs) {
+        this.runs = runs;
+    }
+
+    static <I, O> PrefixTreeBatch<I, O> of(Collection<? extends Query<I, Word<O>>> queries) {
+        final Node<I, O> root = new Node<>(0);
+
+        for (Query<I, Word<O>> q : queries) {
+            Node<I, O> node = root;
+            for (I sym : q.getInput()) {
+                node = node.getOrAddChild(sym);
+            }
+            node.queries.add(q);
+        }
+
+        // pre-order traversal: the queries of inner nodes are answered by the next leaf, which is a descendant
+        final List<Run<I, O>> runs = new ArrayList<>();
+        final Deque<Node<I, O>> stack = new ArrayDeque<>();
+        List<Query<I, Word<O>>> pending = new ArrayList<>();
+        List<Integer> snapshotDepths = new ArrayList<>();
+        int branchDepth = 0;
+        boolean newRun = false;
+
+        if (!queries.isEmpty()) {
+            stack.push(root);
+        }
+
+        while (!stack.isEmpty()) {
+            final Node<I, O> node = stack.pop();
+            pending.addAll(node.queries);
+
+            // the first node of a subsequent run is a child of the node at which the run branches off
+            if (newRun) {
+                branchDepth = node.depth - 1;
+                newRun = false;
+            }
+
+            if (node.children == null) {
+                // the last query of a leaf has a maximal input word
+                runs.add(new Run<>(node.queries.get(node.queries.size() - 1).getInput(),
+                                   pending,
+                                   branchDepth,
+                                   snapshotDepths.stream().mapToInt(Integer::intValue).toArray()));
+                pending = new ArrayList<>();
+                snapshotDepths = new ArrayList<>();
+                newRun = true;
+            } else {
+                if (node.children.size() > 1) {
+                    snapshotDepths.add(node.depth);
+                }
+                for (Node<I, O> child : node.children.values()) {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return new PrefixTreeBatch<>(runs);
+    }
+
+    List<Run<I, O>> getRuns() {
+        return runs;
+    }
+
+    /**
+     * A single execution of a maximal input word that answers all queries on the path to it.
+     *
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     */
+    static final class Run<I, O> {
+
+        private final Word<I> input;
+        private final List<Query<I, Word<O>>> queries;
+        private final int branchDepth;
+        private final int[] snapshotDepths;
+
+        Run(Word<I> input, List<Query<I, Word<O>>> queries, int branchDepth, int[] snapshotDepths) {
+            this.input = input;
+            this.queries = queries;
+            this.branchDepth = branchDepth;
+            this.snapshotDepths = snapshotDepths;
+        }
+
+        Word<I> getInput() {
+            return input;
+        }
+
+        /**
+         * Returns the length of the longest common prefix of this run and the previous run (0 for the first run). For
+         * every run but the first, one of the previous runs has passed this depth as a {@link #getSnapshotDepths()
+         * snapshot depth}.
+         *
+         * @return the depth at which this run branches off the previous runs
+         */
+        int getBranchDepth() {
+            return branchDepth;
+        }
+
+        /**
+         * Returns the (ascending) depths of the branching nodes that this run is the first one to pass, i.e. the depths
+         * at which subsequent runs branch off this run.
+         *
+         * @return the depths at which the state of this run should be recorded
+         */
+        int[] getSnapshotDepths() {
+            return snapshotDepths;
+        }
+
+        /**
+         * Answers all queries of this run.
+         *
+         * @param output
+         *         the output of the SUL for the complete {@link #getInput() input word} of this run
+         */
+        void answer(Word<O> output) {
+            for (Query<I, Word<O>> q : queries) {
+                q.answer(output.subWord(q.getPrefix().length(), q.getInput().length()));
+            }
+        }
+    }
+
+    private static final class Node<I, O> {
+
+        private final int depth;
+        private @Nullable Map<I, Node<I, O>> children;
+        private final List<Query<I, Word<O>>> queries = new ArrayList<>(1);
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+
+        Node<I, O> getOrAddChild(I sym) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(sym, k -> new Node<>(depth + 1));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import de.learnlib.api.SUL;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A bounded pool of {@link SUL#fork() SUL forks}. Forks are lazily created, but at most {@code maxForks} forks are in
+ * use at the same time. Threads trying to acquire a fork from an exhausted pool block until another thread releases its
+ * fork.
+ * <p>
+ * As opposed to {@link ThreadLocal thread-local} forks, the number of forks created by this pool only depends on the
+ * number of concurrent accesses (rather than the number of accessing threads). This makes it suitable for
+ * (short-lived) thread-per-task executors, which would otherwise leak a fork per task.
+ *
+ * @param <S>
+ *         SUL type
+ */
+final class SULForkPool<S extends SUL<?, ?>> {
+
+    @NonNull
+    private final Supplier<? extends S> forkSupplier;
+    @NonNull
+    private final Deque<S> idleForks;
+    @NonNull
+    private final Semaphore permits;
+
+    SULForkPool(Supplier<? extends S> forkSupplier, @Positive int maxForks) {
+        this.forkSupplier = forkSupplier;
+        this.idleForks = new ConcurrentLinkedDeque<>();
+        this.permits = new Semaphore(maxForks);
+    }
+
+    @NonNull
+    S acquire() {
+        permits.acquireUninterruptibly();
+
+        final S fork = idleForks.pollFirst();
+
+        if (fork != null) {
+            return fork;
+        }
+
+        try {
+            return forkSupplier.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(S fork) {
+        idleForks.offerFirst(fork);
+        permits.release();
+    }
+}
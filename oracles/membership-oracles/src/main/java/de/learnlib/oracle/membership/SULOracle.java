@@ -16,44 +16,156 @@
 package de.learnlib.oracle.membership;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import de.learnlib.api.ObservableSUL;
 import de.learnlib.api.SUL;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
 import de.learnlib.api.query.Query;
+import de.learnlib.oracle.membership.PrefixTreeBatch.Run;
 import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.index.qual.Positive;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A wrapper around a system under learning (SUL).
  * <p>
  * This membership oracle is thread-safe. Thread-safety is obtained in either of the following ways: <ul> <li>if the
- * {@link SUL} can be {@link SUL#fork() forked}, each thread from which {@link #processQueries(Collection)} will
- * maintain a {@link ThreadLocal thread-local} fork of the SUL, which is used for processing queries.</li>
- * <li>otherwise, if the SUL is not forkable, accesses to the SUL in {@link #processQueries(Collection)} will be
- * synchronized explicitly.</li> </ul>
+ * {@link SUL} can be {@link SUL#fork() forked}, each call to {@link #processQueries(Collection)} exclusively borrows a
+ * fork of the SUL from a pool of forks, which is used for processing queries. New forks are only created if all
+ * existing forks are in use, so the number of forks is bounded by the number of concurrent calls (and optionally by an
+ * explicit limit), not by the number of calling threads.</li> <li>otherwise, if the SUL is not forkable, accesses to
+ * the SUL in {@link #processQueries(Collection)} will be synchronized explicitly.</li> </ul>
+ * <p>
+ * Queries may also be processed {@link #processQueriesAsync(Collection) asynchronously} in a given executor. If no
+ * executor is given, the oracle lazily creates a dedicated executor of its own upon the first asynchronous call, whose
+ * (daemon) threads are bounded by the maximum number of forks and the number of available processors, and which can be
+ * released via {@link #shutdown()}. Oracles that are only used synchronously never create any threads.
+ * Since the asynchronous tasks block while waiting for a fork and while the SUL is executed, they are never run in the
+ * {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}. For forkable SULs, each query of an asynchronous
+ * call is processed independently, so that a single call may use several forks concurrently.
+ * <p>
+ * Optionally, the queries of a batch can be organized in a prefix tree (see {@link #SULOracle(SUL, int, Executor,
+ * boolean)}). Then, only the maximal input words of the batch are executed (in depth-first order of the tree), and
+ * queries whose input words are prefixes of other input words are answered from the outputs of the longer ones. This
+ * saves resets and symbols (e.g., for the fill queries of an observation table, which share their access sequences),
+ * but requires the SUL to behave deterministically. If the SUL is an {@link ObservableSUL} that {@link
+ * ObservableSUL#canRestoreState() can restore states}, the maximal words of a batch are executed in a single session
+ * of the SUL: the states at the branching points of the prefix tree are recorded, and each subsequent word is executed
+ * from the restored state at which it branches off, instead of resetting the SUL and re-executing the shared prefix.
+ * For asynchronous calls on forkable SULs, the maximal words are executed independently (on different forks), and
+ * are therefore always started from a reset.
  *
  * @author Falk Howar
  * @author Malte Isberner
  */
-public class SULOracle<I, O> implements MealyMembershipOracle<I, O> {
+public class SULOracle<I, O> implements MealyMembershipOracle<I, O>, AsyncMembershipOracle<I, Word<O>> {
+
+    private static final long KEEP_ALIVE_MS = 1000;
 
     private final SUL<I, O> sul;
-    private final ThreadLocal<SUL<I, O>> localSul;
+    private final SULForkPool<SUL<I, O>> forkPool;
+    @Nullable
+    private final Executor asyncExecutor;
+    private final int maxForks;
+    @Nullable
+    private ExecutorService ownedExecutor;
+    private final boolean prefixTreeExecution;
 
     public SULOracle(SUL<I, O> sul) {
+        this(sul, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param maxForks
+     *         the maximum number of forks of the given SUL that are used concurrently. If more threads concurrently call
+     *         {@link #processQueries(Collection)}, they block until a fork becomes available. Has no effect if the SUL
+     *         cannot be forked. Also bounds the number of threads of the executor that this oracle creates for
+     *         processing {@link #processQueriesAsync(Collection) asynchronous} queries (see {@link #shutdown()}).
+     */
+    public SULOracle(SUL<I, O> sul, @Positive int maxForks) {
+        this(sul, null, maxForks, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param maxForks
+     *         the maximum number of forks of the given SUL that are used concurrently. If more threads concurrently call
+     *         {@link #processQueries(Collection)}, they block until a fork becomes available. Has no effect if the SUL
+     *         cannot be forked.
+     * @param asyncExecutor
+     *         the executor in which the queries of {@link #processQueriesAsync(Collection)} are processed. Its tasks
+     *         block while waiting for a fork and while executing the SUL, so it should not be a shared pool such as
+     *         the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}
+     */
+    public SULOracle(SUL<I, O> sul, @Positive int maxForks, Executor asyncExecutor) {
+        this(sul, maxForks, asyncExecutor, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param maxForks
+     *         the maximum number of forks of the given SUL that are used concurrently. If more threads concurrently call
+     *         {@link #processQueries(Collection)}, they block until a fork becomes available. Has no effect if the SUL
+     *         cannot be forked.
+     * @param asyncExecutor
+     *         the executor in which the queries of {@link #processQueriesAsync(Collection)} are processed. Its tasks
+     *         block while waiting for a fork and while executing the SUL, so it should not be a shared pool such as
+     *         the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}
+     * @param prefixTreeExecution
+     *         whether the queries of a batch should be organized in a prefix tree, so that only the maximal input words
+     *         of the batch are executed on the SUL (branching from restored states, if the SUL supports it)
+     */
+    public SULOracle(SUL<I, O> sul, @Positive int maxForks, Executor asyncExecutor, boolean prefixTreeExecution) {
+        this(sul, asyncExecutor, maxForks, prefixTreeExecution);
+    }
+
+    private SULOracle(SUL<I, O> sul,
+                      @Nullable Executor asyncExecutor,
+                      @Positive int maxForks,
+                      boolean prefixTreeExecution) {
         this.sul = sul;
+        this.asyncExecutor = asyncExecutor;
+        this.maxForks = maxForks;
+        this.prefixTreeExecution = prefixTreeExecution;
         if (sul.canFork()) {
-            this.localSul = ThreadLocal.withInitial(sul::fork);
+            this.forkPool = new SULForkPool<>(sul::fork, maxForks);
         } else {
-            this.localSul = null;
+            this.forkPool = null;
         }
     }
 
     @Override
     public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
-        if (localSul != null) {
-            processQueries(localSul.get(), queries);
+        if (forkPool != null) {
+            final SUL<I, O> fork = forkPool.acquire();
+            try {
+                processQueries(fork, queries);
+            } finally {
+                forkPool.release(fork);
+            }
         } else {
             synchronized (sul) {
                 processQueries(sul, queries);
@@ -61,29 +173,150 @@ public class SULOracle<I, O> implements MealyMembershipOracle<I, O> {
         }
     }
 
-    private static <I, O> void processQueries(SUL<I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final Executor executor = getAsyncExecutor();
+
+        if (forkPool == null) {
+            return CompletableFuture.runAsync(() -> processQueries(queries), executor);
+        }
+
+        if (prefixTreeExecution) {
+            final List<Run<I, O>> runs = PrefixTreeBatch.of(queries).getRuns();
+            final CompletableFuture<?>[] futures = new CompletableFuture<?>[runs.size()];
+            int i = 0;
+
+            for (Run<I, O> r : runs) {
+                futures[i++] = CompletableFuture.runAsync(() -> {
+                    final SUL<I, O> fork = forkPool.acquire();
+                    try {
+                        execute(fork, r);
+                    } finally {
+                        forkPool.release(fork);
+                    }
+                }, executor);
+            }
+
+            return CompletableFuture.allOf(futures);
+        }
+
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[queries.size()];
+        int i = 0;
+
         for (Query<I, Word<O>> q : queries) {
-            Word<O> output = answerQuery(sul, q.getPrefix(), q.getSuffix());
-            q.answer(output);
+            futures[i++] = CompletableFuture.runAsync(() -> processQueries(Collections.singleton(q)), executor);
         }
+
+        return CompletableFuture.allOf(futures);
     }
 
-    @NonNull
-    public static <I, O> Word<O> answerQuery(SUL<I, O> sul, Word<I> prefix, Word<I> suffix) {
+    /**
+     * Initiates an orderly shutdown of the executor that this oracle created for processing asynchronous queries.
+     * Has no effect if the executor was specified explicitly, in which case the caller remains responsible for it, or
+     * if no asynchronous queries have been processed yet.
+     *
+     * @see ExecutorService#shutdown()
+     */
+    public synchronized void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private synchronized Executor getAsyncExecutor() {
+        if (asyncExecutor != null) {
+            return asyncExecutor;
+        }
+        if (ownedExecutor == null) {
+            ownedExecutor = createExecutor(sul, maxForks);
+        }
+        return ownedExecutor;
+    }
+
+    private static ExecutorService createExecutor(SUL<?, ?> sul, int maxForks) {
+        final int threads = sul.canFork() ? Math.min(maxForks, Runtime.getRuntime().availableProcessors()) : 1;
+        final ThreadPoolExecutor result = new ThreadPoolExecutor(threads,
+                                                                 threads,
+                                                                 KEEP_ALIVE_MS,
+                                                                 TimeUnit.MILLISECONDS,
+                                                                 new LinkedBlockingQueue<>(),
+                                                                 r -> {
+                                                                     final Thread t = new Thread(r, "sul-oracle");
+                                                                     t.setDaemon(true);
+                                                                     return t;
+                                                                 });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    private void processQueries(SUL<I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
+        if (prefixTreeExecution) {
+            final List<Run<I, O>> runs = PrefixTreeBatch.of(queries).getRuns();
+
+            if (sul instanceof ObservableSUL && ((ObservableSUL<?, I, O>) sul).canRestoreState()) {
+                executeRestoring((ObservableSUL<?, I, O>) sul, runs);
+            } else {
+                for (Run<I, O> r : runs) {
+                    execute(sul, r);
+                }
+            }
+        } else {
+            for (Query<I, Word<O>> q : queries) {
+                Word<O> output = answerQuery(sul, q.getPrefix(), q.getSuffix());
+                q.answer(output);
+            }
+        }
+    }
+
+    private static <I, O> void execute(SUL<I, O> sul, Run<I, O> run) {
+        run.answer(answerQuery(sul, Word.epsilon(), run.getInput()));
+    }
+
+    private static <S, I, O> void executeRestoring(ObservableSUL<S, I, O> sul, List<Run<I, O>> runs) {
+        // the recorded states (by depth) and the outputs along the path of the current run
+        final Map<Integer, S> snapshots = new HashMap<>();
+        final WordBuilder<O> outputs = new WordBuilder<>();
+
         sul.pre();
         try {
-            // Prefix: Execute symbols, don't record output
-            for (I sym : prefix) {
-                sul.step(sym);
-            }
+            for (int i = 0; i < runs.size(); i++) {
+                final Run<I, O> run = runs.get(i);
+                final Word<I> input = run.getInput();
+                final int[] snapshotDepths = run.getSnapshotDepths();
+                final int branchDepth = run.getBranchDepth();
+                int nextSnapshot = 0;
 
-            // Suffix: Execute symbols, outputs constitute output word
-            WordBuilder<O> wb = new WordBuilder<>(suffix.length());
-            for (I sym : suffix) {
-                wb.add(sul.step(sym));
+                if (i > 0) {
+                    sul.restoreState(snapshots.get(branchDepth));
+                    outputs.truncate(branchDepth);
+                }
+
+                for (int depth = branchDepth; depth < input.length(); depth++) {
+                    if (nextSnapshot < snapshotDepths.length && snapshotDepths[nextSnapshot] == depth) {
+                        snapshots.put(depth, sul.getState());
+                        nextSnapshot++;
+                    }
+                    outputs.append(sul.step(input.getSymbol(depth)));
+                }
+
+                run.answer(outputs.toWord());
             }
+        } finally {
+            sul.post();
+        }
+    }
 
-            return wb.toWord();
+    @NonNull
+    public static <I, O> Word<O> answerQuery(SUL<I, O> sul, Word<I> prefix, Word<I> suffix) {
+        sul.pre();
+        try {
+            // Execute the complete word at once, the outputs of the suffix constitute the output word
+            final Word<O> output = sul.stepAll(prefix.concat(suffix));
+            return output.subWord(prefix.length());
         } finally {
             sul.post();
         }
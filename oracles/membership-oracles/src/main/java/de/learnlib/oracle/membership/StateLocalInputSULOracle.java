@@ -26,25 +26,35 @@ import de.learnlib.api.query.Query;
 import net.automatalib.automata.transducers.OutputAndLocalInputs;
 import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
+import org.checkerframework.checker.index.qual.Positive;
 
 public class StateLocalInputSULOracle<I, O> implements StateLocalInputMealyOracle<I, OutputAndLocalInputs<I, O>> {
 
     private final StateLocalInputSUL<I, O> sul;
-    private final ThreadLocal<StateLocalInputSUL<I, O>> localSul;
+    private final SULForkPool<StateLocalInputSUL<I, O>> forkPool;
 
     public StateLocalInputSULOracle(StateLocalInputSUL<I, O> sul) {
+        this(sul, Integer.MAX_VALUE);
+    }
+
+    public StateLocalInputSULOracle(StateLocalInputSUL<I, O> sul, @Positive int maxForks) {
         this.sul = sul;
         if (sul.canFork()) {
-            this.localSul = ThreadLocal.withInitial(sul::fork);
+            this.forkPool = new SULForkPool<>(sul::fork, maxForks);
         } else {
-            this.localSul = null;
+            this.forkPool = null;
         }
     }
 
     @Override
     public void processQueries(Collection<? extends Query<I, Word<OutputAndLocalInputs<I, O>>>> queries) {
-        if (localSul != null) {
-            processQueries(localSul.get(), queries);
+        if (forkPool != null) {
+            final StateLocalInputSUL<I, O> fork = forkPool.acquire();
+            try {
+                processQueries(fork, queries);
+            } finally {
+                forkPool.release(fork);
+            }
         } else {
             synchronized (sul) {
                 processQueries(sul, queries);
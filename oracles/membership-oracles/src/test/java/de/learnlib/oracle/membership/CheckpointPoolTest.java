@@ -0,0 +1,113 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import de.learnlib.oracle.membership.CheckpointPool.Checkpoint;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CheckpointPoolTest {
+
+    @Test
+    public void testDeepestCheckpoint() {
+        final CheckpointPool<String, Character> pool = new CheckpointPool<>(10, s -> 1);
+
+        pool.put(Word.fromSymbols('a'), "a");
+        pool.put(Word.fromSymbols('a', 'b', 'c'), "abc");
+        pool.put(Word.fromSymbols('b'), "b");
+
+        Assert.assertNull(pool.lookup(Word.fromSymbols('c', 'a')));
+
+        final Checkpoint<String> c1 = pool.lookup(Word.fromSymbols('a', 'b'));
+        Assert.assertNotNull(c1);
+        Assert.assertEquals(c1.getState(), "a");
+        Assert.assertEquals(c1.getLength(), 1);
+
+        final Checkpoint<String> c2 = pool.lookup(Word.fromSymbols('a', 'b', 'c', 'a'));
+        Assert.assertNotNull(c2);
+        Assert.assertEquals(c2.getState(), "abc");
+        Assert.assertEquals(c2.getLength(), 3);
+    }
+
+    @Test
+    public void testCostAwareEviction() {
+        // sizes are given by the length of the state strings
+        final CheckpointPool<String, Character> pool = new CheckpointPool<>(6, String::length);
+
+        // saves 4 symbols at a size of 1
+        pool.put(Word.fromSymbols('a', 'a', 'a', 'a'), "x");
+        // saves 1 symbol at a size of 4
+        pool.put(Word.fromSymbols('b'), "yyyy");
+        Assert.assertEquals(pool.getSize(), 5);
+
+        // saves 2 symbols at a size of 2, requires evicting the least beneficial checkpoint
+        pool.put(Word.fromSymbols('c', 'c'), "zz");
+        Assert.assertEquals(pool.getNumberOfCheckpoints(), 2);
+        Assert.assertEquals(pool.getSize(), 3);
+        Assert.assertNull(pool.lookup(Word.fromSymbols('b')));
+        Assert.assertNotNull(pool.lookup(Word.fromSymbols('c', 'c')));
+
+        // reused checkpoints become more valuable
+        for (int i = 0; i < 10; i++) {
+            pool.lookup(Word.fromSymbols('c', 'c'));
+        }
+
+        // a short, large checkpoint is not worth evicting the others
+        pool.put(Word.fromSymbols('d'), "wwwww");
+        Assert.assertNull(pool.lookup(Word.fromSymbols('d')));
+        Assert.assertEquals(pool.getNumberOfCheckpoints(), 2);
+
+        // too large checkpoints are ignored
+        pool.put(Word.fromSymbols('e', 'e', 'e', 'e', 'e', 'e', 'e'), "vvvvvvv");
+        Assert.assertNull(pool.lookup(Word.fromSymbols('e', 'e', 'e', 'e', 'e', 'e', 'e')));
+    }
+
+    @Test
+    public void testReplaceEviction() {
+        final CheckpointPool<String, Character> pool = new CheckpointPool<>(4, String::length);
+
+        pool.put(Word.fromSymbols('a', 'a', 'a', 'a'), "x");
+        pool.put(Word.fromSymbols('b'), "y");
+
+        // the replaced checkpoint becomes the least valuable one, but is kept in favor of the others
+        pool.put(Word.fromSymbols('b'), "yyyy");
+        Assert.assertEquals(pool.getSize(), 4);
+        Assert.assertEquals(pool.getNumberOfCheckpoints(), 1);
+        Assert.assertNull(pool.lookup(Word.fromSymbols('a', 'a', 'a', 'a')));
+
+        final Checkpoint<String> c = pool.lookup(Word.fromSymbols('b'));
+        Assert.assertNotNull(c);
+        Assert.assertEquals(c.getState(), "yyyy");
+    }
+
+    @Test
+    public void testEvictDescendant() {
+        final CheckpointPool<String, Character> pool = new CheckpointPool<>(4, String::length);
+
+        pool.put(Word.fromSymbols('a', 'b'), "xxxx");
+
+        // evicts the (less valuable) checkpoint of its extension
+        pool.put(Word.fromSymbols('a'), "y");
+        Assert.assertEquals(pool.getSize(), 1);
+        Assert.assertEquals(pool.getNumberOfCheckpoints(), 1);
+
+        final Checkpoint<String> c = pool.lookup(Word.fromSymbols('a', 'b'));
+        Assert.assertNotNull(c);
+        Assert.assertEquals(c.getState(), "y");
+        Assert.assertEquals(c.getLength(), 1);
+    }
+}
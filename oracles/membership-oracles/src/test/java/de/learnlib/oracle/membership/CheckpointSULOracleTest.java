@@ -0,0 +1,157 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.ObservableMealySimulatorSUL;
+import de.learnlib.filter.statistic.sul.SymbolCounterObservableSUL;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CheckpointSULOracleTest {
+
+    private static final Alphabet<Character> ALPHABET = Alphabets.characters('a', 'c');
+    private static final int NUM_PREFIXES = 10;
+    private static final int NUM_SUFFIXES = 20;
+    private static final int PREFIX_LENGTH = 15;
+
+    private final CompactMealy<Character, Integer> target =
+            RandomAutomata.randomMealy(new Random(42), 20, ALPHABET, Alphabets.integers(0, 2));
+
+    @Test
+    public void testSavedSymbols() {
+        final SymbolCounterObservableSUL<Integer, Character, Integer> sul =
+                new SymbolCounterObservableSUL<>("symbols", new ObservableMealySimulatorSUL<>(target));
+        final CheckpointSULOracle<Integer, Character, Integer> oracle = new CheckpointSULOracle<>(sul, 100);
+
+        final List<DefaultQuery<Character, Word<Integer>>> queries = createQueries(new Random(42));
+        oracle.processQueries(queries);
+        checkAnswers(queries);
+
+        // each prefix is executed only once
+        final long expectedSymbols = NUM_PREFIXES * PREFIX_LENGTH +
+                                     queries.stream().mapToLong(q -> q.getSuffix().length()).sum();
+        Assert.assertEquals(sul.getStatisticalData().getCount(), expectedSymbols);
+        Assert.assertEquals(oracle.getSavedSymbolsCounter().getCount(),
+                            (long) NUM_PREFIXES * (NUM_SUFFIXES - 1) * PREFIX_LENGTH);
+        Assert.assertEquals(oracle.getNumberOfCheckpoints(), NUM_PREFIXES);
+    }
+
+    @Test
+    public void testBoundedCheckpoints() {
+        final CheckpointSULOracle<Integer, Character, Integer> oracle =
+                new CheckpointSULOracle<>(new ObservableMealySimulatorSUL<>(target), 3);
+
+        final List<DefaultQuery<Character, Word<Integer>>> queries = createQueries(new Random(42));
+        oracle.processQueries(queries);
+        checkAnswers(queries);
+
+        Assert.assertEquals(oracle.getNumberOfCheckpoints(), 3);
+        Assert.assertTrue(oracle.getSavedSymbolsCounter().getCount() > 0);
+    }
+
+    @Test(timeOut = 10000)
+    public void testParallelQueries() throws Exception {
+        final int numThreads = 4;
+        final CheckpointSULOracle<Integer, Character, Integer> oracle =
+                new CheckpointSULOracle<>(new ObservableMealySimulatorSUL<>(target), 100, s -> 1, numThreads);
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final List<Future<List<DefaultQuery<Character, Word<Integer>>>>> futures = new ArrayList<>(numThreads);
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                final int seed = i;
+                futures.add(executor.submit(() -> {
+                    final List<DefaultQuery<Character, Word<Integer>>> queries = createQueries(new Random(seed));
+                    oracle.processQueries(queries);
+                    return queries;
+                }));
+            }
+
+            for (Future<List<DefaultQuery<Character, Word<Integer>>>> f : futures) {
+                checkAnswers(f.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testNonRestorableSUL() {
+        // a simulator that does not expose its restore capability
+        final MealyMembershipOracle<Character, Integer> oracle =
+                new CheckpointSULOracle<>(new NonRestorableSUL(new ObservableMealySimulatorSUL<>(target)), 100);
+
+        final List<DefaultQuery<Character, Word<Integer>>> queries = createQueries(new Random(42));
+        oracle.processQueries(queries);
+        checkAnswers(queries);
+    }
+
+    private List<DefaultQuery<Character, Word<Integer>>> createQueries(Random random) {
+        final List<DefaultQuery<Character, Word<Integer>>> queries = new ArrayList<>(NUM_PREFIXES * NUM_SUFFIXES);
+
+        for (int i = 0; i < NUM_PREFIXES; i++) {
+            final Word<Character> prefix = randomWord(random, PREFIX_LENGTH);
+            for (int j = 0; j < NUM_SUFFIXES; j++) {
+                queries.add(new DefaultQuery<>(prefix, randomWord(random, 1 + random.nextInt(5))));
+            }
+        }
+
+        return queries;
+    }
+
+    private void checkAnswers(List<DefaultQuery<Character, Word<Integer>>> queries) {
+        for (DefaultQuery<Character, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), target.computeSuffixOutput(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    private static Word<Character> randomWord(Random random, int length) {
+        final WordBuilder<Character> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.add(ALPHABET.getSymbol(random.nextInt(ALPHABET.size())));
+        }
+        return wb.toWord();
+    }
+
+    private static final class NonRestorableSUL extends SymbolCounterObservableSUL<Integer, Character, Integer> {
+
+        NonRestorableSUL(ObservableMealySimulatorSUL<Integer, Character, Integer> sul) {
+            super("symbols", sul);
+        }
+
+        @Override
+        public boolean canRestoreState() {
+            return false;
+        }
+    }
+}
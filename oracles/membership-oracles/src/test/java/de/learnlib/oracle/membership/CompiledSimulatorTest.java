@@ -0,0 +1,223 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.OmegaQuery;
+import de.learnlib.driver.util.CompiledDFA;
+import de.learnlib.driver.util.CompiledMealy;
+import de.learnlib.driver.util.CompiledMealySimulatorSUL;
+import de.learnlib.driver.util.CompiledSimulatorOmegaOracle.CompiledDFASimulatorOmegaOracle;
+import de.learnlib.driver.util.CompiledSimulatorOracle.CompiledDFASimulatorOracle;
+import de.learnlib.driver.util.CompiledSimulatorOracle.CompiledMealySimulatorOracle;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.oracle.membership.SimulatorOmegaOracle.DFASimulatorOmegaOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the compiled simulators against their generic counterparts.
+ */
+public class CompiledSimulatorTest {
+
+    private static final int SEED = 42;
+    private static final int SIZE = 50;
+    private static final int NUM_QUERIES = 500;
+    private static final int MAX_LENGTH = 20;
+
+    private static final Alphabet<Character> ALPHABET = Alphabets.characters('a', 'd');
+
+    @Test
+    public void testDFASimulatorOracle() {
+        final Random random = new Random(SEED);
+        final CompactDFA<Character> dfa = RandomAutomata.randomDFA(random, SIZE, ALPHABET);
+
+        final List<DefaultQuery<Character, Boolean>> expected = generateQueries(random);
+        final List<DefaultQuery<Character, Boolean>> actual = copy(expected);
+
+        new DFASimulatorOracle<>(dfa).processQueries(expected);
+        new CompiledDFASimulatorOracle<>(dfa, ALPHABET).processQueries(actual);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getOutput(), expected.get(i).getOutput());
+        }
+    }
+
+    @Test
+    public void testMealySimulatorOracle() {
+        final Random random = new Random(SEED);
+        final CompactMealy<Character, Integer> mealy =
+                RandomAutomata.randomMealy(random, SIZE, ALPHABET, Arrays.asList(0, 1, 2));
+
+        final List<DefaultQuery<Character, Word<Integer>>> expected = generateQueries(random);
+        final List<DefaultQuery<Character, Word<Integer>>> actual = copy(expected);
+
+        new MealySimulatorOracle<>(mealy).processQueries(expected);
+        new CompiledMealySimulatorOracle<>(mealy, ALPHABET).processQueries(actual);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getOutput(), expected.get(i).getOutput());
+        }
+    }
+
+    @Test
+    public void testDFASimulatorOmegaOracle() {
+        final Random random = new Random(SEED);
+        final CompactDFA<Character> dfa = RandomAutomata.randomDFA(random, SIZE, ALPHABET);
+
+        final DFASimulatorOmegaOracle<Integer, Character> oracle = new DFASimulatorOmegaOracle<>(dfa);
+        final CompiledDFASimulatorOmegaOracle<Character> compiledOracle =
+                new CompiledDFASimulatorOmegaOracle<>(CompiledDFA.compile(dfa, ALPHABET));
+
+        final List<OmegaQuery<Character, Boolean>> expected = new ArrayList<>(NUM_QUERIES);
+        final List<OmegaQuery<Character, Boolean>> actual = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Word<Character> prefix = randomWord(random, 0);
+            final Word<Character> loop = randomWord(random, 1);
+            final int repeat = SIZE + 1;
+            expected.add(new OmegaQuery<>(prefix, loop, repeat));
+            actual.add(new OmegaQuery<>(prefix, loop, repeat));
+        }
+
+        oracle.processQueries(expected);
+        compiledOracle.processQueries(actual);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getOutput(), expected.get(i).getOutput());
+            Assert.assertEquals(actual.get(i).getPeriodicity(), expected.get(i).getPeriodicity());
+        }
+    }
+
+    @Test
+    public void testPartialMealySimulatorSUL() {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+        final CompactMealy<Character, Integer> mealy = new CompactMealy<>(alphabet);
+
+        final int s0 = mealy.addInitialState();
+        final int s1 = mealy.addState();
+
+        mealy.addTransition(s0, 'a', s1, 1);
+        mealy.addTransition(s1, 'a', s0, 2);
+        mealy.addTransition(s1, 'b', s1, 3);
+        // (s0, 'b') is undefined
+
+        final SUL<Character, Integer> sul = new MealySimulatorSUL<>(mealy, -1);
+        final CompiledMealySimulatorSUL<Character, Integer> compiledSUL =
+                new CompiledMealySimulatorSUL<>(CompiledMealy.compile(mealy, alphabet), -1);
+
+        final Random random = new Random(SEED);
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Word<Character> word = randomWord(random, alphabet, 0);
+
+            final WordBuilder<Integer> wb = new WordBuilder<>(word.length());
+            sul.pre();
+            for (Character c : word) {
+                wb.append(sul.step(c));
+            }
+            sul.post();
+
+            compiledSUL.pre();
+            final Word<Integer> stepAllOutput = compiledSUL.stepAll(word);
+            compiledSUL.post();
+
+            final CompiledMealySimulatorSUL<Character, Integer> fork = compiledSUL.fork();
+            final WordBuilder<Integer> forkOutput = new WordBuilder<>(word.length());
+            fork.pre();
+            for (Character c : word) {
+                forkOutput.append(fork.step(c));
+            }
+            fork.post();
+
+            Assert.assertEquals(stepAllOutput, wb.toWord());
+            Assert.assertEquals(forkOutput.toWord(), wb.toWord());
+        }
+    }
+
+    @Test
+    public void testRestoreState() {
+        final Random random = new Random(SEED);
+        final CompactMealy<Character, Integer> mealy =
+                RandomAutomata.randomMealy(random, SIZE, ALPHABET, Arrays.asList(0, 1, 2));
+        final CompiledMealySimulatorSUL<Character, Integer> sul = new CompiledMealySimulatorSUL<>(mealy, ALPHABET);
+
+        final Word<Character> prefix = randomWord(random, 1);
+        final Word<Character> suffix = randomWord(random, 1);
+
+        sul.pre();
+        sul.stepAll(prefix);
+        final Integer state = sul.getState();
+        final Word<Integer> expected = sul.stepAll(suffix);
+        sul.post();
+
+        sul.pre();
+        sul.restoreState(state);
+        Assert.assertEquals(sul.stepAll(suffix), expected);
+        sul.post();
+
+        Assert.assertEquals(expected, mealy.computeSuffixOutput(prefix, suffix));
+    }
+
+    private static <D> List<DefaultQuery<Character, D>> generateQueries(Random random) {
+        final List<DefaultQuery<Character, D>> result = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            result.add(new DefaultQuery<>(randomWord(random, 0), randomWord(random, 0)));
+        }
+
+        return result;
+    }
+
+    private static <D> List<DefaultQuery<Character, D>> copy(List<DefaultQuery<Character, D>> queries) {
+        final List<DefaultQuery<Character, D>> result = new ArrayList<>(queries.size());
+
+        for (DefaultQuery<Character, D> q : queries) {
+            result.add(new DefaultQuery<>(q.getPrefix(), q.getSuffix()));
+        }
+
+        return result;
+    }
+
+    private static Word<Character> randomWord(Random random, int minLength) {
+        return randomWord(random, ALPHABET, minLength);
+    }
+
+    private static Word<Character> randomWord(Random random, Alphabet<Character> alphabet, int minLength) {
+        final int length = minLength + random.nextInt(MAX_LENGTH - minLength + 1);
+        final WordBuilder<Character> wb = new WordBuilder<>(length);
+
+        for (int i = 0; i < length; i++) {
+            wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+
+        return wb.toWord();
+    }
+}
@@ -0,0 +1,168 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.filter.statistic.sul.ResetCounterSUL;
+import net.automatalib.automata.transducers.MealyMachine;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.builders.AutomatonBuilders;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HomingSULOracleTest {
+
+    private static final Alphabet<Character> ALPHABET = Alphabets.characters('a', 'c');
+    private static final int NUM_QUERIES = 100;
+
+    /**
+     * A modulo-4 counter: 'a' increments the counter (and signals an overflow), 'b' outputs the parity of the counter
+     * and 'c' resets the counter.
+     */
+    private static final CompactMealy<Character, Integer> COUNTER =
+            AutomatonBuilders.forMealy(new CompactMealy<Character, Integer>(ALPHABET))
+                             .withInitial("q0")
+                             .from("q0").on('a').withOutput(0).to("q1")
+                             .from("q1").on('a').withOutput(0).to("q2")
+                             .from("q2").on('a').withOutput(0).to("q3")
+                             .from("q3").on('a').withOutput(1).to("q0")
+                             .from("q0").on('b').withOutput(0).loop()
+                             .from("q1").on('b').withOutput(1).loop()
+                             .from("q2").on('b').withOutput(0).loop()
+                             .from("q3").on('b').withOutput(1).loop()
+                             .from("q0", "q1", "q2", "q3").on('c').withOutput(0).to("q0")
+                             .create();
+
+    @Test
+    public void testHomingSequence() {
+        final Word<Character> hs = HypothesisHoming.computeHomingSequence(COUNTER, ALPHABET);
+
+        // the outputs of the homing sequence must determine the reached state
+        for (Integer s1 : COUNTER) {
+            for (Integer s2 : COUNTER) {
+                if (COUNTER.computeStateOutput(s1, hs).equals(COUNTER.computeStateOutput(s2, hs))) {
+                    Assert.assertEquals(COUNTER.getSuccessor(s1, hs), COUNTER.getSuccessor(s2, hs));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testComputedHomingSequence() {
+        final ResetCounterSUL<Character, Integer> sul =
+                new ResetCounterSUL<>("resets", new MealySimulatorSUL<>(COUNTER));
+        final HomingSULOracle<Character, Integer> oracle = new HomingSULOracle<>(sul, ALPHABET);
+        oracle.setHypothesis(COUNTER);
+
+        processQueries(oracle, COUNTER);
+
+        // only the initial start requires a reset
+        Assert.assertEquals(sul.getStatisticalData().getCount(), 1);
+        Assert.assertEquals(oracle.getHardResetCounter().getCount(), 1);
+        Assert.assertTrue(oracle.getHomingCounter().getCount() > 0);
+    }
+
+    @Test
+    public void testUserSuppliedSequence() {
+        final ResetCounterSUL<Character, Integer> sul =
+                new ResetCounterSUL<>("resets", new MealySimulatorSUL<>(COUNTER));
+        // 'c' is a synchronizing sequence
+        final HomingSULOracle<Character, Integer> oracle =
+                new HomingSULOracle<>(sul, ALPHABET, Word.fromLetter('c'));
+        oracle.setHypothesis(COUNTER);
+
+        Assert.assertEquals(oracle.getHomingSequence(), Word.fromLetter('c'));
+
+        processQueries(oracle, COUNTER);
+
+        Assert.assertEquals(sul.getStatisticalData().getCount(), 1);
+        Assert.assertEquals(oracle.getHardResetCounter().getCount(), 1);
+    }
+
+    @Test
+    public void testDisagreeingHypothesis() {
+        final ResetCounterSUL<Character, Integer> sul =
+                new ResetCounterSUL<>("resets", new MealySimulatorSUL<>(COUNTER));
+        final HomingSULOracle<Character, Integer> oracle = new HomingSULOracle<>(sul, ALPHABET);
+
+        // without a hypothesis, every query requires a reset
+        final List<DefaultQuery<Character, Word<Integer>>> queries = processQueries(oracle, COUNTER);
+        final long numNonEmpty = queries.stream().filter(q -> !q.getInput().isEmpty()).count();
+        Assert.assertTrue(oracle.getHardResetCounter().getCount() >= numNonEmpty);
+        Assert.assertEquals(oracle.getHomingCounter().getCount(), 0);
+
+        // a hypothesis that only tracks the parity of the counter: homing (via 'b') and transferring (via 'a') fails
+        // whenever the counter is at 3, because the SUL then signals an overflow
+        final CompactMealy<Character, Integer> parityHyp =
+                AutomatonBuilders.forMealy(new CompactMealy<Character, Integer>(ALPHABET))
+                                 .withInitial("q0")
+                                 .from("q0").on('a').withOutput(0).to("q1")
+                                 .from("q1").on('a').withOutput(0).to("q0")
+                                 .from("q0").on('b').withOutput(0).loop()
+                                 .from("q1").on('b').withOutput(1).loop()
+                                 .from("q0", "q1").on('c').withOutput(0).to("q0")
+                                 .create();
+        oracle.setHypothesis(parityHyp);
+
+        final long resets = oracle.getHardResetCounter().getCount();
+        // answers may be incorrect, since the SUL deviates from the hypothesis
+        processQueries(oracle, null);
+
+        Assert.assertTrue(oracle.getHardResetCounter().getCount() > resets);
+        Assert.assertTrue(oracle.getHomingCounter().getCount() > 0);
+        Assert.assertEquals(sul.getStatisticalData().getCount(), oracle.getHardResetCounter().getCount());
+
+        oracle.post();
+    }
+
+    private static List<DefaultQuery<Character, Word<Integer>>> processQueries(HomingSULOracle<Character, Integer> oracle,
+                                                                             @Nullable MealyMachine<?, Character, ?, Integer> target) {
+        final Random random = new Random(42);
+        final List<DefaultQuery<Character, Word<Integer>>> queries = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WordBuilder<Character> wb = new WordBuilder<>();
+            final int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                // avoid the resetting input, so that the SUL does not trivially return to its initial state
+                wb.add(ALPHABET.getSymbol(random.nextInt(2)));
+            }
+            final Word<Character> word = wb.toWord();
+            final int split = random.nextInt(word.length() + 1);
+            queries.add(new DefaultQuery<>(word.prefix(split), word.subWord(split)));
+        }
+
+        oracle.processQueries(queries);
+
+        if (target != null) {
+            for (DefaultQuery<Character, Word<Integer>> q : queries) {
+                Assert.assertEquals(q.getOutput(), target.computeSuffixOutput(q.getPrefix(), q.getSuffix()));
+            }
+        }
+
+        return queries;
+    }
+}
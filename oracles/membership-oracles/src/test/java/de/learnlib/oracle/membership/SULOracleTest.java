@@ -0,0 +1,349 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.driver.util.ObservableMealySimulatorSUL;
+import de.learnlib.filter.statistic.sul.ResetCounterObservableSUL;
+import de.learnlib.filter.statistic.sul.ResetCounterSUL;
+import de.learnlib.filter.statistic.sul.SymbolCounterObservableSUL;
+import de.learnlib.filter.statistic.sul.SymbolCounterSUL;
+import net.automatalib.automata.transducers.impl.compact.CompactMealy;
+import net.automatalib.util.automata.random.RandomAutomata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SULOracleTest {
+
+    private static final int PREFIX_LENGTH = 20;
+
+    @Test
+    public void testForkReuseAcrossThreads() throws InterruptedException {
+        final AtomicInteger forks = new AtomicInteger();
+        final SULOracle<Integer, Integer> oracle = new SULOracle<>(new CountingSUL(forks, null));
+
+        // sequentially process queries from many short-lived threads
+        for (int i = 0; i < 50; i++) {
+            final DefaultQuery<Integer, Word<Integer>> query = new DefaultQuery<>(Word.fromSymbols(i, i));
+            final Thread thread = new Thread(() -> oracle.processQueries(Collections.singleton(query)));
+            thread.start();
+            thread.join();
+
+            Assert.assertEquals(query.getOutput(), Word.fromSymbols(i, i));
+        }
+
+        Assert.assertEquals(forks.get(), 1);
+    }
+
+    @Test(timeOut = 5000)
+    public void testBoundedForks() throws Exception {
+        final int maxForks = 2;
+        final int numThreads = 8;
+
+        final AtomicInteger forks = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(maxForks);
+
+        final SULOracle<Integer, Integer> oracle = new SULOracle<>(new CountingSUL(forks, () -> {
+            final int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            started.countDown();
+            try {
+                // make sure that the pool is exhausted
+                started.await();
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            active.decrementAndGet();
+        }), maxForks);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final List<Future<?>> futures = new ArrayList<>(numThreads);
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                final DefaultQuery<Integer, Word<Integer>> query = new DefaultQuery<>(Word.fromLetter(i));
+                futures.add(executor.submit(() -> oracle.processQueries(Collections.singleton(query))));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(forks.get(), maxForks);
+        Assert.assertEquals(maxActive.get(), maxForks);
+    }
+
+    @Test(timeOut = 5000)
+    public void testAsyncQueries() throws InterruptedException {
+        final int maxForks = 4;
+        final int numQueries = 20;
+
+        final AtomicInteger forks = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(maxForks);
+        final SULOracle<Integer, Integer> oracle =
+                new SULOracle<>(new CountingSUL(forks, null), maxForks, executor);
+
+        try {
+            final List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>(numQueries);
+            for (int i = 0; i < numQueries; i++) {
+                queries.add(new DefaultQuery<>(Word.fromLetter(i), Word.fromSymbols(i, i)));
+            }
+
+            final CompletableFuture<Void> future = oracle.processQueriesAsync(queries);
+            future.join();
+
+            for (int i = 0; i < numQueries; i++) {
+                Assert.assertEquals(queries.get(i).getOutput(), Word.fromSymbols(i, i));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        Assert.assertTrue(forks.get() <= maxForks);
+    }
+
+    @Test(timeOut = 5000)
+    public void testOwnedExecutor() {
+        final int maxForks = 2;
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final SULOracle<Integer, Integer> oracle =
+                new SULOracle<>(new CountingSUL(new AtomicInteger(), () -> threads.add(Thread.currentThread())),
+                                maxForks);
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = createPrefixClosedQueries();
+
+        oracle.processQueriesAsync(queries).join();
+
+        for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), q.getSuffix());
+        }
+
+        // the blocking tasks run in a bounded pool of the oracle, not in the common pool
+        Assert.assertTrue(threads.size() <= maxForks);
+        for (Thread t : threads) {
+            Assert.assertFalse(t instanceof ForkJoinWorkerThread);
+            Assert.assertTrue(t.isDaemon());
+        }
+
+        oracle.shutdown();
+        Assert.assertThrows(RejectedExecutionException.class, () -> oracle.processQueriesAsync(queries));
+    }
+
+    @Test(timeOut = 5000)
+    public void testLazyExecutor() {
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final SULOracle<Integer, Integer> oracle =
+                new SULOracle<>(new CountingSUL(new AtomicInteger(), () -> threads.add(Thread.currentThread())), 2);
+
+        // synchronous queries do not require an executor, so shutting it down has no effect
+        oracle.processQueries(createPrefixClosedQueries());
+        Assert.assertEquals(threads, Collections.singleton(Thread.currentThread()));
+        oracle.shutdown();
+
+        // the executor is created upon the first asynchronous call
+        threads.clear();
+        oracle.processQueriesAsync(createPrefixClosedQueries()).join();
+        Assert.assertFalse(threads.isEmpty());
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testPrefixTreeExecution() {
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = createPrefixClosedQueries();
+
+        final ResetCounterSUL<Integer, Integer> resets =
+                new ResetCounterSUL<>("resets", new CountingSUL(new AtomicInteger(), null));
+        final SymbolCounterSUL<Integer, Integer> symbols = new SymbolCounterSUL<>("symbols", resets);
+        final SULOracle<Integer, Integer> oracle =
+                new SULOracle<>(symbols, Integer.MAX_VALUE, ForkJoinPool.commonPool(), true);
+
+        oracle.processQueries(queries);
+
+        for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), q.getSuffix());
+        }
+
+        // only the maximal words (one per distinct last symbol) need to be executed
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 2);
+        Assert.assertEquals(symbols.getStatisticalData().getCount(), 2 * PREFIX_LENGTH);
+
+        // compare with the default mode
+        final ResetCounterSUL<Integer, Integer> defaultResets =
+                new ResetCounterSUL<>("resets", new CountingSUL(new AtomicInteger(), null));
+        new SULOracle<>(defaultResets).processQueries(createPrefixClosedQueries());
+
+        Assert.assertEquals(defaultResets.getStatisticalData().getCount(), queries.size());
+    }
+
+    @Test(timeOut = 5000)
+    public void testAsyncPrefixTreeExecution() throws InterruptedException {
+        final int maxForks = 4;
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = createPrefixClosedQueries();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(maxForks);
+        final ResetCounterSUL<Integer, Integer> resets =
+                new ResetCounterSUL<>("resets", new CountingSUL(new AtomicInteger(), null));
+        final SULOracle<Integer, Integer> oracle = new SULOracle<>(resets, maxForks, executor, true);
+
+        try {
+            oracle.processQueriesAsync(queries).join();
+
+            for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+                Assert.assertEquals(q.getOutput(), q.getSuffix());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 2);
+    }
+
+    @Test
+    public void testRestoringPrefixTreeExecution() {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'c');
+        final CompactMealy<Character, Integer> target =
+                RandomAutomata.randomMealy(new Random(42), 20, alphabet, Alphabets.integers(0, 2));
+
+        final Random random = new Random(42);
+        final List<DefaultQuery<Character, Word<Integer>>> queries = new ArrayList<>();
+        final Set<Word<Character>> prefixes = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            final WordBuilder<Character> wb = new WordBuilder<>();
+            for (int j = random.nextInt(10); j >= 0; j--) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            final Word<Character> input = wb.toWord();
+            final int split = random.nextInt(input.length() + 1);
+
+            queries.add(new DefaultQuery<>(input.prefix(split), input.subWord(split)));
+            prefixes.addAll(input.prefixes(false));
+        }
+
+        final ResetCounterObservableSUL<Integer, Character, Integer> resets =
+                new ResetCounterObservableSUL<>("resets", new ObservableMealySimulatorSUL<>(target));
+        final SymbolCounterObservableSUL<Integer, Character, Integer> symbols =
+                new SymbolCounterObservableSUL<>("symbols", resets);
+        final SULOracle<Character, Integer> oracle =
+                new SULOracle<>(symbols, Integer.MAX_VALUE, ForkJoinPool.commonPool(), true);
+
+        oracle.processQueries(queries);
+
+        for (DefaultQuery<Character, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), target.computeSuffixOutput(q.getPrefix(), q.getSuffix()));
+        }
+
+        // the batch is executed in a single session, and every symbol of the prefix tree is executed exactly once
+        Assert.assertEquals(resets.getStatisticalData().getCount(), 1);
+        Assert.assertEquals(symbols.getStatisticalData().getCount(), prefixes.size() - 1);
+    }
+
+    /**
+     * Creates the (split) queries for all prefixes of two words that share a common prefix.
+     */
+    private static List<DefaultQuery<Integer, Word<Integer>>> createPrefixClosedQueries() {
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>();
+
+        final WordBuilder<Integer> wb = new WordBuilder<>(PREFIX_LENGTH);
+        for (int i = 0; i < PREFIX_LENGTH - 1; i++) {
+            wb.add(i);
+        }
+        final Word<Integer> common = wb.toWord();
+
+        for (Word<Integer> word : Arrays.asList(common.append(-1), common.append(-2))) {
+            for (int i = 0; i <= word.length(); i++) {
+                final Word<Integer> input = word.prefix(i);
+                queries.add(new DefaultQuery<>(input.prefix(i / 2), input.subWord(i / 2)));
+            }
+        }
+
+        return queries;
+    }
+
+    /**
+     * An echo SUL that counts the number of forks and runs a given action on reset.
+     */
+    private static final class CountingSUL implements SUL<Integer, Integer> {
+
+        private final AtomicInteger forks;
+        private final Runnable onPre;
+
+        CountingSUL(AtomicInteger forks, Runnable onPre) {
+            this.forks = forks;
+            this.onPre = onPre;
+        }
+
+        @Override
+        public void pre() {
+            if (onPre != null) {
+                onPre.run();
+            }
+        }
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Integer step(Integer in) {
+            return in;
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public SUL<Integer, Integer> fork() {
+            forks.incrementAndGet();
+            return new CountingSUL(forks, onPre);
+        }
+    }
+}
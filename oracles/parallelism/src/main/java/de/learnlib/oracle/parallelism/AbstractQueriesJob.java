@@ -20,11 +20,13 @@ import java.util.Collection;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Abstract base class for jobs (i.e., {@link Runnable}s) that process queries.
  * <p>
- * Subclasses specify how the delegate oracle is obtained.
+ * Subclasses specify how the delegate oracle is obtained (and released). Optionally, a job reports its dispatch and
+ * processing times to an {@link AdaptiveBatchSize} instance (see {@link #trackSubmission(AdaptiveBatchSize)}).
  *
  * @param <I>
  *         input symbol type
@@ -37,17 +39,52 @@ abstract class AbstractQueriesJob<I, D> implements Runnable {
 
     private final Collection<? extends Query<I, D>> queries;
 
+    @Nullable
+    private AdaptiveBatchSize statistics;
+    private long submissionTime;
+
     AbstractQueriesJob(Collection<? extends Query<I, D>> queries) {
         this.queries = queries;
     }
 
     @Override
     public void run() {
-        MembershipOracle<I, D> oracle = getOracle();
+        final long startTime = statistics == null ? 0 : System.nanoTime();
+        final MembershipOracle<I, D> oracle = getOracle();
+        final long acquisitionTime = statistics == null ? 0 : System.nanoTime();
+
+        try {
+            oracle.processQueries(queries);
+        } finally {
+            releaseOracle(oracle);
+        }
 
-        oracle.processQueries(queries);
+        if (statistics != null) {
+            statistics.record(queries.size(), startTime - submissionTime, System.nanoTime() - acquisitionTime);
+        }
+    }
+
+    /**
+     * Marks this job as submitted, and reports its statistics to the given instance after completion. Must be called
+     * right before submitting the job.
+     *
+     * @param statistics
+     *         the instance that tracks the statistics of completed jobs
+     */
+    void trackSubmission(AdaptiveBatchSize statistics) {
+        this.statistics = statistics;
+        this.submissionTime = System.nanoTime();
     }
 
     @NonNull
     protected abstract MembershipOracle<I, D> getOracle();
+
+    /**
+     * Hook for releasing the oracle obtained by {@link #getOracle()} after the queries have been processed. The default
+     * implementation does nothing.
+     *
+     * @param oracle
+     *         the oracle to release
+     */
+    protected void releaseOracle(MembershipOracle<I, D> oracle) {}
 }
@@ -0,0 +1,157 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+
+/**
+ * Computes batch sizes for the jobs of a {@link DynamicParallelOracle}, such that each job takes (approximately) a
+ * given target duration.
+ * <p>
+ * The computation is based on a moving window over the most recently completed jobs, which tracks <ul> <li>the
+ * processing time per query (total processing time divided by the total number of queries of the window) and</li>
+ * <li>the dispatch overhead of a job, i.e., the time between submitting a job and its start. Since this time also
+ * includes the time a job waits for a busy worker, the minimum of the window is used as an estimate.</li> </ul>
+ * <p>
+ * The resulting batch size is chosen such that a job takes the target duration, but at least {@link #OVERHEAD_FACTOR}
+ * times the dispatch overhead. Furthermore, batches are never made so large that the remaining queries of a single
+ * call are distributed over fewer jobs than there are workers. Until the first job has completed, the initial batch
+ * size is used. Since the batch size is requested anew for each job, the estimation already takes effect for the
+ * remaining queries of the call in which the first jobs complete.
+ * <p>
+ * This class is thread-safe.
+ */
+final class AdaptiveBatchSize {
+
+    /**
+     * The number of jobs considered for the estimation.
+     */
+    static final int WINDOW_SIZE = 32;
+
+    /**
+     * The minimum ratio between the duration of a job and its dispatch overhead.
+     */
+    static final int OVERHEAD_FACTOR = 10;
+
+    @Positive
+    private final int initialBatchSize;
+    @NonNegative
+    private final long targetDuration;
+    @Positive
+    private final int parallelism;
+
+    // the moving window, implemented as a ring buffer
+    private final int[] numQueries;
+    private final long[] processingTimes;
+    private final long[] dispatchTimes;
+    private int next;
+    private int size;
+
+    private long totalQueries;
+    private long totalProcessingTime;
+
+    /**
+     * Constructor.
+     *
+     * @param initialBatchSize
+     *         the batch size used until the first job has completed
+     * @param targetDuration
+     *         the target duration of a single job (in nanoseconds)
+     * @param parallelism
+     *         the number of concurrently working jobs
+     */
+    AdaptiveBatchSize(int initialBatchSize, @NonNegative long targetDuration, int parallelism) {
+        this.initialBatchSize = Math.max(1, initialBatchSize);
+        this.targetDuration = targetDuration;
+        this.parallelism = Math.max(1, parallelism);
+        this.numQueries = new int[WINDOW_SIZE];
+        this.processingTimes = new long[WINDOW_SIZE];
+        this.dispatchTimes = new long[WINDOW_SIZE];
+    }
+
+    /**
+     * Returns the number of concurrently working jobs.
+     *
+     * @return the number of concurrently working jobs
+     */
+    @Positive
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the batch size for the next job when distributing the given number of queries.
+     *
+     * @param queries
+     *         the number of queries that still need to be distributed
+     *
+     * @return the batch size
+     */
+    @Positive
+    int getBatchSize(@NonNegative int queries) {
+        final long processingTime;
+        final long numProcessed;
+        long minDispatchTime = Long.MAX_VALUE;
+
+        synchronized (this) {
+            if (size == 0) {
+                return initialBatchSize;
+            }
+
+            processingTime = totalProcessingTime;
+            numProcessed = totalQueries;
+            for (int i = 0; i < size; i++) {
+                minDispatchTime = Math.min(minDispatchTime, dispatchTimes[i]);
+            }
+        }
+
+        final double timePerQuery = Math.max(1.0, (double) processingTime / Math.max(1, numProcessed));
+        final double jobDuration = Math.max(targetDuration, (double) OVERHEAD_FACTOR * minDispatchTime);
+        final long batchSize = (long) Math.ceil(jobDuration / timePerQuery);
+        final long maxBatchSize = Math.max(1, (queries + parallelism - 1) / parallelism);
+
+        return (int) Math.max(1, Math.min(batchSize, maxBatchSize));
+    }
+
+    /**
+     * Records the statistics of a completed job.
+     *
+     * @param queries
+     *         the number of queries of the job
+     * @param dispatchTime
+     *         the time between submitting and starting the job (in nanoseconds)
+     * @param processingTime
+     *         the time it took to process the queries of the job (in nanoseconds)
+     */
+    synchronized void record(@NonNegative int queries, long dispatchTime, long processingTime) {
+        if (size == WINDOW_SIZE) {
+            totalQueries -= numQueries[next];
+            totalProcessingTime -= processingTimes[next];
+        } else {
+            size++;
+        }
+
+        numQueries[next] = queries;
+        processingTimes[next] = Math.max(0, processingTime);
+        dispatchTimes[next] = Math.max(0, dispatchTime);
+
+        totalQueries += queries;
+        totalProcessingTime += processingTimes[next];
+
+        next = (next + 1) % WINDOW_SIZE;
+    }
+}
@@ -17,22 +17,44 @@ package de.learnlib.oracle.parallelism;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import com.google.common.base.Throwables;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import de.learnlib.setting.LearnLibProperty;
 import de.learnlib.setting.LearnLibSettings;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A parallel membership oracle that dynamically distributes queries to worker threads.
+ * <p>
+ * By default, each worker thread maintains a {@link ThreadLocal thread-local} delegate oracle. Alternatively, the
+ * delegate oracles can be drawn from a bounded pool of oracles, which are (exclusively) borrowed by a job for the
+ * duration of its batch. The latter is required for executors that do not re-use their threads (see {@link
+ * PoolPolicy#VIRTUAL}), as otherwise a new oracle would be created for each job.
+ * <p>
+ * Queries may also be processed {@link #processQueriesAsync(Collection) asynchronously}, in which case the jobs are
+ * submitted to the executor without waiting for their completion.
+ * <p>
+ * The size of the batches is either fixed, or adaptively chosen based on the observed processing times of previous
+ * jobs (see {@link DynamicParallelOracleBuilder#withTargetBatchDuration(long, TimeUnit)}). The latter allows to use
+ * the same configuration for fast (e.g. simulated) and slow (e.g. networked) systems. In this case, the queries of a
+ * call are not partitioned upfront. Instead, each of the (concurrently working) jobs submits its successor upon
+ * completion, whose batch size reflects the statistics of all jobs completed so far.
  *
  * @param <I>
  *         input symbol type
@@ -41,9 +63,10 @@ import org.checkerframework.checker.nullness.qual.NonNull;
  *
  * @author Malte Isberner
  */
-public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
+public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D>, AsyncMembershipOracle<I, D> {
 
     public static final int BATCH_SIZE;
+    public static final int BATCH_DURATION;
     public static final int POOL_SIZE;
     public static final PoolPolicy POOL_POLICY;
 
@@ -53,23 +76,79 @@ public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
         int numProcessors = Runtime.getRuntime().availableProcessors();
 
         BATCH_SIZE = settings.getInt(LearnLibProperty.PARALLEL_BATCH_SIZE_DYNAMIC, 1);
+        BATCH_DURATION = settings.getInt(LearnLibProperty.PARALLEL_BATCH_DURATION_DYNAMIC, 0);
         POOL_SIZE = settings.getInt(LearnLibProperty.PARALLEL_POOL_SIZE, numProcessors);
         POOL_POLICY = settings.getEnumValue(LearnLibProperty.PARALLEL_POOL_POLICY, PoolPolicy.class, PoolPolicy.CACHED);
     }
 
-    @NonNull
+    @Nullable
     private final ThreadLocal<MembershipOracle<I, D>> threadLocalOracle;
+    @Nullable
+    private final OraclePool<I, D> oraclePool;
     @NonNull
     private final ExecutorService executor;
     @NonNegative
     private final int batchSize;
+    @Nullable
+    private final AdaptiveBatchSize adaptiveBatchSize;
 
+    /**
+     * Constructor that uses a thread-local delegate oracle for each worker thread of the given executor.
+     *
+     * @param oracleSupplier
+     *         the supplier for spawning new thread-specific membership oracle instances
+     * @param batchSize
+     *         the number of queries of a single job
+     * @param executor
+     *         the executor for processing the jobs
+     */
     public DynamicParallelOracle(final Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
                                  @NonNegative int batchSize,
                                  ExecutorService executor) {
+        this(oracleSupplier, batchSize, executor, null);
+    }
+
+    DynamicParallelOracle(final Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                          @NonNegative int batchSize,
+                          ExecutorService executor,
+                          @Nullable AdaptiveBatchSize adaptiveBatchSize) {
         this.threadLocalOracle = ThreadLocal.withInitial(oracleSupplier);
+        this.oraclePool = null;
         this.executor = executor;
         this.batchSize = batchSize;
+        this.adaptiveBatchSize = adaptiveBatchSize;
+    }
+
+    /**
+     * Constructor that uses a bounded pool of delegate oracles, independent of the (number of) worker threads of the
+     * given executor.
+     *
+     * @param oracleSupplier
+     *         the supplier for lazily spawning new membership oracle instances
+     * @param batchSize
+     *         the number of queries of a single job
+     * @param maxOracles
+     *         the maximum number of oracle instances (and therefore the maximum number of concurrently processed jobs)
+     * @param executor
+     *         the executor for processing the jobs
+     */
+    public DynamicParallelOracle(final Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                 @NonNegative int batchSize,
+                                 @Positive int maxOracles,
+                                 ExecutorService executor) {
+        this(oracleSupplier, batchSize, maxOracles, executor, null);
+    }
+
+    DynamicParallelOracle(final Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                          @NonNegative int batchSize,
+                          @Positive int maxOracles,
+                          ExecutorService executor,
+                          @Nullable AdaptiveBatchSize adaptiveBatchSize) {
+        this.threadLocalOracle = null;
+        this.oraclePool = new OraclePool<>(oracleSupplier, maxOracles);
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.adaptiveBatchSize = adaptiveBatchSize;
     }
 
     @Override
@@ -88,11 +167,73 @@ public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
             return;
         }
 
+        try {
+            if (adaptiveBatchSize != null) {
+                dispatchAdaptively(queries, adaptiveBatchSize).get();
+                return;
+            }
+
+            List<AbstractQueriesJob<I, D>> jobs = createJobs(queries);
+            List<Future<?>> futures = new ArrayList<>(jobs.size());
+
+            for (AbstractQueriesJob<I, D> job : jobs) {
+                futures.add(executor.submit(job));
+            }
+
+            // Await completion of all jobs
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Runnables must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (adaptiveBatchSize != null) {
+            return dispatchAdaptively(queries, adaptiveBatchSize);
+        }
+
+        List<AbstractQueriesJob<I, D>> jobs = createJobs(queries);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[jobs.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(jobs.get(i), executor);
+        }
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    private CompletableFuture<Void> dispatchAdaptively(Collection<? extends Query<I, D>> queries,
+                                                       AdaptiveBatchSize adaptiveBatchSize) {
+        final AdaptiveDispatcher dispatcher = new AdaptiveDispatcher(queries, adaptiveBatchSize);
+        final int numChains = Math.min(adaptiveBatchSize.getParallelism(), queries.size());
+        final CompletableFuture<?>[] chains = new CompletableFuture<?>[numChains];
+
+        for (int i = 0; i < numChains; i++) {
+            final CompletableFuture<Void> chain = new CompletableFuture<>();
+            dispatcher.submitNext(chain);
+            chains[i] = chain;
+        }
+
+        return CompletableFuture.allOf(chains);
+    }
+
+    private List<AbstractQueriesJob<I, D>> createJobs(Collection<? extends Query<I, D>> queries) {
         int numQueries = queries.size();
         int numJobs = (numQueries - 1) / batchSize + 1;
         List<Query<I, D>> currentBatch = null;
 
-        List<Future<?>> futures = new ArrayList<>(numJobs);
+        List<AbstractQueriesJob<I, D>> jobs = new ArrayList<>(numJobs);
 
         for (Query<I, D> query : queries) {
 
@@ -102,29 +243,90 @@ public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
 
             currentBatch.add(query);
             if (currentBatch.size() == batchSize) {
-                Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-                futures.add(future);
+                jobs.add(createJob(currentBatch));
                 currentBatch = null;
             }
         }
 
         if (currentBatch != null) {
-            Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-            futures.add(future);
+            jobs.add(createJob(currentBatch));
         }
 
-        try {
-            // Await completion of all jobs
-            for (Future<?> future : futures) {
-                future.get();
-            }
-        } catch (ExecutionException e) {
-            Throwables.throwIfUnchecked(e.getCause());
-            throw new AssertionError("Runnables must not throw checked exceptions", e);
-        } catch (InterruptedException e) {
-            Thread.interrupted();
-            throw new ParallelOracleInterruptedException(e);
+        return jobs;
+    }
+
+    private AbstractQueriesJob<I, D> createJob(Collection<? extends Query<I, D>> batch) {
+        if (oraclePool != null) {
+            return new PooledQueriesJob<>(batch, oraclePool);
         }
+        assert threadLocalOracle != null;
+        return new DynamicQueriesJob<>(batch, threadLocalOracle);
     }
 
+    /**
+     * Hands out the queries of a single call in batches whose size is determined (at the time of submission) by an
+     * {@link AdaptiveBatchSize} instance. Jobs are organized in chains, i.e. each completed job submits the next batch
+     * of the remaining queries, until all queries have been processed or a job has failed.
+     */
+    private final class AdaptiveDispatcher {
+
+        private final Iterator<? extends Query<I, D>> queries;
+        private final AdaptiveBatchSize adaptiveBatchSize;
+        private int remaining;
+        private boolean failed;
+
+        AdaptiveDispatcher(Collection<? extends Query<I, D>> queries, AdaptiveBatchSize adaptiveBatchSize) {
+            this.queries = queries.iterator();
+            this.adaptiveBatchSize = adaptiveBatchSize;
+            this.remaining = queries.size();
+        }
+
+        void submitNext(CompletableFuture<Void> chain) {
+            final List<Query<I, D>> batch = nextBatch();
+
+            if (batch == null) {
+                chain.complete(null);
+                return;
+            }
+
+            final AbstractQueriesJob<I, D> job = createJob(batch);
+            job.trackSubmission(adaptiveBatchSize);
+
+            try {
+                CompletableFuture.runAsync(job, executor).whenComplete((v, t) -> {
+                    if (t == null) {
+                        submitNext(chain);
+                    } else {
+                        fail(chain, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(chain, e);
+            }
+        }
+
+        @Nullable
+        private synchronized List<Query<I, D>> nextBatch() {
+            if (failed || remaining == 0) {
+                return null;
+            }
+
+            final int size = Math.min(remaining, adaptiveBatchSize.getBatchSize(remaining));
+            final List<Query<I, D>> batch = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                batch.add(queries.next());
+            }
+
+            remaining -= size;
+            return batch;
+        }
+
+        private void fail(CompletableFuture<Void> chain, Throwable cause) {
+            synchronized (this) {
+                failed = true;
+            }
+            chain.completeExceptionally(cause);
+        }
+    }
 }
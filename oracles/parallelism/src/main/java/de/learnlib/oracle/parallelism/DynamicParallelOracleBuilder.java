@@ -49,6 +49,8 @@ public class DynamicParallelOracleBuilder<I, D> {
     @NonNegative
     private int batchSize = DynamicParallelOracle.BATCH_SIZE;
     @NonNegative
+    private long batchDuration = TimeUnit.MICROSECONDS.toNanos(DynamicParallelOracle.BATCH_DURATION);
+    @NonNegative
     private int poolSize = DynamicParallelOracle.POOL_SIZE;
     @NonNull
     private PoolPolicy poolPolicy = DynamicParallelOracle.POOL_POLICY;
@@ -76,6 +78,25 @@ public class DynamicParallelOracleBuilder<I, D> {
         return this;
     }
 
+    /**
+     * Enables the adaptive batch size mode, in which the batch size is continuously adjusted such that a single job
+     * takes (approximately) the given duration. The adjustment is based on the processing times of previous jobs. Until
+     * the first job has completed, the {@link #withBatchSize(int) batch size} is used. A duration of zero disables the
+     * adaptive mode.
+     *
+     * @param duration
+     *         the target duration of a single job
+     * @param unit
+     *         the unit of the duration
+     *
+     * @return {@code this}
+     */
+    @NonNull
+    public DynamicParallelOracleBuilder<I, D> withTargetBatchDuration(@NonNegative long duration, TimeUnit unit) {
+        this.batchDuration = unit.toNanos(duration);
+        return this;
+    }
+
     @NonNull
     public DynamicParallelOracleBuilder<I, D> withPoolSize(@NonNegative int poolSize) {
         this.poolSize = poolSize;
@@ -93,6 +114,9 @@ public class DynamicParallelOracleBuilder<I, D> {
 
         final Supplier<? extends MembershipOracle<I, D>> supplier;
         final ExecutorService executor;
+        final AdaptiveBatchSize adaptiveBatchSize = batchDuration > 0 ?
+                new AdaptiveBatchSize(batchSize, batchDuration, oracles != null ? oracles.size() : poolSize) :
+                null;
 
         if (oracles != null) {
             executor = Executors.newFixedThreadPool(oracles.size());
@@ -108,13 +132,21 @@ public class DynamicParallelOracleBuilder<I, D> {
                 case CACHED:
                     executor = new ScalingThreadPoolExecutor(0, poolSize, DEFAULT_KEEP_ALIVE_TIME, TimeUnit.SECONDS);
                     break;
+                case VIRTUAL:
+                    // threads are not re-used, so bound the number of oracles (rather than threads) by the pool size
+                    executor = ThreadPerTaskExecutors.newThreadPerTaskExecutor();
+                    return new DynamicParallelOracle<>(oracleSupplier,
+                                                       batchSize,
+                                                       poolSize,
+                                                       executor,
+                                                       adaptiveBatchSize);
                 default:
                     throw new IllegalStateException("Unknown pool policy: " + poolPolicy);
             }
             supplier = oracleSupplier;
         }
 
-        return new DynamicParallelOracle<>(supplier, batchSize, executor);
+        return new DynamicParallelOracle<>(supplier, batchSize, executor, adaptiveBatchSize);
     }
 
     static class StaticOracleProvider<I, D> implements Supplier<MembershipOracle<I, D>> {
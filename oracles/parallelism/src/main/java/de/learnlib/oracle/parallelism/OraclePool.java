@@ -0,0 +1,82 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A bounded pool of membership oracles. Oracles are lazily created using the given supplier, but at most {@code
+ * maxOracles} oracles are in use at the same time. Threads trying to acquire an oracle from an exhausted pool block
+ * until another thread releases an oracle.
+ * <p>
+ * As opposed to {@link ThreadLocal thread-local} oracles, the number of oracles created by this pool does not depend
+ * on the number of threads accessing it, which makes it suitable for (short-lived) thread-per-task executors.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+final class OraclePool<I, D> {
+
+    @NonNull
+    private final Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    @NonNull
+    private final Deque<MembershipOracle<I, D>> idleOracles;
+    @NonNull
+    private final Semaphore permits;
+
+    OraclePool(Supplier<? extends MembershipOracle<I, D>> oracleSupplier, @Positive int maxOracles) {
+        this.oracleSupplier = oracleSupplier;
+        this.idleOracles = new ConcurrentLinkedDeque<>();
+        this.permits = new Semaphore(maxOracles);
+    }
+
+    @NonNull
+    MembershipOracle<I, D> acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParallelOracleInterruptedException(e);
+        }
+
+        final MembershipOracle<I, D> oracle = idleOracles.pollFirst();
+
+        if (oracle != null) {
+            return oracle;
+        }
+
+        try {
+            return oracleSupplier.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(MembershipOracle<I, D> oracle) {
+        idleOracles.offerFirst(oracle);
+        permits.release();
+    }
+}
@@ -72,6 +72,16 @@ public interface ParallelOracle<I, D> extends MembershipOracle<I, D> {
          *
          * @see Executors#newCachedThreadPool()
          */
-        CACHED
+        CACHED,
+        /**
+         * Start a new thread for each task. On JVMs that support virtual threads (Java 21 and later), each task is
+         * executed in a new virtual thread, which makes this policy well-suited for I/O-bound oracles (e.g. SULs that
+         * mostly wait for network responses). On older JVMs, this policy falls back to an unbounded cached thread pool
+         * of platform threads.
+         * <p>
+         * Note that this policy does not limit the number of concurrently running threads. Oracles that need to bound
+         * the number of concurrently used resources (e.g. SUL forks) have to take care of this themselves.
+         */
+        VIRTUAL
     }
 }
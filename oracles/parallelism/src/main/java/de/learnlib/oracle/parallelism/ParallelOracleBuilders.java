@@ -24,7 +24,7 @@ import de.learnlib.oracle.parallelism.ParallelOracle.PoolPolicy;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
- * Builders for (static and dynamic) parallel oracles.
+ * Builders for (static, dynamic and work-stealing) parallel oracles.
  * <p>
  * Using the methods defined in this class is the preferred way of instantiating parallel oracles.
  * <p>
@@ -55,6 +55,24 @@ import org.checkerframework.checker.nullness.qual.NonNull;
  *      .withPoolPolicy(PoolPolicy.CACHED)
  *      .create();
  * </pre>
+ * <p>
+ * Creating a dynamic parallel oracle for I/O-bound oracles (e.g. network-facing SULs) that executes each batch in a
+ * new (virtual) thread, using at most 200 oracle instances concurrently:
+ * <pre>
+ * ParallelOracleBuilders.newDynamicParallelOracle(oracleSupplier)
+ *      .withPoolSize(200)
+ *      .withPoolPolicy(PoolPolicy.VIRTUAL)
+ *      .create();
+ * </pre>
+ * <p>
+ * Creating a work-stealing parallel oracle with a pool of size 4 and a minimum batch cost of 200 symbols, using an
+ * oracle supplier:
+ * <pre>
+ * ParallelOracleBuilders.newWorkStealingParallelOracle(oracleSupplier)
+ *      .withMinBatchCost(200)
+ *      .withPoolSize(4)
+ *      .create();
+ * </pre>
  *
  * @author Malte Isberner
  */
@@ -181,4 +199,64 @@ public final class ParallelOracleBuilders {
     public static <I, D> StaticParallelOracleBuilder<I, D> newStaticParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles) {
         return new StaticParallelOracleBuilder<>(oracles);
     }
+
+    /**
+     * Creates a {@link WorkStealingParallelOracleBuilder} using the provided supplier. Uses the further specified
+     * {@link WorkStealingParallelOracleBuilder#withPoolSize(int)} (or its default) to determine the number of worker
+     * threads and oracle instances.
+     *
+     * @param oracleSupplier
+     *         the supplier for spawning new worker-specific membership oracle instances
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return a preconfigured oracle builder
+     */
+    @NonNull
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        return new WorkStealingParallelOracleBuilder<>(oracleSupplier);
+    }
+
+    /**
+     * Convenience method for {@link #newWorkStealingParallelOracle(Collection)}.
+     *
+     * @param firstOracle
+     *         the first (mandatory) oracle
+     * @param otherOracles
+     *         further (optional) oracles to be used by other threads
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return a preconfigured oracle builder
+     */
+    @NonNull
+    @SafeVarargs
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(MembershipOracle<I, D> firstOracle,
+                                                                                               MembershipOracle<I, D>... otherOracles) {
+        return newWorkStealingParallelOracle(Lists.asList(firstOracle, otherOracles));
+    }
+
+    /**
+     * Creates a {@link WorkStealingParallelOracleBuilder} using the provided collection of membership oracles. Unless
+     * a custom pool is specified, the resulting parallel oracle will spawn a worker thread for each of the provided
+     * oracles. Each oracle is used by at most one worker at a time (so that the oracles do not need to care about
+     * synchronization if they don't share state).
+     *
+     * @param oracles
+     *         the oracle instances to distribute the queries to
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return the preconfigured oracle builder
+     */
+    @NonNull
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles) {
+        return new WorkStealingParallelOracleBuilder<>(oracles);
+    }
 }
@@ -0,0 +1,53 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Collection;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A queries job that borrows a membership oracle from an {@link OraclePool} for the duration of its execution,
+ * regardless of the executing thread.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+final class PooledQueriesJob<I, D> extends AbstractQueriesJob<I, D> {
+
+    @NonNull
+    private final OraclePool<I, D> oraclePool;
+
+    PooledQueriesJob(Collection<? extends Query<I, D>> queries, OraclePool<I, D> oraclePool) {
+        super(queries);
+        this.oraclePool = oraclePool;
+    }
+
+    @Override
+    protected MembershipOracle<I, D> getOracle() {
+        return oraclePool.acquire();
+    }
+
+    @Override
+    protected void releaseOracle(MembershipOracle<I, D> oracle) {
+        oraclePool.release(oracle);
+    }
+
+}
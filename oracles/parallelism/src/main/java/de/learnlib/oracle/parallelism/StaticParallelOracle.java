@@ -84,6 +84,9 @@ public class StaticParallelOracle<I, D> implements ParallelOracle<I, D> {
             case CACHED:
                 this.executor = Executors.newCachedThreadPool();
                 break;
+            case VIRTUAL:
+                this.executor = ThreadPerTaskExecutors.newThreadPerTaskExecutor();
+                break;
             default:
                 throw new IllegalArgumentException("Illegal pool policy: " + policy);
         }
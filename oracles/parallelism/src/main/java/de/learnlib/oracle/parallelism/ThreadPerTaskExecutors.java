@@ -0,0 +1,67 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.learnlib.oracle.parallelism.ParallelOracle.PoolPolicy;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Utility class for creating the executors of the {@link PoolPolicy#VIRTUAL} pool policy.
+ * <p>
+ * Since LearnLib is compiled against Java 8, the virtual thread API (Java 21 and later) is accessed reflectively.
+ */
+final class ThreadPerTaskExecutors {
+
+    private static final @Nullable Method VIRTUAL_EXECUTOR_FACTORY;
+
+    static {
+        Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            // virtual threads are not supported by this JVM
+            factory = null;
+        }
+        VIRTUAL_EXECUTOR_FACTORY = factory;
+    }
+
+    private ThreadPerTaskExecutors() {
+        throw new AssertionError("Constructor should not be invoked");
+    }
+
+    /**
+     * Creates an executor that executes each task in a new virtual thread, if supported by the JVM. Otherwise, an
+     * unbounded cached thread pool is returned.
+     *
+     * @return the executor
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        if (VIRTUAL_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Could not create virtual thread executor", e);
+            }
+        }
+
+        return Executors.newCachedThreadPool();
+    }
+}
@@ -0,0 +1,326 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.setting.LearnLibProperty;
+import de.learnlib.setting.LearnLibSettings;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A parallel membership oracle that distributes queries to worker threads of a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Incoming queries are first ordered along a prefix tree of their inputs, so that queries sharing a common prefix end
+ * up next to each other. The ordered queries are then recursively split into contiguous batches of roughly equal
+ * <i>cost</i>, where the cost of a query is estimated by the number of its symbols (plus one for the reset). Since
+ * batches are contiguous, each worker usually receives queries with shared prefixes which improves the locality of the
+ * delegate oracles (e.g. for caches or SULs). Idle workers steal pending batches from busy ones, so long queries (e.g.
+ * of W-method test suites) do not leave the other workers idle.
+ * <p>
+ * Each batch is answered by one of the given delegate oracles, which is exclusively used by the executing worker for
+ * the duration of the batch. Hence, the delegate oracles do not need to care about synchronization if they don't share
+ * state. Workers that wait for an idle delegate oracle are
+ * {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker) managed blockers}, so the pool may compensate for them
+ * with additional threads.
+ * <p>
+ * Queries may also be processed {@link #processQueriesAsync(Collection) asynchronously}, in which case the root task is
+ * submitted to the pool without waiting for its completion.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public class WorkStealingParallelOracle<I, D> implements ParallelOracle<I, D>, AsyncMembershipOracle<I, D> {
+
+    /**
+     * The number of batches (per worker) the queries are at least split into, so that idle workers have something to
+     * steal.
+     */
+    private static final int BATCHES_PER_WORKER = 4;
+    private static final int DEFAULT_MIN_BATCH_COST = 100;
+
+    public static final int MIN_BATCH_COST;
+    public static final int POOL_SIZE;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+
+        int numProcessors = Runtime.getRuntime().availableProcessors();
+
+        MIN_BATCH_COST = settings.getInt(LearnLibProperty.PARALLEL_BATCH_COST_WORK_STEALING, DEFAULT_MIN_BATCH_COST);
+        POOL_SIZE = settings.getInt(LearnLibProperty.PARALLEL_POOL_SIZE, numProcessors);
+    }
+
+    @NonNull
+    private final BlockingDeque<MembershipOracle<I, D>> idleOracles;
+    @NonNull
+    private final ForkJoinPool pool;
+    @NonNegative
+    private final int minBatchCost;
+
+    public WorkStealingParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
+                                      @NonNegative int minBatchCost,
+                                      ForkJoinPool pool) {
+        Preconditions.checkArgument(!oracles.isEmpty(), "No oracles specified");
+        this.idleOracles = new LinkedBlockingDeque<>(oracles);
+        this.minBatchCost = minBatchCost;
+        this.pool = pool;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        pool.invoke(createRootTask(queries));
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final QueriesTask<I, D> task = createRootTask(queries);
+        // invoking the task from within a worker of the pool directly executes it in this worker
+        return CompletableFuture.runAsync(task::invoke, pool);
+    }
+
+    private QueriesTask<I, D> createRootTask(Collection<? extends Query<I, D>> queries) {
+        final List<Query<I, D>> orderedQueries = orderByPrefix(queries);
+        final int numQueries = orderedQueries.size();
+
+        // costs[i] stores the accumulated cost of the first i queries
+        final long[] costs = new long[numQueries + 1];
+        for (int i = 0; i < numQueries; i++) {
+            final Query<I, D> q = orderedQueries.get(i);
+            costs[i + 1] = costs[i] + q.getPrefix().length() + q.getSuffix().length() + 1;
+        }
+
+        final long threshold =
+                Math.max(minBatchCost, costs[numQueries] / ((long) pool.getParallelism() * BATCHES_PER_WORKER));
+
+        return new QueriesTask<>(null, idleOracles, orderedQueries, costs, 0, numQueries, threshold);
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Orders the given queries by a depth-first traversal of the prefix tree of their inputs, so that queries sharing
+     * a common prefix are placed consecutively.
+     */
+    private static <I, D> List<Query<I, D>> orderByPrefix(Collection<? extends Query<I, D>> queries) {
+        final PrefixNode<I, D> root = new PrefixNode<>();
+
+        for (Query<I, D> q : queries) {
+            PrefixNode<I, D> curr = root;
+            for (I sym : q.getPrefix()) {
+                curr = curr.getOrCreateSuccessor(sym);
+            }
+            for (I sym : q.getSuffix()) {
+                curr = curr.getOrCreateSuccessor(sym);
+            }
+            curr.addQuery(q);
+        }
+
+        final List<Query<I, D>> result = new ArrayList<>(queries.size());
+        final Deque<PrefixNode<I, D>> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            final PrefixNode<I, D> node = stack.pop();
+            result.addAll(node.getQueries());
+            for (PrefixNode<I, D> succ : node.getSuccessors()) {
+                stack.push(succ);
+            }
+        }
+
+        return result;
+    }
+
+    private static final class PrefixNode<I, D> {
+
+        private @Nullable Map<I, PrefixNode<I, D>> successors;
+        private @Nullable List<Query<I, D>> queries;
+
+        PrefixNode<I, D> getOrCreateSuccessor(I symbol) {
+            if (successors == null) {
+                successors = new HashMap<>();
+            }
+            return successors.computeIfAbsent(symbol, k -> new PrefixNode<>());
+        }
+
+        Collection<PrefixNode<I, D>> getSuccessors() {
+            return successors == null ? Collections.emptyList() : successors.values();
+        }
+
+        void addQuery(Query<I, D> query) {
+            if (queries == null) {
+                queries = new ArrayList<>();
+            }
+            queries.add(query);
+        }
+
+        List<Query<I, D>> getQueries() {
+            return queries == null ? Collections.emptyList() : queries;
+        }
+    }
+
+    /**
+     * A {@link ForkJoinPool.ManagedBlocker} that waits for an idle delegate oracle.
+     */
+    private static final class OracleBlocker<I, D> implements ForkJoinPool.ManagedBlocker {
+
+        private final BlockingDeque<MembershipOracle<I, D>> idleOracles;
+        private @Nullable MembershipOracle<I, D> oracle;
+
+        OracleBlocker(BlockingDeque<MembershipOracle<I, D>> idleOracles) {
+            this.idleOracles = idleOracles;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (oracle == null) {
+                oracle = idleOracles.takeFirst();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (oracle == null) {
+                oracle = idleOracles.pollFirst();
+            }
+            return oracle != null;
+        }
+    }
+
+    /**
+     * A task that recursively splits its range of queries into halves of equal cost (forking the upper half) until
+     * its cost drops below the given threshold, and processes the remaining range with an idle delegate oracle.
+     */
+    private static final class QueriesTask<I, D> extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BlockingDeque<MembershipOracle<I, D>> idleOracles;
+        private final List<Query<I, D>> queries;
+        private final long[] costs;
+        private final int low;
+        private final int high;
+        private final long threshold;
+
+        QueriesTask(@Nullable CountedCompleter<?> completer,
+                    BlockingDeque<MembershipOracle<I, D>> idleOracles,
+                    List<Query<I, D>> queries,
+                    long[] costs,
+                    int low,
+                    int high,
+                    long threshold) {
+            super(completer);
+            this.idleOracles = idleOracles;
+            this.queries = queries;
+            this.costs = costs;
+            this.low = low;
+            this.high = high;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void compute() {
+            int h = high;
+
+            while (h - low > 1 && costs[h] - costs[low] > threshold) {
+                final int mid = split(low, h);
+                addToPendingCount(1);
+                new QueriesTask<>(this, idleOracles, queries, costs, mid, h, threshold).fork();
+                h = mid;
+            }
+
+            final OracleBlocker<I, D> blocker = new OracleBlocker<>(idleOracles);
+            try {
+                // let the pool compensate for the blocked worker, so that pending tasks do not starve
+                ForkJoinPool.managedBlock(blocker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParallelOracleInterruptedException(e);
+            }
+
+            final MembershipOracle<I, D> oracle = blocker.oracle;
+            assert oracle != null;
+
+            try {
+                oracle.processQueries(queries.subList(low, h));
+            } finally {
+                // re-use the most recently used oracle first, as it may still be "warm"
+                idleOracles.offerFirst(oracle);
+            }
+
+            tryComplete();
+        }
+
+        /**
+         * Returns the index {@code mid} with {@code low < mid < high} that splits the given range into two ranges of
+         * (approximately) equal cost.
+         */
+        private int split(int low, int high) {
+            final long target = costs[low] + (costs[high] - costs[low]) / 2;
+
+            int l = low + 1;
+            int h = high - 1;
+
+            while (l < h) {
+                final int m = (l + h) >>> 1;
+                if (costs[m] < target) {
+                    l = m + 1;
+                } else {
+                    h = m;
+                }
+            }
+
+            return l;
+        }
+    }
+}
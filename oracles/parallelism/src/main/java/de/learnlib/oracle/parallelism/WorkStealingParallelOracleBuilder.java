@@ -0,0 +1,101 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.api.oracle.MembershipOracle;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A builder for a {@link WorkStealingParallelOracle}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output type
+ */
+public class WorkStealingParallelOracleBuilder<I, D> {
+
+    private final Collection<? extends MembershipOracle<I, D>> oracles;
+    private final Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    private ForkJoinPool customPool;
+    @NonNegative
+    private int minBatchCost = WorkStealingParallelOracle.MIN_BATCH_COST;
+    @NonNegative
+    private int poolSize = WorkStealingParallelOracle.POOL_SIZE;
+
+    public WorkStealingParallelOracleBuilder(Collection<? extends MembershipOracle<I, D>> oracles) {
+        Preconditions.checkArgument(!oracles.isEmpty(), "No oracles specified");
+        this.oracles = oracles;
+        this.oracleSupplier = null;
+    }
+
+    public WorkStealingParallelOracleBuilder(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        this.oracles = null;
+        this.oracleSupplier = oracleSupplier;
+    }
+
+    @NonNull
+    public WorkStealingParallelOracleBuilder<I, D> withMinBatchCost(@NonNegative int minBatchCost) {
+        this.minBatchCost = minBatchCost;
+        return this;
+    }
+
+    @NonNull
+    public WorkStealingParallelOracleBuilder<I, D> withPoolSize(@NonNegative int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    @NonNull
+    public WorkStealingParallelOracleBuilder<I, D> withCustomPool(ForkJoinPool pool) {
+        this.customPool = pool;
+        return this;
+    }
+
+    @NonNull
+    public WorkStealingParallelOracle<I, D> create() {
+        final Collection<? extends MembershipOracle<I, D>> oracleInstances;
+        final ForkJoinPool pool;
+
+        if (oracles != null) {
+            oracleInstances = oracles;
+        } else {
+            final int numInstances = customPool == null ? poolSize : customPool.getParallelism();
+            final List<MembershipOracle<I, D>> oracleList = new ArrayList<>(numInstances);
+            for (int i = 0; i < numInstances; i++) {
+                oracleList.add(oracleSupplier.get());
+            }
+            oracleInstances = oracleList;
+        }
+
+        if (customPool != null) {
+            pool = customPool;
+        } else {
+            pool = new ForkJoinPool(oracleInstances.size());
+        }
+
+        return new WorkStealingParallelOracle<>(oracleInstances, minBatchCost, pool);
+    }
+
+}
@@ -0,0 +1,84 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdaptiveBatchSizeTest {
+
+    private static final long TARGET_DURATION = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int MANY_QUERIES = 1_000_000;
+
+    @Test
+    public void testInitialBatchSize() {
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(7, TARGET_DURATION, 4);
+        Assert.assertEquals(batchSize.getBatchSize(MANY_QUERIES), 7);
+    }
+
+    @Test
+    public void testTargetDuration() {
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1, TARGET_DURATION, 4);
+
+        // 1 microsecond per query
+        batchSize.record(10, 0, TimeUnit.MICROSECONDS.toNanos(10));
+        Assert.assertEquals(batchSize.getBatchSize(MANY_QUERIES), 100);
+
+        // slow queries: 1 millisecond per query
+        final AdaptiveBatchSize slowBatchSize = new AdaptiveBatchSize(10, TARGET_DURATION, 4);
+        slowBatchSize.record(1, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(slowBatchSize.getBatchSize(MANY_QUERIES), 1);
+    }
+
+    @Test
+    public void testDispatchOverhead() {
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1, TARGET_DURATION, 4);
+
+        // 1 microsecond per query, but 50 microseconds (minimal) dispatch overhead
+        batchSize.record(10, TimeUnit.MICROSECONDS.toNanos(50), TimeUnit.MICROSECONDS.toNanos(10));
+        batchSize.record(10, TimeUnit.MICROSECONDS.toNanos(500), TimeUnit.MICROSECONDS.toNanos(10));
+
+        Assert.assertEquals(batchSize.getBatchSize(MANY_QUERIES), 50 * AdaptiveBatchSize.OVERHEAD_FACTOR);
+    }
+
+    @Test
+    public void testParallelismBound() {
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1, TARGET_DURATION, 4);
+        batchSize.record(10, 0, TimeUnit.MICROSECONDS.toNanos(10));
+
+        // 100 queries must be distributed over (at least) 4 jobs
+        Assert.assertEquals(batchSize.getBatchSize(100), 25);
+        Assert.assertEquals(batchSize.getBatchSize(1), 1);
+    }
+
+    @Test
+    public void testMovingWindow() {
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1, TARGET_DURATION, 4);
+
+        for (int i = 0; i < AdaptiveBatchSize.WINDOW_SIZE; i++) {
+            batchSize.record(1, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Assert.assertEquals(batchSize.getBatchSize(MANY_QUERIES), 1);
+
+        // once the window only contains fast jobs, the slow ones should no longer affect the batch size
+        for (int i = 0; i < AdaptiveBatchSize.WINDOW_SIZE; i++) {
+            batchSize.record(10, 0, TimeUnit.MICROSECONDS.toNanos(10));
+        }
+        Assert.assertEquals(batchSize.getBatchSize(MANY_QUERIES), 100);
+    }
+}
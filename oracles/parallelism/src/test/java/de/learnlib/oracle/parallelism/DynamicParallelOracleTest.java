@@ -19,8 +19,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import de.learnlib.api.oracle.MembershipOracle;
@@ -72,6 +75,137 @@ public class DynamicParallelOracleTest {
         }
     }
 
+    @Test
+    public void testAdaptiveBatchSize() {
+        final AtomicInteger minBatchSize = new AtomicInteger(Integer.MAX_VALUE);
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        final NullOracle recordingOracle = new NullOracle() {
+
+            @Override
+            public void processQueries(Collection<? extends Query<Void, Void>> queries) {
+                minBatchSize.accumulateAndGet(queries.size(), Math::min);
+                maxBatchSize.accumulateAndGet(queries.size(), Math::max);
+                super.processQueries(queries);
+            }
+        };
+
+        final DynamicParallelOracle<Void, Void> oracle =
+                ParallelOracleBuilders.newDynamicParallelOracle(() -> recordingOracle)
+                                      .withBatchSize(1)
+                                      .withTargetBatchDuration(1, TimeUnit.SECONDS)
+                                      .withPoolSize(4)
+                                      .withPoolPolicy(PoolPolicy.FIXED)
+                                      .create();
+
+        try {
+            // the first jobs are processed with the initial batch size, but the remaining queries of the same call
+            // already benefit from the statistics of the completed jobs
+            List<AnswerOnceQuery> queries = createQueries(100);
+            oracle.processQueries(queries);
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+            Assert.assertEquals(minBatchSize.get(), 1);
+            Assert.assertTrue(maxBatchSize.get() > 1);
+
+            // the null oracle is fast, so subsequent batches should only be bounded by the number of workers
+            maxBatchSize.set(0);
+            queries = createQueries(100);
+            oracle.processQueries(queries);
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+            Assert.assertEquals(maxBatchSize.get(), 25);
+
+            // same for asynchronous calls
+            queries = createQueries(100);
+            oracle.processQueriesAsync(queries).join();
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(timeOut = 2000)
+    public void testAsyncQueries() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final NullOracle blockingOracle = new NullOracle() {
+
+            @Override
+            public void processQueries(Collection<? extends Query<Void, Void>> queries) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                super.processQueries(queries);
+            }
+        };
+
+        final DynamicParallelOracle<Void, Void> oracle =
+                ParallelOracleBuilders.newDynamicParallelOracle(() -> blockingOracle)
+                                      .withBatchSize(1)
+                                      .withPoolSize(4)
+                                      .withPoolPolicy(PoolPolicy.CACHED)
+                                      .create();
+
+        try {
+            List<AnswerOnceQuery> queries = createQueries(100);
+
+            // the call must not block, although none of the queries can be answered yet
+            CompletableFuture<Void> future = oracle.processQueriesAsync(queries);
+            Assert.assertFalse(future.isDone());
+
+            latch.countDown();
+            future.join();
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadOracleBound() {
+        final AtomicInteger numOracles = new AtomicInteger();
+        final ParallelOracle<Void, Void> oracle = ParallelOracleBuilders.newDynamicParallelOracle(() -> {
+            numOracles.incrementAndGet();
+            return new NullOracle();
+        }).withBatchSize(1).withPoolSize(3).withPoolPolicy(PoolPolicy.VIRTUAL).create();
+
+        try {
+            List<AnswerOnceQuery> queries = createQueries(100);
+
+            oracle.processQueries(queries);
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+
+        // threads are not re-used, but oracles must be
+        Assert.assertTrue(numOracles.get() <= 3);
+    }
+
+    @Test(timeOut = 2000)
+    public void testVirtualThreadCreation() {
+        // every job runs in its own thread, so all oracles need to be used concurrently to release the latch
+        testThreadCreation(oracles -> ParallelOracleBuilders.newDynamicParallelOracle(new StaticOracleProvider<>(oracles))
+                                                            .withBatchSize(1)
+                                                            .withPoolSize(oracles.size())
+                                                            .withPoolPolicy(PoolPolicy.VIRTUAL)
+                                                            .create());
+    }
+
     @Test(timeOut = 2000)
     public void testCachedThreadCreation() {
         // Explicitly use the supplier version, to test the cached pool creation
@@ -55,7 +55,7 @@ public class StaticParallelOracleTest {
             oracles.add(new TestMembershipOracle(i));
         }
 
-        final Object[][] result = new Object[2][1];
+        final Object[][] result = new Object[3][1];
 
         result[0][0] =
                 ParallelOracleBuilders.newStaticParallelOracle(oracles).withMinBatchSize(MIN_BATCH_SIZE).create();
@@ -64,6 +64,10 @@ public class StaticParallelOracleTest {
                                              .withNumInstances(NUM_ORACLES)
                                              .withPoolPolicy(PoolPolicy.CACHED)
                                              .create();
+        result[2][0] = ParallelOracleBuilders.newStaticParallelOracle(oracles)
+                                             .withMinBatchSize(MIN_BATCH_SIZE)
+                                             .withPoolPolicy(PoolPolicy.VIRTUAL)
+                                             .create();
 
         return result;
     }
@@ -0,0 +1,317 @@
+/* Copyright (C) 2013-2019 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WorkStealingParallelOracleTest {
+
+    private static final int NUM_ORACLES = 4;
+
+    @Test
+    public void testDistinctQueries() {
+        final AtomicInteger batchIds = new AtomicInteger();
+        final List<TestMembershipOracle> oracles = new ArrayList<>(NUM_ORACLES);
+        for (int i = 0; i < NUM_ORACLES; i++) {
+            oracles.add(new TestMembershipOracle(batchIds));
+        }
+
+        final ParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(oracles).withMinBatchCost(0).create();
+
+        try {
+            final Random random = new Random(42);
+            final List<DefaultQuery<Integer, TestOutput>> queries = new ArrayList<>(1000);
+            for (int i = 0; i < 1000; i++) {
+                queries.add(new DefaultQuery<>(createWord(random), createWord(random)));
+            }
+
+            oracle.processQueries(queries);
+
+            for (DefaultQuery<Integer, TestOutput> q : queries) {
+                final TestOutput output = q.getOutput();
+                Assert.assertNotNull(output);
+                Assert.assertEquals(output.input, q.getInput());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncQueries() {
+        final AtomicInteger batchIds = new AtomicInteger();
+        final List<TestMembershipOracle> oracles = new ArrayList<>(NUM_ORACLES);
+        for (int i = 0; i < NUM_ORACLES; i++) {
+            oracles.add(new TestMembershipOracle(batchIds));
+        }
+
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(oracles).withMinBatchCost(0).create();
+
+        try {
+            final Random random = new Random(42);
+            final List<DefaultQuery<Integer, TestOutput>> queries = new ArrayList<>(1000);
+            for (int i = 0; i < 1000; i++) {
+                queries.add(new DefaultQuery<>(createWord(random), createWord(random)));
+            }
+
+            final int half = queries.size() / 2;
+
+            // pipeline two rounds of queries
+            final CompletableFuture<Void> first = oracle.processQueriesAsync(queries.subList(0, half));
+            final CompletableFuture<Void> second = oracle.processQueriesAsync(queries.subList(half, queries.size()));
+
+            CompletableFuture.allOf(first, second).join();
+
+            for (DefaultQuery<Integer, TestOutput> q : queries) {
+                final TestOutput output = q.getOutput();
+                Assert.assertNotNull(output);
+                Assert.assertEquals(output.input, q.getInput());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testDuplicateQueries() {
+        final ParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(() -> new TestMembershipOracle(new AtomicInteger()))
+                                      .withMinBatchCost(0)
+                                      .withPoolSize(NUM_ORACLES)
+                                      .create();
+
+        try {
+            final Random random = new Random(42);
+            final List<Query<Integer, TestOutput>> queries = new ArrayList<>(101);
+            for (int i = 0; i < 100; i++) {
+                queries.add(new AnswerOnceQuery(createWord(random)));
+            }
+            queries.add(queries.get(0));
+
+            oracle.processQueries(queries);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrefixAffinity() {
+        final AtomicInteger batchIds = new AtomicInteger();
+        final ParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(new TestMembershipOracle(batchIds),
+                                                                     new TestMembershipOracle(batchIds))
+                                      // two queries groups of cost 10 * (4 + 1 + 1)
+                                      .withMinBatchCost(60)
+                                      .create();
+
+        try {
+            final Word<Integer> prefix0 = Word.fromSymbols(0, 0, 0, 0);
+            final Word<Integer> prefix1 = Word.fromSymbols(1, 1, 1, 1);
+            final List<DefaultQuery<Integer, TestOutput>> queries0 = new ArrayList<>(10);
+            final List<DefaultQuery<Integer, TestOutput>> queries1 = new ArrayList<>(10);
+            final List<DefaultQuery<Integer, TestOutput>> queries = new ArrayList<>(20);
+
+            for (int i = 0; i < 10; i++) {
+                final DefaultQuery<Integer, TestOutput> q0 = new DefaultQuery<>(prefix0, Word.fromLetter(i));
+                final DefaultQuery<Integer, TestOutput> q1 = new DefaultQuery<>(prefix1, Word.fromLetter(i));
+                queries0.add(q0);
+                queries1.add(q1);
+                queries.add(q0);
+                queries.add(q1);
+            }
+
+            Collections.shuffle(queries, new Random(42));
+            oracle.processQueries(queries);
+
+            final int batch0 = queries0.get(0).getOutput().batchId;
+            final int batch1 = queries1.get(0).getOutput().batchId;
+
+            Assert.assertNotEquals(batch0, batch1);
+
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(queries0.get(i).getOutput().batchId, batch0);
+                Assert.assertEquals(queries1.get(i).getOutput().batchId, batch1);
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(timeOut = 2000)
+    public void testWorkStealing() {
+        final List<Query<Integer, TestOutput>> queries = new ArrayList<>(10);
+        for (int i = 0; i < 10; i++) {
+            queries.add(new AnswerOnceQuery(Word.fromLetter(i)));
+        }
+
+        // every query forms its own batch, so one oracle needs to process 9 batches to unblock the other one
+        final CountDownLatch latch = new CountDownLatch(queries.size() - 1);
+        final AtomicInteger batchIds = new AtomicInteger();
+
+        final TestMembershipOracle awaitingOracle = new TestMembershipOracle(batchIds) {
+
+            @Override
+            public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                super.processQueries(queries);
+            }
+        };
+
+        final TestMembershipOracle countDownOracle = new TestMembershipOracle(batchIds) {
+
+            @Override
+            public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+                latch.countDown();
+                super.processQueries(queries);
+            }
+        };
+
+        final ParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(awaitingOracle, countDownOracle)
+                                      .withMinBatchCost(0)
+                                      .create();
+
+        try {
+            oracle.processQueries(queries);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(timeOut = 5000)
+    public void testManagedBlocking() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // the only oracle waits for a task of the same pool, while the second worker waits for the oracle
+        final TestMembershipOracle blockingOracle = new TestMembershipOracle(new AtomicInteger()) {
+
+            @Override
+            public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+                pool.execute(latch::countDown);
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                super.processQueries(queries);
+            }
+        };
+
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle =
+                new WorkStealingParallelOracle<>(Collections.singleton(blockingOracle), 0, pool);
+
+        try {
+            final List<DefaultQuery<Integer, TestOutput>> queries = new ArrayList<>(2);
+            queries.add(new DefaultQuery<>(Word.fromLetter(0)));
+            queries.add(new DefaultQuery<>(Word.fromLetter(1)));
+
+            oracle.processQueries(queries);
+
+            for (DefaultQuery<Integer, TestOutput> q : queries) {
+                Assert.assertEquals(q.getOutput().input, q.getInput());
+            }
+        } finally {
+            oracle.shutdownNow();
+        }
+    }
+
+    private static Word<Integer> createWord(Random random) {
+        final int length = random.nextInt(10);
+        final Integer[] ints = new Integer[length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(3);
+        }
+        return Word.fromSymbols(ints);
+    }
+
+    private static final class TestOutput {
+
+        private final int batchId;
+        private final Word<Integer> input;
+
+        TestOutput(int batchId, Word<Integer> input) {
+            this.batchId = batchId;
+            this.input = input;
+        }
+    }
+
+    private static class TestMembershipOracle implements MembershipOracle<Integer, TestOutput> {
+
+        private final AtomicInteger batchIds;
+
+        TestMembershipOracle(AtomicInteger batchIds) {
+            this.batchIds = batchIds;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+            final int batchId = batchIds.getAndIncrement();
+            for (Query<Integer, TestOutput> q : queries) {
+                q.answer(new TestOutput(batchId, q.getInput()));
+            }
+        }
+    }
+
+    private static final class AnswerOnceQuery extends Query<Integer, TestOutput> {
+
+        private final Word<Integer> input;
+        private boolean answered;
+
+        AnswerOnceQuery(Word<Integer> input) {
+            this.input = input;
+        }
+
+        @Override
+        public synchronized void answer(TestOutput output) {
+            if (answered) {
+                throw new IllegalStateException("Query was already answered");
+            }
+            answered = true;
+        }
+
+        @Override
+        public Word<Integer> getPrefix() {
+            return Word.epsilon();
+        }
+
+        @Override
+        public Word<Integer> getSuffix() {
+            return input;
+        }
+    }
+}